@@ -35,6 +35,7 @@ public final class Queries {
     queries.add(QueryRecoveryStatus.class);
     queries.add(QueryRoutingInfo.class);
     queries.add(QuerySchedulerAllocations.class);
+    queries.add(QuerySchedulerContention.class);
     queries.add(QueryTopologyInfo.class);
     allQueries = Collections.unmodifiableSet(queries);
   }
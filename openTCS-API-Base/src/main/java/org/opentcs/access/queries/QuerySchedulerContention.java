@@ -0,0 +1,321 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.access.queries;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opentcs.access.Kernel;
+
+/**
+ * A query for statistics about clients waiting for resources in the scheduler.
+ * <p>
+ * Waiting times are counted in histograms with the buckets given by
+ * {@link #getWaitTimeBucketBounds()}: Bucket <code>i</code> counts waiting times less than or
+ * equal to bound <code>i</code> (and greater than bound <code>i - 1</code>), the last bucket counts
+ * waiting times greater than the last bound.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+@Availability(Kernel.State.OPERATING)
+public class QuerySchedulerContention
+    extends Query<QuerySchedulerContention>
+    implements Serializable {
+
+  /**
+   * The upper bounds of the waiting time histograms' buckets (in ms).
+   */
+  private static final long[] WAIT_TIME_BUCKET_BOUNDS = {10, 100, 1000, 10000, 60000};
+  /**
+   * The number of commands waiting to be processed by the scheduler's allocator.
+   */
+  private final int queuedCommands;
+  /**
+   * The number of allocations currently deferred.
+   */
+  private final long deferredAllocations;
+  /**
+   * The number of times deferred allocations were checked again.
+   */
+  private final long retries;
+  /**
+   * The histogram of the times clients waited for deferred allocations.
+   */
+  private final long[] waitTimeHistogram;
+  /**
+   * The statistics of resources clients waited for.
+   */
+  private final List<ResourceContention> resourceContentions;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param queuedCommands The number of commands waiting to be processed by the scheduler's
+   * allocator.
+   * @param deferredAllocations The number of allocations currently deferred.
+   * @param retries The number of times deferred allocations were checked again.
+   * @param waitTimeHistogram The histogram of the times clients waited for deferred allocations.
+   * @param resourceContentions The statistics of resources clients waited for.
+   */
+  public QuerySchedulerContention(int queuedCommands,
+                                  long deferredAllocations,
+                                  long retries,
+                                  @Nonnull long[] waitTimeHistogram,
+                                  @Nonnull List<ResourceContention> resourceContentions) {
+    this.queuedCommands = queuedCommands;
+    this.deferredAllocations = deferredAllocations;
+    this.retries = retries;
+    this.waitTimeHistogram = requireNonNull(waitTimeHistogram, "waitTimeHistogram").clone();
+    this.resourceContentions = Collections.unmodifiableList(
+        new ArrayList<>(requireNonNull(resourceContentions, "resourceContentions")));
+  }
+
+  /**
+   * Returns the number of commands waiting to be processed by the scheduler's allocator.
+   *
+   * @return The number of commands waiting to be processed.
+   */
+  public int getQueuedCommands() {
+    return queuedCommands;
+  }
+
+  /**
+   * Returns the number of allocations currently deferred.
+   *
+   * @return The number of allocations currently deferred.
+   */
+  public long getDeferredAllocations() {
+    return deferredAllocations;
+  }
+
+  /**
+   * Returns the number of times deferred allocations were checked again.
+   *
+   * @return The number of retries.
+   */
+  public long getRetries() {
+    return retries;
+  }
+
+  /**
+   * Returns the histogram of the times clients waited for deferred allocations.
+   *
+   * @return The histogram of waiting times.
+   */
+  @Nonnull
+  public long[] getWaitTimeHistogram() {
+    return waitTimeHistogram.clone();
+  }
+
+  /**
+   * Returns the statistics of resources clients waited for, including the ones clients are
+   * currently waiting for.
+   *
+   * @return The statistics of resources clients waited for.
+   */
+  @Nonnull
+  public List<ResourceContention> getResourceContentions() {
+    return resourceContentions;
+  }
+
+  /**
+   * Returns the upper bounds of the waiting time histograms' buckets.
+   *
+   * @return The upper bounds of the buckets (in ms).
+   */
+  @Nonnull
+  public static long[] getWaitTimeBucketBounds() {
+    return WAIT_TIME_BUCKET_BOUNDS.clone();
+  }
+
+  /**
+   * Returns the number of buckets of waiting time histograms.
+   *
+   * @return The number of buckets.
+   */
+  public static int getWaitTimeBucketCount() {
+    return WAIT_TIME_BUCKET_BOUNDS.length + 1;
+  }
+
+  /**
+   * Returns the index of the bucket of waiting time histograms the given waiting time belongs to.
+   *
+   * @param waitTime The waiting time (in ms).
+   * @return The index of the bucket.
+   */
+  public static int getWaitTimeBucket(long waitTime) {
+    int bucket = 0;
+    while (bucket < WAIT_TIME_BUCKET_BOUNDS.length && waitTime > WAIT_TIME_BUCKET_BOUNDS[bucket]) {
+      bucket++;
+    }
+    return bucket;
+  }
+
+  @Override
+  public String toString() {
+    return "QuerySchedulerContention{"
+        + "queuedCommands=" + queuedCommands
+        + ", deferredAllocations=" + deferredAllocations
+        + ", retries=" + retries
+        + ", waitTimeHistogram=" + Arrays.toString(waitTimeHistogram)
+        + ", resourceContentions=" + resourceContentions
+        + '}';
+  }
+
+  /**
+   * Statistics about clients waiting for a single resource.
+   */
+  public static class ResourceContention
+      implements Serializable {
+
+    /**
+     * The name of the resource.
+     */
+    private final String resourceName;
+    /**
+     * The ID of the client currently allocating the resource.
+     */
+    private final String holder;
+    /**
+     * The IDs of the clients currently waiting for the resource.
+     */
+    private final List<String> waiters;
+    /**
+     * The number of deferred allocations granted after waiting for the resource.
+     */
+    private final long waitCount;
+    /**
+     * The accumulated time clients waited for the resource (in ms).
+     */
+    private final long totalWaitTime;
+    /**
+     * The longest time a client waited for the resource (in ms).
+     */
+    private final long maxWaitTime;
+    /**
+     * The histogram of the times clients waited for the resource.
+     */
+    private final long[] waitTimeHistogram;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param resourceName The name of the resource.
+     * @param holder The ID of the client currently allocating the resource, or <code>null</code>,
+     * if the resource is not allocated.
+     * @param waiters The IDs of the clients currently waiting for the resource.
+     * @param waitCount The number of deferred allocations granted after waiting for the resource.
+     * @param totalWaitTime The accumulated time clients waited for the resource (in ms).
+     * @param maxWaitTime The longest time a client waited for the resource (in ms).
+     * @param waitTimeHistogram The histogram of the times clients waited for the resource.
+     */
+    public ResourceContention(@Nonnull String resourceName,
+                              @Nullable String holder,
+                              @Nonnull List<String> waiters,
+                              long waitCount,
+                              long totalWaitTime,
+                              long maxWaitTime,
+                              @Nonnull long[] waitTimeHistogram) {
+      this.resourceName = requireNonNull(resourceName, "resourceName");
+      this.holder = holder;
+      this.waiters = Collections.unmodifiableList(
+          new ArrayList<>(requireNonNull(waiters, "waiters")));
+      this.waitCount = waitCount;
+      this.totalWaitTime = totalWaitTime;
+      this.maxWaitTime = maxWaitTime;
+      this.waitTimeHistogram = requireNonNull(waitTimeHistogram, "waitTimeHistogram").clone();
+    }
+
+    /**
+     * Returns the name of the resource.
+     *
+     * @return The name of the resource.
+     */
+    @Nonnull
+    public String getResourceName() {
+      return resourceName;
+    }
+
+    /**
+     * Returns the ID of the client currently allocating the resource.
+     *
+     * @return The ID of the client currently allocating the resource, or <code>null</code>, if the
+     * resource is not allocated.
+     */
+    @Nullable
+    public String getHolder() {
+      return holder;
+    }
+
+    /**
+     * Returns the IDs of the clients currently waiting for the resource.
+     *
+     * @return The IDs of the clients currently waiting for the resource.
+     */
+    @Nonnull
+    public List<String> getWaiters() {
+      return waiters;
+    }
+
+    /**
+     * Returns the number of deferred allocations granted after waiting for the resource.
+     *
+     * @return The number of deferred allocations granted after waiting for the resource.
+     */
+    public long getWaitCount() {
+      return waitCount;
+    }
+
+    /**
+     * Returns the accumulated time clients waited for the resource.
+     *
+     * @return The accumulated waiting time (in ms).
+     */
+    public long getTotalWaitTime() {
+      return totalWaitTime;
+    }
+
+    /**
+     * Returns the longest time a client waited for the resource.
+     *
+     * @return The longest waiting time (in ms).
+     */
+    public long getMaxWaitTime() {
+      return maxWaitTime;
+    }
+
+    /**
+     * Returns the histogram of the times clients waited for the resource.
+     *
+     * @return The histogram of waiting times.
+     */
+    @Nonnull
+    public long[] getWaitTimeHistogram() {
+      return waitTimeHistogram.clone();
+    }
+
+    @Override
+    public String toString() {
+      return "ResourceContention{"
+          + "resourceName=" + resourceName
+          + ", holder=" + holder
+          + ", waiters=" + waiters
+          + ", waitCount=" + waitCount
+          + ", totalWaitTime=" + totalWaitTime
+          + ", maxWaitTime=" + maxWaitTime
+          + ", waitTimeHistogram=" + Arrays.toString(waitTimeHistogram)
+          + '}';
+    }
+  }
+}
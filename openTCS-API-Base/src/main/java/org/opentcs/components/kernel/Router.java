@@ -7,6 +7,7 @@
  */
 package org.opentcs.components.kernel;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -105,6 +106,33 @@ public interface Router
                            @Nonnull Point sourcePoint,
                            @Nonnull Point destinationPoint);
 
+  /**
+   * Returns up to the given number of alternative routes from one point to another, passable for a
+   * given vehicle, in ascending order of their costs.
+   * <p>
+   * The first route returned is the one {@link #getRoute(Vehicle, Point, Point)} would return.
+   * Routes for frequently requested pairs of points may be cached, allowing callers to switch to an
+   * alternative route quickly, e.g. if a vehicle is blocked.
+   * </p>
+   *
+   * @param vehicle The vehicle for which the routes must be passable.
+   * @param sourcePoint The starting point of the routes.
+   * @param destinationPoint The end point of the routes.
+   * @param maxRouteCount The maximum number of routes to be returned. Must be positive.
+   * @return The routes, which do not contain any point more than once. If no route between the
+   * given points exists, the returned list is empty.
+   */
+  @Nonnull
+  @ScheduledApiChange(when = "5.0", details = "Default implementation will be removed.")
+  default List<Route> getAlternativeRoutes(@Nonnull Vehicle vehicle,
+                                           @Nonnull Point sourcePoint,
+                                           @Nonnull Point destinationPoint,
+                                           int maxRouteCount) {
+    List<Route> result = new ArrayList<>();
+    getRoute(vehicle, sourcePoint, destinationPoint).ifPresent(route -> result.add(route));
+    return result;
+  }
+
   /**
    * Returns the costs for travelling a route from one point to another with a
    * given vehicle.
@@ -133,6 +161,35 @@ public interface Router
                           @Nonnull TCSObjectReference<Point> srcPointRef,
                           @Nonnull TCSObjectReference<Point> dstPointRef);
 
+  /**
+   * Returns the costs for travelling routes from each of the given source points to each of the
+   * given destination points with a given vehicle.
+   * <p>
+   * This is equivalent to calling {@link #getCosts(Vehicle, Point, Point)} for each pair of points,
+   * but implementations may compute the costs more efficiently all at once.
+   * </p>
+   *
+   * @param vehicle The vehicle for which the routes must be passable.
+   * @param sourcePoints The starting points of the routes.
+   * @param destinationPoints The end points of the routes.
+   * @return A matrix containing the costs for travelling from <code>sourcePoints.get(i)</code> to
+   * <code>destinationPoints.get(j)</code> at index <code>[i][j]</code>, or
+   * <code>Long.MAX_VALUE</code>, if no such route exists.
+   */
+  @Nonnull
+  @ScheduledApiChange(when = "5.0", details = "Default implementation will be removed.")
+  default long[][] getCostMatrix(@Nonnull Vehicle vehicle,
+                                 @Nonnull List<Point> sourcePoints,
+                                 @Nonnull List<Point> destinationPoints) {
+    long[][] result = new long[sourcePoints.size()][destinationPoints.size()];
+    for (int i = 0; i < sourcePoints.size(); i++) {
+      for (int j = 0; j < destinationPoints.size(); j++) {
+        result[i][j] = getCosts(vehicle, sourcePoints.get(i), destinationPoints.get(j));
+      }
+    }
+    return result;
+  }
+
   /**
    * Returns the costs for travelling a route from one location to another with
    * a given vehicle.
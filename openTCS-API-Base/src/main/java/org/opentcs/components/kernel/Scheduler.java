@@ -7,10 +7,12 @@
  */
 package org.opentcs.components.kernel;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
+import org.opentcs.access.queries.QuerySchedulerContention;
 import org.opentcs.components.Lifecycle;
 import org.opentcs.data.model.TCSResource;
 import org.opentcs.util.annotations.ScheduledApiChange;
@@ -61,12 +63,12 @@ public interface Scheduler
   /**
    * Requests allocation of the given resources.
    * The client will be notified via callback if the allocation was successful or not.
+   * Allocations requested by the same client are granted in the order they were requested.
    *
    * @param client The client requesting the resources.
    * @param resources The resources requested.
    * @throws IllegalArgumentException If the given client did not claim any resources, or if the
-   * resources to be allocated are not in the set of currently claimed resources, or if the client
-   * has already requested resources that have not yet been granted.
+   * resources to be allocated are not in the set of currently claimed resources.
    */
   void allocate(@Nonnull Client client, @Nonnull Set<TCSResource<?>> resources)
       throws IllegalArgumentException;
@@ -105,6 +107,17 @@ public interface Scheduler
    */
   void freeAll(@Nonnull Client client);
 
+  /**
+   * Withdraws all allocations requested by the given client that have not been granted, yet.
+   * Withdrawn allocations are not granted any more, and they do not delay any allocations the
+   * client requests afterwards.
+   *
+   * @param client The client.
+   */
+  @ScheduledApiChange(when = "5.0", details = "Default implementation will be removed.")
+  default void clearPendingAllocations(@Nonnull Client client) {
+  }
+
   /**
    * Returns all resource allocations as a map of client IDs to resources.
    *
@@ -113,6 +126,20 @@ public interface Scheduler
   @Nonnull
   Map<String, Set<TCSResource<?>>> getAllocations();
 
+  /**
+   * Returns statistics about clients waiting for resources.
+   *
+   * @return Statistics about clients waiting for resources.
+   */
+  @Nonnull
+  default QuerySchedulerContention getContention() {
+    return new QuerySchedulerContention(0,
+                                        0,
+                                        0,
+                                        new long[QuerySchedulerContention.getWaitTimeBucketCount()],
+                                        new ArrayList<>());
+  }
+
   /**
    * Informs the scheduler that a set of resources was successfully prepared in order of allocating
    * them to a client.
@@ -161,10 +188,29 @@ public interface Scheduler
 
   /**
    * A scheduler module.
+   * <p>
+   * A scheduler calls a module's methods one at a time, unless the module declares via
+   * {@link #supportsConcurrentCalls()} that it may be called concurrently.
+   * </p>
    */
   interface Module
       extends Lifecycle {
 
+    /**
+     * Indicates whether this module may be called concurrently by multiple threads.
+     * <p>
+     * A scheduler may process allocations of independent resources concurrently. Modules returning
+     * <code>true</code> may then be called concurrently for allocations, releases and claims
+     * concerning different resources, and must synchronize access to their state themselves.
+     * Calls to modules returning <code>false</code> are serialized by the scheduler.
+     * </p>
+     *
+     * @return <code>true</code> if, and only if, this module may be called concurrently.
+     */
+    default boolean supportsConcurrentCalls() {
+      return false;
+    }
+
     /**
      * Sets a client's <i>total claim</i>.
      * With vehicles, this is equivalent to the route a vehicle plans to take.
@@ -192,6 +238,42 @@ public interface Scheduler
                             @Nonnull Set<TCSResource<?>> alloc,
                             @Nonnull List<Set<TCSResource<?>>> remainingClaim);
 
+    /**
+     * Indicates whether this module needs to be informed about a client's complete allocation
+     * state via {@link #setAllocationState(Client, Set, List)} whenever the client progresses
+     * along its claim.
+     * <p>
+     * Modules that keep track of allocations via {@link #prepareAllocation(Client, Set)} and
+     * {@link #allocationReleased(Client, Set)} and of claims via {@link #claim(Client, List)} and
+     * {@link #claimProgressed(Client, List)} should return <code>false</code>, which spares the
+     * scheduler from computing the complete state with every step of every client.
+     * If no module requires it, the scheduler does not compute complete states at all and
+     * processes claims concurrently with allocations of other resources. Modules supporting
+     * concurrent calls (see {@link #supportsConcurrentCalls()}) may then also be called
+     * concurrently for claims.
+     * </p>
+     *
+     * @return <code>true</code> if, and only if, this module needs to be informed about the
+     * complete allocation state with every progress of a client.
+     */
+    default boolean requiresAllocationState() {
+      return true;
+    }
+
+    /**
+     * Informs this module about a client having progressed along its claim.
+     * The given resource sets, which are the first ones of the client's remaining claim before the
+     * progress, are not part of the remaining claim any more.
+     * Modules that require the complete allocation state are informed about it via
+     * {@link #setAllocationState(Client, Set, List)} instead.
+     *
+     * @param client The client.
+     * @param passedClaim The resource sets passed by the client since its last progress.
+     */
+    default void claimProgressed(@Nonnull Client client,
+                                 @Nonnull List<Set<TCSResource<?>>> passedClaim) {
+    }
+
     /**
      * Checks if the resulting system state is safe if the given set of resources
      * would be allocated by the given resource user.
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks;
+
+import org.opentcs.access.to.model.PlantModelCreationTO;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator.Topology;
+
+/**
+ * Creates the plant models used by the benchmarks.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class BenchmarkModels {
+
+  /**
+   * The share of points with a location attached (in percent).
+   */
+  private static final int LOCATION_PERCENTAGE = 12;
+
+  /**
+   * Prevents instantiation.
+   */
+  private BenchmarkModels() {
+  }
+
+  /**
+   * Creates a square plant model with the given topology.
+   * A fixed share of the points have locations attached.
+   *
+   * @param topology The topology.
+   * @param size The model's size, i.e. the number of points along each side of the model.
+   * @param vehicleCount The number of vehicles.
+   * @return The plant model.
+   */
+  public static PlantModelCreationTO create(Topology topology, int size, int vehicleCount) {
+    return new PlantModelGenerator()
+        .setName(topology.name() + "-" + size)
+        .setTopology(topology)
+        .setWidth(size)
+        .setHeight(size)
+        .setLocationCount(Math.max(1, size * size * LOCATION_PERCENTAGE / 100))
+        .setVehicleCount(vehicleCount)
+        .setVisualLayout(false)
+        .generate();
+  }
+}
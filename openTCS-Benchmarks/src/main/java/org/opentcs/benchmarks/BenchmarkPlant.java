@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import net.engio.mbassy.bus.MBassador;
+import net.engio.mbassy.bus.config.BusConfiguration;
+import org.opentcs.access.Kernel;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.access.to.model.PlantModelCreationTO;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.kernel.workingset.Model;
+import org.opentcs.kernel.workingset.TCSObjectPool;
+
+/**
+ * A plant model loaded into the kernel's object pool, with a minimal kernel providing read access
+ * to it the way strategies use it.
+ * <p>
+ * Only the methods for retrieving objects are implemented by the kernel.
+ * Like the real kernel, it returns copies of the objects in the pool.
+ * Rejections added to transport orders are discarded, and all other methods throw an
+ * {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class BenchmarkPlant {
+
+  /**
+   * The pool containing the model's objects.
+   */
+  private final TCSObjectPool objectPool
+      = new TCSObjectPool(new MBassador<>(BusConfiguration.Default()));
+  /**
+   * The kernel providing access to the object pool.
+   */
+  private final LocalKernel kernel;
+
+  /**
+   * Creates a new instance.
+   * All vehicles are placed on halting points next to locations, as evenly distributed as
+   * possible, and set to be idle.
+   *
+   * @param plantModel The plant model.
+   */
+  public BenchmarkPlant(@Nonnull PlantModelCreationTO plantModel) {
+    requireNonNull(plantModel, "plantModel");
+
+    new Model(objectPool).createPlantModelObjects(plantModel);
+    kernel = (LocalKernel) Proxy.newProxyInstance(LocalKernel.class.getClassLoader(),
+                                                  new Class<?>[]{LocalKernel.class},
+                                                  new KernelHandler());
+    placeVehicles();
+  }
+
+  /**
+   * Returns the pool containing the model's objects.
+   *
+   * @return The pool containing the model's objects.
+   */
+  @Nonnull
+  public TCSObjectPool getObjectPool() {
+    return objectPool;
+  }
+
+  /**
+   * Returns the kernel providing access to the model's objects.
+   *
+   * @return The kernel.
+   */
+  @Nonnull
+  public LocalKernel getKernel() {
+    return kernel;
+  }
+
+  /**
+   * Returns the model's locations, sorted by name.
+   *
+   * @return The locations.
+   */
+  @Nonnull
+  public List<Location> getLocations() {
+    return sortedByName(objectPool.getObjects(Location.class));
+  }
+
+  /**
+   * Returns the model's points, sorted by name.
+   *
+   * @return The points.
+   */
+  @Nonnull
+  public List<Point> getPoints() {
+    return sortedByName(objectPool.getObjects(Point.class));
+  }
+
+  /**
+   * Returns the model's vehicles, sorted by name.
+   *
+   * @return The vehicles.
+   */
+  @Nonnull
+  public List<Vehicle> getVehicles() {
+    return sortedByName(objectPool.getObjects(Vehicle.class));
+  }
+
+  private void placeVehicles() {
+    List<Location> locations = getLocations();
+    List<Vehicle> vehicles = getVehicles();
+    for (int i = 0; i < vehicles.size(); i++) {
+      Location location = locations.get(i * locations.size() / vehicles.size());
+      TCSObjectReference<Point> position
+          = location.getAttachedLinks().iterator().next().getPoint();
+      objectPool.replaceObject(vehicles.get(i)
+          .withCurrentPosition(position)
+          .withState(Vehicle.State.IDLE)
+          .withProcState(Vehicle.ProcState.IDLE)
+          .withEnergyLevel(100));
+    }
+  }
+
+  private static <T extends TCSObject<T>> List<T> sortedByName(Set<T> objects) {
+    List<T> result = new ArrayList<>(objects);
+    result.sort((obj1, obj2) -> obj1.getName().compareTo(obj2.getName()));
+    return result;
+  }
+
+  /**
+   * Implements the kernel's methods for retrieving objects.
+   */
+  private class KernelHandler
+      implements InvocationHandler {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable {
+      switch (method.getName()) {
+        case "getState":
+          return Kernel.State.OPERATING;
+        case "getTCSObject":
+          return copyOf(getOriginal((Class) args[0], args[1]));
+        case "getTCSObjectOriginal":
+          return getOriginal((Class) args[0], args[1]);
+        case "getTCSObjects":
+          return copiesOf(getOriginals((Class) args[0], args.length > 1 ? args[1] : null));
+        case "getTCSObjectsOriginal":
+          return getOriginals((Class) args[0], args.length > 1 ? args[1] : null);
+        case "addTransportOrderRejection":
+          return null;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        case "toString":
+          return "BenchmarkKernel";
+        default:
+          throw new UnsupportedOperationException("Not supported: " + method.getName());
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TCSObject<?> getOriginal(Class<? extends TCSObject<?>> clazz, Object nameOrRef) {
+      if (nameOrRef == null) {
+        return null;
+      }
+      String name = nameOrRef instanceof TCSObjectReference
+          ? ((TCSObjectReference<?>) nameOrRef).getName()
+          : (String) nameOrRef;
+      TCSObject<?> result = objectPool.getObjectOrNull(name);
+      return clazz.isInstance(result) ? result : null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Set<TCSObject<?>> getOriginals(Class clazz, Object filter) {
+      if (filter instanceof Pattern) {
+        return objectPool.getObjects(clazz, (Pattern) filter);
+      }
+      else if (filter instanceof Predicate) {
+        return objectPool.getObjects(clazz, (Predicate) filter);
+      }
+      else {
+        return objectPool.getObjects(clazz);
+      }
+    }
+
+    private TCSObject<?> copyOf(TCSObject<?> object) {
+      return object == null ? null : object.clone();
+    }
+
+    private Set<TCSObject<?>> copiesOf(Set<TCSObject<?>> objects) {
+      Set<TCSObject<?>> result = new HashSet<>();
+      for (TCSObject<?> object : objects) {
+        result.add(object.clone());
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator.Topology;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.kernel.workingset.TCSObjectPool;
+
+/**
+ * Measures typed lookups in the kernel's object pool.
+ * Retrieving vehicles is the most frequent lookup of the default strategies, and vehicles are only
+ * a small fraction of the objects in a plant model.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectPoolBenchmark {
+
+  @Param({"GRID"})
+  private Topology topology;
+
+  @Param({"30", "100"})
+  private int size;
+
+  @Param({"50"})
+  private int vehicleCount;
+
+  private BenchmarkPlant plant;
+
+  private TCSObjectPool objectPool;
+
+  private String[] pointNames;
+
+  private int pointIndex;
+
+  @Setup
+  public void setUp() {
+    plant = new BenchmarkPlant(BenchmarkModels.create(topology, size, vehicleCount));
+    objectPool = plant.getObjectPool();
+    List<Point> points = plant.getPoints();
+    pointNames = new String[points.size()];
+    for (int i = 0; i < pointNames.length; i++) {
+      pointNames[i] = points.get(i).getName();
+    }
+  }
+
+  @Benchmark
+  public Set<Vehicle> getVehicles() {
+    return objectPool.getObjects(Vehicle.class);
+  }
+
+  @Benchmark
+  public Set<Vehicle> getVehicleCopiesFromKernel() {
+    return plant.getKernel().getTCSObjects(Vehicle.class);
+  }
+
+  @Benchmark
+  public Point getPointByName() {
+    pointIndex = (pointIndex + 1) % pointNames.length;
+    return objectPool.getObjectOrNull(Point.class, pointNames[pointIndex]);
+  }
+}
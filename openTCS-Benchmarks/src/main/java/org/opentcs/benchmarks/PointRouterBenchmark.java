@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator.Topology;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.PointRouter;
+import org.opentcs.strategies.basic.routing.PointRouterFactory;
+import org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration.Algorithm;
+
+/**
+ * Measures constructing point routers and querying them, for every point router factory.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PointRouterBenchmark {
+
+  /**
+   * The number of random pairs of points to query.
+   */
+  private static final int QUERY_COUNT = 1024;
+
+  @Param({"DIJKSTRA", "FLOYD_WARSHALL", "CONTRACTION_HIERARCHIES"})
+  private Algorithm algorithm;
+
+  @Param({"GRID", "AISLES", "LOOPS"})
+  private Topology topology;
+
+  @Param({"10", "30"})
+  private int size;
+
+  private PointRouterFactory factory;
+
+  private Vehicle vehicle;
+
+  private PointRouter pointRouter;
+
+  private Point[] sourcePoints;
+
+  private Point[] destinationPoints;
+
+  private int queryIndex;
+
+  @Setup
+  public void setUp() {
+    BenchmarkPlant plant = new BenchmarkPlant(BenchmarkModels.create(topology, size, 1));
+    factory = RoutingComponents.createPointRouterFactory(plant.getKernel(), algorithm);
+    vehicle = plant.getVehicles().get(0);
+    pointRouter = factory.createPointRouter(vehicle);
+
+    List<Point> points = plant.getPoints();
+    Random random = new Random(42);
+    sourcePoints = new Point[QUERY_COUNT];
+    destinationPoints = new Point[QUERY_COUNT];
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      sourcePoints[i] = points.get(random.nextInt(points.size()));
+      destinationPoints[i] = points.get(random.nextInt(points.size()));
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 5)
+  public PointRouter createPointRouter() {
+    return factory.createPointRouter(vehicle);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long getCosts() {
+    int index = nextQueryIndex();
+    return pointRouter.getCosts(sourcePoints[index], destinationPoints[index]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<Route.Step> getRouteSteps() {
+    int index = nextQueryIndex();
+    return pointRouter.getRouteSteps(sourcePoints[index], destinationPoints[index]);
+  }
+
+  private int nextQueryIndex() {
+    queryIndex = (queryIndex + 1) % QUERY_COUNT;
+    return queryIndex;
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator.Topology;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.strategies.basic.routing.DefaultRouter;
+import org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration.Algorithm;
+
+/**
+ * Measures computing routes for transport orders with multiple destinations.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RouterBenchmark {
+
+  /**
+   * The number of random transport orders to route.
+   */
+  private static final int ORDER_COUNT = 256;
+
+  @Param({"DIJKSTRA", "CONTRACTION_HIERARCHIES"})
+  private Algorithm algorithm;
+
+  @Param({"GRID", "AISLES", "LOOPS"})
+  private Topology topology;
+
+  @Param({"30"})
+  private int size;
+
+  @Param({"2", "5"})
+  private int destinationCount;
+
+  private DefaultRouter router;
+
+  private Vehicle vehicle;
+
+  private Point[] sourcePoints;
+
+  private TransportOrder[] orders;
+
+  private int orderIndex;
+
+  @Setup
+  public void setUp() {
+    BenchmarkPlant plant = new BenchmarkPlant(BenchmarkModels.create(topology, size, 1));
+    router = RoutingComponents.createRouter(plant.getKernel(), algorithm);
+    router.initialize();
+    vehicle = plant.getVehicles().get(0);
+
+    List<Point> points = plant.getPoints();
+    List<Location> locations = plant.getLocations();
+    Random random = new Random(42);
+    sourcePoints = new Point[ORDER_COUNT];
+    orders = new TransportOrder[ORDER_COUNT];
+    for (int i = 0; i < ORDER_COUNT; i++) {
+      sourcePoints[i] = points.get(random.nextInt(points.size()));
+      List<DriveOrder> driveOrders = new ArrayList<>();
+      for (int j = 0; j < destinationCount; j++) {
+        Location location = locations.get(random.nextInt(locations.size()));
+        String operation = j % 2 == 0 ? PlantModelGenerator.OP_LOAD : PlantModelGenerator.OP_UNLOAD;
+        driveOrders.add(new DriveOrder(new DriveOrder.Destination(location.getReference())
+            .withOperation(operation)));
+      }
+      orders[i] = new TransportOrder("Order-" + i, driveOrders);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    router.terminate();
+  }
+
+  @Benchmark
+  public Optional<List<DriveOrder>> getRoute() {
+    orderIndex = (orderIndex + 1) % ORDER_COUNT;
+    return router.getRoute(vehicle, sourcePoints[orderIndex], orders[orderIndex]);
+  }
+}
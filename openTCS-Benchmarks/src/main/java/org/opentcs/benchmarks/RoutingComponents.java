@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.strategies.basic.routing.DefaultRouter;
+import org.opentcs.strategies.basic.routing.DefaultRouterConfiguration;
+import org.opentcs.strategies.basic.routing.PointRouterFactory;
+import org.opentcs.strategies.basic.routing.jgrapht.ContractionHierarchiesPointRouterFactory;
+import org.opentcs.strategies.basic.routing.jgrapht.DefaultModelGraphMapper;
+import org.opentcs.strategies.basic.routing.jgrapht.DijkstraPointRouterFactory;
+import org.opentcs.strategies.basic.routing.jgrapht.EdgeEvaluatorDistance;
+import org.opentcs.strategies.basic.routing.jgrapht.FloydWarshallPointRouterFactory;
+import org.opentcs.strategies.basic.routing.jgrapht.ModelGraphMapper;
+import org.opentcs.strategies.basic.routing.jgrapht.RoutingTableStore;
+import org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration;
+import org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration.Algorithm;
+import org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration.EvaluatorType;
+import org.opentcs.util.eventsystem.SynchronousEventHub;
+
+/**
+ * Creates routing components wired the way the kernel's default configuration does it.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class RoutingComponents {
+
+  /**
+   * Prevents instantiation.
+   */
+  private RoutingComponents() {
+  }
+
+  /**
+   * Creates a point router factory using the given algorithm and distance-based edge weights.
+   * Routing tables are not persisted.
+   *
+   * @param kernel The kernel providing the model data.
+   * @param algorithm The algorithm.
+   * @return The point router factory.
+   */
+  public static PointRouterFactory createPointRouterFactory(LocalKernel kernel,
+                                                            Algorithm algorithm) {
+    ShortestPathConfiguration configuration = new BenchmarkShortestPathConfiguration(algorithm);
+    ModelGraphMapper mapper = new DefaultModelGraphMapper(new EdgeEvaluatorDistance());
+    RoutingTableStore store
+        = new RoutingTableStore(new File(System.getProperty("java.io.tmpdir")), configuration);
+    switch (algorithm) {
+      case DIJKSTRA:
+        return new DijkstraPointRouterFactory(kernel, mapper, store);
+      case FLOYD_WARSHALL:
+        return new FloydWarshallPointRouterFactory(kernel, mapper, store);
+      case CONTRACTION_HIERARCHIES:
+        return new ContractionHierarchiesPointRouterFactory(kernel, mapper, store);
+      default:
+        throw new IllegalArgumentException("Unhandled algorithm: " + algorithm);
+    }
+  }
+
+  /**
+   * Creates a router using the given algorithm.
+   * The router still needs to be initialized.
+   *
+   * @param kernel The kernel providing the model data.
+   * @param algorithm The algorithm.
+   * @return The router.
+   */
+  public static DefaultRouter createRouter(LocalKernel kernel, Algorithm algorithm) {
+    return new DefaultRouter(kernel,
+                             createPointRouterFactory(kernel, algorithm),
+                             new BenchmarkRouterConfiguration(),
+                             new SynchronousEventHub<>());
+  }
+
+  /**
+   * The router's default configuration.
+   */
+  private static class BenchmarkRouterConfiguration
+      implements DefaultRouterConfiguration {
+
+    @Override
+    public boolean routeToCurrentPosition() {
+      return false;
+    }
+
+    @Override
+    public int alternativeRouteCacheSize() {
+      return 1000;
+    }
+
+    @Override
+    public RoutingMode routingMode() {
+      return RoutingMode.STATIC;
+    }
+
+    @Override
+    public int reservationMargin() {
+      return 1000;
+    }
+  }
+
+  /**
+   * The shortest path configuration for a given algorithm.
+   */
+  private static class BenchmarkShortestPathConfiguration
+      implements ShortestPathConfiguration {
+
+    private final Algorithm algorithm;
+
+    BenchmarkShortestPathConfiguration(Algorithm algorithm) {
+      this.algorithm = algorithm;
+    }
+
+    @Override
+    public Algorithm algorithm() {
+      return algorithm;
+    }
+
+    @Override
+    public List<EvaluatorType> edgeEvaluators() {
+      return Arrays.asList(EvaluatorType.DISTANCE);
+    }
+
+    @Override
+    public double congestionOccupiedPenalty() {
+      return 0.0;
+    }
+
+    @Override
+    public double congestionClaimedPenalty() {
+      return 0.0;
+    }
+
+    @Override
+    public boolean persistRoutingTables() {
+      return false;
+    }
+
+    @Override
+    public int maxPersistedRoutingTables() {
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator.Topology;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.drivers.vehicle.VehicleController;
+import org.opentcs.drivers.vehicle.VehicleControllerPool;
+import org.opentcs.strategies.basic.dispatching.CompositeTransportOrderSelectionVeto;
+import org.opentcs.strategies.basic.dispatching.DefaultDispatcherConfiguration;
+import org.opentcs.strategies.basic.dispatching.OrderReservationPool;
+import org.opentcs.strategies.basic.dispatching.ProcessabilityChecker;
+import org.opentcs.strategies.basic.dispatching.VehicleOrderSelection;
+import org.opentcs.strategies.basic.dispatching.VehiclePositionIndex;
+import org.opentcs.strategies.basic.dispatching.VehicleSelector;
+import org.opentcs.strategies.basic.dispatching.vehicleselection.AssignedVehicleSelectionStrategy;
+import org.opentcs.strategies.basic.dispatching.vehicleselection.AvailableVehicleSelectionStrategy;
+import org.opentcs.strategies.basic.dispatching.vehicleselection.ClosestVehicleComparator;
+import org.opentcs.strategies.basic.routing.DefaultRouter;
+import org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration.Algorithm;
+import org.opentcs.util.ExplainedBoolean;
+import org.opentcs.util.eventsystem.SynchronousEventHub;
+
+/**
+ * Measures selecting the closest available vehicle for a transport order, which requires routing
+ * every idle vehicle to the order's destinations.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VehicleSelectorBenchmark {
+
+  /**
+   * The number of random transport orders to select vehicles for.
+   */
+  private static final int ORDER_COUNT = 256;
+
+  @Param({"DIJKSTRA", "CONTRACTION_HIERARCHIES"})
+  private Algorithm algorithm;
+
+  @Param({"GRID", "AISLES", "LOOPS"})
+  private Topology topology;
+
+  @Param({"30"})
+  private int size;
+
+  @Param({"10", "50"})
+  private int vehicleCount;
+
+  @Param({"1", "4"})
+  private int parallelism;
+
+  @Param({"false", "true"})
+  private boolean pruneCandidates;
+
+  @Param({"0", "5"})
+  private int prefilterSize;
+
+  private DefaultRouter router;
+
+  private VehicleSelector vehicleSelector;
+
+  private TransportOrder[] orders;
+
+  private int orderIndex;
+
+  @Setup
+  public void setUp() {
+    BenchmarkPlant plant
+        = new BenchmarkPlant(BenchmarkModels.create(topology, size, vehicleCount));
+    LocalKernel kernel = plant.getKernel();
+    router = RoutingComponents.createRouter(kernel, algorithm);
+    router.initialize();
+
+    ProcessabilityChecker processabilityChecker
+        = new ProcessabilityChecker(kernel,
+                                    acceptingControllerPool(),
+                                    new OrderReservationPool());
+    DefaultDispatcherConfiguration configuration
+        = new BenchmarkDispatcherConfiguration(parallelism, pruneCandidates, prefilterSize);
+    VehiclePositionIndex positionIndex
+        = new VehiclePositionIndex(kernel, new SynchronousEventHub<>());
+    vehicleSelector = new VehicleSelector(
+        new AssignedVehicleSelectionStrategy(kernel, router, processabilityChecker),
+        new AvailableVehicleSelectionStrategy(kernel,
+                                              router,
+                                              processabilityChecker,
+                                              new ClosestVehicleComparator(),
+                                              configuration,
+                                              positionIndex),
+        new CompositeTransportOrderSelectionVeto(Collections.emptySet()));
+    vehicleSelector.initialize();
+
+    List<Location> locations = plant.getLocations();
+    Random random = new Random(42);
+    orders = new TransportOrder[ORDER_COUNT];
+    for (int i = 0; i < ORDER_COUNT; i++) {
+      List<DriveOrder> driveOrders = new ArrayList<>();
+      driveOrders.add(new DriveOrder(new DriveOrder.Destination(
+          locations.get(random.nextInt(locations.size())).getReference())
+          .withOperation(PlantModelGenerator.OP_LOAD)));
+      driveOrders.add(new DriveOrder(new DriveOrder.Destination(
+          locations.get(random.nextInt(locations.size())).getReference())
+          .withOperation(PlantModelGenerator.OP_UNLOAD)));
+      orders[i] = new TransportOrder("Order-" + i, driveOrders);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    vehicleSelector.terminate();
+    router.terminate();
+  }
+
+  @Benchmark
+  public VehicleOrderSelection selectVehicle() {
+    orderIndex = (orderIndex + 1) % ORDER_COUNT;
+    return vehicleSelector.selectVehicle(orders[orderIndex]);
+  }
+
+  /**
+   * Creates a controller pool whose controllers accept all operations.
+   *
+   * @return The controller pool.
+   */
+  private static VehicleControllerPool acceptingControllerPool() {
+    VehicleController controller = (VehicleController) Proxy.newProxyInstance(
+        VehicleController.class.getClassLoader(),
+        new Class<?>[]{VehicleController.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("canProcess")) {
+            return new ExplainedBoolean(true, "");
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+    return (VehicleControllerPool) Proxy.newProxyInstance(
+        VehicleControllerPool.class.getClassLoader(),
+        new Class<?>[]{VehicleControllerPool.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("getVehicleController")) {
+            return controller;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  /**
+   * The dispatcher's configuration, as far as relevant for vehicle selection.
+   */
+  private static class BenchmarkDispatcherConfiguration
+      implements DefaultDispatcherConfiguration {
+
+    private final int vehicleSelectionParallelism;
+
+    private final boolean pruneVehicleCandidates;
+
+    private final int vehicleCandidatePrefilterSize;
+
+    BenchmarkDispatcherConfiguration(int vehicleSelectionParallelism,
+                                     boolean pruneVehicleCandidates,
+                                     int vehicleCandidatePrefilterSize) {
+      this.vehicleSelectionParallelism = vehicleSelectionParallelism;
+      this.pruneVehicleCandidates = pruneVehicleCandidates;
+      this.vehicleCandidatePrefilterSize = vehicleCandidatePrefilterSize;
+    }
+
+    @Override
+    public boolean parkIdleVehicles() {
+      return false;
+    }
+
+    @Override
+    public boolean rechargeIdleVehicles() {
+      return false;
+    }
+
+    @Override
+    public boolean assignRedundantOrders() {
+      return false;
+    }
+
+    @Override
+    public boolean dismissUnroutableTransportOrders() {
+      return false;
+    }
+
+    @Override
+    public long idleVehicleRedispatchingInterval() {
+      return 0;
+    }
+
+    @Override
+    public long batchAssignmentWindow() {
+      return 0;
+    }
+
+    @Override
+    public int vehicleSelectionParallelism() {
+      return vehicleSelectionParallelism;
+    }
+
+    @Override
+    public boolean pruneVehicleCandidates() {
+      return pruneVehicleCandidates;
+    }
+
+    @Override
+    public int vehicleCandidatePrefilterSize() {
+      return vehicleCandidatePrefilterSize;
+    }
+  }
+}
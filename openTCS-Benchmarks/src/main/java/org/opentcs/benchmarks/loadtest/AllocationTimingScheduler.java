@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.opentcs.access.queries.QuerySchedulerContention;
+import org.opentcs.components.kernel.ResourceAllocationException;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.model.TCSResource;
+import org.opentcs.strategies.basic.scheduling.AllocationStatistics;
+import org.opentcs.strategies.basic.scheduling.DefaultScheduler;
+
+/**
+ * A scheduler that delegates to the default scheduler and records how long clients wait for
+ * their allocations to be granted.
+ * <p>
+ * Clients are wrapped so that the time between an allocation request and the corresponding
+ * callback can be measured. Since clients request their allocations one after another, callbacks
+ * are matched to requests in the order the requests were made.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class AllocationTimingScheduler
+    implements Scheduler {
+
+  /**
+   * The scheduler actually doing the work.
+   */
+  private final DefaultScheduler delegate;
+  /**
+   * The wrappers, mapped by the clients they wrap.
+   */
+  private final Map<Client, TimingClient> wrappers = new ConcurrentHashMap<>();
+  /**
+   * The recorded wait times of granted allocations.
+   */
+  private final LatencySamples waitTimes = new LatencySamples();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param delegate The scheduler actually doing the work.
+   */
+  @Inject
+  public AllocationTimingScheduler(DefaultScheduler delegate) {
+    this.delegate = requireNonNull(delegate, "delegate");
+  }
+
+  @Override
+  public void initialize() {
+    delegate.initialize();
+  }
+
+  @Override
+  public boolean isInitialized() {
+    return delegate.isInitialized();
+  }
+
+  @Override
+  public void terminate() {
+    delegate.terminate();
+  }
+
+  @Override
+  public void claim(Client client, List<Set<TCSResource<?>>> resourceSequence)
+      throws IllegalArgumentException {
+    delegate.claim(wrap(client), resourceSequence);
+  }
+
+  @Override
+  public void updateProgressIndex(Client client, int index)
+      throws IllegalArgumentException {
+    delegate.updateProgressIndex(wrap(client), index);
+  }
+
+  @Override
+  public void unclaim(Client client)
+      throws IllegalArgumentException {
+    delegate.unclaim(wrap(client));
+  }
+
+  @Override
+  public void allocate(Client client, Set<TCSResource<?>> resources)
+      throws IllegalArgumentException {
+    TimingClient wrapper = wrap(client);
+    wrapper.requested();
+    delegate.allocate(wrapper, resources);
+  }
+
+  @Override
+  public void allocateNow(Client client, Set<TCSResource<?>> resources)
+      throws ResourceAllocationException {
+    delegate.allocateNow(wrap(client), resources);
+  }
+
+  @Override
+  public void free(Client client, Set<TCSResource<?>> resources) {
+    delegate.free(wrap(client), resources);
+  }
+
+  @Override
+  public void freeAll(Client client) {
+    TimingClient wrapper = wrap(client);
+    wrapper.clearRequests();
+    delegate.freeAll(wrapper);
+  }
+
+  @Override
+  public void clearPendingAllocations(Client client) {
+    TimingClient wrapper = wrap(client);
+    wrapper.clearRequests();
+    delegate.clearPendingAllocations(wrapper);
+  }
+
+  @Override
+  public Map<String, Set<TCSResource<?>>> getAllocations() {
+    return delegate.getAllocations();
+  }
+
+  @Override
+  public QuerySchedulerContention getContention() {
+    return delegate.getContention();
+  }
+
+  @Override
+  public void preparationSuccessful(Module module,
+                                    Client client,
+                                    Set<TCSResource<?>> resources) {
+    delegate.preparationSuccessful(module, wrap(client), resources);
+  }
+
+  /**
+   * Returns the recorded wait times of granted allocations.
+   *
+   * @return The recorded wait times.
+   */
+  @Nonnull
+  public LatencySamples getWaitTimes() {
+    return waitTimes;
+  }
+
+  /**
+   * Returns the default scheduler's statistics about processed allocations.
+   *
+   * @return The default scheduler's allocation statistics.
+   */
+  @Nonnull
+  public AllocationStatistics getAllocationStatistics() {
+    return delegate.getAllocationStatistics();
+  }
+
+  private TimingClient wrap(Client client) {
+    requireNonNull(client, "client");
+    return wrappers.computeIfAbsent(client, TimingClient::new);
+  }
+
+  /**
+   * Wraps a client and measures the time until its allocation requests are answered.
+   */
+  private class TimingClient
+      implements Client {
+
+    /**
+     * The wrapped client.
+     */
+    private final Client client;
+    /**
+     * The points of time at which pending allocations were requested.
+     */
+    private final Queue<Long> requestTimes = new ArrayDeque<>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param client The wrapped client.
+     */
+    TimingClient(Client client) {
+      this.client = client;
+    }
+
+    @Override
+    public String getId() {
+      return client.getId();
+    }
+
+    @Override
+    public boolean allocationSuccessful(Set<TCSResource<?>> resources) {
+      Long requestTime = pollRequest();
+      if (requestTime != null) {
+        waitTimes.add(System.currentTimeMillis() - requestTime);
+      }
+      return client.allocationSuccessful(resources);
+    }
+
+    @Override
+    public void allocationFailed(Set<TCSResource<?>> resources) {
+      pollRequest();
+      client.allocationFailed(resources);
+    }
+
+    @Override
+    public String toString() {
+      return client.toString();
+    }
+
+    private synchronized void requested() {
+      requestTimes.add(System.currentTimeMillis());
+    }
+
+    private synchronized Long pollRequest() {
+      return requestTimes.poll();
+    }
+
+    private synchronized void clearRequests() {
+      requestTimes.clear();
+    }
+  }
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.util.Modules;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opentcs.access.Kernel;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.common.LoopbackAdapterConstants;
+import org.opentcs.customizations.ConfigurableInjectionModule;
+import org.opentcs.customizations.ConfigurationBindingProvider;
+import org.opentcs.customizations.kernel.CentralEventHub;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.kernel.DefaultKernelInjectionModule;
+import org.opentcs.kernel.DefaultKernelStrategiesModule;
+import org.opentcs.kernel.LoopbackCommAdapterModule;
+import org.opentcs.kernel.configuration.DefaultConfigurationBindingProvider;
+import org.opentcs.util.eventsystem.EventSource;
+import org.opentcs.util.eventsystem.TCSEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A kernel running without any user interface or host interface, controlling loopback vehicles
+ * only.
+ * <p>
+ * The kernel works in a temporary home directory that is populated with the plant model and the
+ * configuration before the kernel is set up.
+ * Vehicles whose loopback adapter would not know their initial position are placed on distinct
+ * points that are not linked to any location, and all vehicles are attached and enabled
+ * automatically.
+ * </p>
+ * <p>
+ * Note that the kernel's configuration binding provider takes its file locations from the
+ * system properties <code>opentcs.base</code> and <code>opentcs.home</code>, which are set here.
+ * Hence, there can be only one instance of this class per JVM.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class HeadlessKernel {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(HeadlessKernel.class);
+  /**
+   * The classpath resource containing the kernel's baseline defaults.
+   */
+  private static final String DEFAULTS_BASELINE_RESOURCE
+      = "/org/opentcs/kernel/distribution/config/opentcs-kernel-defaults-baseline.properties";
+  /**
+   * The kernel's home directory.
+   */
+  private final Path homeDir;
+  /**
+   * The injector providing the kernel's components.
+   */
+  private final Injector injector;
+  /**
+   * The kernel.
+   */
+  private final LocalKernel kernel;
+
+  /**
+   * Creates a new instance, setting up the kernel in modelling mode.
+   *
+   * @param plantModelFile The file containing the plant model to load, in the kernel's XML model
+   * format.
+   * @param userConfig A file with configuration entries overriding the defaults, e.g. to select
+   * strategies. May be <code>null</code>.
+   * @param simulationTimeFactor The loopback vehicles' simulation time factor.
+   * @throws IOException If the kernel's home directory could not be populated.
+   */
+  public HeadlessKernel(@Nonnull File plantModelFile,
+                        @Nullable File userConfig,
+                        double simulationTimeFactor)
+      throws IOException {
+    requireNonNull(plantModelFile, "plantModelFile");
+
+    homeDir = Files.createTempDirectory("opentcs-loadtest");
+    populateHome(plantModelFile, userConfig, simulationTimeFactor);
+    System.setProperty("opentcs.base", homeDir.toString());
+    System.setProperty("opentcs.home", homeDir.toString());
+
+    injector = Guice.createInjector(kernelModule());
+    kernel = injector.getInstance(LocalKernel.class);
+  }
+
+  /**
+   * Initializes the kernel, loads the plant model and switches to operating mode.
+   */
+  public void start() {
+    kernel.initialize();
+    kernel.loadPlantModel();
+    LOG.info("Loaded plant model '{}'", kernel.getLoadedModelName());
+    placeVehicles();
+    kernel.setState(Kernel.State.OPERATING);
+  }
+
+  /**
+   * Shuts down the kernel and removes its home directory.
+   */
+  public void shutdown() {
+    if (kernel.getState() != Kernel.State.SHUTDOWN) {
+      kernel.setState(Kernel.State.SHUTDOWN);
+    }
+    try (Stream<Path> paths = Files.walk(homeDir)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+    catch (IOException exc) {
+      LOG.warn("Could not remove home directory {}", homeDir, exc);
+    }
+  }
+
+  /**
+   * Returns the kernel.
+   *
+   * @return The kernel.
+   */
+  @Nonnull
+  public LocalKernel getKernel() {
+    return kernel;
+  }
+
+  /**
+   * Returns the source of the kernel's events.
+   *
+   * @return The source of the kernel's events.
+   */
+  @Nonnull
+  public EventSource<TCSEvent> getEventSource() {
+    return injector.getInstance(Key.get(new TypeLiteral<EventSource<TCSEvent>>() {
+    }, CentralEventHub.class));
+  }
+
+  /**
+   * Returns the scheduler recording allocation wait times.
+   *
+   * @return The scheduler.
+   */
+  @Nonnull
+  public AllocationTimingScheduler getScheduler() {
+    return injector.getInstance(AllocationTimingScheduler.class);
+  }
+
+  private void populateHome(File plantModelFile,
+                            File userConfig,
+                            double simulationTimeFactor)
+      throws IOException {
+    Path configDir = Files.createDirectories(homeDir.resolve("config"));
+    Path dataDir = Files.createDirectories(homeDir.resolve("data"));
+
+    try (InputStream inStream
+        = HeadlessKernel.class.getResourceAsStream(DEFAULTS_BASELINE_RESOURCE)) {
+      if (inStream == null) {
+        throw new IOException("Resource not found: " + DEFAULTS_BASELINE_RESOURCE);
+      }
+      Files.copy(inStream, configDir.resolve("opentcs-kernel-defaults-baseline.properties"));
+    }
+
+    Properties customDefaults = new Properties();
+    customDefaults.setProperty("kernelapp.autoAttachDriversOnStartup", "true");
+    customDefaults.setProperty("kernelapp.autoEnableDriversOnStartup", "true");
+    customDefaults.setProperty("virtualvehicle.simulationTimeFactor",
+                               Double.toString(simulationTimeFactor));
+    try (OutputStream outStream
+        = Files.newOutputStream(configDir.resolve("opentcs-kernel-defaults-custom.properties"))) {
+      customDefaults.store(outStream, "Load test settings");
+    }
+
+    if (userConfig != null) {
+      Files.copy(userConfig.toPath(),
+                 configDir.resolve("opentcs-kernel.properties"),
+                 StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    Files.copy(plantModelFile.toPath(), dataDir.resolve("model.xml"));
+  }
+
+  private static com.google.inject.Module kernelModule() {
+    ConfigurationBindingProvider bindingProvider = new DefaultConfigurationBindingProvider();
+    List<ConfigurableInjectionModule> baseModules = new ArrayList<>();
+    baseModules.add(new DefaultKernelInjectionModule());
+    baseModules.add(new DefaultKernelStrategiesModule());
+    List<ConfigurableInjectionModule> overridingModules = new ArrayList<>();
+    overridingModules.add(new LoopbackCommAdapterModule());
+    overridingModules.add(new LoadTestModule());
+    for (ConfigurableInjectionModule module : baseModules) {
+      module.setConfigBindingProvider(bindingProvider);
+    }
+    for (ConfigurableInjectionModule module : overridingModules) {
+      module.setConfigBindingProvider(bindingProvider);
+    }
+    return Modules.override(baseModules).with(overridingModules);
+  }
+
+  /**
+   * Sets the initial position of all vehicles that don't have one, yet.
+   * Vehicles are spread over the points not linked to any location.
+   */
+  private void placeVehicles() {
+    List<Vehicle> unplacedVehicles = kernel.getTCSObjects(Vehicle.class).stream()
+        .filter(vehicle -> !vehicle.getProperties()
+            .containsKey(LoopbackAdapterConstants.PROPKEY_INITIAL_POSITION))
+        .sorted(Comparator.comparing(Vehicle::getName))
+        .collect(Collectors.toList());
+    if (unplacedVehicles.isEmpty()) {
+      return;
+    }
+
+    Set<String> occupiedPointNames = kernel.getTCSObjects(Vehicle.class).stream()
+        .map(vehicle -> vehicle.getProperties()
+            .get(LoopbackAdapterConstants.PROPKEY_INITIAL_POSITION))
+        .filter(pointName -> pointName != null)
+        .collect(Collectors.toSet());
+    List<String> freePointNames = kernel.getTCSObjects(Point.class).stream()
+        .filter(point -> point.getAttachedLinks().isEmpty())
+        .map(Point::getName)
+        .filter(pointName -> !occupiedPointNames.contains(pointName))
+        .sorted()
+        .collect(Collectors.toList());
+    if (freePointNames.size() < unplacedVehicles.size()) {
+      throw new IllegalStateException(String.format(
+          "Only %d free points for %d vehicles without initial positions.",
+          freePointNames.size(),
+          unplacedVehicles.size()));
+    }
+
+    for (int i = 0; i < unplacedVehicles.size(); i++) {
+      String pointName
+          = freePointNames.get(i * freePointNames.size() / unplacedVehicles.size());
+      kernel.setTCSObjectProperty(unplacedVehicles.get(i).getReference(),
+                                  LoopbackAdapterConstants.PROPKEY_INITIAL_POSITION,
+                                  pointName);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.util.Arrays;
+
+/**
+ * A thread-safe collection of duration samples (in milliseconds) with simple statistics.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class LatencySamples {
+
+  /**
+   * The samples.
+   */
+  private long[] samples = new long[1024];
+  /**
+   * The number of samples.
+   */
+  private int count;
+
+  /**
+   * Creates a new instance.
+   */
+  public LatencySamples() {
+  }
+
+  /**
+   * Adds a sample.
+   *
+   * @param millis The duration (in ms).
+   */
+  public synchronized void add(long millis) {
+    if (count == samples.length) {
+      samples = Arrays.copyOf(samples, samples.length * 2);
+    }
+    samples[count++] = millis;
+  }
+
+  /**
+   * Removes all samples.
+   */
+  public synchronized void clear() {
+    count = 0;
+  }
+
+  /**
+   * Returns the number of samples.
+   *
+   * @return The number of samples.
+   */
+  public synchronized int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the arithmetic mean of all samples.
+   *
+   * @return The mean, or 0 if there are no samples.
+   */
+  public synchronized double getMean() {
+    if (count == 0) {
+      return 0.0;
+    }
+    long sum = 0;
+    for (int i = 0; i < count; i++) {
+      sum += samples[i];
+    }
+    return (double) sum / count;
+  }
+
+  /**
+   * Returns the given percentile of all samples (nearest-rank method).
+   *
+   * @param percentile The percentile, in the range of (0, 100].
+   * @return The percentile, or 0 if there are no samples.
+   */
+  public synchronized long getPercentile(double percentile) {
+    checkArgument(percentile > 0.0 && percentile <= 100.0,
+                  "percentile not in (0, 100]: %s",
+                  percentile);
+    if (count == 0) {
+      return 0;
+    }
+    long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100.0 * count);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+
+  /**
+   * Returns the largest sample.
+   *
+   * @return The largest sample, or 0 if there are no samples.
+   */
+  public long getMax() {
+    return getPercentile(100.0);
+  }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import javax.inject.Singleton;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.customizations.kernel.KernelInjectionModule;
+
+/**
+ * Configures the kernel for load tests.
+ * Kernel extensions like the control center or the host interfaces are left out, and the scheduler
+ * is wrapped to record allocation wait times.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class LoadTestModule
+    extends KernelInjectionModule {
+
+  @Override
+  protected void configure() {
+    // No kernel extensions, but the kernel states require the (empty) sets.
+    extensionsBinderAllModes();
+    extensionsBinderModelling();
+    extensionsBinderOperating();
+
+    bind(AllocationTimingScheduler.class)
+        .in(Singleton.class);
+    bind(Scheduler.class)
+        .to(AllocationTimingScheduler.class);
+  }
+}
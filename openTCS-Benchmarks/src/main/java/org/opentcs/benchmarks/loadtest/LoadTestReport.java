@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import org.opentcs.benchmarks.loadtest.MetricsCollector.OrderRecord;
+import org.opentcs.benchmarks.loadtest.MetricsCollector.VehicleRecord;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.strategies.basic.scheduling.AllocationStatistics;
+
+/**
+ * Writes the results of a load test to files.
+ * <p>
+ * A summary is written as a JSON object to <code>&lt;prefix&gt;-summary.json</code>, the
+ * records of all orders and vehicles are written as CSV to <code>&lt;prefix&gt;-orders.csv</code>
+ * and <code>&lt;prefix&gt;-vehicles.csv</code>.
+ * All durations are wall-clock times in milliseconds.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class LoadTestReport {
+
+  /**
+   * The settings of the load test, in the order they are to be written.
+   */
+  private final Map<String, Object> settings = new LinkedHashMap<>();
+  /**
+   * The collected metrics.
+   */
+  private final MetricsCollector metrics;
+  /**
+   * The recorded allocation wait times.
+   */
+  private final LatencySamples allocationWaitTimes;
+  /**
+   * The scheduler's statistics about processed allocations.
+   */
+  private final AllocationStatistics allocationStatistics;
+  /**
+   * The loopback vehicles' simulation time factor.
+   */
+  private final double simulationTimeFactor;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param metrics The collected metrics.
+   * @param allocationWaitTimes The recorded allocation wait times.
+   * @param allocationStatistics The scheduler's statistics about processed allocations.
+   * @param simulationTimeFactor The loopback vehicles' simulation time factor.
+   */
+  public LoadTestReport(@Nonnull MetricsCollector metrics,
+                        @Nonnull LatencySamples allocationWaitTimes,
+                        @Nonnull AllocationStatistics allocationStatistics,
+                        double simulationTimeFactor) {
+    this.metrics = requireNonNull(metrics, "metrics");
+    this.allocationWaitTimes = requireNonNull(allocationWaitTimes, "allocationWaitTimes");
+    this.allocationStatistics = requireNonNull(allocationStatistics, "allocationStatistics");
+    this.simulationTimeFactor = simulationTimeFactor;
+  }
+
+  /**
+   * Adds a setting of the load test to be included in the summary.
+   *
+   * @param key The setting's key.
+   * @param value The setting's value. Numbers and booleans are written as such, everything else
+   * is written as a string.
+   * @return This instance.
+   */
+  public LoadTestReport addSetting(@Nonnull String key, @Nonnull Object value) {
+    settings.put(requireNonNull(key, "key"), requireNonNull(value, "value"));
+    return this;
+  }
+
+  /**
+   * Writes the summary and the order and vehicle records.
+   *
+   * @param prefix The prefix of the files' names, possibly including a directory.
+   * @return The summary that was written.
+   * @throws IOException If writing failed.
+   */
+  public String write(@Nonnull String prefix)
+      throws IOException {
+    requireNonNull(prefix, "prefix");
+
+    File parentDir = new File(prefix).getAbsoluteFile().getParentFile();
+    if (parentDir != null) {
+      Files.createDirectories(parentDir.toPath());
+    }
+
+    String summary = toJson();
+    try (PrintWriter writer = createWriter(prefix + "-summary.json")) {
+      writer.println(summary);
+    }
+    writeOrders(prefix + "-orders.csv");
+    writeVehicles(prefix + "-vehicles.csv");
+    return summary;
+  }
+
+  private String toJson() {
+    List<OrderRecord> orders = metrics.getOrderRecords();
+    long finishedCount = orders.stream()
+        .filter(order -> order.getState() == TransportOrder.State.FINISHED)
+        .count();
+    double windowHours = metrics.getWindowDuration() / 3600000.0;
+    double ordersPerHour = windowHours > 0.0 ? finishedCount / windowHours : 0.0;
+
+    long vehicleTime = 0;
+    long loadTestOrderTime = 0;
+    long otherOrderTime = 0;
+    for (VehicleRecord vehicle : metrics.getVehicleRecords()) {
+      vehicleTime += vehicle.getLoadTestOrderTime() + vehicle.getOtherOrderTime()
+          + vehicle.getIdleTime();
+      loadTestOrderTime += vehicle.getLoadTestOrderTime();
+      otherOrderTime += vehicle.getOtherOrderTime();
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\n");
+    sb.append("  \"settings\": {");
+    String separator = "\n";
+    for (Map.Entry<String, Object> entry : settings.entrySet()) {
+      sb.append(separator).append("    ").append(quote(entry.getKey())).append(": ")
+          .append(jsonValue(entry.getValue()));
+      separator = ",\n";
+    }
+    sb.append("\n  },\n");
+    sb.append("  \"measurementDurationMs\": ").append(metrics.getWindowDuration()).append(",\n");
+    sb.append("  \"ordersFinished\": ").append(finishedCount).append(",\n");
+    sb.append("  \"ordersFailed\": ").append(orders.size() - finishedCount).append(",\n");
+    sb.append("  \"ordersPerHour\": ").append(format(ordersPerHour)).append(",\n");
+    sb.append("  \"ordersPerSimulatedHour\": ")
+        .append(format(ordersPerHour / simulationTimeFactor)).append(",\n");
+    sb.append("  \"dispatchLatencyMs\": ").append(toJson(metrics.getDispatchLatencies()))
+        .append(",\n");
+    sb.append("  \"orderLeadTimeMs\": ").append(toJson(metrics.getLeadTimes())).append(",\n");
+    sb.append("  \"allocationWaitMs\": ").append(toJson(allocationWaitTimes)).append(",\n");
+    sb.append("  \"allocationRequests\": ").append(allocationStatistics.getRequestCount())
+        .append(",\n");
+    sb.append("  \"allocationRetries\": ").append(allocationStatistics.getRetryCount())
+        .append(",\n");
+    sb.append("  \"allocationDeferrals\": ").append(allocationStatistics.getDeferralCount())
+        .append(",\n");
+    sb.append("  \"deadlocks\": ").append(allocationStatistics.getDeadlockCount()).append(",\n");
+    sb.append("  \"vehicleUtilization\": {\n");
+    sb.append("    \"loadTestOrders\": ").append(format(ratio(loadTestOrderTime, vehicleTime)))
+        .append(",\n");
+    sb.append("    \"otherOrders\": ").append(format(ratio(otherOrderTime, vehicleTime)))
+        .append("\n");
+    sb.append("  }\n");
+    sb.append("}");
+    return sb.toString();
+  }
+
+  private String toJson(LatencySamples samples) {
+    return String.format(Locale.ROOT,
+                         "{\"count\": %d, \"mean\": %s, \"p50\": %d, \"p90\": %d, \"p99\": %d, "
+                         + "\"max\": %d}",
+                         samples.getCount(),
+                         format(samples.getMean()),
+                         samples.getPercentile(50),
+                         samples.getPercentile(90),
+                         samples.getPercentile(99),
+                         samples.getMax());
+  }
+
+  private void writeOrders(String fileName)
+      throws IOException {
+    try (PrintWriter writer = createWriter(fileName)) {
+      writer.println("name,state,vehicle,creationTime,dispatchLatencyMs,leadTimeMs");
+      for (OrderRecord order : metrics.getOrderRecords()) {
+        writer.println(String.join(
+            ",",
+            order.getName(),
+            order.getState().name(),
+            order.getVehicleName() == null ? "" : order.getVehicleName(),
+            Long.toString(order.getCreationTime()),
+            order.getDispatchTime() < 0
+            ? ""
+            : Long.toString(order.getDispatchTime() - order.getCreationTime()),
+            Long.toString(order.getFinishedTime() - order.getCreationTime())));
+      }
+    }
+  }
+
+  private void writeVehicles(String fileName)
+      throws IOException {
+    try (PrintWriter writer = createWriter(fileName)) {
+      writer.println("name,orders,loadTestOrderMs,otherOrderMs,idleMs,utilization");
+      for (VehicleRecord vehicle : metrics.getVehicleRecords()) {
+        long total = vehicle.getLoadTestOrderTime() + vehicle.getOtherOrderTime()
+            + vehicle.getIdleTime();
+        writer.println(String.join(",",
+                                   vehicle.getName(),
+                                   Integer.toString(vehicle.getOrderCount()),
+                                   Long.toString(vehicle.getLoadTestOrderTime()),
+                                   Long.toString(vehicle.getOtherOrderTime()),
+                                   Long.toString(vehicle.getIdleTime()),
+                                   format(ratio(vehicle.getLoadTestOrderTime(), total))));
+      }
+    }
+  }
+
+  private static PrintWriter createWriter(String fileName)
+      throws IOException {
+    return new PrintWriter(Files.newBufferedWriter(new File(fileName).toPath(),
+                                                   StandardCharsets.UTF_8));
+  }
+
+  private static double ratio(long part, long total) {
+    return total > 0 ? (double) part / total : 0.0;
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.3f", value);
+  }
+
+  private static String jsonValue(Object value) {
+    if (value instanceof Number || value instanceof Boolean) {
+      return value.toString();
+    }
+    return quote(value.toString());
+  }
+
+  private static String quote(String value) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+          }
+          else {
+            sb.append(c);
+          }
+      }
+    }
+    return sb.append('"').toString();
+  }
+}
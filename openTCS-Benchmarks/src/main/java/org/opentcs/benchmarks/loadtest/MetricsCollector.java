@@ -0,0 +1,427 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import static com.google.common.base.Preconditions.checkState;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.EventListener;
+import org.opentcs.util.eventsystem.TCSEvent;
+
+/**
+ * Collects order and vehicle metrics from the kernel's events.
+ * <p>
+ * Only orders created by the load test (as indicated by their name prefix) are taken into
+ * account, and only events within the measurement window are recorded.
+ * Note that events are emitted while the kernel is locked, so processing them here merely
+ * updates some bookkeeping.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class MetricsCollector
+    implements EventListener<TCSEvent> {
+
+  /**
+   * The name prefix of orders created by the load test.
+   */
+  private final String orderNamePrefix;
+  /**
+   * The records of orders finished or failed within the measurement window.
+   */
+  private final List<OrderRecord> finishedOrders = new ArrayList<>();
+  /**
+   * The points of time at which orders were first processed, mapped by order name.
+   */
+  private final Map<String, Long> dispatchTimes = new HashMap<>();
+  /**
+   * The records of all vehicles, mapped by vehicle name.
+   */
+  private final Map<String, VehicleRecord> vehicleRecords = new TreeMap<>();
+  /**
+   * The samples of the time from an order's creation until it is first processed.
+   */
+  private final LatencySamples dispatchLatencies = new LatencySamples();
+  /**
+   * The samples of the time from an order's creation until it is finished.
+   */
+  private final LatencySamples leadTimes = new LatencySamples();
+  /**
+   * The start of the measurement window, or -1, if it hasn't started, yet.
+   */
+  private long windowStart = -1;
+  /**
+   * The end of the measurement window, or -1, if it hasn't ended, yet.
+   */
+  private long windowEnd = -1;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param orderNamePrefix The name prefix of orders created by the load test.
+   */
+  public MetricsCollector(@Nonnull String orderNamePrefix) {
+    this.orderNamePrefix = requireNonNull(orderNamePrefix, "orderNamePrefix");
+  }
+
+  @Override
+  public void processEvent(TCSEvent event) {
+    if (!(event instanceof TCSObjectEvent)) {
+      return;
+    }
+    TCSObjectEvent objEvent = (TCSObjectEvent) event;
+    if (objEvent.getType() != TCSObjectEvent.Type.OBJECT_MODIFIED) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (objEvent.getCurrentObjectState() instanceof TransportOrder) {
+      processOrderUpdate((TransportOrder) objEvent.getCurrentObjectState(), now);
+    }
+    else if (objEvent.getCurrentObjectState() instanceof Vehicle) {
+      processVehicleUpdate((Vehicle) objEvent.getCurrentObjectState(), now);
+    }
+  }
+
+  /**
+   * Starts the measurement window.
+   * Vehicle time accounting starts with the given vehicles' current states.
+   *
+   * @param vehicles The vehicles in the plant model.
+   */
+  public synchronized void startMeasurement(@Nonnull Collection<Vehicle> vehicles) {
+    requireNonNull(vehicles, "vehicles");
+    checkState(windowStart < 0, "Measurement already started");
+
+    windowStart = System.currentTimeMillis();
+    for (Vehicle vehicle : vehicles) {
+      vehicleRecords.put(vehicle.getName(),
+                         new VehicleRecord(vehicle.getName(),
+                                           orderName(vehicle),
+                                           activity(vehicle),
+                                           windowStart));
+    }
+  }
+
+  /**
+   * Ends the measurement window.
+   */
+  public synchronized void stopMeasurement() {
+    checkState(windowStart >= 0, "Measurement not started");
+    checkState(windowEnd < 0, "Measurement already stopped");
+
+    windowEnd = System.currentTimeMillis();
+    for (VehicleRecord record : vehicleRecords.values()) {
+      record.close(windowEnd);
+    }
+  }
+
+  /**
+   * Returns the duration of the measurement window (in ms).
+   *
+   * @return The duration of the measurement window.
+   */
+  public synchronized long getWindowDuration() {
+    checkState(windowEnd >= 0, "Measurement not stopped");
+    return windowEnd - windowStart;
+  }
+
+  /**
+   * Returns the records of all orders finished or failed within the measurement window.
+   *
+   * @return The order records.
+   */
+  @Nonnull
+  public synchronized List<OrderRecord> getOrderRecords() {
+    return new ArrayList<>(finishedOrders);
+  }
+
+  /**
+   * Returns the records of all vehicles, sorted by vehicle name.
+   *
+   * @return The vehicle records.
+   */
+  @Nonnull
+  public synchronized List<VehicleRecord> getVehicleRecords() {
+    return new ArrayList<>(vehicleRecords.values());
+  }
+
+  /**
+   * Returns the samples of the time from an order's creation until it is first processed.
+   *
+   * @return The dispatch latencies.
+   */
+  @Nonnull
+  public LatencySamples getDispatchLatencies() {
+    return dispatchLatencies;
+  }
+
+  /**
+   * Returns the samples of the time from an order's creation until it is finished.
+   *
+   * @return The lead times.
+   */
+  @Nonnull
+  public LatencySamples getLeadTimes() {
+    return leadTimes;
+  }
+
+  private synchronized void processOrderUpdate(TransportOrder order, long now) {
+    if (!order.getName().startsWith(orderNamePrefix)) {
+      return;
+    }
+    if (order.hasState(TransportOrder.State.BEING_PROCESSED)) {
+      if (dispatchTimes.putIfAbsent(order.getName(), now) == null && isMeasuring()) {
+        dispatchLatencies.add(now - order.getCreationTime());
+      }
+    }
+    else if (order.getState().isFinalState()) {
+      Long dispatchTime = dispatchTimes.remove(order.getName());
+      if (!isMeasuring()) {
+        return;
+      }
+      OrderRecord record = new OrderRecord(order, dispatchTime == null ? -1 : dispatchTime, now);
+      finishedOrders.add(record);
+      if (order.hasState(TransportOrder.State.FINISHED)) {
+        leadTimes.add(record.getFinishedTime() - record.getCreationTime());
+      }
+    }
+  }
+
+  private synchronized void processVehicleUpdate(Vehicle vehicle, long now) {
+    if (!isMeasuring()) {
+      return;
+    }
+    VehicleRecord record = vehicleRecords.get(vehicle.getName());
+    if (record != null) {
+      record.update(orderName(vehicle), activity(vehicle), now);
+    }
+  }
+
+  private static String orderName(Vehicle vehicle) {
+    return vehicle.getTransportOrder() == null ? null : vehicle.getTransportOrder().getName();
+  }
+
+  private Activity activity(Vehicle vehicle) {
+    String orderName = orderName(vehicle);
+    if (orderName == null) {
+      return Activity.IDLE;
+    }
+    return orderName.startsWith(orderNamePrefix) ? Activity.LOAD_TEST_ORDER : Activity.OTHER_ORDER;
+  }
+
+  private boolean isMeasuring() {
+    return windowStart >= 0 && windowEnd < 0;
+  }
+
+  /**
+   * The activity a vehicle's time is accounted to.
+   */
+  private enum Activity {
+    /**
+     * Processing an order created by the load test.
+     */
+    LOAD_TEST_ORDER,
+    /**
+     * Processing any other order, e.g. a parking or recharge order.
+     */
+    OTHER_ORDER,
+    /**
+     * Not processing any order.
+     */
+    IDLE
+  }
+
+  /**
+   * Describes an order finished or failed within the measurement window.
+   */
+  public static class OrderRecord {
+
+    /**
+     * The order's name.
+     */
+    private final String name;
+    /**
+     * The order's final state.
+     */
+    private final TransportOrder.State state;
+    /**
+     * The name of the vehicle that processed the order, or <code>null</code>.
+     */
+    private final String vehicleName;
+    /**
+     * The order's creation time.
+     */
+    private final long creationTime;
+    /**
+     * The point of time at which the order was first processed, or -1.
+     */
+    private final long dispatchTime;
+    /**
+     * The point of time at which the order reached its final state.
+     */
+    private final long finishedTime;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param order The order.
+     * @param dispatchTime The point of time at which the order was first processed, or -1.
+     * @param finishedTime The point of time at which the order reached its final state.
+     */
+    private OrderRecord(TransportOrder order, long dispatchTime, long finishedTime) {
+      this.name = order.getName();
+      this.state = order.getState();
+      this.vehicleName = order.getProcessingVehicle() == null
+          ? null
+          : order.getProcessingVehicle().getName();
+      this.creationTime = order.getCreationTime();
+      this.dispatchTime = dispatchTime;
+      this.finishedTime = finishedTime;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public TransportOrder.State getState() {
+      return state;
+    }
+
+    public String getVehicleName() {
+      return vehicleName;
+    }
+
+    public long getCreationTime() {
+      return creationTime;
+    }
+
+    public long getDispatchTime() {
+      return dispatchTime;
+    }
+
+    public long getFinishedTime() {
+      return finishedTime;
+    }
+  }
+
+  /**
+   * Accounts a vehicle's time within the measurement window to its activities.
+   */
+  public static class VehicleRecord {
+
+    /**
+     * The vehicle's name.
+     */
+    private final String name;
+    /**
+     * The accumulated time per activity.
+     */
+    private final Map<Activity, Long> durations = new EnumMap<>(Activity.class);
+    /**
+     * The name of the order the vehicle is currently processing, or <code>null</code>.
+     */
+    private String orderName;
+    /**
+     * The vehicle's current activity.
+     */
+    private Activity activity;
+    /**
+     * The point of time at which the current activity started.
+     */
+    private long activitySince;
+    /**
+     * The number of orders created by the load test that were assigned to the vehicle.
+     */
+    private int orderCount;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param name The vehicle's name.
+     * @param orderName The name of the order the vehicle is currently processing, or
+     * <code>null</code>.
+     * @param activity The vehicle's current activity.
+     * @param now The current point of time.
+     */
+    private VehicleRecord(String name, String orderName, Activity activity, long now) {
+      this.name = name;
+      this.orderName = orderName;
+      this.activity = activity;
+      this.activitySince = now;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the number of orders created by the load test that were assigned to the vehicle
+     * within the measurement window.
+     *
+     * @return The number of orders.
+     */
+    public int getOrderCount() {
+      return orderCount;
+    }
+
+    /**
+     * Returns the time the vehicle spent processing orders created by the load test.
+     *
+     * @return The time (in ms).
+     */
+    public long getLoadTestOrderTime() {
+      return durations.getOrDefault(Activity.LOAD_TEST_ORDER, 0L);
+    }
+
+    /**
+     * Returns the time the vehicle spent processing other orders, e.g. parking or recharge orders.
+     *
+     * @return The time (in ms).
+     */
+    public long getOtherOrderTime() {
+      return durations.getOrDefault(Activity.OTHER_ORDER, 0L);
+    }
+
+    /**
+     * Returns the time the vehicle spent without an order.
+     *
+     * @return The time (in ms).
+     */
+    public long getIdleTime() {
+      return durations.getOrDefault(Activity.IDLE, 0L);
+    }
+
+    private void update(String newOrderName, Activity newActivity, long now) {
+      if (Objects.equals(newOrderName, orderName)) {
+        return;
+      }
+      close(now);
+      orderName = newOrderName;
+      activity = newActivity;
+      if (newActivity == Activity.LOAD_TEST_ORDER) {
+        orderCount++;
+      }
+    }
+
+    private void close(long now) {
+      durations.merge(activity, now - activitySince, Long::sum);
+      activitySince = now;
+    }
+  }
+}
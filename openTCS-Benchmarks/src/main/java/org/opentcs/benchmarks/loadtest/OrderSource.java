@@ -0,0 +1,296 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.opentcs.access.KernelRuntimeException;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.access.to.order.DestinationCreationTO;
+import org.opentcs.access.to.order.TransportOrderCreationTO;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.EventListener;
+import org.opentcs.util.eventsystem.TCSEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates transport orders for a load test.
+ * Each order picks up a load at one random location and drops it off at another.
+ * <p>
+ * Orders are created by a separate thread, never from within event processing, as events are
+ * emitted while the kernel is locked.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class OrderSource
+    implements EventListener<TCSEvent> {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(OrderSource.class);
+  /**
+   * The interval in which the number of active orders is checked in threshold mode (in ms).
+   */
+  private static final long CHECK_INTERVAL = 100;
+  /**
+   * The kernel.
+   */
+  private final LocalKernel kernel;
+  /**
+   * The mode in which orders are created.
+   */
+  private final Mode mode;
+  /**
+   * In threshold mode, the number of active orders to maintain; in rate mode, the number of
+   * orders to create per minute.
+   */
+  private final int value;
+  /**
+   * The name prefix of created orders.
+   */
+  private final String orderNamePrefix;
+  /**
+   * The operation to be performed at pick-up locations.
+   */
+  private final String loadOperation;
+  /**
+   * The operation to be performed at drop-off locations.
+   */
+  private final String unloadOperation;
+  /**
+   * The random number generator for selecting locations.
+   */
+  private final Random random;
+  /**
+   * The names of orders created, but not yet in a final state.
+   */
+  private final Set<String> activeOrders = new HashSet<>();
+  /**
+   * The number of orders created.
+   */
+  private final AtomicInteger createdCount = new AtomicInteger();
+  /**
+   * The locations at which loads can be picked up and dropped off.
+   */
+  private List<String> locationNames;
+  /**
+   * Executes the order creation.
+   */
+  private ScheduledExecutorService executor;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The kernel.
+   * @param mode The mode in which orders are created.
+   * @param value In threshold mode, the number of active orders to maintain; in rate mode, the
+   * number of orders to create per minute.
+   * @param orderNamePrefix The name prefix of created orders.
+   * @param loadOperation The operation to be performed at pick-up locations.
+   * @param unloadOperation The operation to be performed at drop-off locations.
+   * @param seed The seed for selecting locations.
+   */
+  public OrderSource(@Nonnull LocalKernel kernel,
+                     @Nonnull Mode mode,
+                     int value,
+                     @Nonnull String orderNamePrefix,
+                     @Nonnull String loadOperation,
+                     @Nonnull String unloadOperation,
+                     long seed) {
+    this.kernel = requireNonNull(kernel, "kernel");
+    this.mode = requireNonNull(mode, "mode");
+    this.orderNamePrefix = requireNonNull(orderNamePrefix, "orderNamePrefix");
+    this.loadOperation = requireNonNull(loadOperation, "loadOperation");
+    this.unloadOperation = requireNonNull(unloadOperation, "unloadOperation");
+    checkArgument(value > 0, "value must be positive: %s", value);
+    this.value = value;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Starts creating orders.
+   *
+   * @throws IllegalStateException If the plant model does not contain at least two locations
+   * allowing both operations.
+   */
+  public void start()
+      throws IllegalStateException {
+    locationNames = findLocations();
+    if (locationNames.size() < 2) {
+      throw new IllegalStateException(String.format(
+          "Need at least two locations allowing '%s' and '%s', found %d.",
+          loadOperation,
+          unloadOperation,
+          locationNames.size()));
+    }
+
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "loadTestOrderSource");
+      thread.setDaemon(true);
+      return thread;
+    });
+    switch (mode) {
+      case THRESHOLD:
+        executor.scheduleWithFixedDelay(this::replenishOrders,
+                                        0,
+                                        CHECK_INTERVAL,
+                                        TimeUnit.MILLISECONDS);
+        break;
+      case RATE:
+        executor.scheduleAtFixedRate(this::createOrder,
+                                     0,
+                                     TimeUnit.MINUTES.toMicros(1) / value,
+                                     TimeUnit.MICROSECONDS);
+        break;
+      default:
+        throw new IllegalArgumentException("Unhandled mode: " + mode);
+    }
+  }
+
+  /**
+   * Stops creating orders.
+   */
+  public void stop() {
+    if (executor == null) {
+      return;
+    }
+    executor.shutdownNow();
+    executor = null;
+  }
+
+  /**
+   * Returns the number of orders created.
+   *
+   * @return The number of orders created.
+   */
+  public int getCreatedCount() {
+    return createdCount.get();
+  }
+
+  @Override
+  public void processEvent(TCSEvent event) {
+    if (!(event instanceof TCSObjectEvent)) {
+      return;
+    }
+    TCSObjectEvent objEvent = (TCSObjectEvent) event;
+    if (!(objEvent.getCurrentOrPreviousObjectState() instanceof TransportOrder)) {
+      return;
+    }
+    TransportOrder order = (TransportOrder) objEvent.getCurrentOrPreviousObjectState();
+    if (!order.getName().startsWith(orderNamePrefix)) {
+      return;
+    }
+
+    boolean finished = objEvent.getType() == TCSObjectEvent.Type.OBJECT_REMOVED
+        || order.getState().isFinalState();
+    if (finished) {
+      synchronized (activeOrders) {
+        activeOrders.remove(order.getName());
+      }
+      if (mode == Mode.THRESHOLD && executor != null) {
+        // Don't wait for the next check to replenish.
+        executor.execute(this::replenishOrders);
+      }
+    }
+  }
+
+  private void replenishOrders() {
+    while (activeOrderCount() < value) {
+      if (!createOrder()) {
+        return;
+      }
+    }
+  }
+
+  private int activeOrderCount() {
+    synchronized (activeOrders) {
+      return activeOrders.size();
+    }
+  }
+
+  private boolean createOrder() {
+    String sourceName = locationNames.get(random.nextInt(locationNames.size()));
+    String destName;
+    do {
+      destName = locationNames.get(random.nextInt(locationNames.size()));
+    }
+    while (destName.equals(sourceName));
+
+    List<DestinationCreationTO> destinations = new ArrayList<>();
+    destinations.add(new DestinationCreationTO(sourceName, loadOperation));
+    destinations.add(new DestinationCreationTO(destName, unloadOperation));
+    String orderName = String.format("%s%06d", orderNamePrefix, createdCount.incrementAndGet());
+
+    try {
+      // Track the order before creating it, as it might be finished before we get back here.
+      synchronized (activeOrders) {
+        activeOrders.add(orderName);
+      }
+      TransportOrder order
+          = kernel.createTransportOrder(new TransportOrderCreationTO(orderName, destinations));
+      kernel.activateTransportOrder(order.getReference());
+      return true;
+    }
+    catch (KernelRuntimeException | IllegalArgumentException exc) {
+      LOG.warn("Failed creating order {}", orderName, exc);
+      synchronized (activeOrders) {
+        activeOrders.remove(orderName);
+      }
+      return false;
+    }
+  }
+
+  private List<String> findLocations() {
+    Set<String> usableTypes = new HashSet<>();
+    for (LocationType type : kernel.getTCSObjects(LocationType.class)) {
+      if (type.isAllowedOperation(loadOperation) && type.isAllowedOperation(unloadOperation)) {
+        usableTypes.add(type.getName());
+      }
+    }
+    List<String> result = new ArrayList<>();
+    for (Location location : kernel.getTCSObjects(Location.class)) {
+      if (usableTypes.contains(location.getType().getName())
+          && !location.getAttachedLinks().isEmpty()) {
+        result.add(location.getName());
+      }
+    }
+    // Sort the names so that the same seed results in the same orders.
+    result.sort(null);
+    return result;
+  }
+
+  /**
+   * The modes in which orders are created.
+   */
+  public enum Mode {
+    /**
+     * Keep a fixed number of orders active, replacing each order as soon as it is finished.
+     */
+    THRESHOLD,
+    /**
+     * Create orders at a fixed rate, regardless of how many orders are active.
+     */
+    RATE
+  }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.opentcs.benchmarks.modelgen.PlantModelFiles;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator;
+import org.opentcs.data.model.Vehicle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a kernel with loopback vehicles and a steady stream of transport orders for a given time
+ * and reports fleet throughput, dispatch latencies, allocation wait times and vehicle utilization.
+ * <p>
+ * Settings are passed as arguments of the form <code>key=value</code>, e.g.:
+ * </p>
+ * <pre>
+ * topology=AISLES width=40 height=40 locations=150 vehicles=30 duration=600 output=results/run1
+ * </pre>
+ * <p>
+ * The plant model is either read from a file or generated. Kernel settings, e.g. for selecting
+ * strategies, can be passed in a file in the format of the kernel's configuration file.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class RunLoadTest {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(RunLoadTest.class);
+  /**
+   * The name prefix of orders created by the load test.
+   */
+  private static final String ORDER_NAME_PREFIX = "LoadTest-";
+  /**
+   * The usage information.
+   */
+  private static final String USAGE
+      = "Arguments (key=value):\n"
+      + "  output=<prefix>             The prefix of the result files (required)\n"
+      + "  model=<file>                The plant model file to use instead of generating one\n"
+      + "  kernelConfig=<file>         A file with kernel configuration overrides\n"
+      + "  duration=<s>                The duration of the measurement\n"
+      + "  warmup=<s>                  The time to run before starting the measurement\n"
+      + "  orderMode=THRESHOLD|RATE    Whether to keep a number of orders active or to create\n"
+      + "                              orders at a fixed rate\n"
+      + "  activeOrders=<n>            The number of orders to keep active (THRESHOLD only)\n"
+      + "  ordersPerMinute=<n>         The number of orders to create per minute (RATE only)\n"
+      + "  timeFactor=<f>              The loopback vehicles' simulation time factor\n"
+      + "  seed=<n>                    The seed for random placements and orders\n"
+      + "Arguments for generating a plant model (see RunPlantModelGenerator):\n"
+      + "  topology, width, height, pointDistance, pathVelocity, crossAisleInterval, locations,\n"
+      + "  rechargeLocations, parkingPositions, vehicles, routingGroups, blockSize";
+
+  /**
+   * Prevents external instantiation.
+   */
+  private RunLoadTest() {
+  }
+
+  /**
+   * Runs a load test with the settings given as arguments.
+   *
+   * @param args The command line arguments.
+   * @throws Exception If there was a problem running the load test.
+   */
+  public static void main(String[] args)
+      throws Exception {
+    PlantModelGenerator generator = new PlantModelGenerator()
+        .setName("LoadTest")
+        .setWidth(20)
+        .setHeight(20)
+        .setLocationCount(40)
+        .setVehicleCount(10)
+        .setVisualLayout(false);
+    String outputPrefix = null;
+    File modelFile = null;
+    File kernelConfigFile = null;
+    long duration = 300;
+    long warmup = 60;
+    OrderSource.Mode orderMode = OrderSource.Mode.THRESHOLD;
+    Integer activeOrders = null;
+    int ordersPerMinute = 60;
+    double timeFactor = 1.0;
+    long seed = 42;
+
+    for (String arg : args) {
+      int separatorIndex = arg.indexOf('=');
+      if (separatorIndex < 1) {
+        exitWithUsage("Invalid argument: " + arg);
+      }
+      String key = arg.substring(0, separatorIndex);
+      String value = arg.substring(separatorIndex + 1);
+      switch (key) {
+        case "output":
+          outputPrefix = value;
+          break;
+        case "model":
+          modelFile = new File(value);
+          break;
+        case "kernelConfig":
+          kernelConfigFile = new File(value);
+          break;
+        case "duration":
+          duration = Long.parseLong(value);
+          break;
+        case "warmup":
+          warmup = Long.parseLong(value);
+          break;
+        case "orderMode":
+          orderMode = OrderSource.Mode.valueOf(value.toUpperCase(Locale.ROOT));
+          break;
+        case "activeOrders":
+          activeOrders = Integer.parseInt(value);
+          break;
+        case "ordersPerMinute":
+          ordersPerMinute = Integer.parseInt(value);
+          break;
+        case "timeFactor":
+          timeFactor = Double.parseDouble(value);
+          break;
+        case "seed":
+          seed = Long.parseLong(value);
+          generator.setSeed(seed);
+          break;
+        case "topology":
+          generator.setTopology(
+              PlantModelGenerator.Topology.valueOf(value.toUpperCase(Locale.ROOT)));
+          break;
+        case "width":
+          generator.setWidth(Integer.parseInt(value));
+          break;
+        case "height":
+          generator.setHeight(Integer.parseInt(value));
+          break;
+        case "pointDistance":
+          generator.setPointDistance(Integer.parseInt(value));
+          break;
+        case "pathVelocity":
+          generator.setPathVelocity(Integer.parseInt(value));
+          break;
+        case "crossAisleInterval":
+          generator.setCrossAisleInterval(Integer.parseInt(value));
+          break;
+        case "locations":
+          generator.setLocationCount(Integer.parseInt(value));
+          break;
+        case "rechargeLocations":
+          generator.setRechargeLocationCount(Integer.parseInt(value));
+          break;
+        case "parkingPositions":
+          generator.setParkingPositionCount(Integer.parseInt(value));
+          break;
+        case "vehicles":
+          generator.setVehicleCount(Integer.parseInt(value));
+          break;
+        case "routingGroups":
+          generator.setRoutingGroupCount(Integer.parseInt(value));
+          break;
+        case "blockSize":
+          generator.setBlockSize(Integer.parseInt(value));
+          break;
+        default:
+          exitWithUsage("Unknown argument: " + key);
+      }
+    }
+    if (outputPrefix == null) {
+      exitWithUsage("No output prefix given.");
+    }
+    if (timeFactor <= 0.0) {
+      exitWithUsage("Time factor must be positive: " + timeFactor);
+    }
+
+    File plantModelFile = modelFile;
+    if (plantModelFile == null) {
+      plantModelFile = File.createTempFile("loadtest-model", ".xml");
+      plantModelFile.deleteOnExit();
+      PlantModelFiles.write(generator.generate(), plantModelFile);
+    }
+
+    HeadlessKernel headlessKernel
+        = new HeadlessKernel(plantModelFile, kernelConfigFile, timeFactor);
+    headlessKernel.start();
+    int vehicleCount = headlessKernel.getKernel().getTCSObjects(Vehicle.class).size();
+    int orderValue = orderMode == OrderSource.Mode.THRESHOLD
+        ? (activeOrders == null ? vehicleCount * 2 : activeOrders)
+        : ordersPerMinute;
+
+    MetricsCollector metrics = new MetricsCollector(ORDER_NAME_PREFIX);
+    OrderSource orderSource = new OrderSource(headlessKernel.getKernel(),
+                                              orderMode,
+                                              orderValue,
+                                              ORDER_NAME_PREFIX,
+                                              PlantModelGenerator.OP_LOAD,
+                                              PlantModelGenerator.OP_UNLOAD,
+                                              seed);
+    headlessKernel.getEventSource().addEventListener(metrics);
+    headlessKernel.getEventSource().addEventListener(orderSource);
+
+    LOG.info("Warming up for {} s with {} vehicles...", warmup, vehicleCount);
+    orderSource.start();
+    TimeUnit.SECONDS.sleep(warmup);
+
+    LOG.info("Measuring for {} s...", duration);
+    headlessKernel.getScheduler().getWaitTimes().clear();
+    headlessKernel.getScheduler().getAllocationStatistics().reset();
+    metrics.startMeasurement(headlessKernel.getKernel().getTCSObjects(Vehicle.class));
+    TimeUnit.SECONDS.sleep(duration);
+    metrics.stopMeasurement();
+
+    orderSource.stop();
+    headlessKernel.getEventSource().removeEventListener(orderSource);
+    headlessKernel.getEventSource().removeEventListener(metrics);
+
+    String summary = new LoadTestReport(metrics,
+                                        headlessKernel.getScheduler().getWaitTimes(),
+                                        headlessKernel.getScheduler().getAllocationStatistics(),
+                                        timeFactor)
+        .addSetting("model", modelFile == null ? describe(generator) : modelFile.getPath())
+        .addSetting("kernelConfig", kernelConfigFile == null ? "" : kernelConfigFile.getPath())
+        .addSetting("vehicles", vehicleCount)
+        .addSetting("orderMode", orderMode.name())
+        .addSetting(orderMode == OrderSource.Mode.THRESHOLD ? "activeOrders" : "ordersPerMinute",
+                    orderValue)
+        .addSetting("warmupS", warmup)
+        .addSetting("durationS", duration)
+        .addSetting("timeFactor", timeFactor)
+        .addSetting("seed", seed)
+        .addSetting("ordersCreated", orderSource.getCreatedCount())
+        .write(outputPrefix);
+    System.out.println(summary);
+
+    headlessKernel.shutdown();
+    System.exit(0);
+  }
+
+  private static String describe(PlantModelGenerator generator) {
+    return String.format("%s %dx%d, %d locations",
+                         generator.getTopology(),
+                         generator.getWidth(),
+                         generator.getHeight(),
+                         generator.getLocationCount());
+  }
+
+  private static void exitWithUsage(String message) {
+    System.err.println(message);
+    System.err.println(USAGE);
+    System.exit(1);
+  }
+}
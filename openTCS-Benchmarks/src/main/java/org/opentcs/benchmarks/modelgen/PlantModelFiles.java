@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.modelgen;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import net.engio.mbassy.bus.MBassador;
+import net.engio.mbassy.bus.config.BusConfiguration;
+import org.opentcs.access.to.model.PlantModelCreationTO;
+import org.opentcs.kernel.persistence.XMLModel002Builder;
+import org.opentcs.kernel.workingset.Model;
+import org.opentcs.kernel.workingset.TCSObjectPool;
+
+/**
+ * Writes plant models to files in the kernel's XML model format.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class PlantModelFiles {
+
+  /**
+   * Prevents instantiation.
+   */
+  private PlantModelFiles() {
+  }
+
+  /**
+   * Writes the given plant model to the given stream.
+   * The model is created in a separate object pool first, which also verifies that all references
+   * between its elements can be resolved.
+   *
+   * @param plantModel The plant model.
+   * @param outStream The stream to write to.
+   * @throws IOException If writing to the stream failed.
+   */
+  public static void write(@Nonnull PlantModelCreationTO plantModel,
+                           @Nonnull OutputStream outStream)
+      throws IOException {
+    requireNonNull(plantModel, "plantModel");
+    requireNonNull(outStream, "outStream");
+
+    Model model = new Model(new TCSObjectPool(new MBassador<>(BusConfiguration.Default())));
+    model.setName(plantModel.getName());
+    model.createPlantModelObjects(plantModel);
+    new XMLModel002Builder().writeXMLModel(model, plantModel.getName(), outStream);
+  }
+
+  /**
+   * Writes the given plant model to the given file.
+   *
+   * @param plantModel The plant model.
+   * @param file The file to write to.
+   * @throws IOException If writing to the file failed.
+   */
+  public static void write(@Nonnull PlantModelCreationTO plantModel, @Nonnull File file)
+      throws IOException {
+    requireNonNull(file, "file");
+
+    try (OutputStream outStream = new FileOutputStream(file)) {
+      write(plantModel, outStream);
+    }
+  }
+}
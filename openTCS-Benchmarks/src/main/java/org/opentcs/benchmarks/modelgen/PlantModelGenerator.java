@@ -0,0 +1,671 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.modelgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Random;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.opentcs.access.to.model.BlockCreationTO;
+import org.opentcs.access.to.model.LocationCreationTO;
+import org.opentcs.access.to.model.LocationTypeCreationTO;
+import org.opentcs.access.to.model.ModelLayoutElementCreationTO;
+import org.opentcs.access.to.model.PathCreationTO;
+import org.opentcs.access.to.model.PlantModelCreationTO;
+import org.opentcs.access.to.model.PointCreationTO;
+import org.opentcs.access.to.model.VehicleCreationTO;
+import org.opentcs.access.to.model.VisualLayoutCreationTO;
+import org.opentcs.components.kernel.Router;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Triple;
+import org.opentcs.data.model.visualization.ElementPropKeys;
+import static org.opentcs.util.Assertions.checkArgument;
+
+/**
+ * Generates synthetic plant models of configurable size and topology.
+ * <p>
+ * Points are laid out on a lattice of {@link #setWidth(int) width} x {@link #setHeight(int) height}
+ * positions and connected according to the selected {@link Topology}.
+ * Locations, recharge locations and parking positions are placed at random halting points, with
+ * the random number generator seeded by {@link #setSeed(long)} so that the same settings always
+ * result in the same model.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class PlantModelGenerator {
+
+  /**
+   * The name of the location type for transfer stations.
+   */
+  public static final String TRANSFER_LOCATION_TYPE = "Transfer station";
+  /**
+   * The name of the location type for recharge stations.
+   */
+  public static final String RECHARGE_LOCATION_TYPE = "Recharge station";
+  /**
+   * The operation for loading cargo.
+   */
+  public static final String OP_LOAD = "Load cargo";
+  /**
+   * The operation for unloading cargo.
+   */
+  public static final String OP_UNLOAD = "Unload cargo";
+  /**
+   * The operation for recharging vehicles.
+   */
+  public static final String OP_CHARGE = "CHARGE";
+  /**
+   * The model's name.
+   */
+  private String name = "Generated";
+  /**
+   * The topology of the points and paths.
+   */
+  private Topology topology = Topology.GRID;
+  /**
+   * The number of lattice positions in x direction.
+   */
+  private int width = 10;
+  /**
+   * The number of lattice positions in y direction.
+   */
+  private int height = 10;
+  /**
+   * The distance between neighbouring lattice positions (in mm).
+   */
+  private int pointDistance = 1000;
+  /**
+   * The maximum velocity on all paths (in mm/s).
+   */
+  private int pathVelocity = 1000;
+  /**
+   * The distance between cross aisles (in lattice positions), or 0 for cross aisles at the ends of
+   * the aisles only.
+   */
+  private int crossAisleInterval;
+  /**
+   * The number of transfer locations.
+   */
+  private int locationCount = 10;
+  /**
+   * The number of recharge locations.
+   */
+  private int rechargeLocationCount;
+  /**
+   * The number of parking positions.
+   */
+  private int parkingPositionCount;
+  /**
+   * The number of vehicles.
+   */
+  private int vehicleCount;
+  /**
+   * The number of routing groups the vehicles are distributed to.
+   */
+  private int routingGroupCount = 1;
+  /**
+   * The edge length of the square areas grouped into blocks (in lattice positions), or 0 for no
+   * blocks.
+   */
+  private int blockSize;
+  /**
+   * Whether to create a visual layout for the plant overview client.
+   */
+  private boolean visualLayout = true;
+  /**
+   * The seed for the random placement of locations and parking positions.
+   */
+  private long seed = 42;
+
+  /**
+   * Creates a new instance.
+   */
+  public PlantModelGenerator() {
+  }
+
+  @Nonnull
+  public String getName() {
+    return name;
+  }
+
+  public PlantModelGenerator setName(@Nonnull String name) {
+    this.name = requireNonNull(name, "name");
+    return this;
+  }
+
+  @Nonnull
+  public Topology getTopology() {
+    return topology;
+  }
+
+  public PlantModelGenerator setTopology(@Nonnull Topology topology) {
+    this.topology = requireNonNull(topology, "topology");
+    return this;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public PlantModelGenerator setWidth(int width) {
+    this.width = width;
+    return this;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public PlantModelGenerator setHeight(int height) {
+    this.height = height;
+    return this;
+  }
+
+  public int getPointDistance() {
+    return pointDistance;
+  }
+
+  public PlantModelGenerator setPointDistance(int pointDistance) {
+    this.pointDistance = pointDistance;
+    return this;
+  }
+
+  public int getPathVelocity() {
+    return pathVelocity;
+  }
+
+  public PlantModelGenerator setPathVelocity(int pathVelocity) {
+    this.pathVelocity = pathVelocity;
+    return this;
+  }
+
+  public int getCrossAisleInterval() {
+    return crossAisleInterval;
+  }
+
+  /**
+   * Sets the distance between cross aisles in the {@link Topology#AISLES} topology.
+   *
+   * @param crossAisleInterval The distance between cross aisles (in lattice positions), or 0 for
+   * cross aisles at the ends of the aisles only.
+   * @return This instance.
+   */
+  public PlantModelGenerator setCrossAisleInterval(int crossAisleInterval) {
+    this.crossAisleInterval = crossAisleInterval;
+    return this;
+  }
+
+  public int getLocationCount() {
+    return locationCount;
+  }
+
+  public PlantModelGenerator setLocationCount(int locationCount) {
+    this.locationCount = locationCount;
+    return this;
+  }
+
+  public int getRechargeLocationCount() {
+    return rechargeLocationCount;
+  }
+
+  public PlantModelGenerator setRechargeLocationCount(int rechargeLocationCount) {
+    this.rechargeLocationCount = rechargeLocationCount;
+    return this;
+  }
+
+  public int getParkingPositionCount() {
+    return parkingPositionCount;
+  }
+
+  public PlantModelGenerator setParkingPositionCount(int parkingPositionCount) {
+    this.parkingPositionCount = parkingPositionCount;
+    return this;
+  }
+
+  public int getVehicleCount() {
+    return vehicleCount;
+  }
+
+  public PlantModelGenerator setVehicleCount(int vehicleCount) {
+    this.vehicleCount = vehicleCount;
+    return this;
+  }
+
+  public int getRoutingGroupCount() {
+    return routingGroupCount;
+  }
+
+  /**
+   * Sets the number of routing groups the vehicles are distributed to.
+   * With more than one routing group, the vehicles' routing group properties are set in a
+   * round-robin fashion.
+   *
+   * @param routingGroupCount The number of routing groups.
+   * @return This instance.
+   */
+  public PlantModelGenerator setRoutingGroupCount(int routingGroupCount) {
+    this.routingGroupCount = routingGroupCount;
+    return this;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Sets the size of the areas grouped into blocks.
+   * The lattice is partitioned into square areas of the given edge length, and the points and
+   * paths within each of them form a block.
+   *
+   * @param blockSize The areas' edge length (in lattice positions), or 0 for no blocks.
+   * @return This instance.
+   */
+  public PlantModelGenerator setBlockSize(int blockSize) {
+    this.blockSize = blockSize;
+    return this;
+  }
+
+  public boolean isVisualLayout() {
+    return visualLayout;
+  }
+
+  public PlantModelGenerator setVisualLayout(boolean visualLayout) {
+    this.visualLayout = visualLayout;
+    return this;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public PlantModelGenerator setSeed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Returns the name of the point at the given lattice position.
+   *
+   * @param x The x coordinate.
+   * @param y The y coordinate.
+   * @return The name of the point.
+   */
+  public static String pointName(int x, int y) {
+    return String.format("Point-%04d-%04d", x, y);
+  }
+
+  /**
+   * Generates a plant model with the current settings.
+   *
+   * @return The plant model.
+   * @throws IllegalArgumentException If the settings are invalid, e.g. if there are not enough
+   * halting points for the requested number of locations and parking positions.
+   */
+  @Nonnull
+  public PlantModelCreationTO generate()
+      throws IllegalArgumentException {
+    checkArgument(width >= 2, "width must be at least 2: %s", width);
+    checkArgument(height >= 2, "height must be at least 2: %s", height);
+    checkArgument(pointDistance > 0, "pointDistance must be positive: %s", pointDistance);
+    checkArgument(pathVelocity > 0, "pathVelocity must be positive: %s", pathVelocity);
+    checkArgument(crossAisleInterval >= 0,
+                  "crossAisleInterval must not be negative: %s",
+                  crossAisleInterval);
+    checkArgument(locationCount >= 0, "locationCount must not be negative: %s", locationCount);
+    checkArgument(rechargeLocationCount >= 0,
+                  "rechargeLocationCount must not be negative: %s",
+                  rechargeLocationCount);
+    checkArgument(parkingPositionCount >= 0,
+                  "parkingPositionCount must not be negative: %s",
+                  parkingPositionCount);
+    checkArgument(vehicleCount >= 0, "vehicleCount must not be negative: %s", vehicleCount);
+    checkArgument(routingGroupCount >= 1,
+                  "routingGroupCount must be at least 1: %s",
+                  routingGroupCount);
+    checkArgument(blockSize >= 0, "blockSize must not be negative: %s", blockSize);
+
+    Lattice lattice = new Lattice();
+    switch (topology) {
+      case GRID:
+        createGrid(lattice);
+        break;
+      case AISLES:
+        createAisles(lattice);
+        break;
+      case LOOPS:
+        createLoops(lattice);
+        break;
+      default:
+        throw new IllegalArgumentException("Unhandled topology: " + topology);
+    }
+
+    PlantModelCreationTO model = new PlantModelCreationTO(name);
+    model.getPoints().addAll(lattice.points.values());
+    model.getPaths().addAll(lattice.paths.values());
+    model.getLocationTypes().add(new LocationTypeCreationTO(TRANSFER_LOCATION_TYPE)
+        .setAllowedOperations(Arrays.asList(OP_LOAD, OP_UNLOAD)));
+    model.getLocationTypes().add(new LocationTypeCreationTO(RECHARGE_LOCATION_TYPE)
+        .setAllowedOperations(Arrays.asList(OP_CHARGE)));
+    placeLocations(model, lattice);
+    createBlocks(model, lattice);
+    createVehicles(model);
+    if (visualLayout) {
+      createVisualLayout(model);
+    }
+    return model;
+  }
+
+  /**
+   * Creates a grid in which every point is connected to its neighbours by paths that can be
+   * travelled in both directions.
+   *
+   * @param lattice The lattice to create the points and paths in.
+   */
+  private void createGrid(Lattice lattice) {
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        lattice.addPoint(x, y, true);
+        if (x > 0) {
+          lattice.addPath(x - 1, y, x, y, true);
+        }
+        if (y > 0) {
+          lattice.addPath(x, y - 1, x, y, true);
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates parallel aisles along the y axis, connected by cross aisles.
+   * The aisles are one-way lanes with alternating directions, the cross aisles can be travelled in
+   * both directions.
+   * Only points within the aisles are used for locations and parking positions.
+   *
+   * @param lattice The lattice to create the points and paths in.
+   */
+  private void createAisles(Lattice lattice) {
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        boolean crossAisle = isCrossAisle(y);
+        lattice.addPoint(x, y, !crossAisle);
+        if (y > 0) {
+          // Even aisles lead upwards, odd ones downwards.
+          if (x % 2 == 0) {
+            lattice.addPath(x, y - 1, x, y, false);
+          }
+          else {
+            lattice.addPath(x, y, x, y - 1, false);
+          }
+        }
+        if (x > 0 && crossAisle) {
+          lattice.addPath(x - 1, y, x, y, true);
+        }
+      }
+    }
+  }
+
+  private boolean isCrossAisle(int y) {
+    return y == 0
+        || y == height - 1
+        || (crossAisleInterval > 0 && y % crossAisleInterval == 0);
+  }
+
+  /**
+   * Creates concentric rectangular loops of one-way paths with alternating directions.
+   * Neighbouring loops are connected by two paths that can be travelled in both directions, at
+   * opposite corners.
+   * Positions within the innermost loop that do not form a loop of their own remain empty.
+   *
+   * @param lattice The lattice to create the points and paths in.
+   */
+  private void createLoops(Lattice lattice) {
+    int loopCount = Math.min(width, height) / 2;
+    for (int k = 0; k < loopCount; k++) {
+      List<int[]> loop = loopPositions(k);
+      for (int[] position : loop) {
+        lattice.addPoint(position[0], position[1], true);
+      }
+      for (int i = 0; i < loop.size(); i++) {
+        int[] current = loop.get(i);
+        int[] next = loop.get((i + 1) % loop.size());
+        // Even loops lead clockwise, odd ones counter-clockwise.
+        if (k % 2 == 0) {
+          lattice.addPath(current[0], current[1], next[0], next[1], false);
+        }
+        else {
+          lattice.addPath(next[0], next[1], current[0], current[1], false);
+        }
+      }
+      if (k > 0) {
+        lattice.addPath(k, k - 1, k, k, true);
+        lattice.addPath(width - 1 - k, height - k, width - 1 - k, height - 1 - k, true);
+      }
+    }
+  }
+
+  /**
+   * Returns the lattice positions of the given loop, in order.
+   *
+   * @param k The loop's index, with 0 being the outermost one.
+   * @return The loop's lattice positions.
+   */
+  private List<int[]> loopPositions(int k) {
+    int minX = k;
+    int minY = k;
+    int maxX = width - 1 - k;
+    int maxY = height - 1 - k;
+    List<int[]> result = new ArrayList<>();
+    for (int x = minX; x <= maxX; x++) {
+      result.add(new int[]{x, minY});
+    }
+    for (int y = minY + 1; y <= maxY; y++) {
+      result.add(new int[]{maxX, y});
+    }
+    for (int x = maxX - 1; x >= minX; x--) {
+      result.add(new int[]{x, maxY});
+    }
+    for (int y = maxY - 1; y > minY; y--) {
+      result.add(new int[]{minX, y});
+    }
+    return result;
+  }
+
+  /**
+   * Places transfer locations, recharge locations and parking positions at distinct, randomly
+   * selected halting points.
+   *
+   * @param model The model to add the locations to.
+   * @param lattice The lattice containing the points.
+   */
+  private void placeLocations(PlantModelCreationTO model, Lattice lattice) {
+    List<String> candidates = new ArrayList<>(lattice.haltingPointNames);
+    int required = locationCount + rechargeLocationCount + parkingPositionCount;
+    checkArgument(required <= candidates.size(),
+                  "%s locations and parking positions requested, but only %s halting points "
+                  + "available",
+                  required,
+                  candidates.size());
+    Collections.shuffle(candidates, new Random(seed));
+
+    int index = 0;
+    for (int i = 0; i < locationCount; i++) {
+      model.getLocations().add(createLocation(String.format("Location-%05d", i),
+                                              TRANSFER_LOCATION_TYPE,
+                                              lattice.points.get(candidates.get(index++))));
+    }
+    for (int i = 0; i < rechargeLocationCount; i++) {
+      model.getLocations().add(createLocation(String.format("Recharge-%05d", i),
+                                              RECHARGE_LOCATION_TYPE,
+                                              lattice.points.get(candidates.get(index++))));
+    }
+    for (int i = 0; i < parkingPositionCount; i++) {
+      lattice.points.get(candidates.get(index++)).setType(Point.Type.PARK_POSITION);
+    }
+  }
+
+  private LocationCreationTO createLocation(String locationName,
+                                            String typeName,
+                                            PointCreationTO point) {
+    Map<String, Set<String>> links = new HashMap<>();
+    links.put(point.getName(), new HashSet<>());
+    // Place the location next to its point, between the point's paths.
+    Triple pointPosition = point.getPosition();
+    return new LocationCreationTO(locationName, typeName)
+        .setPosition(new Triple(pointPosition.getX() + pointDistance / 2,
+                                pointPosition.getY() + pointDistance / 2,
+                                0))
+        .setLinks(links);
+  }
+
+  /**
+   * Groups the points and paths within square areas of the lattice into blocks.
+   * Paths crossing the borders of the areas are not part of any block.
+   *
+   * @param model The model to add the blocks to.
+   * @param lattice The lattice containing the points and paths.
+   */
+  private void createBlocks(PlantModelCreationTO model, Lattice lattice) {
+    if (blockSize == 0) {
+      return;
+    }
+    Map<String, Set<String>> membersByArea = new LinkedHashMap<>();
+    for (Map.Entry<String, int[]> entry : lattice.positions.entrySet()) {
+      membersByArea.computeIfAbsent(areaName(entry.getValue()), area -> new HashSet<>())
+          .add(entry.getKey());
+    }
+    for (PathCreationTO path : lattice.paths.values()) {
+      String srcArea = areaName(lattice.positions.get(path.getSrcPointName()));
+      if (srcArea.equals(areaName(lattice.positions.get(path.getDestPointName())))) {
+        membersByArea.get(srcArea).add(path.getName());
+      }
+    }
+    for (Map.Entry<String, Set<String>> entry : membersByArea.entrySet()) {
+      if (entry.getValue().size() > 1) {
+        model.getBlocks().add(new BlockCreationTO(entry.getKey()).setMemberNames(entry.getValue()));
+      }
+    }
+  }
+
+  private String areaName(int[] position) {
+    return String.format("Block-%04d-%04d", position[0] / blockSize, position[1] / blockSize);
+  }
+
+  private void createVehicles(PlantModelCreationTO model) {
+    for (int i = 0; i < vehicleCount; i++) {
+      VehicleCreationTO vehicle = new VehicleCreationTO(String.format("Vehicle-%04d", i))
+          .setMaxVelocity(pathVelocity)
+          .setMaxReverseVelocity(pathVelocity);
+      if (routingGroupCount > 1) {
+        vehicle.setProperty(Router.PROPKEY_ROUTING_GROUP, Integer.toString(i % routingGroupCount));
+      }
+      model.getVehicles().add(vehicle);
+    }
+  }
+
+  /**
+   * Creates a visual layout placing all points and locations at their model positions.
+   *
+   * @param model The model to add the layout to.
+   */
+  private void createVisualLayout(PlantModelCreationTO model) {
+    List<ModelLayoutElementCreationTO> elements = new ArrayList<>();
+    for (PointCreationTO point : model.getPoints()) {
+      elements.add(new ModelLayoutElementCreationTO(point.getName())
+          .setProperty(ElementPropKeys.POINT_POS_X, Long.toString(point.getPosition().getX()))
+          .setProperty(ElementPropKeys.POINT_POS_Y, Long.toString(point.getPosition().getY()))
+          .setProperty(ElementPropKeys.POINT_LABEL_OFFSET_X, "-10")
+          .setProperty(ElementPropKeys.POINT_LABEL_OFFSET_Y, "-20"));
+    }
+    for (PathCreationTO path : model.getPaths()) {
+      elements.add(new ModelLayoutElementCreationTO(path.getName())
+          .setProperty(ElementPropKeys.PATH_CONN_TYPE, "DIRECT"));
+    }
+    for (LocationCreationTO location : model.getLocations()) {
+      elements.add(new ModelLayoutElementCreationTO(location.getName())
+          .setProperty(ElementPropKeys.LOC_POS_X, Long.toString(location.getPosition().getX()))
+          .setProperty(ElementPropKeys.LOC_POS_Y, Long.toString(location.getPosition().getY()))
+          .setProperty(ElementPropKeys.LOC_LABEL_OFFSET_X, "-10")
+          .setProperty(ElementPropKeys.LOC_LABEL_OFFSET_Y, "-20"));
+    }
+    model.getVisualLayouts().add(new VisualLayoutCreationTO("VLayout-01")
+        .setScaleX(50.0)
+        .setScaleY(50.0)
+        .setModelElements(elements));
+  }
+
+  /**
+   * The points and paths created on the lattice.
+   */
+  private class Lattice {
+
+    /**
+     * The points, mapped by their names.
+     */
+    private final Map<String, PointCreationTO> points = new LinkedHashMap<>();
+    /**
+     * The lattice positions of the points, mapped by the points' names.
+     */
+    private final Map<String, int[]> positions = new HashMap<>();
+    /**
+     * The paths, mapped by their names.
+     */
+    private final Map<String, PathCreationTO> paths = new LinkedHashMap<>();
+    /**
+     * The names of points that may have locations or parking positions attached.
+     */
+    private final List<String> haltingPointNames = new ArrayList<>();
+
+    void addPoint(int x, int y, boolean halting) {
+      String pointName = pointName(x, y);
+      points.put(pointName, new PointCreationTO(pointName)
+                 .setPosition(new Triple(x * pointDistance, y * pointDistance, 0)));
+      positions.put(pointName, new int[]{x, y});
+      if (halting) {
+        haltingPointNames.add(pointName);
+      }
+    }
+
+    void addPath(int srcX, int srcY, int destX, int destY, boolean bidirectional) {
+      String srcPointName = pointName(srcX, srcY);
+      String destPointName = pointName(destX, destY);
+      String pathName = srcPointName + " --- " + destPointName;
+      paths.put(pathName, new PathCreationTO(pathName, srcPointName, destPointName)
+                .setLength(pointDistance)
+                .setMaxVelocity(pathVelocity)
+                .setMaxReverseVelocity(bidirectional ? pathVelocity : 0));
+    }
+  }
+
+  /**
+   * The available topologies.
+   */
+  public enum Topology {
+    /**
+     * A rectangular grid with paths that can be travelled in both directions.
+     */
+    GRID,
+    /**
+     * Parallel one-way aisles with alternating directions, connected by cross aisles that can be
+     * travelled in both directions.
+     */
+    AISLES,
+    /**
+     * Concentric one-way loops with alternating directions, connected at two corners each.
+     */
+    LOOPS
+  }
+}
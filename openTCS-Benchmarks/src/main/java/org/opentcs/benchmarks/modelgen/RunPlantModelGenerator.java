@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.modelgen;
+
+import java.io.File;
+import java.util.Locale;
+import org.opentcs.access.to.model.PlantModelCreationTO;
+
+/**
+ * Generates a plant model and writes it to a file in the kernel's XML model format.
+ * <p>
+ * Settings are passed as arguments of the form <code>key=value</code>, e.g.:
+ * </p>
+ * <pre>
+ * topology=AISLES width=100 height=200 locations=2000 vehicles=100 output=model.xml
+ * </pre>
+ * <p>
+ * To load the generated model into the kernel, copy it to the kernel's data directory as
+ * <code>model.xml</code>.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class RunPlantModelGenerator {
+
+  /**
+   * The usage information.
+   */
+  private static final String USAGE
+      = "Arguments (key=value):\n"
+      + "  output=<file>               The file to write to (required)\n"
+      + "  name=<name>                 The model's name\n"
+      + "  topology=GRID|AISLES|LOOPS  The topology of points and paths\n"
+      + "  width=<n>                   The number of lattice positions in x direction\n"
+      + "  height=<n>                  The number of lattice positions in y direction\n"
+      + "  pointDistance=<mm>          The distance between neighbouring points\n"
+      + "  pathVelocity=<mm/s>         The maximum velocity on all paths\n"
+      + "  crossAisleInterval=<n>      The distance between cross aisles (AISLES only)\n"
+      + "  locations=<n>               The number of transfer locations\n"
+      + "  rechargeLocations=<n>       The number of recharge locations\n"
+      + "  parkingPositions=<n>        The number of parking positions\n"
+      + "  vehicles=<n>                The number of vehicles\n"
+      + "  routingGroups=<n>           The number of routing groups for the vehicles\n"
+      + "  blockSize=<n>               The edge length of areas grouped into blocks\n"
+      + "  visualLayout=true|false     Whether to create a visual layout\n"
+      + "  seed=<n>                    The seed for random placements";
+
+  /**
+   * Prevents external instantiation.
+   */
+  private RunPlantModelGenerator() {
+  }
+
+  /**
+   * Generates a plant model with the settings given as arguments and writes it to a file.
+   *
+   * @param args The command line arguments.
+   * @throws Exception If there was a problem generating or writing the model.
+   */
+  public static void main(String[] args)
+      throws Exception {
+    PlantModelGenerator generator = new PlantModelGenerator();
+    File outputFile = null;
+    for (String arg : args) {
+      int separatorIndex = arg.indexOf('=');
+      if (separatorIndex < 1) {
+        exitWithUsage("Invalid argument: " + arg);
+      }
+      String key = arg.substring(0, separatorIndex);
+      String value = arg.substring(separatorIndex + 1);
+      switch (key) {
+        case "output":
+          outputFile = new File(value);
+          break;
+        case "name":
+          generator.setName(value);
+          break;
+        case "topology":
+          generator.setTopology(
+              PlantModelGenerator.Topology.valueOf(value.toUpperCase(Locale.ROOT)));
+          break;
+        case "width":
+          generator.setWidth(Integer.parseInt(value));
+          break;
+        case "height":
+          generator.setHeight(Integer.parseInt(value));
+          break;
+        case "pointDistance":
+          generator.setPointDistance(Integer.parseInt(value));
+          break;
+        case "pathVelocity":
+          generator.setPathVelocity(Integer.parseInt(value));
+          break;
+        case "crossAisleInterval":
+          generator.setCrossAisleInterval(Integer.parseInt(value));
+          break;
+        case "locations":
+          generator.setLocationCount(Integer.parseInt(value));
+          break;
+        case "rechargeLocations":
+          generator.setRechargeLocationCount(Integer.parseInt(value));
+          break;
+        case "parkingPositions":
+          generator.setParkingPositionCount(Integer.parseInt(value));
+          break;
+        case "vehicles":
+          generator.setVehicleCount(Integer.parseInt(value));
+          break;
+        case "routingGroups":
+          generator.setRoutingGroupCount(Integer.parseInt(value));
+          break;
+        case "blockSize":
+          generator.setBlockSize(Integer.parseInt(value));
+          break;
+        case "visualLayout":
+          generator.setVisualLayout(Boolean.parseBoolean(value));
+          break;
+        case "seed":
+          generator.setSeed(Long.parseLong(value));
+          break;
+        default:
+          exitWithUsage("Unknown argument: " + key);
+      }
+    }
+    if (outputFile == null) {
+      exitWithUsage("No output file given.");
+    }
+
+    PlantModelCreationTO model = generator.generate();
+    PlantModelFiles.write(model, outputFile);
+    System.out.println(String.format("Wrote model '%s' with %d points, %d paths, %d locations, "
+        + "%d blocks and %d vehicles to %s.",
+                                     model.getName(),
+                                     model.getPoints().size(),
+                                     model.getPaths().size(),
+                                     model.getLocations().size(),
+                                     model.getBlocks().size(),
+                                     model.getVehicles().size(),
+                                     outputFile.getPath()));
+  }
+
+  private static void exitWithUsage(String message) {
+    System.err.println(message);
+    System.err.println(USAGE);
+    System.exit(1);
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opentcs.benchmarks.BenchmarkModels;
+import org.opentcs.benchmarks.BenchmarkPlant;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator;
+import org.opentcs.benchmarks.modelgen.PlantModelGenerator.Topology;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.TCSResource;
+
+/**
+ * Measures allocating and freeing resources in the reservation pool the way the default scheduler
+ * does it.
+ * Every client moves along its own row of a grid, allocating the next point and freeing the one it
+ * leaves, so that it always holds a fixed number of points.
+ * <p>
+ * (This class lives in the scheduler's package to be able to allocate reservation entries.)
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReservationPoolBenchmark {
+
+  /**
+   * The number of points every client holds.
+   */
+  private static final int HELD_POINT_COUNT = 3;
+
+  @Param({"30", "100"})
+  private int size;
+
+  @Param({"10", "30"})
+  private int clientCount;
+
+  private ReservationPool reservationPool;
+
+  private Scheduler.Client[] clients;
+
+  private Point[][] rows;
+
+  private int[] positions;
+
+  private int clientIndex;
+
+  @Setup
+  public void setUp() {
+    BenchmarkPlant plant
+        = new BenchmarkPlant(BenchmarkModels.create(Topology.GRID, size, 0));
+    reservationPool = new ReservationPool();
+    clients = new Scheduler.Client[clientCount];
+    rows = new Point[clientCount][size];
+    positions = new int[clientCount];
+    for (int i = 0; i < clientCount; i++) {
+      clients[i] = new BenchmarkClient("Client-" + i);
+      for (int x = 0; x < size; x++) {
+        rows[i][x] = plant.getKernel().getTCSObject(Point.class,
+                                                    PlantModelGenerator.pointName(x, i % size));
+      }
+      for (int x = 0; x < HELD_POINT_COUNT; x++) {
+        allocate(clients[i], Collections.singleton(rows[i][x]));
+      }
+      positions[i] = HELD_POINT_COUNT - 1;
+    }
+  }
+
+  @Benchmark
+  public boolean allocateAndFree() {
+    clientIndex = (clientIndex + 1) % clientCount;
+    Scheduler.Client client = clients[clientIndex];
+    Point[] row = rows[clientIndex];
+    int position = positions[clientIndex];
+
+    Set<TCSResource<?>> next = Collections.singleton(row[(position + 1) % row.length]);
+    Set<TCSResource<?>> left
+        = Collections.singleton(row[(position + 1 - HELD_POINT_COUNT + row.length) % row.length]);
+    synchronized (reservationPool) {
+      if (!reservationPool.resourcesAvailableForUser(next, client)) {
+        return false;
+      }
+      allocate(client, next);
+      reservationPool.free(client, left);
+    }
+    positions[clientIndex] = (position + 1) % row.length;
+    return true;
+  }
+
+  @Benchmark
+  public Set<TCSResource<?>> allocatedResources() {
+    clientIndex = (clientIndex + 1) % clientCount;
+    synchronized (reservationPool) {
+      return reservationPool.allocatedResources(clients[clientIndex]);
+    }
+  }
+
+  private void allocate(Scheduler.Client client, Set<TCSResource<?>> resources) {
+    for (TCSResource<?> resource : resources) {
+      reservationPool.getReservationEntry(resource).allocate(client);
+    }
+  }
+
+  /**
+   * A client accepting all allocations.
+   */
+  private static class BenchmarkClient
+      implements Scheduler.Client {
+
+    private final String id;
+
+    BenchmarkClient(String id) {
+      this.id = id;
+    }
+
+    @Override
+    @Nonnull
+    public String getId() {
+      return id;
+    }
+
+    @Override
+    public boolean allocationSuccessful(@Nonnull Set<TCSResource<?>> resources) {
+      return true;
+    }
+
+    @Override
+    public void allocationFailed(@Nonnull Set<TCSResource<?>> resources) {
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import org.opentcs.benchmarks.loadtest.MetricsCollector.VehicleRecord;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * Unit tests for {@link MetricsCollector}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class MetricsCollectorTest {
+
+  private MetricsCollector collector;
+
+  @Before
+  public void setUp() {
+    collector = new MetricsCollector("LoadTest-");
+  }
+
+  @Test
+  public void ignoreOrdersBeforeMeasurement() {
+    TransportOrder order = createOrder("LoadTest-000001");
+    publish(order.withState(TransportOrder.State.BEING_PROCESSED));
+    publish(order.withState(TransportOrder.State.FINISHED));
+
+    collector.startMeasurement(Collections.emptySet());
+    collector.stopMeasurement();
+
+    assertThat(collector.getOrderRecords(), hasSize(0));
+    assertThat(collector.getDispatchLatencies().getCount(), is(0));
+  }
+
+  @Test
+  public void recordOrdersWithinMeasurement() {
+    collector.startMeasurement(Collections.emptySet());
+    TransportOrder order = createOrder("LoadTest-000001");
+    publish(order.withState(TransportOrder.State.BEING_PROCESSED));
+    // A second update while being processed must not count as another dispatch.
+    publish(order.withState(TransportOrder.State.BEING_PROCESSED));
+    publish(order.withState(TransportOrder.State.FINISHED));
+    TransportOrder failedOrder = createOrder("LoadTest-000002");
+    publish(failedOrder.withState(TransportOrder.State.FAILED));
+    collector.stopMeasurement();
+
+    assertThat(collector.getOrderRecords(), hasSize(2));
+    assertThat(collector.getDispatchLatencies().getCount(), is(1));
+    assertThat(collector.getLeadTimes().getCount(), is(1));
+  }
+
+  @Test
+  public void ignoreOrdersNotCreatedByLoadTest() {
+    collector.startMeasurement(Collections.emptySet());
+    TransportOrder order = createOrder("Park-000001");
+    publish(order.withState(TransportOrder.State.BEING_PROCESSED));
+    publish(order.withState(TransportOrder.State.FINISHED));
+    collector.stopMeasurement();
+
+    assertThat(collector.getOrderRecords(), hasSize(0));
+  }
+
+  @Test
+  public void countOrdersAssignedToVehicles() {
+    TransportOrder order1 = createOrder("LoadTest-000001");
+    TransportOrder order2 = createOrder("LoadTest-000002");
+    TransportOrder parkOrder = createOrder("Park-000001");
+    Vehicle vehicle = new Vehicle("Vehicle-0001");
+
+    collector.startMeasurement(Arrays.asList(vehicle));
+    publish(vehicle.withTransportOrder(order1.getReference()));
+    publish(vehicle.withTransportOrder(order1.getReference()));
+    publish(vehicle.withTransportOrder(order2.getReference()));
+    publish(vehicle.withTransportOrder(null));
+    publish(vehicle.withTransportOrder(parkOrder.getReference()));
+    collector.stopMeasurement();
+
+    List<VehicleRecord> records = collector.getVehicleRecords();
+    assertThat(records, hasSize(1));
+    assertThat(records.get(0).getOrderCount(), is(2));
+    VehicleRecord record = records.get(0);
+    assertThat(record.getLoadTestOrderTime() + record.getOtherOrderTime() + record.getIdleTime(),
+               is(collector.getWindowDuration()));
+  }
+
+  private TransportOrder createOrder(String name) {
+    return new TransportOrder(name, new ArrayList<DriveOrder>())
+        .withCreationTime(System.currentTimeMillis());
+  }
+
+  private void publish(TCSObject<?> object) {
+    collector.processEvent(new TCSObjectEvent(object, object, TCSObjectEvent.Type.OBJECT_MODIFIED));
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.benchmarks.modelgen;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+import org.opentcs.access.to.model.LocationCreationTO;
+import org.opentcs.access.to.model.PlantModelCreationTO;
+import org.opentcs.access.to.model.VehicleCreationTO;
+import org.opentcs.components.kernel.Router;
+import org.opentcs.data.model.Point;
+
+/**
+ * Unit tests for {@link PlantModelGenerator}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class PlantModelGeneratorTest {
+
+  @Test
+  public void shouldCreateGridWithBidirectionalPaths() {
+    PlantModelCreationTO model = new PlantModelGenerator()
+        .setTopology(PlantModelGenerator.Topology.GRID)
+        .setWidth(4)
+        .setHeight(3)
+        .generate();
+
+    assertThat(model.getPoints(), hasSize(12));
+    // 3 rows with 3 paths each, 4 columns with 2 paths each
+    assertThat(model.getPaths(), hasSize(17));
+    assertThat(model.getPaths().stream().allMatch(path -> path.getMaxReverseVelocity() > 0),
+               is(true));
+  }
+
+  @Test
+  public void shouldCreateAislesWithOneWayLanes() {
+    PlantModelCreationTO model = new PlantModelGenerator()
+        .setTopology(PlantModelGenerator.Topology.AISLES)
+        .setWidth(4)
+        .setHeight(5)
+        .setLocationCount(12)
+        .generate();
+
+    assertThat(model.getPoints(), hasSize(20));
+    // 4 aisles with 4 one-way paths each, 2 cross aisles with 3 paths each
+    assertThat(model.getPaths(), hasSize(22));
+    assertThat(model.getPaths().stream().filter(path -> path.getMaxReverseVelocity() == 0).count(),
+               is(16L));
+    // Only the 12 points within the aisles may have locations attached.
+    Set<String> linkedPoints = model.getLocations().stream()
+        .flatMap(location -> location.getLinks().keySet().stream())
+        .collect(Collectors.toSet());
+    assertThat(linkedPoints, hasSize(12));
+  }
+
+  @Test
+  public void shouldCreateConnectedLoops() {
+    PlantModelCreationTO model = new PlantModelGenerator()
+        .setTopology(PlantModelGenerator.Topology.LOOPS)
+        .setWidth(5)
+        .setHeight(5)
+        .generate();
+
+    // An outer loop of 16 points and an inner loop of 8 points, leaving the center empty
+    assertThat(model.getPoints(), hasSize(24));
+    // One path per point within the loops, two connections between them
+    assertThat(model.getPaths(), hasSize(26));
+  }
+
+  @Test
+  public void shouldPlaceLocationsAndParkingPositionsAtDistinctPoints() {
+    PlantModelCreationTO model = new PlantModelGenerator()
+        .setWidth(5)
+        .setHeight(5)
+        .setLocationCount(10)
+        .setRechargeLocationCount(5)
+        .setParkingPositionCount(10)
+        .generate();
+
+    Set<String> linkedPoints = model.getLocations().stream()
+        .flatMap(location -> location.getLinks().keySet().stream())
+        .collect(Collectors.toSet());
+    Set<String> parkingPositions = model.getPoints().stream()
+        .filter(point -> point.getType() == Point.Type.PARK_POSITION)
+        .map(point -> point.getName())
+        .collect(Collectors.toSet());
+    assertThat(linkedPoints, hasSize(15));
+    assertThat(parkingPositions, hasSize(10));
+    linkedPoints.retainAll(parkingPositions);
+    assertThat(linkedPoints, hasSize(0));
+    assertThat(model.getLocations().stream()
+        .map(LocationCreationTO::getTypeName)
+        .filter(PlantModelGenerator.RECHARGE_LOCATION_TYPE::equals)
+        .count(),
+               is(5L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectMoreLocationsThanPoints() {
+    new PlantModelGenerator()
+        .setWidth(3)
+        .setHeight(3)
+        .setLocationCount(10)
+        .generate();
+  }
+
+  @Test
+  public void shouldCreateSameModelForSameSeed() {
+    PlantModelGenerator generator = new PlantModelGenerator().setLocationCount(20).setSeed(7);
+
+    assertThat(linkedPointNames(generator.generate()), is(linkedPointNames(generator.generate())));
+  }
+
+  @Test
+  public void shouldDistributeVehiclesToRoutingGroups() {
+    PlantModelCreationTO model = new PlantModelGenerator()
+        .setVehicleCount(5)
+        .setRoutingGroupCount(2)
+        .generate();
+
+    assertThat(model.getVehicles().stream()
+        .map(VehicleCreationTO::getProperties)
+        .map(properties -> properties.get(Router.PROPKEY_ROUTING_GROUP))
+        .collect(Collectors.toList())
+        .toString(),
+               is("[0, 1, 0, 1, 0]"));
+  }
+
+  @Test
+  public void shouldGroupPointsAndPathsWithinAreasIntoBlocks() {
+    PlantModelCreationTO model = new PlantModelGenerator()
+        .setWidth(4)
+        .setHeight(4)
+        .setBlockSize(2)
+        .generate();
+
+    assertThat(model.getBlocks(), hasSize(4));
+    // 4 points and 4 paths, each of which can be travelled in both directions
+    assertThat(model.getBlocks().get(0).getMemberNames(), hasSize(8));
+  }
+
+  private String linkedPointNames(PlantModelCreationTO model) {
+    return model.getLocations().stream()
+        .map(location -> location.getLinks().keySet().toString())
+        .collect(Collectors.joining());
+  }
+}
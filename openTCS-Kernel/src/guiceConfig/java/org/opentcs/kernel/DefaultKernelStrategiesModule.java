@@ -20,7 +20,9 @@ import org.opentcs.strategies.basic.dispatching.OrderReservationPool;
 import org.opentcs.strategies.basic.dispatching.TransportOrderSelectionVeto;
 import org.opentcs.strategies.basic.dispatching.TransportOrderSelector;
 import org.opentcs.strategies.basic.dispatching.TransportOrderService;
+import org.opentcs.strategies.basic.dispatching.VehiclePositionIndex;
 import org.opentcs.strategies.basic.dispatching.VehicleSelector;
+import org.opentcs.strategies.basic.dispatching.assignment.BatchAssignmentStrategy;
 import org.opentcs.strategies.basic.dispatching.orderselection.NoOrderSelectionStrategy;
 import org.opentcs.strategies.basic.dispatching.orderselection.ParkingOrderSelectionStrategy;
 import org.opentcs.strategies.basic.dispatching.orderselection.RechargeOrderSelectionStrategy;
@@ -37,6 +39,9 @@ import org.opentcs.strategies.basic.recovery.DefaultRecoveryEvaluatorConfigurati
 import org.opentcs.strategies.basic.routing.DefaultRouter;
 import org.opentcs.strategies.basic.routing.DefaultRouterConfiguration;
 import org.opentcs.strategies.basic.routing.PointRouterFactory;
+import org.opentcs.strategies.basic.routing.jgrapht.CongestionAwareModelGraphMapper;
+import org.opentcs.strategies.basic.routing.jgrapht.CongestionOverlay;
+import org.opentcs.strategies.basic.routing.jgrapht.ContractionHierarchiesPointRouterFactory;
 import org.opentcs.strategies.basic.routing.jgrapht.DefaultModelGraphMapper;
 import org.opentcs.strategies.basic.routing.jgrapht.DijkstraPointRouterFactory;
 import org.opentcs.strategies.basic.routing.jgrapht.EdgeEvaluator;
@@ -47,10 +52,16 @@ import org.opentcs.strategies.basic.routing.jgrapht.EdgeEvaluatorHops;
 import org.opentcs.strategies.basic.routing.jgrapht.EdgeEvaluatorTravelTime;
 import org.opentcs.strategies.basic.routing.jgrapht.FloydWarshallPointRouterFactory;
 import org.opentcs.strategies.basic.routing.jgrapht.ModelGraphMapper;
+import org.opentcs.strategies.basic.routing.jgrapht.RoutingTableStore;
 import org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration;
+import static org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration.EvaluatorType.CONGESTION;
 import static org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration.EvaluatorType.EXPLICIT;
 import static org.opentcs.strategies.basic.routing.jgrapht.ShortestPathConfiguration.EvaluatorType.TRAVELTIME;
+import org.opentcs.strategies.basic.scheduling.DeadlockResolver;
 import org.opentcs.strategies.basic.scheduling.DefaultScheduler;
+import org.opentcs.strategies.basic.scheduling.DefaultSchedulerConfiguration;
+import org.opentcs.strategies.basic.scheduling.OrderWithdrawingDeadlockResolver;
+import org.opentcs.strategies.basic.scheduling.PassiveDeadlockResolver;
 import org.opentcs.util.Comparators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -85,6 +96,28 @@ public class DefaultKernelStrategiesModule
 
   private void configureSchedulerDependencies() {
     Multibinder.newSetBinder(binder(), Scheduler.Module.class);
+
+    DefaultSchedulerConfiguration configuration
+        = getConfigBindingProvider().get(DefaultSchedulerConfiguration.PREFIX,
+                                         DefaultSchedulerConfiguration.class);
+    bind(DefaultSchedulerConfiguration.class)
+        .toInstance(configuration);
+
+    switch (configuration.deadlockResolution()) {
+      case NONE:
+        bind(DeadlockResolver.class)
+            .to(PassiveDeadlockResolver.class);
+        break;
+      case WITHDRAW_ORDER:
+        bind(DeadlockResolver.class)
+            .to(OrderWithdrawingDeadlockResolver.class);
+        break;
+      default:
+        LOG.warn("Unhandled deadlock resolution selected ({}), falling back to NONE.",
+                 configuration.deadlockResolution());
+        bind(DeadlockResolver.class)
+            .to(PassiveDeadlockResolver.class);
+    }
   }
 
   private void configureRouterDependencies() {
@@ -98,8 +131,20 @@ public class DefaultKernelStrategiesModule
     bind(ShortestPathConfiguration.class)
         .toInstance(spConfiguration);
 
-    bind(ModelGraphMapper.class)
-        .to(DefaultModelGraphMapper.class);
+    if (spConfiguration.edgeEvaluators().contains(CONGESTION)) {
+      bind(CongestionOverlay.class)
+          .in(Singleton.class);
+      Multibinder.newSetBinder(binder(), Scheduler.Module.class)
+          .addBinding().to(CongestionOverlay.class);
+      bind(ModelGraphMapper.class)
+          .to(CongestionAwareModelGraphMapper.class);
+    }
+    else {
+      bind(ModelGraphMapper.class)
+          .to(DefaultModelGraphMapper.class);
+    }
+    bind(RoutingTableStore.class)
+        .in(Singleton.class);
 
     switch (spConfiguration.algorithm()) {
       case DIJKSTRA:
@@ -110,6 +155,10 @@ public class DefaultKernelStrategiesModule
         bind(PointRouterFactory.class)
             .to(FloydWarshallPointRouterFactory.class);
         break;
+      case CONTRACTION_HIERARCHIES:
+        bind(PointRouterFactory.class)
+            .to(ContractionHierarchiesPointRouterFactory.class);
+        break;
       default:
         LOG.warn("Unhandled algorithm selected ({}), falling back to Dijkstra's algorithm.",
                  spConfiguration.algorithm());
@@ -134,6 +183,9 @@ public class DefaultKernelStrategiesModule
               case EXPLICIT:
                 result.getComponents().add(new EdgeEvaluatorExplicit());
                 break;
+              case CONGESTION:
+                // Congestion penalties are added live by the graph, see CongestionAwareGraph.
+                break;
               default:
                 throw new IllegalArgumentException("Unhandled evaluator type: " + type);
             }
@@ -171,6 +223,8 @@ public class DefaultKernelStrategiesModule
         .toInstance(new ClosestVehicleComparator());
     bind(AssignedVehicleSelectionStrategy.class)
         .in(Singleton.class);
+    bind(VehiclePositionIndex.class)
+        .in(Singleton.class);
     bind(AvailableVehicleSelectionStrategy.class)
         .in(Singleton.class);
     bind(VehicleSelector.class)
@@ -192,6 +246,8 @@ public class DefaultKernelStrategiesModule
         .in(Singleton.class);
     bind(TransportOrderSelector.class)
         .in(Singleton.class);
+    bind(BatchAssignmentStrategy.class)
+        .in(Singleton.class);
 
     bind(TransportOrderService.class)
         .in(Singleton.class);
@@ -26,6 +26,7 @@ import org.opentcs.access.queries.QueryAvailableScriptFiles;
 import org.opentcs.access.queries.QueryRecoveryStatus;
 import org.opentcs.access.queries.QueryRoutingInfo;
 import org.opentcs.access.queries.QuerySchedulerAllocations;
+import org.opentcs.access.queries.QuerySchedulerContention;
 import org.opentcs.access.to.order.OrderSequenceCreationTO;
 import org.opentcs.access.to.order.TransportOrderCreationTO;
 import org.opentcs.components.kernel.Dispatcher;
@@ -908,6 +909,9 @@ class KernelStateOperating
       return clazz.cast(
           new QuerySchedulerAllocations(scheduler.getAllocations()));
     }
+    else if (QuerySchedulerContention.class.equals(clazz)) {
+      return clazz.cast(scheduler.getContention());
+    }
     else {
       return super.query(clazz);
     }
@@ -18,6 +18,7 @@ import org.opentcs.access.queries.QueryAvailableScriptFiles;
 import org.opentcs.access.queries.QueryRecoveryStatus;
 import org.opentcs.access.queries.QueryRoutingInfo;
 import org.opentcs.access.queries.QuerySchedulerAllocations;
+import org.opentcs.access.queries.QuerySchedulerContention;
 import org.opentcs.access.queries.QueryTopologyInfo;
 
 /**
@@ -38,6 +39,7 @@ public final class Queries {
     queries.add(QueryRecoveryStatus.class);
     queries.add(QueryRoutingInfo.class);
     queries.add(QuerySchedulerAllocations.class);
+    queries.add(QuerySchedulerContention.class);
     queries.add(QueryTopologyInfo.class);
     allQueries = Collections.unmodifiableSet(queries);
   }
@@ -101,14 +101,10 @@ public class DefaultVehicleController
    */
   private final Queue<MovementCommand> futureCommands = new LinkedList<>();
   /**
-   * A command for which a resource allocation is pending and which has not yet been sent to the
-   * adapter.
+   * The resource allocations requested for commands that have not yet been sent to the adapter,
+   * in the order of the commands.
    */
-  private volatile MovementCommand pendingCommand;
-  /**
-   * A set of resources for which allocation is pending.
-   */
-  private volatile Set<TCSResource<?>> pendingResources;
+  private final Queue<PendingAllocation> pendingAllocations = new LinkedList<>();
   /**
    * A list of commands that have been sent to the communication adapter.
    */
@@ -131,11 +127,12 @@ public class DefaultVehicleController
    */
   private final int adapterCommandQueueCapacity;
   /**
-   * Flag indicating that we're currently waiting for resources to be allocated
-   * by the scheduler, ensuring that we do not allocate more than one set of
-   * resources at a time (which can cause deadlocks).
+   * The maximum number of resource allocations we wait for at a time.
+   * With more than one allocation at a time, commands can be sent to the adapter without waiting
+   * for a round trip through the scheduler for every single command, but resources are held
+   * farther ahead of the vehicle (which increases the risk of deadlocks).
    */
-  private volatile boolean waitingForAllocation;
+  private final int allocationLookahead;
 
   /**
    * Creates a new StandardVehicleController associated with the given vehicle.
@@ -163,6 +160,7 @@ public class DefaultVehicleController
 
     this.vehicleModel = commAdapter.getProcessModel();
     this.adapterCommandQueueCapacity = adapter.getCommandQueueCapacity();
+    this.allocationLookahead = Math.max(1, configuration.allocationLookahead());
 
     // Add a first entry into allocatedResources to shift freeing of resources
     // in commandExecuted() by one - we need to free the resources allocated for
@@ -315,7 +313,7 @@ public class DefaultVehicleController
       // The communication adapter MUST have capacity for a new command - its
       // queue should be empty.
       checkState(canSendNextCommand(), "Cannot send next command for some reason");
-      allocateForNextCommand();
+      allocateForNextCommands();
       // Set the vehicle's next expected position.
       Point nextPoint = newOrder.getRoute().getSteps().get(0).getDestinationPoint();
       localKernel.setVehicleNextPosition(vehicle.getReference(),
@@ -330,8 +328,8 @@ public class DefaultVehicleController
 
       // Clear pending resource allocations. If they still arrive, we will
       // refuse them in allocationSuccessful().
-      waitingForAllocation = false;
-      pendingResources = null;
+      pendingAllocations.clear();
+      scheduler.clearPendingAllocations(this);
 
       localKernel.setVehicleRouteProgressIndex(vehicle.getReference(), Vehicle.ROUTE_INDEX_DEFAULT);
     }
@@ -354,7 +352,7 @@ public class DefaultVehicleController
       commAdapter.clearCommandQueue();
       commandsSent.clear();
       futureCommands.clear();
-      pendingCommand = null;
+      withdrawPendingAllocations();
       // Free all resource sets that were reserved for future commands, except the current one...
       Set<TCSResource<?>> neededResources = allocatedResources.poll();
       for (Set<TCSResource<?>> resSet : allocatedResources) {
@@ -372,7 +370,7 @@ public class DefaultVehicleController
   public void resetVehiclePosition() {
     synchronized (commAdapter) {
       checkState(currentDriveOrder == null, "%s: Vehicle has a drive order", vehicle.getName());
-      checkState(!waitingForAllocation,
+      checkState(pendingAllocations.isEmpty(),
                  "%s: Vehicle is waiting for resource allocation",
                  vehicle.getName());
 
@@ -407,45 +405,36 @@ public class DefaultVehicleController
   public boolean allocationSuccessful(@Nonnull Set<TCSResource<?>> resources) {
     requireNonNull(resources, "resources");
 
-    // Look up the command the resources were required for.
-    MovementCommand command;
     synchronized (commAdapter) {
       // Check if we've actually been waiting for these resources now. If not,
       // let the scheduler know that we don't want them.
-      if (!Objects.equals(resources, pendingResources)) {
+      PendingAllocation allocation = findPendingAllocation(resources);
+      if (allocation == null) {
         LOG.warn("{}: Allocated resources ({}) != pending resources ({}), refusing them",
                  vehicle.getName(),
                  resources,
-                 pendingResources);
+                 pendingAllocations);
         return false;
       }
 
-      command = pendingCommand;
-      // If there was no command in the queue, it must have been withdrawn in
-      // the meantime - let the scheduler know that we don't need the resources
-      // any more.
-      if (command == null) {
-        LOG.warn("{}: No pending command, pending resources = {}, refusing allocated resources: {}",
+      // The scheduler grants a client's allocations in the order they were requested. Should a
+      // scheduler not do so, refuse the resources instead of holding them while waiting for the
+      // earlier allocations, and request them again.
+      if (allocation != pendingAllocations.peek()) {
+        LOG.warn("{}: Resources ({}) allocated before pending resources ({}), requesting again",
                  vehicle.getName(),
-                 pendingResources,
-                 resources);
-        waitingForAllocation = false;
-        pendingResources = null;
+                 resources,
+                 pendingAllocations.peek().getResources());
+        scheduler.allocate(this, allocation.getResources());
         return false;
       }
-      pendingCommand = null;
-      pendingResources = null;
 
-      allocatedResources.add(resources);
       // Send the command to the communication adapter.
-      checkState(commAdapter.enqueueCommand(command),
-                 "Comm adapter did not accept command");
-      commandsSent.add(command);
+      sendCommand(pendingAllocations.poll());
 
-      // Check if the communication adapter has capacity for another command.
-      waitingForAllocation = false;
+      // Check if the communication adapter has capacity for more commands.
       if (canSendNextCommand()) {
-        allocateForNextCommand();
+        allocateForNextCommands();
       }
     }
     // Let the scheduler know we've accepted the resources given.
@@ -534,12 +523,12 @@ public class DefaultVehicleController
         LOG.debug("{}: Nothing to free.", vehicle.getName());
       }
       // Check if there are more commands to be processed for the current drive order.
-      if (pendingCommand == null && futureCommands.isEmpty()) {
+      if (pendingAllocations.isEmpty() && futureCommands.isEmpty()) {
         LOG.debug("{}: No more commands in current drive order", vehicle.getName());
         // Check if there are still commands that have been sent to the communication adapter but
         // not yet executed. If not, the whole order has been executed completely - let the kernel
         // know about that so it can give us the next drive order.
-        if (commandsSent.isEmpty() && !waitingForAllocation) {
+        if (commandsSent.isEmpty() && pendingAllocations.isEmpty()) {
           LOG.debug("{}: Current drive order processed", vehicle.getName());
           currentDriveOrder = null;
           // Let the kernel/dispatcher know that the drive order has been processed completely (by
@@ -552,7 +541,7 @@ public class DefaultVehicleController
       // There are more commands to be processed.
       // Check if we can send another command to the comm adapter.
       else if (canSendNextCommand()) {
-        allocateForNextCommand();
+        allocateForNextCommands();
       }
     }
   }
@@ -616,37 +605,83 @@ public class DefaultVehicleController
    * @return <code>true</code> if, and only if, we can send another command.
    */
   private boolean canSendNextCommand() {
-    int sendableCommands = Math.min(adapterCommandQueueCapacity - commandsSent.size(),
-                                    futureCommands.size());
+    int sendableCommands = Math.min(
+        adapterCommandQueueCapacity - commandsSent.size() - pendingAllocations.size(),
+        futureCommands.size());
     if (sendableCommands <= 0) {
       LOG.debug("{}: Cannot send, number of sendable commands: {}",
                 vehicle.getName(),
                 sendableCommands);
       return false;
     }
-    if (waitingForAllocation) {
-      LOG.debug("{}: Cannot send, waiting for allocation", vehicle.getName());
+    if (pendingAllocations.size() >= allocationLookahead) {
+      LOG.debug("{}: Cannot send, waiting for {} allocation(s)",
+                vehicle.getName(),
+                pendingAllocations.size());
       return false;
     }
     return true;
   }
 
+  /**
+   * Allocate the resources needed for executing the next commands, as many as the adapter's
+   * capacity and the allocation lookahead permit.
+   */
+  private void allocateForNextCommands() {
+    do {
+      allocateForNextCommand();
+    }
+    while (canSendNextCommand());
+  }
+
   /**
    * Allocate the resources needed for executing the next command.
    */
   private void allocateForNextCommand() {
-    checkState(pendingCommand == null, "pendingCommand != null");
-
     // Find out which resources are actually needed for the next command.
     MovementCommand moveCmd = futureCommands.poll();
-    pendingResources = getNeededResources(moveCmd);
-    LOG.debug("{}: Allocating resources: {}", vehicle.getName(), pendingResources);
-    scheduler.allocate(this, pendingResources);
-    // Remember that we're waiting for an allocation. This ensures that we only
-    // wait for one allocation at a time, and that we get the resources from the
-    // scheduler in the right order.
-    waitingForAllocation = true;
-    pendingCommand = moveCmd;
+    PendingAllocation allocation = new PendingAllocation(moveCmd, getNeededResources(moveCmd));
+    // Remember that we're waiting for the allocation before requesting it. The scheduler grants
+    // the allocations in the order they were requested, so the commands are sent to the adapter
+    // in the right order.
+    pendingAllocations.add(allocation);
+    LOG.debug("{}: Allocating resources: {}", vehicle.getName(), allocation.getResources());
+    scheduler.allocate(this, allocation.getResources());
+  }
+
+  /**
+   * Sends the command of the given granted allocation to the communication adapter.
+   *
+   * @param allocation The allocation.
+   */
+  private void sendCommand(PendingAllocation allocation) {
+    allocatedResources.add(allocation.getResources());
+    checkState(commAdapter.enqueueCommand(allocation.getCommand()),
+               "Comm adapter did not accept command");
+    commandsSent.add(allocation.getCommand());
+  }
+
+  /**
+   * Returns the first pending allocation for the given resources.
+   *
+   * @param resources The resources.
+   * @return The pending allocation, or <code>null</code>, if there is none.
+   */
+  private PendingAllocation findPendingAllocation(Set<TCSResource<?>> resources) {
+    return pendingAllocations.stream()
+        .filter(allocation -> Objects.equals(resources, allocation.getResources()))
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Withdraws all pending allocations from the scheduler, so they do not delay allocations
+   * requested later.
+   * Should any of them still arrive, they are refused as there is no pending allocation for them.
+   */
+  private void withdrawPendingAllocations() {
+    pendingAllocations.clear();
+    scheduler.clearPendingAllocations(this);
   }
 
   /**
@@ -687,7 +722,11 @@ public class DefaultVehicleController
         .orElse(null);
 
     if (nextCommand == null) {
-      nextCommand = pendingCommand;
+      nextCommand = pendingAllocations.stream()
+          .map(allocation -> allocation.getCommand())
+          .filter(cmd -> cmd != null)
+          .findFirst()
+          .orElse(null);
     }
 
     if (nextCommand == null) {
@@ -793,4 +832,46 @@ public class DefaultVehicleController
     }
     return result;
   }
+
+  /**
+   * A resource allocation requested for a command that has not yet been sent to the adapter.
+   */
+  private static class PendingAllocation {
+
+    /**
+     * The resources requested.
+     */
+    private final Set<TCSResource<?>> resources;
+    /**
+     * The command the resources are needed for.
+     */
+    private final MovementCommand command;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param command The command the resources are needed for.
+     * @param resources The resources requested.
+     */
+    PendingAllocation(MovementCommand command, Set<TCSResource<?>> resources) {
+      this.command = requireNonNull(command, "command");
+      this.resources = requireNonNull(resources, "resources");
+    }
+
+    public Set<TCSResource<?>> getResources() {
+      return resources;
+    }
+
+    public MovementCommand getCommand() {
+      return command;
+    }
+
+    @Override
+    public String toString() {
+      return "PendingAllocation{"
+          + "resources=" + resources
+          + ", command=" + command
+          + '}';
+    }
+  }
 }
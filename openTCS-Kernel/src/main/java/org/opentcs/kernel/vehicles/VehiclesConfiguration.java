@@ -30,4 +30,15 @@ public interface VehiclesConfiguration {
         "If not ignored, unknown positions reset the vehicle's position in the course model."
       })
   boolean ignoreUnknownReportedPositions();
+
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "The maximum number of resource allocations a vehicle controller requests in advance.",
+        "With values greater than 1, allocations for consecutive movement commands are requested "
+        + "without waiting for the previous ones to be granted, keeping the communication "
+        + "adapter's command queue filled.",
+        "Resources are then held farther ahead of vehicles, increasing the risk of deadlocks."
+      })
+  int allocationLookahead();
 }
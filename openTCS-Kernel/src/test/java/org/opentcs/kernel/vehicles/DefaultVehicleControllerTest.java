@@ -11,10 +11,12 @@
  */
 package org.opentcs.kernel.vehicles;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import net.engio.mbassy.bus.MBassador;
 import net.engio.mbassy.bus.config.BusConfiguration;
 import net.engio.mbassy.listener.Handler;
@@ -22,6 +24,7 @@ import org.junit.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -32,11 +35,13 @@ import org.opentcs.components.kernel.Scheduler;
 import org.opentcs.data.model.Location;
 import org.opentcs.data.model.Path;
 import org.opentcs.data.model.Point;
+import org.opentcs.data.model.TCSResource;
 import org.opentcs.data.model.Triple;
 import org.opentcs.data.model.Vehicle;
 import org.opentcs.data.order.DriveOrder;
 import org.opentcs.data.order.Route;
 import org.opentcs.drivers.vehicle.LoadHandlingDevice;
+import org.opentcs.drivers.vehicle.MovementCommand;
 import org.opentcs.drivers.vehicle.VehicleCommAdapter;
 import org.opentcs.drivers.vehicle.VehicleCommAdapterEvent;
 import org.opentcs.drivers.vehicle.VehicleProcessModel;
@@ -237,4 +242,117 @@ public class DefaultVehicleControllerTest {
     // Should result in an IllegalStateException:
     stdVehicleController.setDriveOrder(driveOrder, new HashMap<>());
   }
+
+  @Test
+  public void shouldRequestAllocationsUpToLookahead() {
+    RecordingScheduler recordingScheduler = new RecordingScheduler();
+    DefaultVehicleController controller = createLookaheadController(recordingScheduler, 2);
+
+    controller.setDriveOrder(createDriveOrder(3), new HashMap<>());
+
+    assertEquals(2, recordingScheduler.requestedAllocations.size());
+  }
+
+  @Test
+  public void shouldRefuseAndRequestAgainAllocationGrantedOutOfOrder() {
+    RecordingScheduler recordingScheduler = new RecordingScheduler();
+    DefaultVehicleController controller = createLookaheadController(recordingScheduler, 2);
+    List<MovementCommand> sentCommands = new ArrayList<>();
+    when(commAdapter.enqueueCommand(any())).thenAnswer(invocation -> {
+      sentCommands.add(invocation.getArgument(0));
+      return true;
+    });
+
+    controller.setDriveOrder(createDriveOrder(3), new HashMap<>());
+    Set<TCSResource<?>> firstResources = recordingScheduler.requestedAllocations.get(0);
+    Set<TCSResource<?>> secondResources = recordingScheduler.requestedAllocations.get(1);
+
+    // Resources granted before those requested earlier are not held, but requested again.
+    assertFalse(controller.allocationSuccessful(secondResources));
+    assertTrue(sentCommands.isEmpty());
+    assertEquals(3, recordingScheduler.requestedAllocations.size());
+    assertEquals(secondResources, recordingScheduler.requestedAllocations.get(2));
+
+    assertTrue(controller.allocationSuccessful(firstResources));
+    assertEquals(1, sentCommands.size());
+    assertTrue(firstResources.contains(sentCommands.get(0).getStep().getDestinationPoint()));
+    assertEquals(4, recordingScheduler.requestedAllocations.size());
+
+    assertTrue(controller.allocationSuccessful(secondResources));
+    assertEquals(2, sentCommands.size());
+    assertTrue(secondResources.contains(sentCommands.get(1).getStep().getDestinationPoint()));
+
+    controller.terminate();
+  }
+
+  @Test
+  public void shouldWithdrawPendingAllocationsWhenClearingCommandQueue() {
+    RecordingScheduler recordingScheduler = new RecordingScheduler();
+    DefaultVehicleController controller = createLookaheadController(recordingScheduler, 2);
+    List<MovementCommand> sentCommands = new ArrayList<>();
+    when(commAdapter.enqueueCommand(any())).thenAnswer(invocation -> {
+      sentCommands.add(invocation.getArgument(0));
+      return true;
+    });
+
+    controller.setDriveOrder(createDriveOrder(3), new HashMap<>());
+    Set<TCSResource<?>> firstResources = recordingScheduler.requestedAllocations.get(0);
+    controller.clearCommandQueue();
+
+    assertEquals(1, recordingScheduler.clearedCount);
+    // Should the withdrawn allocation still be granted, it is refused.
+    assertFalse(controller.allocationSuccessful(firstResources));
+    assertTrue(sentCommands.isEmpty());
+
+    controller.terminate();
+  }
+
+  private DefaultVehicleController createLookaheadController(Scheduler scheduler, int lookahead) {
+    doReturn(3).when(commAdapter).getCommandQueueCapacity();
+    VehiclesConfiguration lookaheadConfiguration = mock(VehiclesConfiguration.class);
+    when(lookaheadConfiguration.allocationLookahead()).thenReturn(lookahead);
+    DefaultVehicleController controller = new DefaultVehicleController(vehicle,
+                                                                       commAdapter,
+                                                                       localKernel,
+                                                                       scheduler,
+                                                                       eventBus,
+                                                                       lookaheadConfiguration);
+    controller.initialize();
+    return controller;
+  }
+
+  private DriveOrder createDriveOrder(int stepCount) {
+    Location location = dataObjectFactory.createLocation();
+    List<Route.Step> steps = new ArrayList<>();
+    Point srcPoint = dataObjectFactory.createPoint();
+    for (int i = 0; i < stepCount; i++) {
+      Point dstPoint = dataObjectFactory.createPoint();
+      Path stepPath = dataObjectFactory.createPath(srcPoint.getReference(), dstPoint.getReference());
+      steps.add(new Route.Step(stepPath, srcPoint, dstPoint, Vehicle.Orientation.FORWARD, i));
+      srcPoint = dstPoint;
+    }
+    return new DriveOrder(new DriveOrder.Destination(location.getReference()))
+        .withRoute(new Route(steps, stepCount));
+  }
+
+  /**
+   * A scheduler that only records requested allocations, leaving it to the test to grant them.
+   */
+  private static class RecordingScheduler
+      extends DummyScheduler {
+
+    private final List<Set<TCSResource<?>>> requestedAllocations = new ArrayList<>();
+
+    private int clearedCount;
+
+    @Override
+    public void allocate(Client resourceUser, Set<TCSResource<?>> resources) {
+      requestedAllocations.add(resources);
+    }
+
+    @Override
+    public void clearPendingAllocations(Client resourceUser) {
+      clearedCount++;
+    }
+  }
 }
@@ -9,10 +9,14 @@ package org.opentcs.strategies.basic.dispatching;
 
 import static com.google.common.base.Preconditions.checkState;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import org.opentcs.access.LocalKernel;
 import org.opentcs.components.kernel.Dispatcher;
@@ -23,7 +27,7 @@ import org.opentcs.data.order.DriveOrder;
 import org.opentcs.data.order.TransportOrder;
 import org.opentcs.drivers.vehicle.VehicleController;
 import org.opentcs.drivers.vehicle.VehicleControllerPool;
-import org.opentcs.util.QueueProcessor;
+import org.opentcs.strategies.basic.dispatching.assignment.BatchAssignmentStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +67,10 @@ public class DefaultDispatcher
    * Selects transport orders for available vehicles.
    */
   private final TransportOrderSelector orderSelector;
+  /**
+   * Assigns transport orders to vehicles in batches.
+   */
+  private final BatchAssignmentStrategy batchAssignmentStrategy;
   /**
    * Stores reservations of transport orders for vehicles.
    */
@@ -83,6 +91,10 @@ public class DefaultDispatcher
    * Redispatches available vehicles periodically.
    */
   private PeriodicVehicleRedispatchingTask vehicleRedispatchingTask;
+  /**
+   * Triggers batch assignments when their time window has passed.
+   */
+  private ScheduledExecutorService batchAssignmentTimer;
   /**
    * Indicates whether this component is enabled.
    */
@@ -103,6 +115,7 @@ public class DefaultDispatcher
    * @param orderReservationPool Stores reservations of transport orders for vehicles.
    * @param vehicleSelector Selects vehicles for available transport orders.
    * @param orderSelector Selects transport orders for available vehicles.
+   * @param batchAssignmentStrategy Assigns transport orders to vehicles in batches.
    * @param transportOrderService Provides services for working with transport orders.
    * @param configuration Provides runtime configuration data.
    */
@@ -114,6 +127,7 @@ public class DefaultDispatcher
                            OrderReservationPool orderReservationPool,
                            VehicleSelector vehicleSelector,
                            TransportOrderSelector orderSelector,
+                           BatchAssignmentStrategy batchAssignmentStrategy,
                            TransportOrderService transportOrderService,
                            DefaultDispatcherConfiguration configuration) {
     this.router = requireNonNull(newRouter, "newRouter");
@@ -123,6 +137,8 @@ public class DefaultDispatcher
     this.orderReservationPool = requireNonNull(orderReservationPool, "orderReservationPool");
     this.vehicleSelector = requireNonNull(vehicleSelector, "vehicleSelector");
     this.orderSelector = requireNonNull(orderSelector, "orderSelector");
+    this.batchAssignmentStrategy = requireNonNull(batchAssignmentStrategy,
+                                                  "batchAssignmentStrategy");
     this.transportOrderService = requireNonNull(transportOrderService, "transportOrderService");
     this.configuration = requireNonNull(configuration, "configuration");
   }
@@ -134,8 +150,14 @@ public class DefaultDispatcher
     }
     vehiclesToDisable.clear();
     orderReservationPool.clear();
+    transportOrderService.clear();
     orderSelector.initialize();
     vehicleSelector.initialize();
+    batchAssignmentStrategy.initialize();
+    if (configuration.batchAssignmentWindow() > 0) {
+      batchAssignmentTimer = Executors.newSingleThreadScheduledExecutor(
+          runnable -> new Thread(runnable, "DefaultDispatcher-batchAssignmentTimer"));
+    }
     // Initialize the dispatching task.
     dispatcherTask = new DispatcherTask();
     new Thread(dispatcherTask, "DefaultDispatcher-dispatcherTask").start();
@@ -158,8 +180,15 @@ public class DefaultDispatcher
       return;
     }
     LOG.info("Terminating...");
+    LOG.info("Merged {} dispatch triggers with already queued ones.",
+             dispatcherTask.getMergedCount());
     orderSelector.terminate();
     vehicleSelector.terminate();
+    batchAssignmentStrategy.terminate();
+    if (batchAssignmentTimer != null) {
+      batchAssignmentTimer.shutdownNow();
+      batchAssignmentTimer = null;
+    }
     dispatcherTask.terminate();
     vehicleRedispatchingTask.terminate();
     initialized = false;
@@ -234,7 +263,11 @@ public class DefaultDispatcher
 
   @Override
   public synchronized String getInfo() {
-    return "";
+    if (!isInitialized()) {
+      return "";
+    }
+    return "Queued dispatch triggers: " + dispatcherTask.getQueueSize()
+        + ", merged dispatch triggers: " + dispatcherTask.getMergedCount();
   }
 
   /**
@@ -347,7 +380,20 @@ public class DefaultDispatcher
    * The task doing the actual dispatching of transport orders and vehicles.
    */
   private class DispatcherTask
-      extends QueueProcessor<Object> {
+      extends DispatchQueueProcessor {
+
+    /**
+     * The vehicles waiting for the next batch assignment.
+     */
+    private final Set<TCSObjectReference<Vehicle>> batchVehicles = new LinkedHashSet<>();
+    /**
+     * The transport orders waiting for the next batch assignment.
+     */
+    private final Set<TCSObjectReference<TransportOrder>> batchOrders = new LinkedHashSet<>();
+    /**
+     * Whether the next batch assignment has already been scheduled.
+     */
+    private boolean batchAssignmentScheduled;
 
     /**
      * Creates a new DispatcherTask.
@@ -381,6 +427,12 @@ public class DefaultDispatcher
         LOG.debug("Dispatching vehicle {}", vehicle.getName());
         dispatchVehicle(vehicle);
       }
+      else if (dispatchable instanceof BatchAssignmentDue) {
+        LOG.debug("Dispatching batch of {} vehicles and {} transport orders",
+                  batchVehicles.size(),
+                  batchOrders.size());
+        dispatchBatch();
+      }
       else if (dispatchable instanceof WithdrawalByVehicle) {
         WithdrawalByVehicle withdrawal = (WithdrawalByVehicle) dispatchable;
         LOG.debug("Dispatching withdrawal for vehicle {}", withdrawal.getVehicle().getName());
@@ -452,6 +504,16 @@ public class DefaultDispatcher
     private void dispatchTransportOrderDispatchable(TransportOrder order) {
       requireNonNull(order, "order");
 
+      if (batchAssignmentTimer != null && batchAssignmentStrategy.isCandidate(order)) {
+        LOG.debug("Deferring order {} to next batch assignment", order.getName());
+        batchOrders.add(order.getReference());
+        scheduleBatch();
+        return;
+      }
+      selectVehicleForOrder(order);
+    }
+
+    private void selectVehicleForOrder(TransportOrder order) {
       // Get the vehicle that needs the least time to process the
       // transport order.
       VehicleOrderSelection vehicleSelection = vehicleSelector.selectVehicle(order);
@@ -524,6 +586,16 @@ public class DefaultDispatcher
     private void dispatchVehicleIdle(Vehicle vehicle) {
       requireNonNull(vehicle, "vehicle");
 
+      if (batchAssignmentTimer != null && batchAssignmentStrategy.isCandidate(vehicle)) {
+        LOG.debug("{}: IDLE, deferring to next batch assignment", vehicle.getName());
+        batchVehicles.add(vehicle.getReference());
+        scheduleBatch();
+        return;
+      }
+      selectOrderForVehicle(vehicle);
+    }
+
+    private void selectOrderForVehicle(Vehicle vehicle) {
       LOG.debug("{}: IDLE, looking for a transport order", vehicle.getName());
       VehicleOrderSelection orderSelection = orderSelector.selectTransportOrder(vehicle);
       if (orderSelection.isAssignable()) {
@@ -534,6 +606,55 @@ public class DefaultDispatcher
       }
     }
 
+    /**
+     * Schedules the next batch assignment, unless it is already scheduled.
+     */
+    private void scheduleBatch() {
+      if (batchAssignmentScheduled) {
+        return;
+      }
+      batchAssignmentScheduled = true;
+      batchAssignmentTimer.schedule(() -> addToQueue(new BatchAssignmentDue()),
+                                    configuration.batchAssignmentWindow(),
+                                    TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Assigns the transport orders and vehicles collected during the batch assignment's time window
+     * to each other, and lets the regular strategies handle the ones left over.
+     */
+    private void dispatchBatch() {
+      batchAssignmentScheduled = false;
+      List<VehicleOrderSelection> selections
+          = batchAssignmentStrategy.selectAssignments(batchVehicles, batchOrders);
+      for (VehicleOrderSelection selection : selections) {
+        Vehicle vehicle = selection.getVehicle();
+        TransportOrder order = selection.getTransportOrder();
+        batchVehicles.remove(vehicle.getReference());
+        batchOrders.remove(order.getReference());
+        // Make sure the vehicle is not in the queue any more before we re-dispatch it.
+        removeFromQueue(vehicle);
+        assignTransportOrder(vehicle, order, selection.getDriveOrders());
+      }
+
+      for (TCSObjectReference<Vehicle> vehicleRef : batchVehicles) {
+        Vehicle vehicle = kernel.getTCSObject(Vehicle.class, vehicleRef);
+        if (vehicle != null
+            && vehicleDispatchable(vehicle)
+            && vehicle.hasProcState(Vehicle.ProcState.IDLE)) {
+          selectOrderForVehicle(vehicle);
+        }
+      }
+      batchVehicles.clear();
+      for (TCSObjectReference<TransportOrder> orderRef : batchOrders) {
+        TransportOrder order = kernel.getTCSObject(TransportOrder.class, orderRef);
+        if (order != null && order.hasState(TransportOrder.State.DISPATCHABLE)) {
+          selectVehicleForOrder(order);
+        }
+      }
+      batchOrders.clear();
+    }
+
     /**
      * Dispatch the given vehicle; it is processing a transport order and has
      * finished a drive order - either finish a pending withdrawal or assign the
@@ -716,4 +837,16 @@ public class DefaultDispatcher
     }
 
   } // class DispatcherTask
+
+  /**
+   * Marks the end of a batch assignment's time window in the dispatcher's queue.
+   */
+  private static class BatchAssignmentDue {
+
+    /**
+     * Creates a new instance.
+     */
+    BatchAssignmentDue() {
+    }
+  }
 }
@@ -52,4 +52,46 @@ public interface DefaultDispatcherConfiguration {
       description = "The interval between redispatching of vehicles.",
       orderKey = "1_misc")
   long idleVehicleRedispatchingInterval();
+
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "The time window (in ms) during which dispatchable transport orders and idle vehicles are "
+        + "collected to be assigned to each other at once, minimizing the vehicles' total travel "
+        + "costs.",
+        "0 disables batch assignment, assigning orders and vehicles as soon as they are available."
+      },
+      orderKey = "2_batch")
+  long batchAssignmentWindow();
+
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "The maximum number of threads computing routes for vehicle candidates of a transport "
+        + "order in parallel.",
+        "1 computes them sequentially on the dispatcher's thread."
+      },
+      orderKey = "3_selection_0")
+  int vehicleSelectionParallelism();
+
+  @ConfigurationEntry(
+      type = "Boolean",
+      description = {
+        "Whether to skip computing routes for vehicle candidates that cannot be cheaper than the "
+        + "best candidate found so far, judging by the costs to the order's first destination.",
+        "Ignored unless vehicle candidates are compared by their routing costs first."
+      },
+      orderKey = "3_selection_1")
+  boolean pruneVehicleCandidates();
+
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "The number of vehicles nearest to a transport order's first destination (as the crow "
+        + "flies) to compute routes for first.",
+        "The remaining vehicles are only considered if none of these can process the order.",
+        "0 considers all vehicles at once."
+      },
+      orderKey = "3_selection_2")
+  int vehicleCandidatePrefilterSize();
 }
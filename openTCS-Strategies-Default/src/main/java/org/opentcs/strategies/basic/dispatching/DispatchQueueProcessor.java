@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Queue;
+import org.opentcs.data.TCSObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes the elements queued for the dispatcher.
+ * <p>
+ * Withdrawals are kept in a lane of their own and are processed before any other elements, in the
+ * order they were added.
+ * All other elements are processed in the order they were first added, with elements referring to
+ * the same object (e.g. multiple copies of the same vehicle) being merged while they are pending:
+ * Adding an element for an object that is already queued replaces the queued element but keeps its
+ * position in the queue.
+ * Since the dispatcher fetches an up-to-date copy of every object it processes, this does not lose
+ * any information.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+abstract class DispatchQueueProcessor
+    implements Runnable {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(DispatchQueueProcessor.class);
+  /**
+   * The withdrawals to be processed.
+   */
+  private final Queue<Object> withdrawals = new ArrayDeque<>();
+  /**
+   * The other elements to be processed, by their keys.
+   */
+  private final Map<Object, Object> elements = new LinkedHashMap<>();
+  /**
+   * The number of elements merged with already queued ones.
+   */
+  private long mergedCount;
+  /**
+   * A flag indicating whether this task has been terminated.
+   */
+  private volatile boolean terminated;
+
+  /**
+   * Creates a new instance.
+   */
+  DispatchQueueProcessor() {
+  }
+
+  @Override
+  public void run() {
+    while (!terminated) {
+      Object element = null;
+      synchronized (elements) {
+        // Wait until there is an element to be processed or we're terminated.
+        while (!terminated && withdrawals.isEmpty() && elements.isEmpty()) {
+          try {
+            elements.wait();
+          }
+          catch (InterruptedException exc) {
+            LOG.warn("Unexpectedly interrupted, ignored", exc);
+          }
+        }
+        if (!terminated) {
+          element = withdrawals.isEmpty() ? pollElement() : withdrawals.poll();
+        }
+      }
+      if (element != null) {
+        processQueueElement(element);
+      }
+    }
+    LOG.debug("Processing task terminated.");
+  }
+
+  /**
+   * Adds an element to the queue, merging it with an already queued element for the same object.
+   *
+   * @param newElement The element to be added.
+   */
+  public void addToQueue(Object newElement) {
+    requireNonNull(newElement, "newElement");
+
+    synchronized (elements) {
+      if (isWithdrawal(newElement)) {
+        withdrawals.add(newElement);
+      }
+      else if (elements.put(keyOf(newElement), newElement) != null) {
+        mergedCount++;
+      }
+      elements.notify();
+    }
+  }
+
+  /**
+   * Removes the element for the same object as the given one from the queue.
+   *
+   * @param rmElement The element to be removed.
+   */
+  public void removeFromQueue(Object rmElement) {
+    requireNonNull(rmElement, "rmElement");
+
+    synchronized (elements) {
+      elements.remove(keyOf(rmElement));
+    }
+  }
+
+  /**
+   * Returns the number of elements that were merged with already queued ones.
+   *
+   * @return The number of merged elements.
+   */
+  public long getMergedCount() {
+    synchronized (elements) {
+      return mergedCount;
+    }
+  }
+
+  /**
+   * Returns the number of elements currently queued.
+   *
+   * @return The number of elements currently queued.
+   */
+  public int getQueueSize() {
+    synchronized (elements) {
+      return withdrawals.size() + elements.size();
+    }
+  }
+
+  /**
+   * Terminates this task.
+   */
+  public void terminate() {
+    terminated = true;
+    synchronized (elements) {
+      elements.notify();
+    }
+  }
+
+  /**
+   * Processes a queue element.
+   *
+   * @param element The element.
+   */
+  protected abstract void processQueueElement(Object element);
+
+  private Object pollElement() {
+    Iterator<Object> iter = elements.values().iterator();
+    Object result = iter.next();
+    iter.remove();
+    return result;
+  }
+
+  private static boolean isWithdrawal(Object element) {
+    return element instanceof WithdrawalByOrder || element instanceof WithdrawalByVehicle;
+  }
+
+  private static Object keyOf(Object element) {
+    return element instanceof TCSObject ? ((TCSObject<?>) element).getReference() : element;
+  }
+}
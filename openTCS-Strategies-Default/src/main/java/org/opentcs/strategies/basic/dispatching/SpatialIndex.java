@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.opentcs.data.model.Triple;
+import static org.opentcs.util.Assertions.checkArgument;
+
+/**
+ * Indexes elements by their positions in the plane, using a grid of square cells.
+ * <p>
+ * Elements can be moved by putting them again with a new position.
+ * Only the x and y coordinates of positions are considered.
+ * Instances of this class are thread-safe.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ * @param <E> The type of the indexed elements.
+ */
+public class SpatialIndex<E> {
+
+  /**
+   * The width and height of a cell.
+   */
+  private final long cellSize;
+  /**
+   * The elements in each non-empty cell, by the cells' keys.
+   */
+  private final Map<Long, Set<E>> cells = new HashMap<>();
+  /**
+   * The positions of the indexed elements.
+   */
+  private final Map<E, Triple> positions = new HashMap<>();
+  /**
+   * The smallest x index of any cell that was ever occupied.
+   */
+  private int minCellX = Integer.MAX_VALUE;
+  /**
+   * The largest x index of any cell that was ever occupied.
+   */
+  private int maxCellX = Integer.MIN_VALUE;
+  /**
+   * The smallest y index of any cell that was ever occupied.
+   */
+  private int minCellY = Integer.MAX_VALUE;
+  /**
+   * The largest y index of any cell that was ever occupied.
+   */
+  private int maxCellY = Integer.MIN_VALUE;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param cellSize The width and height of a cell.
+   */
+  public SpatialIndex(long cellSize) {
+    checkArgument(cellSize > 0, "cellSize <= 0: %s", cellSize);
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * Puts the given element at the given position, moving it if it is already indexed.
+   *
+   * @param element The element.
+   * @param position The element's position.
+   */
+  public synchronized void put(@Nonnull E element, @Nonnull Triple position) {
+    requireNonNull(element, "element");
+    requireNonNull(position, "position");
+
+    remove(element);
+    int cellX = cellIndex(position.getX());
+    int cellY = cellIndex(position.getY());
+    cells.computeIfAbsent(cellKey(cellX, cellY), key -> new LinkedHashSet<>()).add(element);
+    positions.put(element, position);
+    minCellX = Math.min(minCellX, cellX);
+    maxCellX = Math.max(maxCellX, cellX);
+    minCellY = Math.min(minCellY, cellY);
+    maxCellY = Math.max(maxCellY, cellY);
+  }
+
+  /**
+   * Removes the given element from this index.
+   *
+   * @param element The element.
+   */
+  public synchronized void remove(@Nonnull E element) {
+    requireNonNull(element, "element");
+
+    Triple position = positions.remove(element);
+    if (position == null) {
+      return;
+    }
+    Long key = cellKey(cellIndex(position.getX()), cellIndex(position.getY()));
+    Set<E> cell = cells.get(key);
+    cell.remove(element);
+    if (cell.isEmpty()) {
+      cells.remove(key);
+    }
+  }
+
+  /**
+   * Removes all elements from this index.
+   */
+  public synchronized void clear() {
+    cells.clear();
+    positions.clear();
+    minCellX = Integer.MAX_VALUE;
+    maxCellX = Integer.MIN_VALUE;
+    minCellY = Integer.MAX_VALUE;
+    maxCellY = Integer.MIN_VALUE;
+  }
+
+  /**
+   * Returns the number of indexed elements.
+   *
+   * @return The number of indexed elements.
+   */
+  public synchronized int size() {
+    return positions.size();
+  }
+
+  /**
+   * Returns the indexed elements nearest to the given position.
+   * <p>
+   * The cells are searched in rings of growing distance around the cell containing the given
+   * position, until enough elements were found and no element in cells further away could be
+   * nearer than the ones found.
+   * </p>
+   *
+   * @param position The position.
+   * @param count The maximum number of elements to return.
+   * @param filter Elements not accepted by this filter are ignored.
+   * @return The nearest elements accepted by the filter, sorted by their distances to the given
+   * position (nearest first).
+   */
+  @Nonnull
+  public synchronized List<E> findNearest(@Nonnull Triple position,
+                                          int count,
+                                          @Nonnull Predicate<E> filter) {
+    requireNonNull(position, "position");
+    requireNonNull(filter, "filter");
+    checkArgument(count >= 0, "count < 0: %s", count);
+
+    List<Neighbour<E>> found = new ArrayList<>();
+    if (count == 0 || positions.isEmpty()) {
+      return new ArrayList<>();
+    }
+    int cellX = cellIndex(position.getX());
+    int cellY = cellIndex(position.getY());
+    for (int ring = 0; !isBeyondOccupiedCells(cellX, cellY, ring); ring++) {
+      if (ring == 0) {
+        collect(cellX, cellY, position, filter, found);
+      }
+      else {
+        for (int dx = -ring; dx <= ring; dx++) {
+          collect(cellX + dx, cellY - ring, position, filter, found);
+          collect(cellX + dx, cellY + ring, position, filter, found);
+        }
+        for (int dy = -ring + 1; dy < ring; dy++) {
+          collect(cellX - ring, cellY + dy, position, filter, found);
+          collect(cellX + ring, cellY + dy, position, filter, found);
+        }
+      }
+      if (found.size() >= count) {
+        // Elements in the next ring are at least this far away from the given position.
+        double minNextDistance = (double) ring * cellSize;
+        found.sort(Comparator.comparingDouble(Neighbour::getDistanceSq));
+        if (found.get(count - 1).getDistanceSq() <= minNextDistance * minNextDistance) {
+          break;
+        }
+      }
+    }
+
+    return found.stream()
+        .sorted(Comparator.comparingDouble(Neighbour::getDistanceSq))
+        .limit(count)
+        .map(Neighbour::getElement)
+        .collect(Collectors.toList());
+  }
+
+  private void collect(int cellX,
+                       int cellY,
+                       Triple position,
+                       Predicate<E> filter,
+                       List<Neighbour<E>> found) {
+    Set<E> cell = cells.get(cellKey(cellX, cellY));
+    if (cell == null) {
+      return;
+    }
+    for (E element : cell) {
+      if (filter.test(element)) {
+        found.add(new Neighbour<>(element, distanceSq(position, positions.get(element))));
+      }
+    }
+  }
+
+  private boolean isBeyondOccupiedCells(int cellX, int cellY, int ring) {
+    return (long) cellX - ring < minCellX
+        && (long) cellX + ring > maxCellX
+        && (long) cellY - ring < minCellY
+        && (long) cellY + ring > maxCellY;
+  }
+
+  private int cellIndex(long coordinate) {
+    return (int) Math.floorDiv(coordinate, cellSize);
+  }
+
+  private static long cellKey(int cellX, int cellY) {
+    return ((long) cellX << 32) | (cellY & 0xffffffffL);
+  }
+
+  private static double distanceSq(Triple pos1, Triple pos2) {
+    double dx = pos1.getX() - pos2.getX();
+    double dy = pos1.getY() - pos2.getY();
+    return dx * dx + dy * dy;
+  }
+
+  /**
+   * An element found near a position.
+   *
+   * @param <E> The type of the element.
+   */
+  private static class Neighbour<E> {
+
+    /**
+     * The element.
+     */
+    private final E element;
+    /**
+     * The squared distance of the element to the position.
+     */
+    private final double distanceSq;
+
+    Neighbour(E element, double distanceSq) {
+      this.element = element;
+      this.distanceSq = distanceSq;
+    }
+
+    public E getElement() {
+      return element;
+    }
+
+    public double getDistanceSq() {
+      return distanceSq;
+    }
+  }
+}
@@ -8,7 +8,12 @@
 package org.opentcs.strategies.basic.dispatching;
 
 import static com.google.common.base.Preconditions.checkState;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
 import javax.annotation.Nonnull;
@@ -21,6 +26,11 @@ import org.opentcs.data.order.TransportOrder;
 
 /**
  * Provides service functions for working with transport orders and their states.
+ * <p>
+ * Keeps an index of ACTIVE transport orders blocked by unfinished dependencies or by preceding
+ * orders in their sequences, so that orders unblocked by an order reaching a final state can be
+ * found without checking all transport orders.
+ * </p>
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -30,12 +40,43 @@ public class TransportOrderService {
    * The local kernel instance.
    */
   private final LocalKernel kernel;
+  /**
+   * The blocked orders depending on each unfinished transport order.
+   */
+  private final Map<TCSObjectReference<TransportOrder>, Set<TCSObjectReference<TransportOrder>>>
+      dependentsByOrder = new HashMap<>();
+  /**
+   * The blocked orders waiting for preceding orders in each order sequence.
+   */
+  private final Map<TCSObjectReference<OrderSequence>, Set<TCSObjectReference<TransportOrder>>>
+      waitingOrdersBySequence = new HashMap<>();
+  /**
+   * The blocked orders depending on failed transport orders.
+   * These are unblocked only if the failed orders are removed, so they are checked again whenever
+   * any transport order reaches a final state.
+   */
+  private final Set<TCSObjectReference<TransportOrder>> failedDependents = new HashSet<>();
+  /**
+   * The blocked orders that may have been unblocked since they were last checked.
+   */
+  private final Set<TCSObjectReference<TransportOrder>> unblockedCandidates
+      = new LinkedHashSet<>();
 
   @Inject
   public TransportOrderService(@Nonnull LocalKernel kernel) {
     this.kernel = requireNonNull(kernel, "kernel");
   }
 
+  /**
+   * Forgets all blocked transport orders.
+   */
+  public synchronized void clear() {
+    dependentsByOrder.clear();
+    waitingOrdersBySequence.clear();
+    failedDependents.clear();
+    unblockedCandidates.clear();
+  }
+
   /**
    * Checks if a transport order's dependencies are completely satisfied or not.
    *
@@ -74,18 +115,27 @@ public class TransportOrderService {
   /**
    * Finds transport orders that are ACTIVE and do not have any unfinished dependencies (any more),
    * implicitly marking them as DISPATCHABLE.
+   * <p>
+   * Only orders that were blocked by transport orders that have reached a final state since the
+   * last call are checked.
+   * </p>
    *
    * @return A set of transport orders that are now dispatchable.
    */
   public Set<TransportOrder> findNewDispatchableOrders() {
     Set<TransportOrder> result = new HashSet<>();
-    kernel.getTCSObjects(TransportOrder.class).stream()
-        .filter(order -> order.hasState(TransportOrder.State.ACTIVE))
-        .filter(order -> !hasUnfinishedDependencies(order))
-        .forEach(order -> {
-          updateTransportOrderState(order.getReference(), TransportOrder.State.DISPATCHABLE);
-          result.add(order);
-        });
+    for (TCSObjectReference<TransportOrder> ref : pollUnblockedCandidates()) {
+      TransportOrder order = kernel.getTCSObject(TransportOrder.class, ref);
+      if (order == null || !order.hasState(TransportOrder.State.ACTIVE)) {
+        continue;
+      }
+      if (hasUnfinishedDependencies(order)) {
+        indexBlockedOrder(order);
+        continue;
+      }
+      updateTransportOrderState(ref, TransportOrder.State.DISPATCHABLE);
+      result.add(order);
+    }
     return result;
   }
 
@@ -101,10 +151,75 @@ public class TransportOrderService {
       case FAILED:
         setTOStateFailed(ref);
         break;
+      case ACTIVE:
+        kernel.setTransportOrderState(ref, newState);
+        indexBlockedOrder(kernel.getTCSObject(TransportOrder.class, ref));
+        break;
       default:
         // Set the transport order's state.
         kernel.setTransportOrderState(ref, newState);
     }
+    if (newState.isFinalState()) {
+      releaseBlockedOrders(ref);
+    }
+  }
+
+  /**
+   * Remembers the given order as blocked by each of its unfinished dependencies and by its
+   * sequence, if it is not the next unfinished order in it.
+   *
+   * @param order The order.
+   */
+  private synchronized void indexBlockedOrder(TransportOrder order) {
+    for (TCSObjectReference<TransportOrder> depRef : order.getDependencies()) {
+      TransportOrder dep = kernel.getTCSObject(TransportOrder.class, depRef);
+      if (dep == null || dep.hasState(TransportOrder.State.FINISHED)) {
+        continue;
+      }
+      if (dep.getState().isFinalState()) {
+        failedDependents.add(order.getReference());
+      }
+      else {
+        dependentsByOrder.computeIfAbsent(depRef, ref -> new HashSet<>())
+            .add(order.getReference());
+      }
+    }
+    if (order.getWrappingSequence() != null) {
+      OrderSequence seq = kernel.getTCSObject(OrderSequence.class, order.getWrappingSequence());
+      if (!order.getReference().equals(seq.getNextUnfinishedOrder())) {
+        waitingOrdersBySequence.computeIfAbsent(seq.getReference(), ref -> new HashSet<>())
+            .add(order.getReference());
+      }
+    }
+  }
+
+  /**
+   * Marks the orders blocked by the given order, which has just reached a final state, to be
+   * checked again.
+   *
+   * @param ref A reference to the order.
+   */
+  private synchronized void releaseBlockedOrders(TCSObjectReference<TransportOrder> ref) {
+    Set<TCSObjectReference<TransportOrder>> dependents = dependentsByOrder.remove(ref);
+    if (dependents != null) {
+      unblockedCandidates.addAll(dependents);
+    }
+    TransportOrder order = kernel.getTCSObject(TransportOrder.class, ref);
+    if (order != null && order.getWrappingSequence() != null) {
+      Set<TCSObjectReference<TransportOrder>> waitingOrders
+          = waitingOrdersBySequence.remove(order.getWrappingSequence());
+      if (waitingOrders != null) {
+        unblockedCandidates.addAll(waitingOrders);
+      }
+    }
+    unblockedCandidates.addAll(failedDependents);
+    failedDependents.clear();
+  }
+
+  private synchronized List<TCSObjectReference<TransportOrder>> pollUnblockedCandidates() {
+    List<TCSObjectReference<TransportOrder>> result = new ArrayList<>(unblockedCandidates);
+    unblockedCandidates.clear();
+    return result;
   }
 
   /**
@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.components.Lifecycle;
+import org.opentcs.customizations.kernel.CentralEventHub;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Triple;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.util.eventsystem.EventListener;
+import org.opentcs.util.eventsystem.EventSource;
+import org.opentcs.util.eventsystem.TCSEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the vehicles' current positions in a spatial index, allowing to find the vehicles nearest
+ * to a position without looking at all vehicles.
+ * <p>
+ * The index is updated with every change of a vehicle's current position reported via the
+ * kernel's object events.
+ * If all points of the plant model are at the same position (e.g. because the model has no
+ * layout information), the index is not usable.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class VehiclePositionIndex
+    implements Lifecycle {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(VehiclePositionIndex.class);
+  /**
+   * The local kernel instance.
+   */
+  private final LocalKernel kernel;
+  /**
+   * Where we register for vehicle changes.
+   */
+  private final EventSource<TCSEvent> eventSource;
+  /**
+   * Keeps the index up to date.
+   */
+  private final EventListener<TCSEvent> vehicleListener = this::processEvent;
+  /**
+   * The positions of the plant model's points.
+   */
+  private final Map<TCSObjectReference<Point>, Triple> pointPositions = new ConcurrentHashMap<>();
+  /**
+   * The vehicles, indexed by the positions of their current points.
+   */
+  private volatile SpatialIndex<TCSObjectReference<Vehicle>> vehicleIndex;
+  /**
+   * Indicates whether this component is initialized.
+   */
+  private boolean initialized;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The local kernel instance.
+   * @param eventSource Where this instance registers for vehicle changes.
+   */
+  @Inject
+  public VehiclePositionIndex(@Nonnull LocalKernel kernel,
+                              @Nonnull @CentralEventHub EventSource<TCSEvent> eventSource) {
+    this.kernel = requireNonNull(kernel, "kernel");
+    this.eventSource = requireNonNull(eventSource, "eventSource");
+  }
+
+  @Override
+  public void initialize() {
+    if (initialized) {
+      return;
+    }
+
+    long minX = Long.MAX_VALUE;
+    long maxX = Long.MIN_VALUE;
+    long minY = Long.MAX_VALUE;
+    long maxY = Long.MIN_VALUE;
+    for (Point point : kernel.getTCSObjects(Point.class)) {
+      Triple position = point.getPosition();
+      if (position == null) {
+        continue;
+      }
+      pointPositions.put(point.getReference(), position);
+      minX = Math.min(minX, position.getX());
+      maxX = Math.max(maxX, position.getX());
+      minY = Math.min(minY, position.getY());
+      maxY = Math.max(maxY, position.getY());
+    }
+
+    if (pointPositions.isEmpty() || (minX == maxX && minY == maxY)) {
+      LOG.info("Points have no distinct positions, vehicle position index disabled.");
+    }
+    else {
+      vehicleIndex = new SpatialIndex<>(
+          cellSize(maxX - minX,
+                   maxY - minY,
+                   kernel.getTCSObjects(Vehicle.class).size()));
+      eventSource.addEventListener(vehicleListener);
+      for (Vehicle vehicle : kernel.getTCSObjects(Vehicle.class)) {
+        updatePosition(vehicle);
+      }
+    }
+
+    initialized = true;
+  }
+
+  @Override
+  public boolean isInitialized() {
+    return initialized;
+  }
+
+  @Override
+  public void terminate() {
+    if (!initialized) {
+      return;
+    }
+
+    eventSource.removeEventListener(vehicleListener);
+    vehicleIndex = null;
+    pointPositions.clear();
+
+    initialized = false;
+  }
+
+  /**
+   * Checks whether this index can be used for finding vehicles near a position.
+   *
+   * @return <code>true</code> if, and only if, this index can be used.
+   */
+  public boolean isUsable() {
+    return vehicleIndex != null;
+  }
+
+  /**
+   * Returns the position of the given point.
+   *
+   * @param pointRef A reference to the point.
+   * @return The point's position, or <code>null</code>, if it is unknown.
+   */
+  @Nullable
+  public Triple getPosition(@Nonnull TCSObjectReference<Point> pointRef) {
+    requireNonNull(pointRef, "pointRef");
+
+    return pointPositions.get(pointRef);
+  }
+
+  /**
+   * Returns the vehicles nearest to the given position (as the crow flies).
+   *
+   * @param position The position.
+   * @param count The maximum number of vehicles to return.
+   * @param filter Vehicles not accepted by this filter are ignored.
+   * @return The nearest vehicles accepted by the filter, nearest first, or an empty list, if this
+   * index is not usable.
+   */
+  @Nonnull
+  public List<TCSObjectReference<Vehicle>> findNearestVehicles(
+      @Nonnull Triple position,
+      int count,
+      @Nonnull Predicate<TCSObjectReference<Vehicle>> filter) {
+    SpatialIndex<TCSObjectReference<Vehicle>> index = vehicleIndex;
+    if (index == null) {
+      return new ArrayList<>();
+    }
+    return index.findNearest(position, count, filter);
+  }
+
+  private void processEvent(TCSEvent event) {
+    if (!(event instanceof TCSObjectEvent)) {
+      return;
+    }
+    TCSObjectEvent objectEvent = (TCSObjectEvent) event;
+    if (!(objectEvent.getCurrentOrPreviousObjectState() instanceof Vehicle)) {
+      return;
+    }
+    SpatialIndex<TCSObjectReference<Vehicle>> index = vehicleIndex;
+    if (index == null) {
+      return;
+    }
+    if (objectEvent.getType() == TCSObjectEvent.Type.OBJECT_REMOVED) {
+      index.remove(((Vehicle) objectEvent.getPreviousObjectState()).getReference());
+      return;
+    }
+    Vehicle vehicle = (Vehicle) objectEvent.getCurrentObjectState();
+    Vehicle previousVehicle = (Vehicle) objectEvent.getPreviousObjectState();
+    if (previousVehicle == null
+        || !Objects.equals(vehicle.getCurrentPosition(), previousVehicle.getCurrentPosition())) {
+      updatePosition(vehicle);
+    }
+  }
+
+  private void updatePosition(Vehicle vehicle) {
+    SpatialIndex<TCSObjectReference<Vehicle>> index = vehicleIndex;
+    if (index == null) {
+      return;
+    }
+    Triple position = vehicle.getCurrentPosition() == null
+        ? null
+        : pointPositions.get(vehicle.getCurrentPosition());
+    if (position == null) {
+      index.remove(vehicle.getReference());
+    }
+    else {
+      index.put(vehicle.getReference(), position);
+    }
+  }
+
+  /**
+   * Returns a cell size for the spatial index resulting in about one vehicle per cell if the
+   * vehicles were spread evenly across the plant.
+   *
+   * @param width The width of the plant.
+   * @param height The height of the plant.
+   * @param vehicleCount The number of vehicles.
+   * @return The cell size.
+   */
+  private static long cellSize(long width, long height, int vehicleCount) {
+    double count = Math.max(1, vehicleCount);
+    double size = Math.max(Math.sqrt((double) width * height / count),
+                           Math.max(width, height) / count);
+    return Math.max(1, (long) size);
+  }
+}
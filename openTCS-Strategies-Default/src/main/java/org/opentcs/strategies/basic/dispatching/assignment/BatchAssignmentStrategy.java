@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching.assignment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.components.Lifecycle;
+import org.opentcs.components.kernel.Router;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.OrderSequence;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.strategies.basic.dispatching.CompositeTransportOrderSelectionVeto;
+import org.opentcs.strategies.basic.dispatching.OrderReservationPool;
+import org.opentcs.strategies.basic.dispatching.ProcessabilityChecker;
+import org.opentcs.strategies.basic.dispatching.VehicleOrderSelection;
+import org.opentcs.strategies.basic.dispatching.orderselection.TransportOrderSelectionStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Assigns all dispatchable transport orders to all idle vehicles at once, minimizing the total
+ * costs of the vehicles' trips to the orders' first destinations.
+ * <p>
+ * Only vehicles and orders not bound to each other in any way are considered: Vehicles processing
+ * an order sequence or having an order reserved, orders intended for a specific vehicle and orders
+ * in sequences already being processed are left to the regular selection strategies.
+ * Orders that none of the vehicles can process are left out, and if there are more orders than
+ * vehicles, only the most urgent ones (as sorted by the order comparator) are considered.
+ * A vehicle's cost for an order's first destination is the minimum of its costs for the points it
+ * may execute the destination's operation at.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class BatchAssignmentStrategy
+    implements Lifecycle {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(BatchAssignmentStrategy.class);
+  /**
+   * The local kernel instance.
+   */
+  private final LocalKernel kernel;
+  /**
+   * The Router instance calculating route costs.
+   */
+  private final Router router;
+  /**
+   * Checks processability of transport orders for vehicles.
+   */
+  private final ProcessabilityChecker processabilityChecker;
+  /**
+   * Stores reservations of orders for vehicles.
+   */
+  private final OrderReservationPool orderReservationPool;
+  /**
+   * Sorts dispatchable transport orders by their priority.
+   */
+  private final Comparator<TransportOrder> orderComparator;
+  /**
+   * A collection of predicates for filtering transport orders.
+   */
+  private final CompositeTransportOrderSelectionVeto transportOrderSelectionVeto;
+  /**
+   * Indicates whether this component is initialized.
+   */
+  private boolean initialized;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The local kernel instance.
+   * @param router The router calculating route costs.
+   * @param processabilityChecker Checks processability of transport orders for vehicles.
+   * @param orderReservationPool Stores reservations of orders for vehicles.
+   * @param orderComparator Sorts dispatchable transport orders by their priority.
+   * @param transportOrderSelectionVeto A collection of predicates for filtering transport orders.
+   */
+  @Inject
+  public BatchAssignmentStrategy(
+      @Nonnull LocalKernel kernel,
+      @Nonnull Router router,
+      @Nonnull ProcessabilityChecker processabilityChecker,
+      @Nonnull OrderReservationPool orderReservationPool,
+      @Nonnull @TransportOrderSelectionStrategy.OrderComparator
+      Comparator<TransportOrder> orderComparator,
+      @Nonnull CompositeTransportOrderSelectionVeto transportOrderSelectionVeto) {
+    this.kernel = requireNonNull(kernel, "kernel");
+    this.router = requireNonNull(router, "router");
+    this.processabilityChecker = requireNonNull(processabilityChecker, "processabilityChecker");
+    this.orderReservationPool = requireNonNull(orderReservationPool, "orderReservationPool");
+    this.orderComparator = requireNonNull(orderComparator, "orderComparator");
+    this.transportOrderSelectionVeto = requireNonNull(transportOrderSelectionVeto,
+                                                      "transportOrderSelectionVeto");
+  }
+
+  @Override
+  public void initialize() {
+    if (initialized) {
+      return;
+    }
+    initialized = true;
+  }
+
+  @Override
+  public boolean isInitialized() {
+    return initialized;
+  }
+
+  @Override
+  public void terminate() {
+    if (!initialized) {
+      return;
+    }
+    initialized = false;
+  }
+
+  /**
+   * Checks whether the given vehicle takes part in batch assignments.
+   *
+   * @param vehicle The vehicle.
+   * @return <code>true</code> if, and only if, the given vehicle takes part in batch assignments.
+   */
+  public boolean isCandidate(@Nonnull Vehicle vehicle) {
+    requireNonNull(vehicle, "vehicle");
+
+    return vehicle.getCurrentPosition() != null
+        && vehicle.hasProcState(Vehicle.ProcState.IDLE)
+        && (vehicle.hasState(Vehicle.State.IDLE)
+            || (vehicle.hasState(Vehicle.State.CHARGING) && !vehicle.isEnergyLevelDegraded()))
+        && !vehicle.isEnergyLevelCritical()
+        && vehicle.getOrderSequence() == null
+        && orderReservationPool.findReservations(vehicle.getReference()).isEmpty();
+  }
+
+  /**
+   * Checks whether the given transport order takes part in batch assignments.
+   *
+   * @param order The transport order.
+   * @return <code>true</code> if, and only if, the given order takes part in batch assignments.
+   */
+  public boolean isCandidate(@Nonnull TransportOrder order) {
+    requireNonNull(order, "order");
+
+    return order.hasState(TransportOrder.State.DISPATCHABLE)
+        && order.getIntendedVehicle() == null
+        && !isPartOfActiveSequence(order)
+        && !orderReservationPool.isReserved(order.getReference())
+        && !transportOrderSelectionVeto.test(order);
+  }
+
+  /**
+   * Assigns the given transport orders to the given vehicles.
+   * Vehicles and orders that do not take part in batch assignments (any more) are ignored.
+   *
+   * @param vehicleRefs The vehicles to be assigned orders.
+   * @param orderRefs The transport orders to be assigned.
+   * @return The selections made, one for each vehicle that was assigned an order.
+   */
+  @Nonnull
+  public List<VehicleOrderSelection> selectAssignments(
+      @Nonnull Collection<TCSObjectReference<Vehicle>> vehicleRefs,
+      @Nonnull Collection<TCSObjectReference<TransportOrder>> orderRefs) {
+    requireNonNull(vehicleRefs, "vehicleRefs");
+    requireNonNull(orderRefs, "orderRefs");
+
+    List<Vehicle> vehicles = vehicleRefs.stream()
+        .map(ref -> kernel.getTCSObject(Vehicle.class, ref))
+        .filter(vehicle -> vehicle != null && isCandidate(vehicle))
+        .sorted(Comparator.comparing(Vehicle::getName))
+        .collect(Collectors.toList());
+    if (vehicles.isEmpty()) {
+      return new LinkedList<>();
+    }
+    // Check processability before truncating the orders, so orders none of the vehicles can
+    // process do not displace orders that could be assigned.
+    Map<TransportOrder, Set<Vehicle>> processingVehicles = new HashMap<>();
+    List<TransportOrder> orders = orderRefs.stream()
+        .map(ref -> kernel.getTCSObject(TransportOrder.class, ref))
+        .filter(order -> order != null && isCandidate(order))
+        .filter(order -> {
+          Set<Vehicle> processing = vehicles.stream()
+              .filter(vehicle -> processabilityChecker.checkProcessability(vehicle, order))
+              .collect(Collectors.toSet());
+          processingVehicles.put(order, processing);
+          return !processing.isEmpty();
+        })
+        .sorted(orderComparator)
+        .limit(vehicles.size())
+        .collect(Collectors.toList());
+    if (orders.isEmpty()) {
+      return new LinkedList<>();
+    }
+
+    int[] assignments
+        = MinimumCostAssignment.solve(computeCosts(vehicles, orders, processingVehicles));
+
+    List<VehicleOrderSelection> result = new LinkedList<>();
+    for (int i = 0; i < assignments.length; i++) {
+      if (assignments[i] < 0) {
+        continue;
+      }
+      Vehicle vehicle = vehicles.get(i);
+      TransportOrder order = orders.get(assignments[i]);
+      Point position = kernel.getTCSObject(Point.class, vehicle.getCurrentPosition());
+      Optional<List<DriveOrder>> driveOrders = router.getRoute(vehicle, position, order);
+      if (driveOrders.isPresent()) {
+        result.add(new VehicleOrderSelection(order, vehicle, driveOrders.get()));
+      }
+      else {
+        LOG.debug("{}: Cannot process order {} assigned in batch.",
+                  vehicle.getName(),
+                  order.getName());
+      }
+    }
+    LOG.debug("Batch assignment of {} vehicles and {} orders made {} selections.",
+              vehicles.size(),
+              orders.size(),
+              result.size());
+    return result;
+  }
+
+  /**
+   * Computes the costs for each vehicle to reach each order's first destination.
+   *
+   * @param vehicles The vehicles.
+   * @param orders The transport orders.
+   * @param processingVehicles The vehicles able to process each of the orders.
+   * @return The cost matrix, with vehicles as rows and orders as columns.
+   */
+  private long[][] computeCosts(List<Vehicle> vehicles,
+                                List<TransportOrder> orders,
+                                Map<TransportOrder, Set<Vehicle>> processingVehicles) {
+    // All points a vehicle may go to for any order's first destination, with the index range
+    // belonging to each order.
+    List<Point> destinationPoints = new ArrayList<>();
+    int[] firstPointIndices = new int[orders.size() + 1];
+    Map<TCSObjectReference<?>, Map<String, List<Point>>> pointsByDestination = new HashMap<>();
+    for (int j = 0; j < orders.size(); j++) {
+      firstPointIndices[j] = destinationPoints.size();
+      DriveOrder.Destination destination = firstDestination(orders.get(j));
+      destinationPoints.addAll(
+          pointsByDestination
+              .computeIfAbsent(destination.getDestination(), ref -> new HashMap<>())
+              .computeIfAbsent(destination.getOperation(),
+                               operation -> destinationPoints(destination)));
+    }
+    firstPointIndices[orders.size()] = destinationPoints.size();
+
+    long[][] result = new long[vehicles.size()][orders.size()];
+    for (int i = 0; i < vehicles.size(); i++) {
+      Vehicle vehicle = vehicles.get(i);
+      Point position = kernel.getTCSObject(Point.class, vehicle.getCurrentPosition());
+      long[] pointCosts = router.getCostMatrix(vehicle,
+                                               Collections.singletonList(position),
+                                               destinationPoints)[0];
+      for (int j = 0; j < orders.size(); j++) {
+        result[i][j] = MinimumCostAssignment.UNASSIGNABLE;
+        if (!processingVehicles.get(orders.get(j)).contains(vehicle)) {
+          continue;
+        }
+        for (int k = firstPointIndices[j]; k < firstPointIndices[j + 1]; k++) {
+          result[i][j] = Math.min(result[i][j], pointCosts[k]);
+        }
+      }
+    }
+    return result;
+  }
+
+  private DriveOrder.Destination firstDestination(TransportOrder order) {
+    return order.getFutureDriveOrders().get(0).getDestination();
+  }
+
+  /**
+   * Returns the points a vehicle may go to for executing the given destination's operation, in the
+   * same way the router determines them.
+   * For a location, these are the halting positions linked to it whose links (or, if the links do
+   * not restrict the allowed operations, the location's type) allow the operation.
+   *
+   * @param destination The destination, referencing a location or a point.
+   * @return The points a vehicle may go to.
+   */
+  private List<Point> destinationPoints(DriveOrder.Destination destination) {
+    String operation = destination.getOperation();
+    List<Point> result = new ArrayList<>();
+    if (destination.getDestination().getReferentClass() == Point.class) {
+      Point point = kernel.getTCSObject(Point.class, destination.getDestination().getName());
+      if ((DriveOrder.Destination.OP_MOVE.equals(operation)
+           || DriveOrder.Destination.OP_PARK.equals(operation))
+          && point != null
+          && point.isHaltingPosition()) {
+        result.add(point);
+      }
+      return result;
+    }
+
+    Location location = kernel.getTCSObject(Location.class, destination.getDestination().getName());
+    if (location == null) {
+      return result;
+    }
+    LocationType locationType = kernel.getTCSObject(LocationType.class, location.getType());
+    for (Location.Link link : location.getAttachedLinks()) {
+      boolean operationAllowed = DriveOrder.Destination.OP_NOP.equals(operation)
+          || link.hasAllowedOperation(operation)
+          || (link.getAllowedOperations().isEmpty()
+              && locationType != null
+              && locationType.isAllowedOperation(operation));
+      Point point = kernel.getTCSObject(Point.class, link.getPoint());
+      if (operationAllowed && point != null && point.isHaltingPosition()) {
+        result.add(point);
+      }
+    }
+    return result;
+  }
+
+  private boolean isPartOfActiveSequence(TransportOrder order) {
+    if (order.getWrappingSequence() == null) {
+      return false;
+    }
+    OrderSequence seq = kernel.getTCSObject(OrderSequence.class, order.getWrappingSequence());
+    return seq != null && seq.getProcessingVehicle() != null;
+  }
+}
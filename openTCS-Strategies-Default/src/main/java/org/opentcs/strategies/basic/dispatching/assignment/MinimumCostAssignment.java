@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching.assignment;
+
+import java.util.Arrays;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Solves the assignment problem for a (possibly rectangular) cost matrix using the Hungarian
+ * method, i.e. assigns rows to columns so that the sum of the costs of all assigned pairs is
+ * minimal.
+ * <p>
+ * Entries of <code>Long.MAX_VALUE</code> mark pairs that must not be assigned to each other.
+ * The result assigns as many rows as possible without using such pairs and, among these
+ * assignments, one with minimal costs.
+ * The computation takes <code>O(n<sup>2</sup>m)</code> time for <code>n</code> rows and
+ * <code>m</code> columns with <code>n &lt;= m</code>.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class MinimumCostAssignment {
+
+  /**
+   * The value marking unassignable pairs in a cost matrix.
+   */
+  public static final long UNASSIGNABLE = Long.MAX_VALUE;
+  /**
+   * The limit for the costs used internally, leaving room for the potentials' arithmetic.
+   */
+  private static final long COST_LIMIT = Long.MAX_VALUE / 8;
+
+  /**
+   * Prevents instantiation.
+   */
+  private MinimumCostAssignment() {
+  }
+
+  /**
+   * Computes an assignment of rows to columns with minimal costs.
+   *
+   * @param costs The cost matrix. All rows must have the same length.
+   * @return An array containing the index of the column assigned to each row, or <code>-1</code>
+   * for rows that are not assigned to any column.
+   * @throws IllegalArgumentException If the rows of the matrix have different lengths or the
+   * matrix contains negative costs.
+   */
+  @Nonnull
+  public static int[] solve(@Nonnull long[][] costs)
+      throws IllegalArgumentException {
+    requireNonNull(costs, "costs");
+
+    int rowCount = costs.length;
+    int columnCount = rowCount == 0 ? 0 : costs[0].length;
+    int[] result = new int[rowCount];
+    Arrays.fill(result, -1);
+    if (rowCount == 0 || columnCount == 0) {
+      return result;
+    }
+
+    // Unassignable pairs get costs higher than those of any assignment using only assignable
+    // pairs, so they are only used if there is no other way to assign a row.
+    long unassignableCosts = 1;
+    for (long[] row : costs) {
+      if (row.length != columnCount) {
+        throw new IllegalArgumentException("Rows of cost matrix have different lengths");
+      }
+      long rowMax = 0;
+      for (long cost : row) {
+        if (cost < 0) {
+          throw new IllegalArgumentException("Cost matrix contains negative costs");
+        }
+        if (cost != UNASSIGNABLE) {
+          rowMax = Math.max(rowMax, Math.min(cost, COST_LIMIT));
+        }
+      }
+      unassignableCosts = Math.min(unassignableCosts + rowMax, COST_LIMIT);
+    }
+
+    // The algorithm requires at most as many rows as columns, so transpose the matrix if needed.
+    boolean transposed = rowCount > columnCount;
+    int n = transposed ? columnCount : rowCount;
+    int m = transposed ? rowCount : columnCount;
+    long[][] matrix = new long[n][m];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < m; j++) {
+        long cost = transposed ? costs[j][i] : costs[i][j];
+        matrix[i][j] = cost == UNASSIGNABLE ? unassignableCosts : Math.min(cost, COST_LIMIT);
+      }
+    }
+
+    int[] columnAssignments = solveNotMoreRowsThanColumns(matrix, n, m);
+    for (int j = 0; j < m; j++) {
+      int i = columnAssignments[j];
+      if (i < 0) {
+        continue;
+      }
+      int row = transposed ? j : i;
+      int column = transposed ? i : j;
+      if (costs[row][column] != UNASSIGNABLE) {
+        result[row] = column;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes an assignment with minimal costs via shortest augmenting paths, maintaining dual
+   * potentials for rows and columns.
+   *
+   * @param matrix The cost matrix, without any unassignable entries.
+   * @param n The number of rows.
+   * @param m The number of columns, which must not be less than the number of rows.
+   * @return An array containing the index of the row assigned to each column, or <code>-1</code>
+   * for columns that are not assigned to any row.
+   */
+  private static int[] solveNotMoreRowsThanColumns(long[][] matrix, int n, int m) {
+    // Indices are shifted by one, with index 0 of the column arrays serving as a virtual column.
+    long[] rowPotentials = new long[n + 1];
+    long[] columnPotentials = new long[m + 1];
+    int[] rowOfColumn = new int[m + 1];
+    int[] predecessors = new int[m + 1];
+    long[] minSlacks = new long[m + 1];
+    boolean[] visited = new boolean[m + 1];
+
+    for (int i = 1; i <= n; i++) {
+      rowOfColumn[0] = i;
+      int column = 0;
+      Arrays.fill(minSlacks, Long.MAX_VALUE);
+      Arrays.fill(visited, false);
+      do {
+        visited[column] = true;
+        int row = rowOfColumn[column];
+        long delta = Long.MAX_VALUE;
+        int nextColumn = 0;
+        for (int j = 1; j <= m; j++) {
+          if (visited[j]) {
+            continue;
+          }
+          long slack = matrix[row - 1][j - 1] - rowPotentials[row] - columnPotentials[j];
+          if (slack < minSlacks[j]) {
+            minSlacks[j] = slack;
+            predecessors[j] = column;
+          }
+          if (minSlacks[j] < delta) {
+            delta = minSlacks[j];
+            nextColumn = j;
+          }
+        }
+        for (int j = 0; j <= m; j++) {
+          if (visited[j]) {
+            rowPotentials[rowOfColumn[j]] += delta;
+            columnPotentials[j] -= delta;
+          }
+          else {
+            minSlacks[j] -= delta;
+          }
+        }
+        column = nextColumn;
+      }
+      while (rowOfColumn[column] != 0);
+      // Augment along the path found.
+      do {
+        int previousColumn = predecessors[column];
+        rowOfColumn[column] = rowOfColumn[previousColumn];
+        column = previousColumn;
+      }
+      while (column != 0);
+    }
+
+    int[] result = new int[m];
+    for (int j = 1; j <= m; j++) {
+      result[j - 1] = rowOfColumn[j] - 1;
+    }
+    return result;
+  }
+}
@@ -7,7 +7,10 @@
  */
 package org.opentcs.strategies.basic.dispatching.orderselection.parking;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
@@ -140,14 +143,17 @@ public abstract class AbstractParkingPositionSupplier
     }
 
     Point vehiclePos = kernel.getTCSObject(Point.class, vehicle.getCurrentPosition());
+    List<Point> candidates = new ArrayList<>(points);
+    long[] costs = router.getCostMatrix(vehicle,
+                                        Collections.singletonList(vehiclePos),
+                                        candidates)[0];
 
     long lowestCost = Long.MAX_VALUE;
     Point nearestPoint = null;
-    for (Point curPoint : points) {
-      long curCost = router.getCosts(vehicle, vehiclePos, curPoint);
-      if (curCost < lowestCost) {
-        nearestPoint = curPoint;
-        lowestCost = curCost;
+    for (int i = 0; i < costs.length; i++) {
+      if (costs[i] < lowestCost) {
+        nearestPoint = candidates.get(i);
+        lowestCost = costs[i];
       }
     }
     return nearestPoint;
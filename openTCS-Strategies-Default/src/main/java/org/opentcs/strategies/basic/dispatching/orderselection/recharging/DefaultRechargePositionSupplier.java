@@ -9,6 +9,7 @@ package org.opentcs.strategies.basic.dispatching.orderselection.recharging;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -145,14 +146,25 @@ public class DefaultRechargePositionSupplier
   private Location findCheapestLocation(Map<Location, Set<Point>> locations, Vehicle vehicle) {
     Point curPos = kernel.getTCSObject(Point.class, vehicle.getCurrentPosition());
 
-    Location cheapestLocation = null;
-    long cheapestCosts = Long.MAX_VALUE;
+    // Compute the costs to all access points of all locations at once.
+    List<Location> candidateLocations = new ArrayList<>(locations.size());
+    List<Point> candidatePoints = new ArrayList<>();
     for (Map.Entry<Location, Set<Point>> entry : locations.entrySet()) {
-      long costs = getMinimumAccessPointCosts(vehicle, curPos, entry.getValue());
+      for (Point accessPoint : entry.getValue()) {
+        candidateLocations.add(entry.getKey());
+        candidatePoints.add(accessPoint);
+      }
+    }
+    long[] costs = router.getCostMatrix(vehicle,
+                                        Collections.singletonList(curPos),
+                                        candidatePoints)[0];
 
-      if (costs < cheapestCosts) {
-        cheapestCosts = costs;
-        cheapestLocation = entry.getKey();
+    Location cheapestLocation = null;
+    long cheapestCosts = Long.MAX_VALUE;
+    for (int i = 0; i < costs.length; i++) {
+      if (costs[i] < cheapestCosts) {
+        cheapestCosts = costs[i];
+        cheapestLocation = candidateLocations.get(i);
       }
     }
 
@@ -224,22 +236,6 @@ public class DefaultRechargePositionSupplier
     return result;
   }
 
-  private long getMinimumAccessPointCosts(Vehicle vehicle,
-                                          Point srcPosition,
-                                          Set<Point> destPositions) {
-    requireNonNull(vehicle, "vehicle");
-    requireNonNull(srcPosition, "srcPosition");
-
-    long bestLinkCosts = Long.MAX_VALUE;
-    for (Point destPosition : destPositions) {
-      long linkCosts = router.getCostsByPointRef(vehicle,
-                                                 srcPosition.getReference(),
-                                                 destPosition.getReference());
-      bestLinkCosts = Math.min(linkCosts, bestLinkCosts);
-    }
-    return bestLinkCosts;
-  }
-
   /**
    * Checks whether the given point is a potential, unoccupied target position for the given
    * vehicle.
@@ -12,31 +12,56 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import org.opentcs.access.LocalKernel;
 import org.opentcs.components.Lifecycle;
 import org.opentcs.components.kernel.Router;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
 import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Triple;
 import org.opentcs.data.model.Vehicle;
 import org.opentcs.data.order.DriveOrder;
 import org.opentcs.data.order.TransportOrder;
+import org.opentcs.strategies.basic.dispatching.DefaultDispatcherConfiguration;
 import org.opentcs.strategies.basic.dispatching.ProcessabilityChecker;
 import org.opentcs.strategies.basic.dispatching.VehicleOrderSelection;
+import org.opentcs.strategies.basic.dispatching.VehiclePositionIndex;
 import org.opentcs.strategies.basic.dispatching.VehicleSelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Checks for the closest available vehicle for a given transport order.
+ * <p>
+ * Routes for the vehicle candidates are computed in parallel, if configured.
+ * If pruning is enabled, candidates are evaluated in order of the costs for reaching the order's
+ * first destination, which are a lower bound for the costs of their complete routes, and
+ * evaluation stops as soon as this lower bound exceeds the costs of the best candidate found.
+ * As this is only correct if candidates are compared by their routing costs first, pruning is
+ * ignored unless the candidates are compared by a {@link ClosestVehicleComparator}.
+ * If pre-filtering is enabled, only the vehicles nearest to the order's first destination are
+ * evaluated first, and the remaining ones only if none of the nearest vehicles can process the
+ * order.
+ * </p>
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -64,6 +89,23 @@ public class AvailableVehicleSelectionStrategy
    * The comparator used for sorting vehicle candidates.
    */
   private final Comparator<VehicleCandidate> candidateComparator;
+  /**
+   * Whether the comparator compares candidates by their routing costs first.
+   */
+  private final boolean comparingCostsFirst;
+  /**
+   * The dispatcher's configuration.
+   */
+  private final DefaultDispatcherConfiguration configuration;
+  /**
+   * Finds the vehicles nearest to a transport order's first destination.
+   */
+  private final VehiclePositionIndex positionIndex;
+  /**
+   * The pool computing routes for candidates in parallel, or <code>null</code>, if they are
+   * computed sequentially.
+   */
+  private ForkJoinPool evaluationPool;
   /**
    * Indicates whether this component is initialized.
    */
@@ -74,11 +116,16 @@ public class AvailableVehicleSelectionStrategy
       @Nonnull LocalKernel kernel,
       @Nonnull Router router,
       @Nonnull ProcessabilityChecker processabilityChecker,
-      @Nonnull @VehicleCandidateComparator Comparator<VehicleCandidate> candidateComparator) {
+      @Nonnull @VehicleCandidateComparator Comparator<VehicleCandidate> candidateComparator,
+      @Nonnull DefaultDispatcherConfiguration configuration,
+      @Nonnull VehiclePositionIndex positionIndex) {
     this.kernel = requireNonNull(kernel, "kernel");
     this.router = requireNonNull(router, "router");
     this.processabilityChecker = requireNonNull(processabilityChecker, "processabilityChecker");
     this.candidateComparator = requireNonNull(candidateComparator, "candidateComparator");
+    this.comparingCostsFirst = candidateComparator instanceof ClosestVehicleComparator;
+    this.configuration = requireNonNull(configuration, "configuration");
+    this.positionIndex = requireNonNull(positionIndex, "positionIndex");
   }
 
   @Override
@@ -86,6 +133,18 @@ public class AvailableVehicleSelectionStrategy
     if (initialized) {
       return;
     }
+    if (configuration.vehicleSelectionParallelism() > 1) {
+      evaluationPool = new ForkJoinPool(configuration.vehicleSelectionParallelism(),
+                                        AvailableVehicleSelectionStrategy::createEvaluatorThread,
+                                        null,
+                                        false);
+    }
+    if (configuration.vehicleCandidatePrefilterSize() > 0) {
+      positionIndex.initialize();
+    }
+    if (configuration.pruneVehicleCandidates() && !comparingCostsFirst) {
+      LOG.warn("Vehicle candidates are not compared by routing costs first, ignoring pruning.");
+    }
     initialized = true;
   }
 
@@ -99,6 +158,11 @@ public class AvailableVehicleSelectionStrategy
     if (!initialized) {
       return;
     }
+    if (evaluationPool != null) {
+      evaluationPool.shutdownNow();
+      evaluationPool = null;
+    }
+    positionIndex.terminate();
     initialized = false;
   }
 
@@ -107,36 +171,222 @@ public class AvailableVehicleSelectionStrategy
   public VehicleOrderSelection selectVehicle(TransportOrder order) {
     requireNonNull(order, "order");
 
-    // Get all vehicle candidates and sort them.
-    SortedSet<VehicleCandidate> candidates = new TreeSet<>(candidateComparator);
+    List<Vehicle> vehicles = availableVehicles(order);
+    List<Point> destinationPoints = firstDestinationPoints(order);
+    VehicleCandidate bestCandidate = null;
 
-    for (Vehicle curVehicle : availableVehicles(order)) {
-      Point curPosition = kernel.getTCSObject(Point.class, curVehicle.getCurrentPosition());
-      // Get a route for the vehicle, starting at it's current position.
-      Optional<List<DriveOrder>> tmpDriveOrders = router.getRoute(curVehicle, curPosition, order);
-      // If there is a route for this vehicle, remember it and the costs.
-      if (tmpDriveOrders.isPresent()
-          && processabilityChecker.checkProcessability(curVehicle, order)) {
-        long costs = 0;
-        for (DriveOrder curDriveOrder : tmpDriveOrders.get()) {
-          costs += curDriveOrder.getRoute().getCosts();
+    int prefilterSize = configuration.vehicleCandidatePrefilterSize();
+    if (prefilterSize > 0 && vehicles.size() > prefilterSize) {
+      List<Vehicle> nearestVehicles = nearestVehicles(vehicles, destinationPoints, prefilterSize);
+      if (!nearestVehicles.isEmpty()) {
+        bestCandidate = selectCandidate(order, nearestVehicles, destinationPoints);
+        if (bestCandidate == null) {
+          LOG.debug("{}: None of the {} nearest vehicles can process the order, checking all.",
+                    order.getName(),
+                    nearestVehicles.size());
+          vehicles.removeAll(new HashSet<>(nearestVehicles));
         }
-        candidates.add(new VehicleCandidate(curVehicle, costs, tmpDriveOrders.get()));
       }
     }
 
-    if (candidates.isEmpty()) {
+    if (bestCandidate == null) {
+      bestCandidate = selectCandidate(order, vehicles, destinationPoints);
+    }
+    if (bestCandidate == null) {
       return null;
     }
 
-    VehicleCandidate bestCandidate = candidates.first();
     return new VehicleOrderSelection(order,
                                      bestCandidate.getVehicle(),
                                      bestCandidate.getDriveOrders());
   }
 
+  /**
+   * Selects the best candidate for the given transport order from the given vehicles.
+   *
+   * @param order The transport order.
+   * @param vehicles The vehicles.
+   * @param destinationPoints The points the vehicles may go to for the order's first destination.
+   * @return The best candidate, or <code>null</code>, if none of the vehicles can process the
+   * order.
+   */
+  @Nullable
+  private VehicleCandidate selectCandidate(TransportOrder order,
+                                           List<Vehicle> vehicles,
+                                           List<Point> destinationPoints) {
+    long[] lowerBounds = new long[vehicles.size()];
+    boolean pruning = configuration.pruneVehicleCandidates()
+        && comparingCostsFirst
+        && !vehicles.isEmpty();
+    if (pruning) {
+      // Sort the vehicles by the lower bounds of their costs.
+      List<Long> bounds = evaluate(vehicles,
+                                   vehicle -> computeLowerBound(vehicle, destinationPoints));
+      List<Integer> indices = new ArrayList<>();
+      for (int i = 0; i < vehicles.size(); i++) {
+        indices.add(i);
+      }
+      indices.sort(Comparator.comparing(bounds::get));
+      List<Vehicle> sortedVehicles = new ArrayList<>();
+      for (int i = 0; i < indices.size(); i++) {
+        sortedVehicles.add(vehicles.get(indices.get(i)));
+        lowerBounds[i] = bounds.get(indices.get(i));
+      }
+      vehicles = sortedVehicles;
+    }
+
+    // Get all vehicle candidates and sort them.
+    SortedSet<VehicleCandidate> candidates = new TreeSet<>(candidateComparator);
+    int batchSize = pruning
+        ? Math.max(1, configuration.vehicleSelectionParallelism())
+        : Math.max(1, vehicles.size());
+    for (int i = 0; i < vehicles.size(); i += batchSize) {
+      if (pruning && !candidates.isEmpty() && lowerBounds[i] > candidates.first().getCosts()) {
+        LOG.debug("{}: Skipping {} vehicles that cannot be cheaper than {}.",
+                  order.getName(),
+                  vehicles.size() - i,
+                  candidates.first().getVehicle().getName());
+        break;
+      }
+      candidates.addAll(
+          evaluate(vehicles.subList(i, Math.min(i + batchSize, vehicles.size())),
+                   vehicle -> computeCandidate(vehicle, order)).stream()
+              .filter(Objects::nonNull)
+              .collect(Collectors.toList()));
+    }
+
+    return candidates.isEmpty() ? null : candidates.first();
+  }
+
+  /**
+   * Returns the given vehicles nearest to the given destination points.
+   *
+   * @param vehicles The vehicles.
+   * @param destinationPoints The points the vehicles may go to for an order's first destination.
+   * @param count The maximum number of vehicles to return.
+   * @return The nearest vehicles, or an empty list, if their positions or the destination's
+   * position are unknown.
+   */
+  private List<Vehicle> nearestVehicles(List<Vehicle> vehicles,
+                                        List<Point> destinationPoints,
+                                        int count) {
+    if (!positionIndex.isUsable() || destinationPoints.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Triple position = positionIndex.getPosition(destinationPoints.get(0).getReference());
+    if (position == null) {
+      return new ArrayList<>();
+    }
+    Map<TCSObjectReference<Vehicle>, Vehicle> vehiclesByRef = new HashMap<>();
+    for (Vehicle vehicle : vehicles) {
+      vehiclesByRef.put(vehicle.getReference(), vehicle);
+    }
+    return positionIndex.findNearestVehicles(position, count, vehiclesByRef::containsKey).stream()
+        .map(vehiclesByRef::get)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Computes a candidate for the given vehicle and transport order.
+   *
+   * @param vehicle The vehicle.
+   * @param order The transport order.
+   * @return The candidate, or <code>null</code>, if the vehicle cannot process the order.
+   */
+  @Nullable
+  private VehicleCandidate computeCandidate(Vehicle vehicle, TransportOrder order) {
+    Point curPosition = kernel.getTCSObject(Point.class, vehicle.getCurrentPosition());
+    // Get a route for the vehicle, starting at it's current position.
+    Optional<List<DriveOrder>> tmpDriveOrders = router.getRoute(vehicle, curPosition, order);
+    // If there is a route for this vehicle, remember it and the costs.
+    if (!tmpDriveOrders.isPresent() || !processabilityChecker.checkProcessability(vehicle, order)) {
+      return null;
+    }
+    long costs = 0;
+    for (DriveOrder curDriveOrder : tmpDriveOrders.get()) {
+      costs += curDriveOrder.getRoute().getCosts();
+    }
+    return new VehicleCandidate(vehicle, costs, tmpDriveOrders.get());
+  }
+
+  /**
+   * Computes a lower bound for the costs of the given vehicle's route for a transport order, i.e.
+   * the costs for reaching the order's first destination.
+   *
+   * @param vehicle The vehicle.
+   * @param destinationPoints The points the vehicle may go to for the order's first destination.
+   * @return The lower bound.
+   */
+  private long computeLowerBound(Vehicle vehicle, List<Point> destinationPoints) {
+    if (destinationPoints.isEmpty()) {
+      return 0;
+    }
+    Point curPosition = kernel.getTCSObject(Point.class, vehicle.getCurrentPosition());
+    long[][] costs = router.getCostMatrix(vehicle,
+                                          Collections.singletonList(curPosition),
+                                          destinationPoints);
+    if (costs == null || costs.length == 0) {
+      return 0;
+    }
+    long result = Long.MAX_VALUE;
+    for (long cost : costs[0]) {
+      result = Math.min(result, cost);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the points a vehicle may go to for reaching the given order's first destination.
+   *
+   * @param order The transport order.
+   * @return The points, or an empty list, if they are unknown.
+   */
+  private List<Point> firstDestinationPoints(TransportOrder order) {
+    List<Point> result = new ArrayList<>();
+    if (order.getFutureDriveOrders().isEmpty()) {
+      return result;
+    }
+    TCSObjectReference<?> destination
+        = order.getFutureDriveOrders().get(0).getDestination().getDestination();
+    if (destination.getReferentClass() == Point.class) {
+      Point point = kernel.getTCSObject(Point.class, destination.getName());
+      if (point != null) {
+        result.add(point);
+      }
+      return result;
+    }
+    Location location = kernel.getTCSObject(Location.class, destination.getName());
+    if (location == null) {
+      return result;
+    }
+    for (Location.Link link : location.getAttachedLinks()) {
+      Point point = kernel.getTCSObject(Point.class, link.getPoint());
+      if (point != null) {
+        result.add(point);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Applies the given function to each of the given vehicles, in parallel if configured.
+   *
+   * @param <T> The function's result type.
+   * @param vehicles The vehicles.
+   * @param function The function.
+   * @return The results, in the order of the vehicles.
+   */
+  private <T> List<T> evaluate(List<Vehicle> vehicles, Function<Vehicle, T> function) {
+    if (evaluationPool == null || vehicles.size() < 2) {
+      return vehicles.stream().map(function).collect(Collectors.toList());
+    }
+    return evaluationPool.submit(
+        () -> vehicles.parallelStream().map(function).collect(Collectors.toList()))
+        .join();
+  }
+
   private List<Vehicle> availableVehicles(TransportOrder order) {
-    List<Vehicle> result = new LinkedList<>();
+    List<Vehicle> result = new ArrayList<>();
     for (Vehicle curVehicle : kernel.getTCSObjects(Vehicle.class)) {
       if (processabilityChecker.availableForTransportOrder(curVehicle, order)) {
         result.add(curVehicle);
@@ -145,6 +395,12 @@ public class AvailableVehicleSelectionStrategy
     return result;
   }
 
+  private static ForkJoinWorkerThread createEvaluatorThread(ForkJoinPool pool) {
+    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    thread.setName("AvailableVehicleSelectionStrategy-evaluator-" + thread.getPoolIndex());
+    return thread;
+  }
+
   /**
    * A binding annotation for the comparator sorting transport orders.
    */
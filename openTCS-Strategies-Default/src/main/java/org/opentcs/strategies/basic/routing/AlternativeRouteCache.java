@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.order.Route;
+
+/**
+ * Caches alternative routes for the most recently requested pairs of source and destination points.
+ * <p>
+ * When the topology changes, only entries with routes using paths that have been locked or removed
+ * are invalidated.
+ * Any other change to paths (e.g. unlocking them or changing their properties) may lead to new or
+ * cheaper routes, so all entries are invalidated in that case.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class AlternativeRouteCache {
+
+  /**
+   * The maximum number of entries.
+   */
+  private final int maxEntries;
+  /**
+   * The cached entries, in access order.
+   */
+  private final Map<Key, Entry> entries;
+  /**
+   * The state of all paths at the time of the last topology change.
+   */
+  private Map<String, PathState> pathStates = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxEntries The maximum number of entries.
+   */
+  AlternativeRouteCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        return size() > AlternativeRouteCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached routes for the given pair of points.
+   *
+   * @param key The key.
+   * @param maxRouteCount The maximum number of routes requested.
+   * @return The cached routes, or <code>null</code>, if there are none or not enough of them.
+   */
+  synchronized List<Route> get(Key key, int maxRouteCount) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    // If fewer routes than requested were found before, there are no more.
+    if (entry.requestedRouteCount < maxRouteCount
+        && entry.routes.size() == entry.requestedRouteCount) {
+      return null;
+    }
+    return new ArrayList<>(entry.routes.subList(0, Math.min(maxRouteCount, entry.routes.size())));
+  }
+
+  /**
+   * Caches the given routes.
+   *
+   * @param key The key.
+   * @param requestedRouteCount The maximum number of routes that were requested.
+   * @param routes The routes found.
+   */
+  synchronized void put(Key key, int requestedRouteCount, List<Route> routes) {
+    if (maxEntries <= 0) {
+      return;
+    }
+    entries.put(key, new Entry(requestedRouteCount, routes));
+  }
+
+  /**
+   * Updates the known state of paths and invalidates entries affected by any changes.
+   *
+   * @param paths The current paths of the model.
+   * @return The number of invalidated entries.
+   */
+  synchronized int updatePaths(Collection<Path> paths) {
+    Map<String, PathState> newPathStates = new HashMap<>();
+    for (Path path : paths) {
+      newPathStates.put(path.getName(), new PathState(path));
+    }
+
+    Set<String> restrictedPaths = new HashSet<>();
+    boolean otherChanges = false;
+    for (Map.Entry<String, PathState> pathEntry : pathStates.entrySet()) {
+      PathState newState = newPathStates.get(pathEntry.getKey());
+      if (newState == null || newState.isLockedVersionOf(pathEntry.getValue())) {
+        restrictedPaths.add(pathEntry.getKey());
+      }
+      else if (!newState.equals(pathEntry.getValue())) {
+        otherChanges = true;
+      }
+    }
+    if (!pathStates.keySet().containsAll(newPathStates.keySet())) {
+      otherChanges = true;
+    }
+    pathStates = newPathStates;
+
+    if (otherChanges) {
+      int result = entries.size();
+      entries.clear();
+      return result;
+    }
+    int result = 0;
+    for (Iterator<Entry> iter = entries.values().iterator(); iter.hasNext();) {
+      if (iter.next().usesAnyPath(restrictedPaths)) {
+        iter.remove();
+        result++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes all entries and forgets the state of paths.
+   */
+  synchronized void clear() {
+    entries.clear();
+    pathStates = new HashMap<>();
+  }
+
+  /**
+   * Returns the number of cached entries.
+   *
+   * @return The number of cached entries.
+   */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Identifies a pair of points within a routing group.
+   */
+  static class Key {
+
+    /**
+     * The routing group.
+     */
+    private final int routingGroup;
+    /**
+     * The name of the source point.
+     */
+    private final String sourcePointName;
+    /**
+     * The name of the destination point.
+     */
+    private final String destinationPointName;
+
+    Key(int routingGroup, String sourcePointName, String destinationPointName) {
+      this.routingGroup = routingGroup;
+      this.sourcePointName = sourcePointName;
+      this.destinationPointName = destinationPointName;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return routingGroup == other.routingGroup
+          && sourcePointName.equals(other.sourcePointName)
+          && destinationPointName.equals(other.destinationPointName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(routingGroup, sourcePointName, destinationPointName);
+    }
+  }
+
+  /**
+   * A cache entry.
+   */
+  private static class Entry {
+
+    /**
+     * The maximum number of routes that were requested.
+     */
+    private final int requestedRouteCount;
+    /**
+     * The routes found.
+     */
+    private final List<Route> routes;
+    /**
+     * The names of all paths used by the routes.
+     */
+    private final Set<String> pathNames = new HashSet<>();
+
+    Entry(int requestedRouteCount, List<Route> routes) {
+      this.requestedRouteCount = requestedRouteCount;
+      this.routes = new ArrayList<>(routes);
+      for (Route route : routes) {
+        for (Route.Step step : route.getSteps()) {
+          if (step.getPath() != null) {
+            pathNames.add(step.getPath().getName());
+          }
+        }
+      }
+    }
+
+    boolean usesAnyPath(Set<String> names) {
+      for (String name : names) {
+        if (pathNames.contains(name)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The routing-relevant state of a path.
+   */
+  private static class PathState {
+
+    private final boolean locked;
+
+    private final long length;
+
+    private final long routingCost;
+
+    private final int maxVelocity;
+
+    private final int maxReverseVelocity;
+
+    private final Map<String, String> properties;
+
+    PathState(Path path) {
+      this(path.isLocked(),
+           path.getLength(),
+           path.getRoutingCost(),
+           path.getMaxVelocity(),
+           path.getMaxReverseVelocity(),
+           new HashMap<>(path.getProperties()));
+    }
+
+    private PathState(boolean locked,
+                      long length,
+                      long routingCost,
+                      int maxVelocity,
+                      int maxReverseVelocity,
+                      Map<String, String> properties) {
+      this.locked = locked;
+      this.length = length;
+      this.routingCost = routingCost;
+      this.maxVelocity = maxVelocity;
+      this.maxReverseVelocity = maxReverseVelocity;
+      this.properties = properties;
+    }
+
+    /**
+     * Checks whether this state differs from the given one only by the path being locked now.
+     *
+     * @param previous The previous state.
+     * @return <code>true</code> if, and only if, the path was locked and nothing else changed.
+     */
+    boolean isLockedVersionOf(PathState previous) {
+      return locked
+          && !previous.locked
+          && equals(new PathState(true,
+                                  previous.length,
+                                  previous.routingCost,
+                                  previous.maxVelocity,
+                                  previous.maxReverseVelocity,
+                                  previous.properties));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof PathState)) {
+        return false;
+      }
+      PathState other = (PathState) obj;
+      return locked == other.locked
+          && length == other.length
+          && routingCost == other.routingCost
+          && maxVelocity == other.maxVelocity
+          && maxReverseVelocity == other.maxReverseVelocity
+          && properties.equals(other.properties);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(locked, length, routingCost, maxVelocity, maxReverseVelocity, properties);
+    }
+  }
+}
@@ -11,8 +11,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
 import java.util.Set;
@@ -22,10 +24,12 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.inject.Inject;
 import org.opentcs.access.LocalKernel;
 import org.opentcs.components.kernel.Router;
+import org.opentcs.customizations.kernel.CentralEventHub;
+import org.opentcs.data.TCSObjectEvent;
 import org.opentcs.data.TCSObjectReference;
 import org.opentcs.data.model.Location;
-import org.opentcs.data.model.Location.Link;
 import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Path;
 import org.opentcs.data.model.Point;
 import org.opentcs.data.model.Vehicle;
 import org.opentcs.data.order.DriveOrder;
@@ -33,6 +37,10 @@ import org.opentcs.data.order.DriveOrder.Destination;
 import org.opentcs.data.order.Route;
 import org.opentcs.data.order.TransportOrder;
 import static org.opentcs.strategies.basic.routing.PointRouter.INFINITE_COSTS;
+import static org.opentcs.util.Assertions.checkArgument;
+import org.opentcs.util.eventsystem.EventListener;
+import org.opentcs.util.eventsystem.EventSource;
+import org.opentcs.util.eventsystem.TCSEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,10 +52,6 @@ import org.slf4j.LoggerFactory;
 public class DefaultRouter
     implements Router {
 
-  /**
-   * The default value of a vehicle's routing group.
-   */
-  private static final int DEFAULT_ROUTING_GROUP = 0;
   /**
    * This class's Logger.
    */
@@ -72,6 +76,35 @@ public class DefaultRouter
    * The point routers by vehicle routing group.
    */
   private final Map<Integer, PointRouter> pointRoutersByVehicleGroup = new ConcurrentHashMap<>();
+  /**
+   * The point routers by point router key.
+   * Vehicles with equal keys share a point router, even if they are in different routing groups.
+   */
+  private final Map<Object, PointRouter> pointRoutersByKey = new ConcurrentHashMap<>();
+  /**
+   * The routing groups of vehicles.
+   */
+  private final RoutingGroupRegistry routingGroupRegistry = new RoutingGroupRegistry();
+  /**
+   * Where we register for vehicle changes.
+   */
+  private final EventSource<TCSEvent> eventSource;
+  /**
+   * Keeps the vehicles' routing groups up to date.
+   */
+  private final EventListener<TCSEvent> vehicleListener = this::processEvent;
+  /**
+   * Caches alternative routes.
+   */
+  private final AlternativeRouteCache alternativeRouteCache;
+  /**
+   * The points via which locations can be accessed.
+   */
+  private volatile LocationAccessTable locationAccessTable = LocationAccessTable.EMPTY;
+  /**
+   * The predicted occupation of resources by vehicles travelling their selected routes.
+   */
+  private final ReservationTable reservationTable = new ReservationTable();
   /**
    * Prevents reading from the routing tables and planned routes while updating them.
    */
@@ -87,14 +120,19 @@ public class DefaultRouter
    * @param kernel The kernel providing the model data.
    * @param pointRouterFactory A factory for point routers.
    * @param configuration This class's configuration.
+   * @param eventSource Where this instance registers for vehicle changes.
    */
   @Inject
   public DefaultRouter(LocalKernel kernel,
                        PointRouterFactory pointRouterFactory,
-                       DefaultRouterConfiguration configuration) {
+                       DefaultRouterConfiguration configuration,
+                       @CentralEventHub EventSource<TCSEvent> eventSource) {
     this.kernel = requireNonNull(kernel, "kernel");
     this.pointRouterFactory = requireNonNull(pointRouterFactory, "pointRouterFactory");
     this.configuration = requireNonNull(configuration, "configuration");
+    this.eventSource = requireNonNull(eventSource, "eventSource");
+    this.alternativeRouteCache
+        = new AlternativeRouteCache(configuration.alternativeRouteCacheSize());
   }
 
   @Override
@@ -102,7 +140,11 @@ public class DefaultRouter
     try {
       rwLock.writeLock().lock();
       routesByVehicle.clear();
+      locationAccessTable = new LocationAccessTable(kernel.getTCSObjects(Point.class),
+                                                    kernel.getTCSObjects(Location.class),
+                                                    kernel.getTCSObjects(LocationType.class));
       updateRoutingTables();
+      eventSource.addEventListener(vehicleListener);
       initialized = true;
     }
     finally {
@@ -119,8 +161,14 @@ public class DefaultRouter
   public void terminate() {
     try {
       rwLock.writeLock().lock();
+      eventSource.removeEventListener(vehicleListener);
       routesByVehicle.clear();
       pointRoutersByVehicleGroup.clear();
+      pointRoutersByKey.clear();
+      routingGroupRegistry.clear();
+      alternativeRouteCache.clear();
+      reservationTable.clear();
+      locationAccessTable = LocationAccessTable.EMPTY;
       initialized = false;
     }
     finally {
@@ -134,14 +182,25 @@ public class DefaultRouter
     try {
       rwLock.writeLock().lock();
       pointRoutersByVehicleGroup.clear();
+      pointRoutersByKey.clear();
+      routingGroupRegistry.clear();
       for (Vehicle curVehicle : kernel.getTCSObjects(Vehicle.class)) {
         int currentGroup = getRoutingGroupOfVehicle(curVehicle);
         if (!pointRoutersByVehicleGroup.containsKey(currentGroup)) {
-          pointRoutersByVehicleGroup.put(currentGroup,
-                                         pointRouterFactory.createPointRouter(curVehicle));
+          // Share point routers between routing groups with equal routing-relevant
+          // characteristics instead of building the same graph again.
+          Object key = pointRouterFactory.getPointRouterKey(curVehicle);
+          PointRouter pointRouter = pointRoutersByKey.get(key);
+          if (pointRouter == null) {
+            pointRouter = pointRouterFactory.createPointRouter(curVehicle);
+            pointRoutersByKey.put(key, pointRouter);
+          }
+          pointRoutersByVehicleGroup.put(currentGroup, pointRouter);
         }
       }
-      LOG.debug("Number of point routers created: {}", pointRoutersByVehicleGroup.size());
+      LOG.debug("Number of point routers created: {}", pointRoutersByKey.size());
+
+      invalidateAlternativeRoutes();
     }
     finally {
       rwLock.writeLock().unlock();
@@ -154,22 +213,22 @@ public class DefaultRouter
 
     try {
       rwLock.readLock().lock();
-      Set<Vehicle> result = new HashSet<>();
-      List<DriveOrder> driveOrderList = order.getFutureDriveOrders();
-      DriveOrder[] driveOrders
-          = driveOrderList.toArray(new DriveOrder[driveOrderList.size()]);
+      // The destination points do not depend on the routing group, so determine them only once.
+      List<Set<Point>> destinationPoints = new ArrayList<>();
+      for (DriveOrder driveOrder : order.getFutureDriveOrders()) {
+        destinationPoints.add(getDestinationPoints(driveOrder));
+      }
+
+      // Point routers may be shared between routing groups, so check each of them only once.
+      Map<PointRouter, Boolean> routability = new IdentityHashMap<>();
+      Set<Integer> routableGroups = new HashSet<>();
       for (Map.Entry<Integer, PointRouter> curEntry : pointRoutersByVehicleGroup.entrySet()) {
-        // Get all points at the first location at which a vehicle of the current
-        // type can execute the desired operation and check if an acceptable route
-        // originating in one of them exists.
-        for (Point curStartPoint : getDestinationPoints(driveOrders[0])) {
-          if (isRoutable(curStartPoint, driveOrders, 1, curEntry.getValue())) {
-            result.addAll(getVehiclesByRoutingGroup(curEntry.getKey()));
-            break;
-          }
+        if (routability.computeIfAbsent(curEntry.getValue(),
+                                        router -> isRoutable(destinationPoints, router))) {
+          routableGroups.add(curEntry.getKey());
         }
       }
-      return result;
+      return getVehiclesByRoutingGroups(routableGroups);
     }
     finally {
       rwLock.readLock().unlock();
@@ -188,13 +247,8 @@ public class DefaultRouter
       rwLock.readLock().lock();
       List<DriveOrder> driveOrderList = transportOrder.getFutureDriveOrders();
       DriveOrder[] driveOrders = driveOrderList.toArray(new DriveOrder[driveOrderList.size()]);
-      PointRouter pointRouter = pointRoutersByVehicleGroup.get(getRoutingGroupOfVehicle(vehicle));
-      OrderRouteParameterStruct params = new OrderRouteParameterStruct(driveOrders, pointRouter);
-      OrderRouteResultStruct resultStruct = new OrderRouteResultStruct(driveOrderList.size());
-      computeCheapestOrderRoute(sourcePoint, params, 0, resultStruct);
-      return (resultStruct.bestCosts == Long.MAX_VALUE)
-          ? Optional.empty()
-          : Optional.of(Arrays.asList(resultStruct.bestRoute));
+      PointRouter pointRouter = getPointRouter(vehicle);
+      return computeCheapestOrderRoute(vehicle, sourcePoint, driveOrders, pointRouter);
     }
     finally {
       rwLock.readLock().unlock();
@@ -211,7 +265,7 @@ public class DefaultRouter
 
     try {
       rwLock.readLock().lock();
-      PointRouter pointRouter = pointRoutersByVehicleGroup.get(getRoutingGroupOfVehicle(vehicle));
+      PointRouter pointRouter = getPointRouter(vehicle);
       long costs = pointRouter.getCosts(sourcePoint, destinationPoint);
       if (costs == INFINITE_COSTS) {
         return Optional.empty();
@@ -229,6 +283,39 @@ public class DefaultRouter
     }
   }
 
+  @Override
+  public List<Route> getAlternativeRoutes(Vehicle vehicle,
+                                          Point sourcePoint,
+                                          Point destinationPoint,
+                                          int maxRouteCount) {
+    requireNonNull(vehicle, "vehicle");
+    requireNonNull(sourcePoint, "sourcePoint");
+    requireNonNull(destinationPoint, "destinationPoint");
+    checkArgument(maxRouteCount > 0, "maxRouteCount must be positive: %s", maxRouteCount);
+
+    try {
+      rwLock.readLock().lock();
+      PointRouter pointRouter = getPointRouter(vehicle);
+      // Routes with live costs are specific to the vehicle and the moment, so don't cache them.
+      if (pointRouter.hasLiveCosts()) {
+        return pointRouter.getRoutes(sourcePoint, destinationPoint, maxRouteCount);
+      }
+      AlternativeRouteCache.Key key
+          = new AlternativeRouteCache.Key(getRoutingGroupOfVehicle(vehicle),
+                                          sourcePoint.getName(),
+                                          destinationPoint.getName());
+      List<Route> result = alternativeRouteCache.get(key, maxRouteCount);
+      if (result == null) {
+        result = pointRouter.getRoutes(sourcePoint, destinationPoint, maxRouteCount);
+        alternativeRouteCache.put(key, maxRouteCount, result);
+      }
+      return result;
+    }
+    finally {
+      rwLock.readLock().unlock();
+    }
+  }
+
   @Override
   public long getCosts(Vehicle vehicle,
                        Point sourcePoint,
@@ -239,8 +326,7 @@ public class DefaultRouter
 
     try {
       rwLock.readLock().lock();
-      return pointRoutersByVehicleGroup.get(getRoutingGroupOfVehicle(vehicle))
-          .getCosts(sourcePoint, destinationPoint);
+      return getPointRouter(vehicle).getCosts(sourcePoint, destinationPoint);
     }
     finally {
       rwLock.readLock().unlock();
@@ -257,8 +343,24 @@ public class DefaultRouter
 
     try {
       rwLock.readLock().lock();
-      return pointRoutersByVehicleGroup.get(getRoutingGroupOfVehicle(vehicle))
-          .getCosts(srcPointRef, dstPointRef);
+      return getPointRouter(vehicle).getCosts(srcPointRef, dstPointRef);
+    }
+    finally {
+      rwLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long[][] getCostMatrix(Vehicle vehicle,
+                                List<Point> sourcePoints,
+                                List<Point> destinationPoints) {
+    requireNonNull(vehicle, "vehicle");
+    requireNonNull(sourcePoints, "sourcePoints");
+    requireNonNull(destinationPoints, "destinationPoints");
+
+    try {
+      rwLock.readLock().lock();
+      return getPointRouter(vehicle).getCostMatrix(sourcePoints, destinationPoints);
     }
     finally {
       rwLock.readLock().unlock();
@@ -275,18 +377,12 @@ public class DefaultRouter
 
     try {
       rwLock.readLock().lock();
-      // Get all attached links for source and destination
-      Set<Link> srcLinks = kernel.getTCSObject(Location.class, srcRef).getAttachedLinks();
-      Set<Link> destLinks = kernel.getTCSObject(Location.class, destRef).getAttachedLinks();
-
-      // Find the cheapest destination link to be used
+      PointRouter pointRouter = getPointRouter(vehicle);
+      // Find the cheapest pair of points linked to source and destination
       long costs = Long.MAX_VALUE;
-      for (Link srcLink : srcLinks) {
-        for (Link destLink : destLinks) {
-          long linkCosts = getCosts(vehicle,
-                                    kernel.getTCSObject(Point.class, srcLink.getPoint()),
-                                    kernel.getTCSObject(Point.class, destLink.getPoint()));
-          costs = Math.min(costs, linkCosts);
+      for (Point srcPoint : locationAccessTable.getLinkedPoints(srcRef.getName())) {
+        for (Point destPoint : locationAccessTable.getLinkedPoints(destRef.getName())) {
+          costs = Math.min(costs, pointRouter.getCosts(srcPoint, destPoint));
         }
       }
       return costs;
@@ -309,6 +405,9 @@ public class DefaultRouter
       else {
         routesByVehicle.put(vehicle, driveOrders);
       }
+      if (isPlanningAroundReservations()) {
+        updateReservations(vehicle, driveOrders);
+      }
     }
     finally {
       rwLock.writeLock().unlock();
@@ -346,126 +445,230 @@ public class DefaultRouter
   public String getInfo() {
     try {
       rwLock.readLock().lock();
-      return "Computed point routers: " + pointRoutersByVehicleGroup.size();
+      return "Computed point routers: " + pointRoutersByKey.size();
     }
     finally {
       rwLock.readLock().unlock();
     }
   }
 
+  /**
+   * Checks whether routes are to be planned around the reservations of other vehicles.
+   *
+   * @return <code>true</code> if, and only if, routes are to be planned around reservations.
+   */
+  private boolean isPlanningAroundReservations() {
+    return configuration.routingMode() == DefaultRouterConfiguration.RoutingMode.SAFE_INTERVALS;
+  }
+
+  /**
+   * Replaces the given vehicle's reservations with the ones predicted for the given route.
+   *
+   * @param vehicle The vehicle.
+   * @param driveOrders The vehicle's drive orders, or <code>null</code>, if it does not have any.
+   */
+  private void updateReservations(Vehicle vehicle, List<DriveOrder> driveOrders) {
+    long now = System.currentTimeMillis();
+    reservationTable.releaseBefore(now);
+    if (driveOrders == null) {
+      reservationTable.release(vehicle.getName());
+    }
+    else {
+      reservationTable.reserve(vehicle.getName(),
+                               TravelTimes.predictReservations(driveOrders,
+                                                               vehicle,
+                                                               now,
+                                                               configuration.reservationMargin()));
+    }
+  }
+
+  /**
+   * Invalidates cached alternative routes affected by changes of paths.
+   * They are computed again only when they are requested next, so routing queries are not blocked
+   * by computing them while the routing tables are being updated.
+   */
+  private void invalidateAlternativeRoutes() {
+    int invalidatedCount = alternativeRouteCache.updatePaths(kernel.getTCSObjects(Path.class));
+    LOG.debug("Invalidated alternative routes for {} pairs of points.", invalidatedCount);
+  }
+
   /**
    * Checks if a route exists for a vehicle of a given type which allows the
    * vehicle to process a given list of drive orders.
+   * <p>
+   * Starting with the destination points of the first drive order, the set of points that can be
+   * reached while processing the drive orders is determined drive order by drive order.
+   * </p>
    *
-   * @param startPoint The point at which the route is supposed to start.
-   * @param driveOrders The list of drive orders, in the order they are to be
-   * processed.
-   * @param nextHopIndex The index of the next drive order in the list.
+   * @param destinationPoints The destination points of the drive orders, in the order they are to
+   * be processed.
    * @param pointRouter The point router to use.
    * @return <code>true</code> if, and only if, at least one route exists which
    * would allow a vehicle of the given type to process the whole list of drive
    * orders.
    */
-  private boolean isRoutable(Point startPoint,
-                             DriveOrder[] driveOrders,
-                             int nextHopIndex,
-                             PointRouter pointRouter) {
-    assert startPoint != null;
-    assert driveOrders != null;
+  private boolean isRoutable(List<Set<Point>> destinationPoints, PointRouter pointRouter) {
+    assert destinationPoints != null;
     assert pointRouter != null;
 
-    if (nextHopIndex < driveOrders.length) {
-      for (Point curPoint : getDestinationPoints(driveOrders[nextHopIndex])) {
-        // Check if there is a route from the starting point to the current
-        // point and if the rest of the orders are routable from there, too.
-        if (pointRouter.getCosts(startPoint, curPoint) != INFINITE_COSTS
-            && isRoutable(curPoint, driveOrders, nextHopIndex + 1, pointRouter)) {
-          // If it was possible to reach the end of the order list from here,
-          // propagate the result back to the caller.
-          return true;
+    Set<Point> reachablePoints = destinationPoints.isEmpty()
+        ? new HashSet<>()
+        : destinationPoints.get(0);
+    for (int hopIndex = 1; hopIndex < destinationPoints.size(); hopIndex++) {
+      Set<Point> nextReachablePoints = new HashSet<>();
+      for (Point curPoint : destinationPoints.get(hopIndex)) {
+        for (Point prevPoint : reachablePoints) {
+          if (pointRouter.isReachable(prevPoint, curPoint)) {
+            nextReachablePoints.add(curPoint);
+            break;
+          }
         }
       }
-      // If we haven't found an acceptable route, return false.
-      return false;
-    }
-    // If we have reached the end of the list, it seems we have found a route.
-    else {
-      return true;
+      if (nextReachablePoints.isEmpty()) {
+        return false;
+      }
+      reachablePoints = nextReachablePoints;
     }
+    return !reachablePoints.isEmpty();
   }
 
   /**
    * Compute the cheapest route along a list of drive orders/checkpoints.
+   * <p>
+   * The destination points of the drive orders form layers of a graph in which every point of a
+   * layer is connected to every point of the next layer.
+   * The cheapest route through these layers is computed layer by layer, keeping only the cheapest
+   * predecessor for every point.
+   * Route steps are computed only for the hops of the cheapest route found.
+   * With routing mode {@link DefaultRouterConfiguration.RoutingMode#SAFE_INTERVALS}, the route
+   * steps are planned around the reservations of other vehicles, hop by hop.
+   * </p>
    *
-   * @param startPoint The current checkpoint which to start at.
-   * @param params A struct describing parameters for the route to be computed.
-   * @param hopIndex The current index in the list of drive orders/checkpoints.
-   * @param result A struct for keeping the (partial) result in.
+   * @param vehicle The vehicle to travel the route.
+   * @param sourcePoint The point at which the route is supposed to start.
+   * @param driveOrders The drive orders containing the route's checkpoints.
+   * @param pointRouter The point router to use.
+   * @return The drive orders with the cheapest routes, or an empty optional, if no route exists.
    */
-  private void computeCheapestOrderRoute(Point startPoint,
-                                         OrderRouteParameterStruct params,
-                                         int hopIndex,
-                                         OrderRouteResultStruct result) {
-    assert startPoint != null;
-    assert params != null;
-    assert result != null;
-    // If we haven't reached the final drive order in the list, yet...
-    if (hopIndex < params.driveOrders.length) {
-      // ...try every possible destination point of the current drive order as
-      // the next checkpoint and recursively route from there.
-      final long currentRouteCosts = result.currentCosts;
-      Set<Point> destPoints = getDestinationPoints(params.driveOrders[hopIndex]);
-      // If the set of destination points contains the starting point, keep only
-      // that one. This is just a shortcut - it is the cheapest way to go.
-      if (!configuration.routeToCurrentPosition() && destPoints.contains(startPoint)) {
-        LOG.debug("Shortcutting route to {}", startPoint);
-        destPoints.clear();
-        destPoints.add(startPoint);
-      }
-      boolean routable = false;
-      for (Point curDestPoint : destPoints) {
-        final long hopCosts = params.pointRouter.getCosts(startPoint, curDestPoint);
-        if (hopCosts == INFINITE_COSTS) {
+  private Optional<List<DriveOrder>> computeCheapestOrderRoute(Vehicle vehicle,
+                                                               Point sourcePoint,
+                                                               DriveOrder[] driveOrders,
+                                                               PointRouter pointRouter) {
+    assert vehicle != null;
+    assert sourcePoint != null;
+    assert driveOrders != null;
+    assert pointRouter != null;
+
+    // The candidate points of each layer, the costs for reaching them and the index of their
+    // cheapest predecessor in the previous layer.
+    Point[][] layerPoints = new Point[driveOrders.length][];
+    int[][] predecessors = new int[driveOrders.length][];
+    Point[] prevPoints = new Point[]{sourcePoint};
+    long[] prevCosts = new long[]{0};
+
+    for (int hopIndex = 0; hopIndex < driveOrders.length; hopIndex++) {
+      Set<Point> destPoints = getDestinationPoints(driveOrders[hopIndex]);
+      Point[] points = destPoints.toArray(new Point[destPoints.size()]);
+      long[] costs = new long[points.length];
+      int[] preds = new int[points.length];
+      Arrays.fill(costs, Long.MAX_VALUE);
+      Arrays.fill(preds, -1);
+
+      for (int prevIndex = 0; prevIndex < prevPoints.length; prevIndex++) {
+        if (prevCosts[prevIndex] == Long.MAX_VALUE) {
           continue;
         }
-        // Get the list of steps for the route of the current drive order.
-        List<Route.Step> steps = params.pointRouter.getRouteSteps(startPoint, curDestPoint);
-        if (steps.isEmpty()) {
-          // If the list of steps returned is empty, we're already at the
-          // destination point of the drive order - create a single step
-          // without a path.
-          steps = new ArrayList<>(1);
-          steps.add(new Route.Step(null,
-                                   null,
-                                   startPoint,
-                                   Vehicle.Orientation.UNDEFINED,
-                                   0));
+        Point prevPoint = prevPoints[prevIndex];
+        // If the set of destination points contains the starting point, use only that one. This is
+        // just a shortcut - it is the cheapest way to go.
+        boolean shortcut = !configuration.routeToCurrentPosition()
+            && destPoints.contains(prevPoint);
+        for (int index = 0; index < points.length; index++) {
+          if (shortcut && !points[index].equals(prevPoint)) {
+            continue;
+          }
+          long hopCosts = pointRouter.getCosts(prevPoint, points[index]);
+          if (hopCosts == INFINITE_COSTS) {
+            continue;
+          }
+          long totalCosts = prevCosts[prevIndex] + hopCosts;
+          if (totalCosts < costs[index]) {
+            costs[index] = totalCosts;
+            preds[index] = prevIndex;
+          }
         }
-        // Create a route from the list of steps gathered.
-        Route hopRoute = new Route(steps, hopCosts);
-        // Copy the current drive order, add the computed route to it and
-        // place it in the result struct.
-        DriveOrder hopOrder = params.driveOrders[hopIndex].withRoute(hopRoute);
-        result.currentRoute[hopIndex] = hopOrder;
-        // Calculate the costs for the route so far, too.
-        result.currentCosts = currentRouteCosts + hopRoute.getCosts();
-        computeCheapestOrderRoute(curDestPoint, params, hopIndex + 1, result);
-        // Remember that we did find at least one route that works.
-        routable = true;
       }
-      if (!routable) {
-        // Setting currentCosts is not strictly necessary for this algorithm,
-        // but might help with debugging.
-        result.currentCosts = Long.MAX_VALUE;
+
+      layerPoints[hopIndex] = points;
+      predecessors[hopIndex] = preds;
+      prevPoints = points;
+      prevCosts = costs;
+    }
+
+    // Find the cheapest point in the last layer.
+    int bestIndex = -1;
+    long bestCosts = Long.MAX_VALUE;
+    for (int index = 0; index < prevCosts.length; index++) {
+      if (prevCosts[index] < bestCosts) {
+        bestCosts = prevCosts[index];
+        bestIndex = index;
       }
     }
-    // If we have reached the final drive order, ...
-    else // If the route computed is cheaper than the best route found so far,
-    // replace the latter.
-    if (result.currentCosts < result.bestCosts) {
-      System.arraycopy(result.currentRoute, 0, result.bestRoute, 0, result.currentRoute.length);
-      result.bestCosts = result.currentCosts;
+    if (bestIndex < 0) {
+      return Optional.empty();
+    }
+
+    // Trace the cheapest route back to find the points of its hops.
+    Point[] hopDests = new Point[driveOrders.length];
+    int index = bestIndex;
+    for (int hopIndex = driveOrders.length - 1; hopIndex >= 0; hopIndex--) {
+      hopDests[hopIndex] = layerPoints[hopIndex][index];
+      index = predecessors[hopIndex][index];
+    }
+
+    // Compute the route steps for the hops.
+    DriveOrder[] result = new DriveOrder[driveOrders.length];
+    long departureTime = System.currentTimeMillis();
+    for (int hopIndex = 0; hopIndex < driveOrders.length; hopIndex++) {
+      Point hopSource = hopIndex == 0 ? sourcePoint : hopDests[hopIndex - 1];
+      Route route;
+      if (isPlanningAroundReservations()) {
+        route = pointRouter.getRoute(hopSource,
+                                     hopDests[hopIndex],
+                                     vehicle,
+                                     departureTime,
+                                     reservationTable);
+        // Planned routes contain no waiting times, so the next hop starts after the travel time.
+        long travelTime = TravelTimes.travelTimeMillis(route, vehicle);
+        if (travelTime != TravelTimes.INFINITE_TRAVEL_TIME) {
+          departureTime += travelTime;
+        }
+      }
+      else {
+        route = computeHopRoute(hopSource, hopDests[hopIndex], pointRouter);
+      }
+      result[hopIndex] = driveOrders[hopIndex].withRoute(route);
     }
+    return Optional.of(Arrays.asList(result));
+  }
+
+  /**
+   * Computes the route for a single hop of a transport order's route.
+   *
+   * @param sourcePoint The hop's source point.
+   * @param destPoint The hop's destination point.
+   * @param pointRouter The point router to use.
+   * @return The route.
+   */
+  private Route computeHopRoute(Point sourcePoint, Point destPoint, PointRouter pointRouter) {
+    List<Route.Step> steps = pointRouter.getRouteSteps(sourcePoint, destPoint);
+    if (steps.isEmpty()) {
+      // If the list of steps returned is empty, we're already at the destination point of the
+      // drive order - create a single step without a path.
+      steps = new ArrayList<>(1);
+      steps.add(new Route.Step(null, null, sourcePoint, Vehicle.Orientation.UNDEFINED, 0));
+    }
+    return new Route(steps, pointRouter.getCosts(sourcePoint, destPoint));
   }
 
   /**
@@ -487,7 +690,7 @@ public class DefaultRouter
         && (Destination.OP_MOVE.equals(dest.getOperation())
             || Destination.OP_PARK.equals(dest.getOperation()))) {
       // Route the vehicle to an user selected point if halting is allowed there.
-      Point destPoint = kernel.getTCSObject(Point.class, dest.getDestination().getName());
+      Point destPoint = locationAccessTable.getPoint(dest.getDestination().getName());
       requireNonNull(destPoint, "destPoint");
       final Set<Point> result = new HashSet<>();
       if (destPoint.isHaltingPosition()) {
@@ -498,129 +701,88 @@ public class DefaultRouter
     // If it's a "normal" transport order, look for destination points adjacent
     // to the destination location.
     else {
-      final Set<Point> result = new HashSet<>();
-      final Location destLoc = kernel.getTCSObject(Location.class, dest.getDestination().getName());
-      final LocationType destLocType = kernel.getTCSObject(LocationType.class, destLoc.getType());
-      for (Location.Link curLink : destLoc.getAttachedLinks()) {
-        // A link is acceptable if any of the following conditions are true:
-        // - The destination operation is OP_NOP, which is allowed everywhere.
-        // - The destination operation is explicitly allowed with the link.
-        // - The link's set of allowed operations is empty and the destination
-        //   operation is explicitly allowed with the location's type.
-        // Furthermore, the point to be routed at must allow halting.
-        if (Destination.OP_NOP.equals(dest.getOperation())
-            || curLink.hasAllowedOperation(dest.getOperation())
-            || (curLink.getAllowedOperations().isEmpty()
-                && destLocType.isAllowedOperation(dest.getOperation()))) {
-          Point destPoint = kernel.getTCSObject(Point.class, curLink.getPoint());
-          if (destPoint.isHaltingPosition()) {
-            result.add(destPoint);
-          }
-        }
-      }
-      return result;
+      return locationAccessTable.getAccessPoints(dest.getDestination().getName(),
+                                                 dest.getOperation());
     }
   }
 
   /**
-   * Returns all vehicles within the given routing group.
+   * Returns all vehicles within the given routing groups.
    *
-   * @param routingGroup The routint group all vehicles should be in
-   * @return The vehicles which have the given routing group
+   * @param routingGroups The routing groups the vehicles should be in
+   * @return The vehicles which have one of the given routing groups
    */
-  private Set<Vehicle> getVehiclesByRoutingGroup(int routingGroup) {
-    Set<Vehicle> result = new HashSet<>();
-    for (Vehicle curVehicle : kernel.getTCSObjects(Vehicle.class)) {
-      if (getRoutingGroupOfVehicle(curVehicle) == routingGroup) {
-        result.add(curVehicle);
-      }
-    }
-    return result;
+  private Set<Vehicle> getVehiclesByRoutingGroups(Set<Integer> routingGroups) {
+    return routingGroupRegistry.getVehicles(routingGroups);
   }
 
   /**
-   * Returns the routing group of the vehicle or {@link #DEFAULT_ROUTING_GROUP} if the property
-   * does not exist or is invalid.
+   * Returns the routing group of the given vehicle.
    *
    * @param vehicle The vehicle
    * @return The routing group of the vehicle
    */
   private int getRoutingGroupOfVehicle(Vehicle vehicle) {
-    int routingGroup = DEFAULT_ROUTING_GROUP;
-    try {
-      routingGroup = Integer.parseInt(vehicle.getProperty(PROPKEY_ROUTING_GROUP));
-    }
-    catch (NumberFormatException e) {
-      LOG.debug("Invalid routing group '{}' for vehicle {}, using default ({}).",
-                routingGroup,
-                vehicle,
-                DEFAULT_ROUTING_GROUP);
-    }
-    return routingGroup;
+    return routingGroupRegistry.getRoutingGroup(vehicle);
   }
 
   /**
-   * Contains parameters for a route to be computed.
+   * Returns the point router for computing routes to be travelled by the given vehicle.
+   *
+   * @param vehicle The vehicle.
+   * @return The point router for the given vehicle.
    */
-  private static final class OrderRouteParameterStruct {
-
-    /**
-     * The drive orders containing the route's checkpoints.
-     */
-    private final DriveOrder[] driveOrders;
-    /**
-     * The point router for the vehicle type.
-     */
-    private final PointRouter pointRouter;
-
-    /**
-     * Creates a new OrderRouteParameterStruct.
-     *
-     * @param driveOrders A list of drive orders to be processed as checkpoints
-     * of the route to be computed.
-     * @param pointRouter The point router for the vehicle type.
-     */
-    public OrderRouteParameterStruct(DriveOrder[] driveOrders,
-                                     PointRouter pointRouter) {
-      this.driveOrders = requireNonNull(driveOrders, "driveOrders");
-      this.pointRouter = requireNonNull(pointRouter, "pointRouter");
-    }
+  private PointRouter getPointRouter(Vehicle vehicle) {
+    return pointRoutersByVehicleGroup.get(getRoutingGroupOfVehicle(vehicle)).forVehicle(vehicle);
   }
 
   /**
-   * A struct supporting cheapest route calculation.
+   * Keeps the registered vehicles and their routing groups up to date.
+   * <p>
+   * Since events are emitted while the kernel's lock is held, this does not acquire the router's
+   * lock, which would be prone to deadlocks.
+   * Instead, the new group's point router is taken from the ones already built for vehicles with
+   * the same routing-relevant characteristics.
+   * </p>
+   *
+   * @param event The event.
    */
-  private static final class OrderRouteResultStruct {
-
-    /**
-     * The (possibly partial) route currently being examined.
-     */
-    private DriveOrder[] currentRoute;
-    /**
-     * The costs of the route currently being examined.
-     */
-    private long currentCosts;
-    /**
-     * The best route found so far.
-     */
-    private DriveOrder[] bestRoute;
-    /**
-     * The costs of the best route found so far.
-     */
-    private long bestCosts;
-
-    /**
-     * Creates a new OrderRouteResultStruct.
-     *
-     * @param driveOrderCount The number of <code>DriveOrder</code>s in the
-     * <code>TransportOrder</code> for which this struct is to store the
-     * routing result.
-     */
-    public OrderRouteResultStruct(int driveOrderCount) {
-      currentRoute = new DriveOrder[driveOrderCount];
-      currentCosts = 0;
-      bestRoute = new DriveOrder[driveOrderCount];
-      bestCosts = Long.MAX_VALUE;
-    }
+  private void processEvent(TCSEvent event) {
+    if (!(event instanceof TCSObjectEvent)) {
+      return;
+    }
+    TCSObjectEvent objectEvent = (TCSObjectEvent) event;
+    if (objectEvent.getType() == TCSObjectEvent.Type.OBJECT_REMOVED) {
+      if (objectEvent.getPreviousObjectState() instanceof Vehicle) {
+        routingGroupRegistry.unregister(objectEvent.getPreviousObjectState().getName());
+      }
+      return;
+    }
+    if (!(objectEvent.getCurrentObjectState() instanceof Vehicle)) {
+      return;
+    }
+    Vehicle vehicle = (Vehicle) objectEvent.getCurrentObjectState();
+    if (objectEvent.getType() == TCSObjectEvent.Type.OBJECT_MODIFIED
+        && objectEvent.getPreviousObjectState() instanceof Vehicle
+        && Objects.equals(vehicle.getProperty(PROPKEY_ROUTING_GROUP),
+                          objectEvent.getPreviousObjectState().getProperty(PROPKEY_ROUTING_GROUP))) {
+      routingGroupRegistry.updateState(vehicle);
+      return;
+    }
+    if (!routingGroupRegistry.register(vehicle)) {
+      return;
+    }
+
+    int routingGroup = routingGroupRegistry.getRoutingGroup(vehicle);
+    PointRouter pointRouter
+        = pointRoutersByKey.get(pointRouterFactory.getPointRouterKey(vehicle));
+    if (pointRouter == null) {
+      LOG.warn("No point router available for vehicle {} in new routing group {}.",
+               vehicle.getName(),
+               routingGroup);
+      return;
+    }
+    pointRoutersByVehicleGroup.putIfAbsent(routingGroup, pointRouter);
+    LOG.debug("Vehicle {} changed to routing group {}.", vehicle.getName(), routingGroup);
   }
 }
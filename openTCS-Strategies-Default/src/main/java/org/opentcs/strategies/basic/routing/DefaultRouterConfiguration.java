@@ -28,4 +28,42 @@ public interface DefaultRouterConfiguration {
       description = "Whether to compute a route even if the vehicle is already at the destination.")
   boolean routeToCurrentPosition();
 
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "The maximum number of source/destination point pairs for which alternative routes are "
+        + "cached.",
+        "Set to 0 to disable caching."})
+  int alternativeRouteCacheSize();
+
+  @ConfigurationEntry(
+      type = "String",
+      description = {
+        "The routing mode. Valid values:",
+        "'STATIC': Routes are computed with the configured cost function only.",
+        "'SAFE_INTERVALS': Routes avoid points and paths predicted to be occupied by other "
+        + "vehicles at the time they would be passed, using safe interval path planning."})
+  RoutingMode routingMode();
+
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "With routing mode 'SAFE_INTERVALS': The time (in ms) by which predicted occupation times "
+        + "of points and paths are extended at both ends to compensate for inaccurate estimates."})
+  int reservationMargin();
+
+  /**
+   * The available routing modes.
+   */
+  enum RoutingMode {
+    /**
+     * Routes are computed with the configured cost function only.
+     */
+    STATIC,
+    /**
+     * Routes are planned around the predicted occupation of resources by other vehicles.
+     */
+    SAFE_INTERVALS
+  }
+
 }
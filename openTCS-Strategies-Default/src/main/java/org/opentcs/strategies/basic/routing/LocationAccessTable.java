@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.order.DriveOrder.Destination;
+
+/**
+ * An immutable snapshot of the points of the plant model and the points via which locations can be
+ * accessed, along with the operations allowed there.
+ * <p>
+ * Links between locations and points, location types and their allowed operations can only be
+ * modified while the kernel is in modelling mode, so a snapshot taken when the router is
+ * initialized remains valid until the router is terminated.
+ * Looking up access points in the snapshot avoids retrieving (and copying) locations, location
+ * types and points from the kernel with every request.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class LocationAccessTable {
+
+  /**
+   * An empty table.
+   */
+  static final LocationAccessTable EMPTY = new LocationAccessTable(Collections.emptySet(),
+                                                                   Collections.emptySet(),
+                                                                   Collections.emptySet());
+  /**
+   * The points, by name.
+   */
+  private final Map<String, Point> pointsByName = new HashMap<>();
+  /**
+   * The access information, by location name.
+   */
+  private final Map<String, LocationAccess> accessByLocationName = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param points The points of the model.
+   * @param locations The locations of the model.
+   * @param locationTypes The location types of the model.
+   */
+  LocationAccessTable(Collection<Point> points,
+                      Collection<Location> locations,
+                      Collection<LocationType> locationTypes) {
+    requireNonNull(points, "points");
+    requireNonNull(locations, "locations");
+    requireNonNull(locationTypes, "locationTypes");
+
+    for (Point point : points) {
+      pointsByName.put(point.getName(), point);
+    }
+    Map<String, Set<String>> typeOperations = new HashMap<>();
+    for (LocationType type : locationTypes) {
+      typeOperations.put(type.getName(), new HashSet<>(type.getAllowedOperations()));
+    }
+    for (Location location : locations) {
+      List<Point> linkedPoints = new ArrayList<>();
+      List<Set<String>> linkOperations = new ArrayList<>();
+      for (Location.Link link : location.getAttachedLinks()) {
+        Point point = pointsByName.get(link.getPoint().getName());
+        if (point != null) {
+          linkedPoints.add(point);
+          linkOperations.add(new HashSet<>(link.getAllowedOperations()));
+        }
+      }
+      accessByLocationName.put(
+          location.getName(),
+          new LocationAccess(linkedPoints.toArray(new Point[linkedPoints.size()]),
+                             linkOperations,
+                             typeOperations.getOrDefault(location.getType().getName(),
+                                                         Collections.emptySet())));
+    }
+  }
+
+  /**
+   * Returns the point with the given name.
+   *
+   * @param pointName The point's name.
+   * @return The point, or <code>null</code>, if there is no such point.
+   */
+  Point getPoint(String pointName) {
+    return pointsByName.get(pointName);
+  }
+
+  /**
+   * Returns all points linked to the given location.
+   *
+   * @param locationName The location's name.
+   * @return The points linked to the location. The returned array must not be modified.
+   */
+  Point[] getLinkedPoints(String locationName) {
+    LocationAccess access = accessByLocationName.get(locationName);
+    return access == null ? new Point[0] : access.linkedPoints;
+  }
+
+  /**
+   * Returns the halting points linked to the given location at which the given operation can be
+   * performed.
+   * <p>
+   * A link is acceptable if any of the following conditions are true:
+   * </p>
+   * <ul>
+   * <li>The operation is {@link Destination#OP_NOP}, which is allowed everywhere.</li>
+   * <li>The operation is explicitly allowed with the link.</li>
+   * <li>The link's set of allowed operations is empty and the operation is explicitly allowed with
+   * the location's type.</li>
+   * </ul>
+   *
+   * @param locationName The location's name.
+   * @param operation The operation.
+   * @return The acceptable points.
+   */
+  Set<Point> getAccessPoints(String locationName, String operation) {
+    Set<Point> result = new HashSet<>();
+    LocationAccess access = accessByLocationName.get(locationName);
+    if (access == null) {
+      return result;
+    }
+    for (int i = 0; i < access.linkedPoints.length; i++) {
+      Set<String> linkOperations = access.linkOperations.get(i);
+      if ((Destination.OP_NOP.equals(operation)
+           || linkOperations.contains(operation)
+           || (linkOperations.isEmpty() && access.typeOperations.contains(operation)))
+          && access.linkedPoints[i].isHaltingPosition()) {
+        result.add(access.linkedPoints[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The access information of a single location.
+   */
+  private static class LocationAccess {
+
+    /**
+     * The points linked to the location.
+     */
+    private final Point[] linkedPoints;
+    /**
+     * The operations explicitly allowed with each link.
+     */
+    private final List<Set<String>> linkOperations;
+    /**
+     * The operations allowed with the location's type.
+     */
+    private final Set<String> typeOperations;
+
+    LocationAccess(Point[] linkedPoints,
+                   List<Set<String>> linkOperations,
+                   Set<String> typeOperations) {
+      this.linkedPoints = linkedPoints;
+      this.linkOperations = linkOperations;
+      this.typeOperations = typeOperations;
+    }
+  }
+}
@@ -7,10 +7,12 @@
  */
 package org.opentcs.strategies.basic.routing;
 
+import java.util.ArrayList;
 import java.util.List;
 import static java.util.Objects.requireNonNull;
 import org.opentcs.data.TCSObjectReference;
 import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
 import org.opentcs.data.order.Route;
 
 /**
@@ -65,4 +67,133 @@ public interface PointRouter {
 
     return getCosts(srcPoint.getReference(), destPoint.getReference());
   }
+
+  /**
+   * Checks whether a route from one point to another exists.
+   * <p>
+   * This default implementation checks the costs of the shortest route.
+   * Implementations are encouraged to provide a more efficient check.
+   * </p>
+   *
+   * @param srcPoint The starting point.
+   * @param destPoint The destination point.
+   * @return <code>true</code> if, and only if, a route from the starting point to the destination
+   * point exists.
+   */
+  default boolean isReachable(Point srcPoint, Point destPoint) {
+    return getCosts(srcPoint, destPoint) != INFINITE_COSTS;
+  }
+
+  /**
+   * Returns up to the given number of the cheapest loopless routes from one point to another, in
+   * ascending order of their costs.
+   * <p>
+   * This default implementation returns only the cheapest route.
+   * </p>
+   *
+   * @param srcPoint The source point.
+   * @param destPoint The destination point.
+   * @param maxRouteCount The maximum number of routes to be returned.
+   * @return The routes. If source point and destination point are identical, the result contains a
+   * single route with a single step without a path. If no route exists or the only routes have
+   * {@link #INFINITE_COSTS INFINITE_COSTS}, the result is empty.
+   */
+  default List<Route> getRoutes(Point srcPoint, Point destPoint, int maxRouteCount) {
+    requireNonNull(srcPoint, "srcPoint");
+    requireNonNull(destPoint, "destPoint");
+
+    List<Route> result = new ArrayList<>();
+    long costs = getCosts(srcPoint, destPoint);
+    if (costs >= INFINITE_COSTS) {
+      return result;
+    }
+    List<Route.Step> steps = getRouteSteps(srcPoint, destPoint);
+    if (steps == null) {
+      return result;
+    }
+    if (steps.isEmpty()) {
+      steps = new ArrayList<>(1);
+      steps.add(new Route.Step(null, null, srcPoint, Vehicle.Orientation.UNDEFINED, 0));
+    }
+    result.add(new Route(steps, costs));
+    return result;
+  }
+
+  /**
+   * Returns a route from one point to another that avoids points and paths reserved by other
+   * vehicles at the times the given vehicle would pass them.
+   * <p>
+   * This default implementation ignores the reservations and returns the cheapest route.
+   * </p>
+   *
+   * @param srcPoint The source point.
+   * @param destPoint The destination point.
+   * @param vehicle The vehicle to travel the route.
+   * @param departureTime The time at which the vehicle departs from the source point.
+   * @param reservationTable The current reservations.
+   * @return The route, or <code>null</code>, if no route exists. If source point and destination
+   * point are identical, the route contains a single step without a path.
+   */
+  default Route getRoute(Point srcPoint,
+                         Point destPoint,
+                         Vehicle vehicle,
+                         long departureTime,
+                         ReservationTable reservationTable) {
+    List<Route> routes = getRoutes(srcPoint, destPoint, 1);
+    return routes.isEmpty() ? null : routes.get(0);
+  }
+
+  /**
+   * Returns a point router computing routes to be travelled by the given vehicle.
+   * <p>
+   * Implementations with edge weights depending on the current state of the vehicles (e.g. their
+   * allocations) may return a point router that ignores the given vehicle's own contribution to
+   * that state.
+   * This default implementation returns this point router.
+   * </p>
+   *
+   * @param vehicle The vehicle to travel the routes.
+   * @return A point router computing routes to be travelled by the given vehicle.
+   */
+  default PointRouter forVehicle(Vehicle vehicle) {
+    return this;
+  }
+
+  /**
+   * Indicates whether the costs of this point router's routes depend on the current state of the
+   * vehicles (e.g. their allocations), in which case computed routes must not be cached.
+   * <p>
+   * This default implementation returns <code>false</code>.
+   * </p>
+   *
+   * @return <code>true</code> if, and only if, the costs depend on the current state of the
+   * vehicles.
+   */
+  default boolean hasLiveCosts() {
+    return false;
+  }
+
+  /**
+   * Returns the costs for travelling the shortest routes from each of the given source points to
+   * each of the given destination points.
+   *
+   * @param srcPoints The source points.
+   * @param destPoints The destination points.
+   * @return A matrix containing the costs for travelling from <code>srcPoints.get(i)</code> to
+   * <code>destPoints.get(j)</code> at index <code>[i][j]</code>.
+   * If no route exists for a pair of points, the respective element will be
+   * {@link #INFINITE_COSTS INFINITE_COSTS}.
+   */
+  default long[][] getCostMatrix(List<Point> srcPoints, List<Point> destPoints) {
+    requireNonNull(srcPoints, "srcPoints");
+    requireNonNull(destPoints, "destPoints");
+
+    long[][] result = new long[srcPoints.size()][destPoints.size()];
+    for (int i = 0; i < srcPoints.size(); i++) {
+      for (int j = 0; j < destPoints.size(); j++) {
+        result[i][j] = getCosts(srcPoints.get(i), destPoints.get(j));
+      }
+    }
+    return result;
+  }
 }
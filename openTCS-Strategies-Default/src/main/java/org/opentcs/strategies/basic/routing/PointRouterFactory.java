@@ -23,4 +23,19 @@ public interface PointRouterFactory {
    * @return The point router.
    */
   PointRouter createPointRouter(Vehicle vehicle);
+
+  /**
+   * Returns a key identifying the point router to be created for the given vehicle.
+   * Point routers created for vehicles with equal keys are equivalent, so a single instance may be
+   * shared between these vehicles.
+   * <p>
+   * This default implementation returns the vehicle's name, i.e. point routers are not shared.
+   * </p>
+   *
+   * @param vehicle The vehicle.
+   * @return The key.
+   */
+  default Object getPointRouterKey(Vehicle vehicle) {
+    return vehicle.getName();
+  }
 }
@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import static org.opentcs.util.Assertions.checkArgument;
+
+/**
+ * A time-expanded reservation table, keeping track of the time windows in which resources (points
+ * and paths) are predicted to be occupied by vehicles travelling their routes.
+ * <p>
+ * For every resource, the reservations are kept sorted by their start times.
+ * Times are given in milliseconds, in the time base of {@link System#currentTimeMillis()}.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ReservationTable {
+
+  /**
+   * The reservations of every resource, sorted by their start times, by resource name.
+   */
+  private final Map<String, List<Window>> windowsByResource = new HashMap<>();
+  /**
+   * The reservations of every vehicle, by vehicle name.
+   */
+  private final Map<String, List<Reservation>> reservationsByVehicle = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   */
+  public ReservationTable() {
+  }
+
+  /**
+   * Replaces all reservations of the given vehicle with the given ones.
+   *
+   * @param vehicleName The name of the vehicle.
+   * @param reservations The vehicle's new reservations.
+   */
+  public synchronized void reserve(@Nonnull String vehicleName,
+                                   @Nonnull Collection<Reservation> reservations) {
+    requireNonNull(vehicleName, "vehicleName");
+    requireNonNull(reservations, "reservations");
+
+    release(vehicleName);
+    for (Reservation reservation : reservations) {
+      insert(windowsByResource.computeIfAbsent(reservation.getResourceName(),
+                                               name -> new ArrayList<>()),
+             new Window(reservation.getStart(), reservation.getEnd(), vehicleName));
+    }
+    reservationsByVehicle.put(vehicleName, new ArrayList<>(reservations));
+  }
+
+  /**
+   * Removes all reservations of the given vehicle.
+   *
+   * @param vehicleName The name of the vehicle.
+   */
+  public synchronized void release(@Nonnull String vehicleName) {
+    requireNonNull(vehicleName, "vehicleName");
+
+    List<Reservation> reservations = reservationsByVehicle.remove(vehicleName);
+    if (reservations == null) {
+      return;
+    }
+    for (Reservation reservation : reservations) {
+      List<Window> windows = windowsByResource.get(reservation.getResourceName());
+      if (windows == null) {
+        continue;
+      }
+      windows.removeIf(window -> window.vehicleName.equals(vehicleName));
+      if (windows.isEmpty()) {
+        windowsByResource.remove(reservation.getResourceName());
+      }
+    }
+  }
+
+  /**
+   * Removes all reservations that end at or before the given time.
+   *
+   * @param time The time.
+   */
+  public synchronized void releaseBefore(long time) {
+    for (Iterator<List<Window>> iter = windowsByResource.values().iterator(); iter.hasNext();) {
+      List<Window> windows = iter.next();
+      windows.removeIf(window -> window.end <= time);
+      if (windows.isEmpty()) {
+        iter.remove();
+      }
+    }
+    for (List<Reservation> reservations : reservationsByVehicle.values()) {
+      reservations.removeIf(reservation -> reservation.getEnd() <= time);
+    }
+    reservationsByVehicle.values().removeIf(reservations -> reservations.isEmpty());
+  }
+
+  /**
+   * Removes all reservations.
+   */
+  public synchronized void clear() {
+    windowsByResource.clear();
+    reservationsByVehicle.clear();
+  }
+
+  /**
+   * Returns the time windows in which the given resource is occupied after the given time.
+   * Overlapping reservations are merged.
+   *
+   * @param resourceName The name of the resource.
+   * @param time The time after which to look for reservations.
+   * @param ignoredVehicleName The name of a vehicle whose reservations are to be ignored, or
+   * <code>null</code>.
+   * @return The start and end times of the occupied windows, in ascending order. Element
+   * <code>2 * i</code> contains the start, element <code>2 * i + 1</code> the (exclusive) end of
+   * the <code>i</code>-th window.
+   */
+  @Nonnull
+  public synchronized long[] getOccupiedWindows(@Nonnull String resourceName,
+                                                long time,
+                                                @Nullable String ignoredVehicleName) {
+    requireNonNull(resourceName, "resourceName");
+
+    List<Window> windows = windowsByResource.get(resourceName);
+    if (windows == null) {
+      return new long[0];
+    }
+    long[] result = new long[2 * windows.size()];
+    int count = 0;
+    for (Window window : windows) {
+      if (window.end <= time || window.vehicleName.equals(ignoredVehicleName)) {
+        continue;
+      }
+      if (count > 0 && window.start <= result[count - 1]) {
+        result[count - 1] = Math.max(result[count - 1], window.end);
+      }
+      else {
+        result[count++] = window.start;
+        result[count++] = window.end;
+      }
+    }
+    return count == result.length ? result : Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Returns the number of vehicles with reservations.
+   *
+   * @return The number of vehicles with reservations.
+   */
+  public synchronized int getVehicleCount() {
+    return reservationsByVehicle.size();
+  }
+
+  /**
+   * Returns the earliest time at or after the given one at which the given occupied windows leave a
+   * gap of the given duration.
+   *
+   * @param windows The occupied windows, as returned by
+   * {@link #getOccupiedWindows(String, long, String)}.
+   * @param time The earliest possible start time.
+   * @param duration The duration.
+   * @return The earliest start time of a free gap.
+   */
+  public static long earliestFreeTime(@Nonnull long[] windows, long time, long duration) {
+    long result = time;
+    for (int i = 0; i < windows.length; i += 2) {
+      if (windows[i + 1] <= result) {
+        continue;
+      }
+      if (windows[i] >= result + duration) {
+        break;
+      }
+      result = windows[i + 1];
+    }
+    return result;
+  }
+
+  private static void insert(List<Window> windows, Window window) {
+    int low = 0;
+    int high = windows.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (windows.get(mid).start <= window.start) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    windows.add(low, window);
+  }
+
+  /**
+   * A reservation of a resource for a time window.
+   */
+  public static class Reservation {
+
+    /**
+     * The name of the reserved resource.
+     */
+    private final String resourceName;
+    /**
+     * The start of the time window.
+     */
+    private final long start;
+    /**
+     * The (exclusive) end of the time window.
+     */
+    private final long end;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param resourceName The name of the reserved resource.
+     * @param start The start of the time window.
+     * @param end The (exclusive) end of the time window.
+     */
+    public Reservation(@Nonnull String resourceName, long start, long end) {
+      this.resourceName = requireNonNull(resourceName, "resourceName");
+      checkArgument(start < end, "start %s not before end %s", start, end);
+      this.start = start;
+      this.end = end;
+    }
+
+    @Nonnull
+    public String getResourceName() {
+      return resourceName;
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getEnd() {
+      return end;
+    }
+
+    @Override
+    public String toString() {
+      return "Reservation{" + "resourceName=" + resourceName
+          + ", start=" + start
+          + ", end=" + end + '}';
+    }
+  }
+
+  /**
+   * A reserved time window of a single resource.
+   */
+  private static class Window {
+
+    private final long start;
+
+    private final long end;
+
+    private final String vehicleName;
+
+    Window(long start, long end, String vehicleName) {
+      this.start = start;
+      this.end = end;
+      this.vehicleName = vehicleName;
+    }
+  }
+}
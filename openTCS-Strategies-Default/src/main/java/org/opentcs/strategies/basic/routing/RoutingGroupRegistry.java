@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import static org.opentcs.components.kernel.Router.PROPKEY_ROUTING_GROUP;
+import org.opentcs.data.model.Vehicle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the routing groups of vehicles.
+ * <p>
+ * A vehicle's routing group property is parsed only when the vehicle is registered, i.e. when the
+ * routing tables are built or when the property's value is changed.
+ * Looking up a registered vehicle's routing group is a simple map lookup.
+ * </p>
+ * <p>
+ * The registry also keeps the most recent state of every registered vehicle, indexed by routing
+ * group, so the vehicles of a set of routing groups can be determined without going through all
+ * vehicles of the model.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class RoutingGroupRegistry {
+
+  /**
+   * The default value of a vehicle's routing group.
+   */
+  static final int DEFAULT_ROUTING_GROUP = 0;
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(RoutingGroupRegistry.class);
+  /**
+   * The routing groups of vehicles, by vehicle name.
+   */
+  private final Map<String, Integer> routingGroupsByVehicleName = new ConcurrentHashMap<>();
+  /**
+   * The most recent states of the registered vehicles, by vehicle name.
+   */
+  private final Map<String, Vehicle> vehiclesByName = new HashMap<>();
+  /**
+   * The names of the registered vehicles, by routing group.
+   */
+  private final Map<Integer, Set<String>> vehicleNamesByRoutingGroup = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   */
+  RoutingGroupRegistry() {
+  }
+
+  /**
+   * Returns the routing group of the given vehicle.
+   * If the vehicle has not been registered, yet, it is registered with this call.
+   *
+   * @param vehicle The vehicle.
+   * @return The vehicle's routing group.
+   */
+  int getRoutingGroup(@Nonnull Vehicle vehicle) {
+    Integer routingGroup = routingGroupsByVehicleName.get(vehicle.getName());
+    if (routingGroup == null) {
+      register(vehicle);
+      routingGroup = routingGroupsByVehicleName.get(vehicle.getName());
+    }
+    return routingGroup;
+  }
+
+  /**
+   * Returns the most recent states of all registered vehicles in the given routing groups.
+   *
+   * @param routingGroups The routing groups.
+   * @return The vehicles in the given routing groups.
+   */
+  synchronized Set<Vehicle> getVehicles(@Nonnull Set<Integer> routingGroups) {
+    requireNonNull(routingGroups, "routingGroups");
+
+    Set<Vehicle> result = new HashSet<>();
+    for (Integer routingGroup : routingGroups) {
+      for (String vehicleName : vehicleNamesByRoutingGroup.getOrDefault(routingGroup,
+                                                                         Collections.emptySet())) {
+        result.add(vehiclesByName.get(vehicleName));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Registers the given vehicle with the routing group set in its properties, replacing any routing
+   * group previously registered for it.
+   *
+   * @param vehicle The vehicle.
+   * @return <code>true</code> if, and only if, the vehicle's routing group has changed.
+   */
+  synchronized boolean register(@Nonnull Vehicle vehicle) {
+    requireNonNull(vehicle, "vehicle");
+
+    Integer routingGroup = parseRoutingGroup(vehicle);
+    vehiclesByName.put(vehicle.getName(), vehicle);
+    Integer previousGroup = routingGroupsByVehicleName.put(vehicle.getName(), routingGroup);
+    if (routingGroup.equals(previousGroup)) {
+      return false;
+    }
+    if (previousGroup != null) {
+      removeFromIndex(vehicle.getName(), previousGroup);
+    }
+    vehicleNamesByRoutingGroup.computeIfAbsent(routingGroup, group -> new HashSet<>())
+        .add(vehicle.getName());
+    return true;
+  }
+
+  /**
+   * Updates the state of the given vehicle, if it is registered, without parsing its routing group
+   * property again.
+   *
+   * @param vehicle The vehicle.
+   */
+  synchronized void updateState(@Nonnull Vehicle vehicle) {
+    requireNonNull(vehicle, "vehicle");
+
+    vehiclesByName.computeIfPresent(vehicle.getName(), (name, oldState) -> vehicle);
+  }
+
+  /**
+   * Removes the vehicle with the given name.
+   *
+   * @param vehicleName The vehicle's name.
+   */
+  synchronized void unregister(@Nonnull String vehicleName) {
+    requireNonNull(vehicleName, "vehicleName");
+
+    vehiclesByName.remove(vehicleName);
+    Integer routingGroup = routingGroupsByVehicleName.remove(vehicleName);
+    if (routingGroup != null) {
+      removeFromIndex(vehicleName, routingGroup);
+    }
+  }
+
+  /**
+   * Removes all registered vehicles.
+   */
+  synchronized void clear() {
+    routingGroupsByVehicleName.clear();
+    vehiclesByName.clear();
+    vehicleNamesByRoutingGroup.clear();
+  }
+
+  private void removeFromIndex(String vehicleName, Integer routingGroup) {
+    Set<String> vehicleNames = vehicleNamesByRoutingGroup.get(routingGroup);
+    if (vehicleNames != null) {
+      vehicleNames.remove(vehicleName);
+      if (vehicleNames.isEmpty()) {
+        vehicleNamesByRoutingGroup.remove(routingGroup);
+      }
+    }
+  }
+
+  /**
+   * Returns the routing group set in the given vehicle's properties or
+   * {@link #DEFAULT_ROUTING_GROUP} if the property does not exist or is invalid.
+   *
+   * @param vehicle The vehicle.
+   * @return The vehicle's routing group.
+   */
+  private static int parseRoutingGroup(Vehicle vehicle) {
+    String propertyValue = vehicle.getProperty(PROPKEY_ROUTING_GROUP);
+    if (propertyValue == null) {
+      return DEFAULT_ROUTING_GROUP;
+    }
+    try {
+      return Integer.parseInt(propertyValue);
+    }
+    catch (NumberFormatException e) {
+      LOG.warn("Invalid routing group '{}' for vehicle {}, using default ({}).",
+               propertyValue,
+               vehicle.getName(),
+               DEFAULT_ROUTING_GROUP);
+      return DEFAULT_ROUTING_GROUP;
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.jgrapht.EdgeEvaluatorTravelTime;
+import org.opentcs.strategies.basic.routing.jgrapht.ModelEdge;
+
+/**
+ * Estimates travel times of vehicles and the time windows in which they occupy resources along
+ * their routes.
+ * The estimates are those of the travel time edge evaluator, i.e. they are based on the paths'
+ * lengths and the maximum velocities of paths and vehicles.
+ * Vehicles are expected to pass points without waiting, as routes cannot express waiting times.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public final class TravelTimes {
+
+  /**
+   * The travel time returned for paths that cannot be travelled.
+   */
+  public static final long INFINITE_TRAVEL_TIME = Long.MAX_VALUE;
+  /**
+   * Computes the travel times of single paths.
+   */
+  private static final EdgeEvaluatorTravelTime EDGE_EVALUATOR = new EdgeEvaluatorTravelTime();
+
+  /**
+   * Prevents instantiation.
+   */
+  private TravelTimes() {
+  }
+
+  /**
+   * Returns the estimated time the given vehicle needs for travelling along the given path.
+   *
+   * @param path The path.
+   * @param reverse Whether the vehicle travels the path in reverse direction.
+   * @param vehicle The vehicle.
+   * @return The estimated travel time in milliseconds, or {@link #INFINITE_TRAVEL_TIME}, if the
+   * vehicle cannot travel the path.
+   */
+  public static long travelTimeMillis(@Nonnull Path path,
+                                      boolean reverse,
+                                      @Nonnull Vehicle vehicle) {
+    requireNonNull(path, "path");
+    requireNonNull(vehicle, "vehicle");
+
+    return EDGE_EVALUATOR.computeTravelTimeMillis(new ModelEdge(path, reverse), vehicle);
+  }
+
+  /**
+   * Predicts the time windows in which the given vehicle will occupy points and paths when
+   * travelling the given drive orders' routes.
+   * <p>
+   * A point is occupied from the time the vehicle arrives at it until it has left it, a path while
+   * the vehicle is travelling along it.
+   * The final destination point is occupied indefinitely.
+   * Every window is extended by the given margin at both ends to compensate for inaccurate
+   * estimates.
+   * </p>
+   *
+   * @param driveOrders The drive orders.
+   * @param vehicle The vehicle.
+   * @param startTime The time at which the vehicle starts travelling.
+   * @param margin The margin in milliseconds.
+   * @return The predicted reservations.
+   */
+  @Nonnull
+  public static List<ReservationTable.Reservation> predictReservations(
+      @Nonnull List<DriveOrder> driveOrders,
+      @Nonnull Vehicle vehicle,
+      long startTime,
+      long margin) {
+    requireNonNull(driveOrders, "driveOrders");
+    requireNonNull(vehicle, "vehicle");
+
+    List<ReservationTable.Reservation> result = new ArrayList<>();
+    long time = startTime;
+    long pointArrivalTime = startTime;
+    String pointName = null;
+    for (DriveOrder driveOrder : driveOrders) {
+      if (driveOrder.getRoute() == null) {
+        continue;
+      }
+      for (Route.Step step : driveOrder.getRoute().getSteps()) {
+        if (step.getPath() == null) {
+          pointName = step.getDestinationPoint().getName();
+          continue;
+        }
+        long duration = travelTimeMillis(step.getPath(), isReverse(step), vehicle);
+        if (duration == INFINITE_TRAVEL_TIME) {
+          return result;
+        }
+        result.add(new ReservationTable.Reservation(step.getSourcePoint().getName(),
+                                                    pointArrivalTime - margin,
+                                                    time + margin + 1));
+        result.add(new ReservationTable.Reservation(step.getPath().getName(),
+                                                    time - margin,
+                                                    time + duration + margin + 1));
+        time += duration;
+        pointArrivalTime = time;
+        pointName = step.getDestinationPoint().getName();
+      }
+    }
+    if (pointName != null) {
+      result.add(new ReservationTable.Reservation(pointName,
+                                                  pointArrivalTime - margin,
+                                                  Long.MAX_VALUE));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the estimated time the given vehicle needs for travelling the given route, without any
+   * waiting times.
+   *
+   * @param route The route.
+   * @param vehicle The vehicle.
+   * @return The estimated travel time in milliseconds, or {@link #INFINITE_TRAVEL_TIME}, if the
+   * vehicle cannot travel the route.
+   */
+  public static long travelTimeMillis(@Nonnull Route route, @Nonnull Vehicle vehicle) {
+    requireNonNull(route, "route");
+
+    long result = 0;
+    for (Route.Step step : route.getSteps()) {
+      if (step.getPath() == null) {
+        continue;
+      }
+      long duration = travelTimeMillis(step.getPath(), isReverse(step), vehicle);
+      if (duration == INFINITE_TRAVEL_TIME) {
+        return INFINITE_TRAVEL_TIME;
+      }
+      result += duration;
+    }
+    return result;
+  }
+
+  private static boolean isReverse(Route.Step step) {
+    return step.getVehicleOrientation() == Vehicle.Orientation.BACKWARD;
+  }
+}
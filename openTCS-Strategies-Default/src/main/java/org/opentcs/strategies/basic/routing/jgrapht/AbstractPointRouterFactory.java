@@ -7,10 +7,13 @@
  */
 package org.opentcs.strategies.basic.routing.jgrapht;
 
+import static com.google.common.base.Preconditions.checkState;
+import java.util.Collection;
 import java.util.Iterator;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.jgrapht.WeightedGraph;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
 import org.opentcs.access.LocalKernel;
@@ -42,9 +45,14 @@ public abstract class AbstractPointRouterFactory
    * Maps the plant model to a graph.
    */
   private final ModelGraphMapper mapper;
+  /**
+   * Persists routing tables, if enabled.
+   */
+  @Nullable
+  private final RoutingTableStore routingTableStore;
 
   /**
-   * Creates a new instance.
+   * Creates a new instance that does not persist routing tables.
    *
    * @param kernel The kernel providing model data.
    * @param mapper Maps the plant model to a graph.
@@ -53,20 +61,53 @@ public abstract class AbstractPointRouterFactory
                                     @Nonnull ModelGraphMapper mapper) {
     this.kernel = requireNonNull(kernel, "kernel");
     this.mapper = requireNonNull(mapper, "mapper");
+    this.routingTableStore = null;
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The kernel providing model data.
+   * @param mapper Maps the plant model to a graph.
+   * @param routingTableStore Persists routing tables, if enabled.
+   */
+  public AbstractPointRouterFactory(@Nonnull LocalKernel kernel,
+                                    @Nonnull ModelGraphMapper mapper,
+                                    @Nonnull RoutingTableStore routingTableStore) {
+    this.kernel = requireNonNull(kernel, "kernel");
+    this.mapper = requireNonNull(mapper, "mapper");
+    this.routingTableStore = requireNonNull(routingTableStore, "routingTableStore");
   }
 
   @Override
   public PointRouter createPointRouter(Vehicle vehicle) {
     requireNonNull(vehicle, "vehicle");
 
+    checkCongestionSupported();
+
     long timeStampBefore = System.currentTimeMillis();
 
     Set<Point> points = kernel.getTCSObjects(Point.class);
-    WeightedGraph<String, ModelEdge> graph = mapper.translateModel(points,
-                                                                   kernel.getTCSObjects(Path.class),
-                                                                   vehicle);
+    Set<Path> paths = kernel.getTCSObjects(Path.class);
+    preprocessModel(points, paths);
+    WeightedGraph<String, ModelEdge> graph = mapper.translateModel(points, paths, vehicle);
 
-    PointRouter router = new ShortestPathPointRouter(createShortestPathAlgorithm(graph), points);
+    PointRouter router;
+    if (routingTableStore != null && routingTableStore.isEnabled()) {
+      router = routingTableStore.getPointRouter(graph,
+                                                points,
+                                                this::createShortestPathAlgorithm);
+    }
+    else {
+      router = new ShortestPathPointRouter(createShortestPathAlgorithm(graph),
+                                           points,
+                                           new ReachabilityIndex(graph));
+    }
+    router = new AlternativeRoutesPointRouter(router, graph, points);
+    router = new SafeIntervalPointRouter(router, graph, points);
+    if (graph instanceof CongestionAwareGraph) {
+      router = new CongestionAwarePointRouter(router, ((CongestionAwareGraph) graph).getOverlay());
+    }
     // Make a single request for a route from one point to a different one to make sure the
     // point router is primed. (Some implementations are initialized lazily.)
     if (points.size() >= 2) {
@@ -81,6 +122,43 @@ public abstract class AbstractPointRouterFactory
     return router;
   }
 
+  @Override
+  public Object getPointRouterKey(Vehicle vehicle) {
+    requireNonNull(vehicle, "vehicle");
+
+    return mapper.getGraphKey(vehicle);
+  }
+
+  /**
+   * Indicates whether the algorithms created by this factory read the graph's edge weights with
+   * every query, as opposed to computing and keeping costs in advance.
+   * Only then live congestion penalties (see {@link CongestionAwareGraph}) are taken into account.
+   * <p>
+   * This default implementation returns <code>false</code>.
+   * </p>
+   *
+   * @return <code>true</code> if, and only if, edge weights are read with every query.
+   */
+  protected boolean readsEdgeWeightsPerQuery() {
+    return false;
+  }
+
+  /**
+   * Does any preprocessing that depends only on the topology of the plant model, i.e. neither on
+   * the vehicle nor on edge weights.
+   * Called with every call to {@link #createPointRouter(Vehicle)}, before the graph is built.
+   * Implementations should keep the results and reuse them as long as the model topology does not
+   * change.
+   * <p>
+   * This default implementation does nothing.
+   * </p>
+   *
+   * @param points The points of the model.
+   * @param paths The paths of the model.
+   */
+  protected void preprocessModel(Collection<Point> points, Collection<Path> paths) {
+  }
+
   /**
    * Returns a shortest path algorithm implementation working on the given graph.
    *
@@ -89,4 +167,21 @@ public abstract class AbstractPointRouterFactory
    */
   protected abstract ShortestPathAlgorithm<String, ModelEdge> createShortestPathAlgorithm(
       WeightedGraph<String, ModelEdge> graph);
+
+  /**
+   * Ensures live congestion penalties, if enabled, are actually taken into account.
+   *
+   * @throws IllegalStateException If congestion penalties are enabled, but the algorithm computes
+   * costs in advance or routing tables are persisted.
+   */
+  private void checkCongestionSupported()
+      throws IllegalStateException {
+    if (!(mapper instanceof CongestionAwareModelGraphMapper)) {
+      return;
+    }
+    checkState(readsEdgeWeightsPerQuery(),
+               "Edge evaluator 'CONGESTION' requires routing algorithm 'DIJKSTRA'.");
+    checkState(routingTableStore == null || !routingTableStore.isEnabled(),
+               "Edge evaluator 'CONGESTION' cannot be used with persisted routing tables.");
+  }
 }
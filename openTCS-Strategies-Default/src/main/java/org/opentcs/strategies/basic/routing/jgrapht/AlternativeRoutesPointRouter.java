@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.Collection;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import org.jgrapht.Graph;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.PointRouter;
+
+/**
+ * A point router that delegates to another one and computes alternative routes using
+ * {@link YenKShortestPaths}.
+ * The arrays required for computing alternative routes are created when they are first needed.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class AlternativeRoutesPointRouter
+    implements PointRouter {
+
+  /**
+   * The point router to delegate to.
+   */
+  private final PointRouter delegate;
+  /**
+   * The graph to compute alternative routes in.
+   */
+  private final Graph<String, ModelEdge> graph;
+  /**
+   * The points of the model.
+   */
+  private final Collection<Point> points;
+  /**
+   * Computes alternative routes, created lazily.
+   */
+  private volatile YenKShortestPaths kShortestPaths;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param delegate The point router to delegate to.
+   * @param graph The graph to compute alternative routes in.
+   * @param points The points of the model.
+   */
+  public AlternativeRoutesPointRouter(@Nonnull PointRouter delegate,
+                                      @Nonnull Graph<String, ModelEdge> graph,
+                                      @Nonnull Collection<Point> points) {
+    this.delegate = requireNonNull(delegate, "delegate");
+    this.graph = requireNonNull(graph, "graph");
+    this.points = requireNonNull(points, "points");
+  }
+
+  @Override
+  public List<Route.Step> getRouteSteps(Point srcPoint, Point destPoint) {
+    return delegate.getRouteSteps(srcPoint, destPoint);
+  }
+
+  @Override
+  public long getCosts(TCSObjectReference<Point> srcPointRef,
+                       TCSObjectReference<Point> destPointRef) {
+    return delegate.getCosts(srcPointRef, destPointRef);
+  }
+
+  @Override
+  public long getCosts(Point srcPoint, Point destPoint) {
+    return delegate.getCosts(srcPoint, destPoint);
+  }
+
+  @Override
+  public boolean isReachable(Point srcPoint, Point destPoint) {
+    return delegate.isReachable(srcPoint, destPoint);
+  }
+
+  @Override
+  public long[][] getCostMatrix(List<Point> srcPoints, List<Point> destPoints) {
+    return delegate.getCostMatrix(srcPoints, destPoints);
+  }
+
+  @Override
+  public List<Route> getRoutes(Point srcPoint, Point destPoint, int maxRouteCount) {
+    if (maxRouteCount == 1) {
+      return delegate.getRoutes(srcPoint, destPoint, maxRouteCount);
+    }
+    return getKShortestPaths().getRoutes(srcPoint, destPoint, maxRouteCount);
+  }
+
+  private YenKShortestPaths getKShortestPaths() {
+    YenKShortestPaths result = kShortestPaths;
+    if (result == null) {
+      synchronized (this) {
+        result = kShortestPaths;
+        if (result == null) {
+          result = new YenKShortestPaths(graph, points);
+          kShortestPaths = result;
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import org.jgrapht.graph.DirectedWeightedMultigraph;
+
+/**
+ * A graph whose edge weights consist of a static part and a live congestion penalty.
+ * <p>
+ * The static part is set when the graph is built.
+ * The congestion penalty is read from a {@link CongestionOverlay} whenever an edge's weight is
+ * requested, so algorithms reading edge weights at query time (like Dijkstra's algorithm) always
+ * work with the current penalties.
+ * Algorithms that precompute routes (like Floyd-Warshall or contraction hierarchies) work with the
+ * penalties as of the time the routes were computed.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class CongestionAwareGraph
+    extends DirectedWeightedMultigraph<String, ModelEdge> {
+
+  /**
+   * Provides the live congestion penalties.
+   */
+  private final CongestionOverlay overlay;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param overlay Provides the live congestion penalties.
+   */
+  public CongestionAwareGraph(@Nonnull CongestionOverlay overlay) {
+    super(ModelEdge.class);
+    this.overlay = requireNonNull(overlay, "overlay");
+  }
+
+  @Override
+  public double getEdgeWeight(ModelEdge edge) {
+    return getStaticEdgeWeight(edge) + overlay.getPenalty(edge);
+  }
+
+  /**
+   * Returns the overlay providing the live congestion penalties.
+   *
+   * @return The overlay providing the live congestion penalties.
+   */
+  @Nonnull
+  public CongestionOverlay getOverlay() {
+    return overlay;
+  }
+
+  /**
+   * Returns the static part of the given edge's weight.
+   *
+   * @param edge The edge.
+   * @return The static part of the edge's weight.
+   */
+  public double getStaticEdgeWeight(ModelEdge edge) {
+    return super.getEdgeWeight(edge);
+  }
+}
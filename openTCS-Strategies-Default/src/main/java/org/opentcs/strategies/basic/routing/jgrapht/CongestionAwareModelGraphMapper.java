@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import static java.util.Objects.requireNonNull;
+import javax.inject.Inject;
+import org.jgrapht.WeightedGraph;
+
+/**
+ * Translates points and paths into graphs whose edge weights include live congestion penalties.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ * @see CongestionAwareGraph
+ */
+public class CongestionAwareModelGraphMapper
+    extends DefaultModelGraphMapper {
+
+  /**
+   * Provides the live congestion penalties.
+   */
+  private final CongestionOverlay overlay;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param edgeEvaluator Computes the static weight of single edges in the graph.
+   * @param overlay Provides the live congestion penalties.
+   */
+  @Inject
+  public CongestionAwareModelGraphMapper(EdgeEvaluator edgeEvaluator, CongestionOverlay overlay) {
+    super(edgeEvaluator);
+    this.overlay = requireNonNull(overlay, "overlay");
+  }
+
+  @Override
+  protected WeightedGraph<String, ModelEdge> createGraph() {
+    return new CongestionAwareGraph(overlay);
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.PointRouter;
+import org.opentcs.strategies.basic.routing.ReservationTable;
+
+/**
+ * A point router that delegates to another one working on a {@link CongestionAwareGraph}.
+ * <p>
+ * Instances returned by {@link #forVehicle(Vehicle)} compute routes with congestion penalties
+ * that ignore the given vehicle's own allocations and claims, so a vehicle is not steered away
+ * from the points it currently holds itself.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class CongestionAwarePointRouter
+    implements PointRouter {
+
+  /**
+   * The point router to delegate to.
+   */
+  private final PointRouter delegate;
+  /**
+   * Provides the live congestion penalties.
+   */
+  private final CongestionOverlay overlay;
+  /**
+   * The ID of the scheduler client whose contribution to the penalties is ignored, or
+   * <code>null</code>, if all clients' contributions are considered.
+   */
+  @Nullable
+  private final String routedClientId;
+
+  /**
+   * Creates a new instance considering all clients' contributions to the penalties.
+   *
+   * @param delegate The point router to delegate to.
+   * @param overlay Provides the live congestion penalties.
+   */
+  public CongestionAwarePointRouter(@Nonnull PointRouter delegate,
+                                    @Nonnull CongestionOverlay overlay) {
+    this(delegate, overlay, null);
+  }
+
+  private CongestionAwarePointRouter(PointRouter delegate,
+                                     CongestionOverlay overlay,
+                                     String routedClientId) {
+    this.delegate = requireNonNull(delegate, "delegate");
+    this.overlay = requireNonNull(overlay, "overlay");
+    this.routedClientId = routedClientId;
+  }
+
+  @Override
+  public List<Route.Step> getRouteSteps(Point srcPoint, Point destPoint) {
+    return compute(() -> delegate.getRouteSteps(srcPoint, destPoint));
+  }
+
+  @Override
+  public long getCosts(TCSObjectReference<Point> srcPointRef,
+                       TCSObjectReference<Point> destPointRef) {
+    return compute(() -> delegate.getCosts(srcPointRef, destPointRef));
+  }
+
+  @Override
+  public long getCosts(Point srcPoint, Point destPoint) {
+    return compute(() -> delegate.getCosts(srcPoint, destPoint));
+  }
+
+  @Override
+  public boolean isReachable(Point srcPoint, Point destPoint) {
+    return compute(() -> delegate.isReachable(srcPoint, destPoint));
+  }
+
+  @Override
+  public List<Route> getRoutes(Point srcPoint, Point destPoint, int maxRouteCount) {
+    return compute(() -> delegate.getRoutes(srcPoint, destPoint, maxRouteCount));
+  }
+
+  @Override
+  public Route getRoute(Point srcPoint,
+                        Point destPoint,
+                        Vehicle vehicle,
+                        long departureTime,
+                        ReservationTable reservationTable) {
+    return compute(() -> delegate.getRoute(srcPoint,
+                                           destPoint,
+                                           vehicle,
+                                           departureTime,
+                                           reservationTable));
+  }
+
+  @Override
+  public PointRouter forVehicle(Vehicle vehicle) {
+    requireNonNull(vehicle, "vehicle");
+
+    return new CongestionAwarePointRouter(delegate, overlay, vehicle.getName());
+  }
+
+  @Override
+  public boolean hasLiveCosts() {
+    return true;
+  }
+
+  @Override
+  public long[][] getCostMatrix(List<Point> srcPoints, List<Point> destPoints) {
+    return compute(() -> delegate.getCostMatrix(srcPoints, destPoints));
+  }
+
+  private <T> T compute(Supplier<T> computation) {
+    if (routedClientId == null) {
+      return computation.get();
+    }
+    return overlay.computeExcluding(routedClientId, computation);
+  }
+}
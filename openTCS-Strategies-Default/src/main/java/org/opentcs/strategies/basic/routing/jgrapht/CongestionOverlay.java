@@ -0,0 +1,363 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.components.kernel.Scheduler.Client;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.TCSResource;
+
+/**
+ * Keeps track of the current load of points, i.e. how many vehicles have currently allocated or
+ * claimed them, and provides penalties for edges leading to loaded points.
+ * <p>
+ * The loads are kept in a primitive array that is updated with every change of allocations or
+ * claims reported by the scheduler, without having to rebuild any graph.
+ * Progress along claims is applied incrementally, so the scheduler does not need to report
+ * clients' complete allocation states with every step.
+ * Reading penalties does not require any locking.
+ * </p>
+ * <p>
+ * Penalties can be computed on behalf of a scheduler client (see
+ * {@link #computeExcluding(String, Supplier)}), in which case the client's own allocations and
+ * claims do not contribute to them.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class CongestionOverlay
+    implements Scheduler.Module {
+
+  /**
+   * The penalty for each vehicle that has currently allocated a point.
+   */
+  private final double occupiedPenalty;
+  /**
+   * The penalty for each vehicle that has currently claimed a point.
+   */
+  private final double claimedPenalty;
+  /**
+   * The points' indices in the loads array, by point name.
+   */
+  private final Map<String, Integer> pointIndices = new ConcurrentHashMap<>();
+  /**
+   * The points currently allocated by each client.
+   */
+  private final Map<String, Map<String, Integer>> allocationsByClient = new ConcurrentHashMap<>();
+  /**
+   * The points currently claimed by each client.
+   */
+  private final Map<String, Map<String, Integer>> claimsByClient = new ConcurrentHashMap<>();
+  /**
+   * The number of allocations and claims of each point.
+   * Element <code>2 * i</code> contains the number of allocations of the point with index
+   * <code>i</code>, element <code>2 * i + 1</code> contains the number of its claims.
+   */
+  private volatile int[] loads = new int[0];
+  /**
+   * The ID of the client on whose behalf penalties are currently computed in the current thread.
+   */
+  private final ThreadLocal<String> excludedClientId = new ThreadLocal<>();
+  /**
+   * Whether this instance is initialized.
+   */
+  private boolean initialized;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param configuration The configuration providing the penalties.
+   */
+  @Inject
+  public CongestionOverlay(@Nonnull ShortestPathConfiguration configuration) {
+    this(configuration.congestionOccupiedPenalty(), configuration.congestionClaimedPenalty());
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param occupiedPenalty The penalty for each vehicle that has currently allocated a point.
+   * @param claimedPenalty The penalty for each vehicle that has currently claimed a point.
+   */
+  public CongestionOverlay(double occupiedPenalty, double claimedPenalty) {
+    this.occupiedPenalty = occupiedPenalty;
+    this.claimedPenalty = claimedPenalty;
+  }
+
+  @Override
+  public synchronized void initialize() {
+    if (initialized) {
+      return;
+    }
+    clear();
+    initialized = true;
+  }
+
+  @Override
+  public synchronized boolean isInitialized() {
+    return initialized;
+  }
+
+  @Override
+  public synchronized void terminate() {
+    if (!initialized) {
+      return;
+    }
+    clear();
+    initialized = false;
+  }
+
+  @Override
+  public synchronized void claim(Client client, List<Set<TCSResource<?>>> claim) {
+    requireNonNull(client, "client");
+    requireNonNull(claim, "claim");
+
+    replaceLoad(claimsByClient, client.getId(), countClaimedPoints(claim), 1);
+  }
+
+  @Override
+  public synchronized void unclaim(Client client) {
+    requireNonNull(client, "client");
+
+    replaceLoad(claimsByClient, client.getId(), new HashMap<>(), 1);
+  }
+
+  @Override
+  public synchronized void setAllocationState(Client client,
+                                              Set<TCSResource<?>> alloc,
+                                              List<Set<TCSResource<?>>> remainingClaim) {
+    requireNonNull(client, "client");
+    requireNonNull(alloc, "alloc");
+    requireNonNull(remainingClaim, "remainingClaim");
+
+    replaceLoad(allocationsByClient, client.getId(), countPoints(alloc), 0);
+    replaceLoad(claimsByClient, client.getId(), countClaimedPoints(remainingClaim), 1);
+  }
+
+  @Override
+  public boolean requiresAllocationState() {
+    return false;
+  }
+
+  @Override
+  public boolean supportsConcurrentCalls() {
+    return true;
+  }
+
+  @Override
+  public synchronized void claimProgressed(Client client, List<Set<TCSResource<?>>> passedClaim) {
+    requireNonNull(client, "client");
+    requireNonNull(passedClaim, "passedClaim");
+
+    Map<String, Integer> claimedPoints = claimsByClient.get(client.getId());
+    if (claimedPoints == null) {
+      return;
+    }
+    for (Map.Entry<String, Integer> entry : countClaimedPoints(passedClaim).entrySet()) {
+      Integer count = claimedPoints.get(entry.getKey());
+      if (count == null) {
+        continue;
+      }
+      int passedCount = Math.min(count, entry.getValue());
+      if (passedCount == count) {
+        claimedPoints.remove(entry.getKey());
+      }
+      else {
+        claimedPoints.put(entry.getKey(), count - passedCount);
+      }
+      loads[2 * indexOf(entry.getKey()) + 1] -= passedCount;
+    }
+    if (claimedPoints.isEmpty()) {
+      claimsByClient.remove(client.getId());
+    }
+  }
+
+  @Override
+  public boolean mayAllocate(Client client, Set<TCSResource<?>> resources) {
+    return true;
+  }
+
+  @Override
+  public synchronized void prepareAllocation(Client client, Set<TCSResource<?>> resources) {
+    requireNonNull(client, "client");
+    requireNonNull(resources, "resources");
+
+    Map<String, Integer> allocatedPoints = new HashMap<>(
+        allocationsByClient.getOrDefault(client.getId(), new HashMap<>()));
+    for (String pointName : countPoints(resources).keySet()) {
+      allocatedPoints.put(pointName, 1);
+    }
+    replaceLoad(allocationsByClient, client.getId(), allocatedPoints, 0);
+  }
+
+  @Override
+  public synchronized void allocationReleased(Client client, Set<TCSResource<?>> resources) {
+    requireNonNull(client, "client");
+    requireNonNull(resources, "resources");
+
+    Map<String, Integer> allocatedPoints = new HashMap<>(
+        allocationsByClient.getOrDefault(client.getId(), new HashMap<>()));
+    allocatedPoints.keySet().removeAll(countPoints(resources).keySet());
+    replaceLoad(allocationsByClient, client.getId(), allocatedPoints, 0);
+  }
+
+  /**
+   * Performs the given computation in the current thread with penalties that ignore the given
+   * client's own allocations and claims.
+   *
+   * @param <T> The type of the computation's result.
+   * @param clientId The client's ID (for vehicles, the vehicle's name).
+   * @param computation The computation.
+   * @return The computation's result.
+   */
+  public <T> T computeExcluding(@Nonnull String clientId, @Nonnull Supplier<T> computation) {
+    requireNonNull(clientId, "clientId");
+    requireNonNull(computation, "computation");
+
+    String previousClientId = excludedClientId.get();
+    excludedClientId.set(clientId);
+    try {
+      return computation.get();
+    }
+    finally {
+      if (previousClientId == null) {
+        excludedClientId.remove();
+      }
+      else {
+        excludedClientId.set(previousClientId);
+      }
+    }
+  }
+
+  /**
+   * Returns the penalty for travelling along the given edge, based on the current load of the
+   * point it leads to.
+   *
+   * @param edge The edge.
+   * @return The penalty.
+   */
+  public double getPenalty(@Nonnull ModelEdge edge) {
+    return getPenalty(edge.isTravellingReverse()
+        ? edge.getModelPath().getSourcePoint().getName()
+        : edge.getModelPath().getDestinationPoint().getName());
+  }
+
+  /**
+   * Returns the penalty for travelling to the given point, based on its current load.
+   * If called within {@link #computeExcluding(String, Supplier)}, the respective client's own
+   * allocations and claims are not considered.
+   *
+   * @param pointName The name of the point.
+   * @return The penalty.
+   */
+  public double getPenalty(@Nonnull String pointName) {
+    Integer index = pointIndices.get(pointName);
+    int[] currentLoads = loads;
+    if (index == null || 2 * index + 1 >= currentLoads.length) {
+      return 0.0;
+    }
+    int allocations = currentLoads[2 * index];
+    int claims = currentLoads[2 * index + 1];
+    String clientId = excludedClientId.get();
+    if (clientId != null) {
+      allocations -= ownLoad(allocationsByClient, clientId, pointName);
+      claims -= ownLoad(claimsByClient, clientId, pointName);
+    }
+    return Math.max(0, allocations) * occupiedPenalty + Math.max(0, claims) * claimedPenalty;
+  }
+
+  private static int ownLoad(Map<String, Map<String, Integer>> loadsByClient,
+                             String clientId,
+                             String pointName) {
+    Map<String, Integer> pointCounts = loadsByClient.get(clientId);
+    if (pointCounts == null) {
+      return 0;
+    }
+    return pointCounts.getOrDefault(pointName, 0);
+  }
+
+  private void clear() {
+    allocationsByClient.clear();
+    claimsByClient.clear();
+    loads = new int[loads.length];
+  }
+
+  /**
+   * Replaces a client's contribution to the loads of points.
+   *
+   * @param loadsByClient The contributions of all clients.
+   * @param clientId The client's ID.
+   * @param pointCounts The client's new contribution.
+   * @param offset The offset of the respective counter in the loads array.
+   */
+  private void replaceLoad(Map<String, Map<String, Integer>> loadsByClient,
+                           String clientId,
+                           Map<String, Integer> pointCounts,
+                           int offset) {
+    Map<String, Integer> previous = pointCounts.isEmpty()
+        ? loadsByClient.remove(clientId)
+        : loadsByClient.put(clientId, new ConcurrentHashMap<>(pointCounts));
+    if (previous != null) {
+      addLoad(previous, offset, -1);
+    }
+    addLoad(pointCounts, offset, 1);
+  }
+
+  private void addLoad(Map<String, Integer> pointCounts, int offset, int sign) {
+    for (Map.Entry<String, Integer> entry : pointCounts.entrySet()) {
+      int index = indexOf(entry.getKey());
+      loads[2 * index + offset] += sign * entry.getValue();
+    }
+  }
+
+  private int indexOf(String pointName) {
+    Integer index = pointIndices.get(pointName);
+    if (index == null) {
+      index = pointIndices.size();
+      if (2 * index + 1 >= loads.length) {
+        loads = Arrays.copyOf(loads, Math.max(64, 2 * loads.length));
+      }
+      pointIndices.put(pointName, index);
+    }
+    return index;
+  }
+
+  private static Map<String, Integer> countPoints(Collection<TCSResource<?>> resources) {
+    Map<String, Integer> result = new HashMap<>();
+    countPoints(resources, result);
+    return result;
+  }
+
+  private static Map<String, Integer> countClaimedPoints(List<Set<TCSResource<?>>> claim) {
+    Map<String, Integer> result = new HashMap<>();
+    for (Set<TCSResource<?>> resources : claim) {
+      countPoints(resources, result);
+    }
+    return result;
+  }
+
+  private static void countPoints(Collection<TCSResource<?>> resources,
+                                  Map<String, Integer> counts) {
+    for (TCSResource<?> resource : resources) {
+      if (resource instanceof Point) {
+        counts.merge(resource.getName(), 1, Integer::sum);
+      }
+    }
+  }
+}
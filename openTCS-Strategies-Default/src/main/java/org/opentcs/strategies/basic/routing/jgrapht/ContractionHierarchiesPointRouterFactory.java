@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.jgrapht.WeightedGraph;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.strategies.basic.routing.PointRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates {@link PointRouter} instances based on contraction hierarchies.
+ * <p>
+ * The contraction order is computed only once for the undirected structure of the plant model and
+ * shared by all point routers created, i.e. by all routing groups.
+ * It is computed again only if points or paths are added to or removed from the model.
+ * Locking/unlocking paths or changing their properties only requires cheap customization of the
+ * hierarchy with new edge weights.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ContractionHierarchiesPointRouterFactory
+    extends AbstractPointRouterFactory {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG
+      = LoggerFactory.getLogger(ContractionHierarchiesPointRouterFactory.class);
+  /**
+   * The undirected structure of the model the current topology was computed for.
+   */
+  private Map<String, Set<String>> modelStructure;
+  /**
+   * The current topology.
+   */
+  private ContractionHierarchyTopology topology;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The kernel providing model data.
+   * @param mapper Maps the plant model to a graph.
+   * @param routingTableStore Persists routing tables.
+   */
+  @Inject
+  public ContractionHierarchiesPointRouterFactory(@Nonnull LocalKernel kernel,
+                                                  @Nonnull ModelGraphMapper mapper,
+                                                  @Nonnull RoutingTableStore routingTableStore) {
+    super(kernel, mapper, routingTableStore);
+  }
+
+  @Override
+  protected synchronized void preprocessModel(Collection<Point> points, Collection<Path> paths) {
+    Map<String, Set<String>> structure
+        = ContractionHierarchyTopology.undirectedAdjacency(points, paths);
+    if (structure.equals(modelStructure)) {
+      return;
+    }
+
+    long timeStampBefore = System.currentTimeMillis();
+    topology = new ContractionHierarchyTopology(structure);
+    modelStructure = structure;
+    LOG.debug("Contracted {} points with {} upward arcs in {} milliseconds.",
+              topology.getNodeCount(),
+              topology.getArcCount(),
+              System.currentTimeMillis() - timeStampBefore);
+  }
+
+  @Override
+  protected synchronized ShortestPathAlgorithm<String, ModelEdge> createShortestPathAlgorithm(
+      WeightedGraph<String, ModelEdge> graph) {
+    if (topology == null || !topology.covers(graph)) {
+      // Should not happen with the graph mapper in place, but a custom one might add edges.
+      LOG.debug("Graph not covered by model topology, contracting graph separately.");
+      return new ContractionHierarchyShortestPath(ContractionHierarchyTopology.fromGraph(graph),
+                                                  graph);
+    }
+    return new ContractionHierarchyShortestPath(topology, graph);
+  }
+
+}
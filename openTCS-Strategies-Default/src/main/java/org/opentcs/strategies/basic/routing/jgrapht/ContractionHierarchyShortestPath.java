@@ -0,0 +1,426 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import org.jgrapht.Graph;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.jgrapht.graph.GraphWalk;
+
+/**
+ * A shortest path algorithm based on a customizable contraction hierarchy.
+ * <p>
+ * The weights of the graph's edges are applied to the arcs of a precomputed
+ * {@link ContractionHierarchyTopology} ("customization"), after which queries are answered by a
+ * bidirectional search that only follows arcs leading to higher ranked nodes.
+ * Shortcut arcs are unpacked to the graph's original edges when a path is requested.
+ * </p>
+ * <p>
+ * If edge weights in the graph change, {@link #customize()} can be called to apply the new weights
+ * without contracting the graph again.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ContractionHierarchyShortestPath
+    implements ShortestPathAlgorithm<String, ModelEdge> {
+
+  /**
+   * Marks an arc that is not a shortcut, i.e. represents an original edge.
+   */
+  private static final int NO_MIDDLE = -1;
+  /**
+   * The graph.
+   */
+  private final Graph<String, ModelEdge> graph;
+  /**
+   * The topology of the contraction hierarchy.
+   */
+  private final ContractionHierarchyTopology topology;
+  /**
+   * The weights of the arcs in upward direction (tail to head).
+   */
+  private final double[] upWeights;
+  /**
+   * The weights of the arcs in downward direction (head to tail).
+   */
+  private final double[] downWeights;
+  /**
+   * The middle nodes of shortcuts in upward direction.
+   */
+  private final int[] upMiddles;
+  /**
+   * The middle nodes of shortcuts in downward direction.
+   */
+  private final int[] downMiddles;
+  /**
+   * The original edges of arcs in upward direction.
+   */
+  private final ModelEdge[] upEdges;
+  /**
+   * The original edges of arcs in downward direction.
+   */
+  private final ModelEdge[] downEdges;
+  /**
+   * Working memory for queries, one instance per thread.
+   */
+  private final ThreadLocal<QuerySpace> querySpaces;
+
+  /**
+   * Creates a new instance and customizes it with the graph's current edge weights.
+   *
+   * @param topology The topology of the contraction hierarchy. Must cover all edges of the graph.
+   * @param graph The graph.
+   * @throws IllegalArgumentException If the topology does not cover all edges of the graph.
+   */
+  public ContractionHierarchyShortestPath(@Nonnull ContractionHierarchyTopology topology,
+                                          @Nonnull Graph<String, ModelEdge> graph)
+      throws IllegalArgumentException {
+    this.topology = requireNonNull(topology, "topology");
+    this.graph = requireNonNull(graph, "graph");
+
+    int arcCount = topology.getArcCount();
+    upWeights = new double[arcCount];
+    downWeights = new double[arcCount];
+    upMiddles = new int[arcCount];
+    downMiddles = new int[arcCount];
+    upEdges = new ModelEdge[arcCount];
+    downEdges = new ModelEdge[arcCount];
+    querySpaces = ThreadLocal.withInitial(() -> new QuerySpace(topology.getNodeCount()));
+
+    customize();
+  }
+
+  /**
+   * Applies the graph's current edge weights to the contraction hierarchy.
+   * <p>
+   * Must not be called concurrently with queries.
+   * </p>
+   *
+   * @throws IllegalArgumentException If the topology does not cover all edges of the graph.
+   */
+  public final void customize()
+      throws IllegalArgumentException {
+    Arrays.fill(upWeights, Double.POSITIVE_INFINITY);
+    Arrays.fill(downWeights, Double.POSITIVE_INFINITY);
+    Arrays.fill(upMiddles, NO_MIDDLE);
+    Arrays.fill(downMiddles, NO_MIDDLE);
+    Arrays.fill(upEdges, null);
+    Arrays.fill(downEdges, null);
+
+    for (ModelEdge edge : graph.edgeSet()) {
+      String source = graph.getEdgeSource(edge);
+      String target = graph.getEdgeTarget(edge);
+      if (source.equals(target)) {
+        // Loops are never part of a shortest path.
+        continue;
+      }
+      int srcRank = topology.getRank(source);
+      int destRank = topology.getRank(target);
+      int arc = (srcRank < 0 || destRank < 0)
+          ? -1
+          : topology.findArc(Math.min(srcRank, destRank), Math.max(srcRank, destRank));
+      if (arc < 0) {
+        throw new IllegalArgumentException("Edge not covered by topology: " + edge.getModelPath());
+      }
+      double weight = graph.getEdgeWeight(edge);
+      if (srcRank < destRank && weight < upWeights[arc]) {
+        upWeights[arc] = weight;
+        upEdges[arc] = edge;
+      }
+      else if (srcRank > destRank && weight < downWeights[arc]) {
+        downWeights[arc] = weight;
+        downEdges[arc] = edge;
+      }
+    }
+
+    // Process the lower triangles of all arcs, bottom-up. When processing a node, all arcs starting
+    // at it have already received their final weights from the triangles below them.
+    for (int node = 0; node < topology.getNodeCount(); node++) {
+      int endArc = topology.endArc(node);
+      for (int lowerArc = topology.firstArc(node); lowerArc < endArc; lowerArc++) {
+        int lowerHead = topology.head(lowerArc);
+        for (int higherArc = lowerArc + 1; higherArc < endArc; higherArc++) {
+          int shortcut = topology.findArc(lowerHead, topology.head(higherArc));
+          // Lower head -> node -> higher head
+          double upWeight = downWeights[lowerArc] + upWeights[higherArc];
+          if (upWeight < upWeights[shortcut]) {
+            upWeights[shortcut] = upWeight;
+            upMiddles[shortcut] = node;
+          }
+          // Higher head -> node -> lower head
+          double downWeight = downWeights[higherArc] + upWeights[lowerArc];
+          if (downWeight < downWeights[shortcut]) {
+            downWeights[shortcut] = downWeight;
+            downMiddles[shortcut] = node;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public GraphPath<String, ModelEdge> getPath(String source, String sink) {
+    int srcRank = rankOf(source);
+    int destRank = rankOf(sink);
+
+    if (source.equals(sink)) {
+      return new GraphWalk<>(graph, source, sink, Collections.emptyList(), 0.0);
+    }
+
+    QuerySpace space = querySpaces.get();
+    int meetingNode = search(space, srcRank, destRank);
+    if (meetingNode < 0) {
+      return null;
+    }
+
+    // Collect the arcs from the source up to the meeting node...
+    Deque<Integer> arcs = new ArrayDeque<>();
+    for (int node = meetingNode; node != srcRank; node = topology.tail(space.forwardArcs[node])) {
+      arcs.push(encode(space.forwardArcs[node], true));
+    }
+    // ...and from the meeting node down to the destination.
+    List<Integer> downArcs = new ArrayList<>();
+    for (int node = meetingNode; node != destRank; node = topology.tail(space.backwardArcs[node])) {
+      downArcs.add(encode(space.backwardArcs[node], false));
+    }
+
+    List<ModelEdge> edges = new ArrayList<>();
+    for (int encodedArc : arcs) {
+      unpack(encodedArc, edges);
+    }
+    for (int encodedArc : downArcs) {
+      unpack(encodedArc, edges);
+    }
+
+    return new GraphWalk<>(graph, source, sink, edges, space.bestWeight);
+  }
+
+  @Override
+  public double getPathWeight(String source, String sink) {
+    int srcRank = rankOf(source);
+    int destRank = rankOf(sink);
+
+    if (source.equals(sink)) {
+      return 0.0;
+    }
+
+    QuerySpace space = querySpaces.get();
+    return search(space, srcRank, destRank) < 0 ? Double.POSITIVE_INFINITY : space.bestWeight;
+  }
+
+  @Override
+  public SingleSourcePaths<String, ModelEdge> getPaths(String source) {
+    rankOf(source);
+
+    return new SingleSourcePaths<String, ModelEdge>() {
+      @Override
+      public Graph<String, ModelEdge> getGraph() {
+        return graph;
+      }
+
+      @Override
+      public String getSourceVertex() {
+        return source;
+      }
+
+      @Override
+      public double getWeight(String targetVertex) {
+        return getPathWeight(source, targetVertex);
+      }
+
+      @Override
+      public GraphPath<String, ModelEdge> getPath(String targetVertex) {
+        return ContractionHierarchyShortestPath.this.getPath(source, targetVertex);
+      }
+    };
+  }
+
+  private int rankOf(String vertex) {
+    int rank = topology.getRank(vertex);
+    if (rank < 0 || !graph.containsVertex(vertex)) {
+      throw new IllegalArgumentException("Graph does not contain vertex " + vertex);
+    }
+    return rank;
+  }
+
+  /**
+   * Runs a bidirectional upward search.
+   *
+   * @param space The working memory to use.
+   * @param srcRank The source node.
+   * @param destRank The destination node.
+   * @return The node at which the best forward and backward paths meet, or a negative value, if
+   * the destination is not reachable from the source.
+   */
+  private int search(QuerySpace space, int srcRank, int destRank) {
+    space.reset();
+    space.forwardHeap.push(srcRank, 0.0);
+    space.setForward(srcRank, 0.0, -1);
+    space.backwardHeap.push(destRank, 0.0);
+    space.setBackward(destRank, 0.0, -1);
+
+    space.bestWeight = Double.POSITIVE_INFINITY;
+    int meetingNode = -1;
+
+    while (true) {
+      boolean forwardActive = !space.forwardHeap.isEmpty()
+          && space.forwardHeap.minKey() < space.bestWeight;
+      boolean backwardActive = !space.backwardHeap.isEmpty()
+          && space.backwardHeap.minKey() < space.bestWeight;
+      if (!forwardActive && !backwardActive) {
+        break;
+      }
+
+      if (forwardActive) {
+        double distance = space.forwardHeap.minKey();
+        int node = space.forwardHeap.pop();
+        if (distance <= space.forwardDistance(node)) {
+          double candidate = distance + space.backwardDistance(node);
+          if (candidate < space.bestWeight) {
+            space.bestWeight = candidate;
+            meetingNode = node;
+          }
+          for (int arc = topology.firstArc(node); arc < topology.endArc(node); arc++) {
+            double newDistance = distance + upWeights[arc];
+            int head = topology.head(arc);
+            if (newDistance < space.forwardDistance(head)) {
+              space.setForward(head, newDistance, arc);
+              space.forwardHeap.push(head, newDistance);
+            }
+          }
+        }
+      }
+
+      if (backwardActive) {
+        double distance = space.backwardHeap.minKey();
+        int node = space.backwardHeap.pop();
+        if (distance <= space.backwardDistance(node)) {
+          double candidate = distance + space.forwardDistance(node);
+          if (candidate < space.bestWeight) {
+            space.bestWeight = candidate;
+            meetingNode = node;
+          }
+          for (int arc = topology.firstArc(node); arc < topology.endArc(node); arc++) {
+            double newDistance = distance + downWeights[arc];
+            int head = topology.head(arc);
+            if (newDistance < space.backwardDistance(head)) {
+              space.setBackward(head, newDistance, arc);
+              space.backwardHeap.push(head, newDistance);
+            }
+          }
+        }
+      }
+    }
+
+    return meetingNode;
+  }
+
+  /**
+   * Unpacks the given (possibly shortcut) arc into the original edges it represents.
+   *
+   * @param encodedArc The arc and its direction.
+   * @param edges The list to add the original edges to.
+   */
+  private void unpack(int encodedArc, List<ModelEdge> edges) {
+    Deque<Integer> stack = new ArrayDeque<>();
+    stack.push(encodedArc);
+    while (!stack.isEmpty()) {
+      int current = stack.pop();
+      int arc = current >> 1;
+      boolean upward = (current & 1) == 1;
+      int middle = upward ? upMiddles[arc] : downMiddles[arc];
+      if (middle == NO_MIDDLE) {
+        edges.add(upward ? upEdges[arc] : downEdges[arc]);
+        continue;
+      }
+      int lowerArc = topology.findArc(middle, topology.tail(arc));
+      int higherArc = topology.findArc(middle, topology.head(arc));
+      if (upward) {
+        // Tail -> middle -> head
+        stack.push(encode(higherArc, true));
+        stack.push(encode(lowerArc, false));
+      }
+      else {
+        // Head -> middle -> tail
+        stack.push(encode(lowerArc, true));
+        stack.push(encode(higherArc, false));
+      }
+    }
+  }
+
+  private static int encode(int arc, boolean upward) {
+    return (arc << 1) | (upward ? 1 : 0);
+  }
+
+  /**
+   * Working memory for a single query.
+   * Uses timestamps to avoid having to reset all entries between queries.
+   */
+  private static class QuerySpace {
+
+    private final double[] forwardDistances;
+    private final double[] backwardDistances;
+    private final int[] forwardArcs;
+    private final int[] backwardArcs;
+    private final int[] forwardStamps;
+    private final int[] backwardStamps;
+    private final MinHeap forwardHeap = new MinHeap();
+    private final MinHeap backwardHeap = new MinHeap();
+    private int stamp;
+    private double bestWeight;
+
+    QuerySpace(int nodeCount) {
+      forwardDistances = new double[nodeCount];
+      backwardDistances = new double[nodeCount];
+      forwardArcs = new int[nodeCount];
+      backwardArcs = new int[nodeCount];
+      forwardStamps = new int[nodeCount];
+      backwardStamps = new int[nodeCount];
+    }
+
+    void reset() {
+      stamp++;
+      if (stamp == Integer.MAX_VALUE) {
+        Arrays.fill(forwardStamps, 0);
+        Arrays.fill(backwardStamps, 0);
+        stamp = 1;
+      }
+      forwardHeap.clear();
+      backwardHeap.clear();
+    }
+
+    double forwardDistance(int node) {
+      return forwardStamps[node] == stamp ? forwardDistances[node] : Double.POSITIVE_INFINITY;
+    }
+
+    double backwardDistance(int node) {
+      return backwardStamps[node] == stamp ? backwardDistances[node] : Double.POSITIVE_INFINITY;
+    }
+
+    void setForward(int node, double distance, int arc) {
+      forwardStamps[node] = stamp;
+      forwardDistances[node] = distance;
+      forwardArcs[node] = arc;
+    }
+
+    void setBackward(int node, double distance, int arc) {
+      backwardStamps[node] = stamp;
+      backwardDistances[node] = distance;
+      backwardArcs[node] = arc;
+    }
+  }
+}
@@ -0,0 +1,372 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import static com.google.common.base.Preconditions.checkState;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import org.jgrapht.Graph;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+
+/**
+ * The metric-independent part of a customizable contraction hierarchy: A node ordering and the
+ * upward arcs of the graph that results from contracting all nodes in that order.
+ * <p>
+ * The topology is computed from the <em>undirected</em> structure of the plant model only, i.e. it
+ * does not depend on the direction or navigability of paths, nor on edge weights.
+ * Directions and weights are applied later by {@link ContractionHierarchyShortestPath}, which is
+ * cheap compared to computing the topology.
+ * As a result, the same topology can be shared by all vehicles/routing groups and kept when paths
+ * are locked or unlocked.
+ * </p>
+ * <p>
+ * Nodes are identified by their rank in the contraction order.
+ * The upward arcs of a node (i.e. the arcs to its neighbours with a higher rank) are stored in a
+ * compressed array, sorted by the rank of their head nodes.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ContractionHierarchyTopology {
+
+  /**
+   * The ranks of the nodes, by vertex name.
+   */
+  private final Map<String, Integer> ranksByName = new HashMap<>();
+  /**
+   * The vertex names, by rank.
+   */
+  private final String[] namesByRank;
+  /**
+   * The index of the first upward arc of each node, by rank (plus one element marking the end).
+   */
+  private final int[] firstArcs;
+  /**
+   * The tail (the lower ranked node) of each arc.
+   */
+  private final int[] arcTails;
+  /**
+   * The head (the higher ranked node) of each arc.
+   */
+  private final int[] arcHeads;
+
+  /**
+   * Creates a new instance by contracting the given undirected graph.
+   *
+   * @param adjacency The undirected graph to be contracted, as a map of vertex names to the names
+   * of their neighbours. Must be symmetric.
+   */
+  public ContractionHierarchyTopology(@Nonnull Map<String, Set<String>> adjacency) {
+    requireNonNull(adjacency, "adjacency");
+
+    // Sort the vertices by name to make the resulting ordering deterministic.
+    String[] names = new TreeMap<>(adjacency).keySet().toArray(new String[adjacency.size()]);
+    Map<String, Integer> indicesByName = new HashMap<>();
+    for (int i = 0; i < names.length; i++) {
+      indicesByName.put(names[i], i);
+    }
+    @SuppressWarnings("unchecked")
+    Set<Integer>[] neighbours = new Set[names.length];
+    for (int i = 0; i < names.length; i++) {
+      neighbours[i] = new HashSet<>();
+      for (String neighbour : adjacency.get(names[i])) {
+        Integer neighbourIndex = indicesByName.get(neighbour);
+        if (neighbourIndex == null) {
+          throw new IllegalArgumentException("Unknown neighbour vertex: " + neighbour);
+        }
+        if (neighbourIndex != i) {
+          neighbours[i].add(neighbourIndex);
+        }
+      }
+    }
+    for (int i = 0; i < names.length; i++) {
+      for (int neighbour : neighbours[i]) {
+        neighbours[neighbour].add(i);
+      }
+    }
+
+    int[] ranks = new int[names.length];
+    int[][] upwardNeighbours = new int[names.length][];
+    contract(neighbours, ranks, upwardNeighbours);
+
+    namesByRank = new String[names.length];
+    firstArcs = new int[names.length + 1];
+    int arcCount = 0;
+    for (int i = 0; i < names.length; i++) {
+      namesByRank[ranks[i]] = names[i];
+      ranksByName.put(names[i], ranks[i]);
+      firstArcs[ranks[i] + 1] = upwardNeighbours[i].length;
+      arcCount += upwardNeighbours[i].length;
+    }
+    for (int rank = 0; rank < names.length; rank++) {
+      firstArcs[rank + 1] += firstArcs[rank];
+    }
+    arcTails = new int[arcCount];
+    arcHeads = new int[arcCount];
+    for (int i = 0; i < names.length; i++) {
+      int[] heads = new int[upwardNeighbours[i].length];
+      for (int j = 0; j < heads.length; j++) {
+        heads[j] = ranks[upwardNeighbours[i][j]];
+      }
+      Arrays.sort(heads);
+      System.arraycopy(heads, 0, arcHeads, firstArcs[ranks[i]], heads.length);
+      Arrays.fill(arcTails, firstArcs[ranks[i]], firstArcs[ranks[i] + 1], ranks[i]);
+    }
+  }
+
+  /**
+   * Creates a topology for the given model data.
+   *
+   * @param points The points of the model.
+   * @param paths The paths of the model.
+   * @return The topology.
+   */
+  @Nonnull
+  public static ContractionHierarchyTopology fromModel(@Nonnull Collection<Point> points,
+                                                       @Nonnull Collection<Path> paths) {
+    return new ContractionHierarchyTopology(undirectedAdjacency(points, paths));
+  }
+
+  /**
+   * Creates a topology for the given graph.
+   *
+   * @param graph The graph.
+   * @return The topology.
+   */
+  @Nonnull
+  public static ContractionHierarchyTopology fromGraph(@Nonnull Graph<String, ModelEdge> graph) {
+    requireNonNull(graph, "graph");
+
+    Map<String, Set<String>> adjacency = new HashMap<>();
+    for (String vertex : graph.vertexSet()) {
+      adjacency.put(vertex, new HashSet<>());
+    }
+    for (ModelEdge edge : graph.edgeSet()) {
+      adjacency.get(graph.getEdgeSource(edge)).add(graph.getEdgeTarget(edge));
+      adjacency.get(graph.getEdgeTarget(edge)).add(graph.getEdgeSource(edge));
+    }
+    return new ContractionHierarchyTopology(adjacency);
+  }
+
+  /**
+   * Returns the undirected structure of the given model data, regardless of the paths'
+   * navigability.
+   *
+   * @param points The points of the model.
+   * @param paths The paths of the model.
+   * @return A map of point names to the names of their neighbours.
+   */
+  @Nonnull
+  public static Map<String, Set<String>> undirectedAdjacency(@Nonnull Collection<Point> points,
+                                                             @Nonnull Collection<Path> paths) {
+    requireNonNull(points, "points");
+    requireNonNull(paths, "paths");
+
+    Map<String, Set<String>> result = new HashMap<>();
+    for (Point point : points) {
+      result.put(point.getName(), new HashSet<>());
+    }
+    for (Path path : paths) {
+      String srcName = path.getSourcePoint().getName();
+      String destName = path.getDestinationPoint().getName();
+      result.computeIfAbsent(srcName, name -> new HashSet<>()).add(destName);
+      result.computeIfAbsent(destName, name -> new HashSet<>()).add(srcName);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of nodes.
+   *
+   * @return The number of nodes.
+   */
+  public int getNodeCount() {
+    return namesByRank.length;
+  }
+
+  /**
+   * Returns the number of upward arcs.
+   *
+   * @return The number of upward arcs.
+   */
+  public int getArcCount() {
+    return arcHeads.length;
+  }
+
+  /**
+   * Returns the rank of the node with the given name.
+   *
+   * @param name The vertex name.
+   * @return The rank of the node, or -1, if there is no node with the given name.
+   */
+  public int getRank(String name) {
+    Integer rank = ranksByName.get(name);
+    return rank == null ? -1 : rank;
+  }
+
+  /**
+   * Returns the vertex name of the node with the given rank.
+   *
+   * @param rank The rank.
+   * @return The vertex name.
+   */
+  public String getName(int rank) {
+    return namesByRank[rank];
+  }
+
+  /**
+   * Returns the index of the first upward arc of the given node.
+   *
+   * @param rank The node's rank.
+   * @return The index of the node's first upward arc.
+   */
+  int firstArc(int rank) {
+    return firstArcs[rank];
+  }
+
+  /**
+   * Returns the index after the last upward arc of the given node.
+   *
+   * @param rank The node's rank.
+   * @return The index after the node's last upward arc.
+   */
+  int endArc(int rank) {
+    return firstArcs[rank + 1];
+  }
+
+  /**
+   * Returns the tail, i.e. the lower ranked node, of the given arc.
+   *
+   * @param arc The arc index.
+   * @return The rank of the arc's tail.
+   */
+  int tail(int arc) {
+    return arcTails[arc];
+  }
+
+  /**
+   * Returns the head, i.e. the higher ranked node, of the given arc.
+   *
+   * @param arc The arc index.
+   * @return The rank of the arc's head.
+   */
+  int head(int arc) {
+    return arcHeads[arc];
+  }
+
+  /**
+   * Returns the index of the arc between the given nodes.
+   *
+   * @param lowerRank The rank of the lower ranked node.
+   * @param higherRank The rank of the higher ranked node.
+   * @return The index of the arc, or a negative value, if there is no such arc.
+   */
+  int findArc(int lowerRank, int higherRank) {
+    int index = Arrays.binarySearch(arcHeads, firstArcs[lowerRank], firstArcs[lowerRank + 1],
+                                    higherRank);
+    return index >= 0 ? index : -1;
+  }
+
+  /**
+   * Checks whether all edges of the given graph are represented by arcs of this topology.
+   *
+   * @param graph The graph to check.
+   * @return <code>true</code> if, and only if, all edges are represented.
+   */
+  public boolean covers(@Nonnull Graph<String, ModelEdge> graph) {
+    requireNonNull(graph, "graph");
+
+    for (String vertex : graph.vertexSet()) {
+      if (getRank(vertex) < 0) {
+        return false;
+      }
+    }
+    for (ModelEdge edge : graph.edgeSet()) {
+      String source = graph.getEdgeSource(edge);
+      String target = graph.getEdgeTarget(edge);
+      int srcRank = getRank(source);
+      int destRank = getRank(target);
+      if (!source.equals(target)
+          && findArc(Math.min(srcRank, destRank), Math.max(srcRank, destRank)) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Contracts the nodes of the given graph in minimum degree order, i.e. always contracts a node
+   * with the fewest remaining neighbours next, connecting all of its remaining neighbours with each
+   * other.
+   *
+   * @param neighbours The neighbours of each node. Modified by this method.
+   * @param ranks Receives the rank of each node.
+   * @param upwardNeighbours Receives the upward neighbours of each node.
+   */
+  private static void contract(Set<Integer>[] neighbours, int[] ranks, int[][] upwardNeighbours) {
+    boolean[] contracted = new boolean[neighbours.length];
+    // Entries are (degree << 32 | node). Outdated entries are skipped when polled.
+    PriorityQueue<Long> queue = new PriorityQueue<>();
+    for (int node = 0; node < neighbours.length; node++) {
+      queue.add(queueEntry(neighbours[node].size(), node));
+    }
+
+    int nextRank = 0;
+    while (!queue.isEmpty()) {
+      long entry = queue.poll();
+      int node = (int) entry;
+      if (contracted[node] || (int) (entry >>> 32) != neighbours[node].size()) {
+        continue;
+      }
+
+      contracted[node] = true;
+      ranks[node] = nextRank;
+      nextRank++;
+
+      int[] remaining = new int[neighbours[node].size()];
+      int index = 0;
+      for (int neighbour : neighbours[node]) {
+        remaining[index] = neighbour;
+        index++;
+      }
+      upwardNeighbours[node] = remaining;
+      neighbours[node] = null;
+
+      for (int neighbour : remaining) {
+        neighbours[neighbour].remove(node);
+      }
+      for (int i = 0; i < remaining.length; i++) {
+        for (int j = i + 1; j < remaining.length; j++) {
+          if (neighbours[remaining[i]].add(remaining[j])) {
+            neighbours[remaining[j]].add(remaining[i]);
+          }
+        }
+      }
+      for (int neighbour : remaining) {
+        queue.add(queueEntry(neighbours[neighbour].size(), neighbour));
+      }
+    }
+    checkState(nextRank == neighbours.length,
+               "Only %s of %s nodes ranked during contraction.",
+               nextRank,
+               neighbours.length);
+  }
+
+  private static long queueEntry(int degree, int node) {
+    return ((long) degree << 32) | node;
+  }
+}
@@ -47,7 +47,7 @@ public class DefaultModelGraphMapper
     requireNonNull(paths, "paths");
     requireNonNull(vehicle, "vehicle");
 
-    WeightedGraph<String, ModelEdge> graph = new DirectedWeightedMultigraph<>(ModelEdge.class);
+    WeightedGraph<String, ModelEdge> graph = createGraph();
 
     for (Point point : points) {
       graph.addVertex(point.getName());
@@ -76,6 +76,29 @@ public class DefaultModelGraphMapper
     return graph;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation returns the edge evaluator's key for the vehicle.
+   * Subclasses that add edges depending on the vehicle need to override this method accordingly.
+   * </p>
+   */
+  @Override
+  public Object getGraphKey(Vehicle vehicle) {
+    requireNonNull(vehicle, "vehicle");
+
+    return edgeEvaluator.getVehicleKey(vehicle);
+  }
+
+  /**
+   * Creates the (empty) graph to be filled with the model's points and paths.
+   *
+   * @return The graph.
+   */
+  protected WeightedGraph<String, ModelEdge> createGraph() {
+    return new DirectedWeightedMultigraph<>(ModelEdge.class);
+  }
+
   /**
    * Returns <code>true</code> if and only if the graph should contain an edge from the source
    * of the path to its destination for the given vehicle.
@@ -28,11 +28,13 @@ public class DijkstraPointRouterFactory
    *
    * @param kernel The kernel providing model data.
    * @param mapper Maps the plant model to a graph.
+   * @param routingTableStore Persists routing tables.
    */
   @Inject
   public DijkstraPointRouterFactory(@Nonnull LocalKernel kernel,
-                                    @Nonnull ModelGraphMapper mapper) {
-    super(kernel, mapper);
+                                    @Nonnull ModelGraphMapper mapper,
+                                    @Nonnull RoutingTableStore routingTableStore) {
+    super(kernel, mapper, routingTableStore);
   }
 
   @Override
@@ -41,4 +43,9 @@ public class DijkstraPointRouterFactory
     return new DijkstraShortestPath<>(graph);
   }
 
+  @Override
+  protected boolean readsEdgeWeightsPerQuery() {
+    return true;
+  }
+
 }
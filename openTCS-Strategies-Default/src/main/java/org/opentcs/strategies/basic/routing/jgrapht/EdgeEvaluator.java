@@ -17,4 +17,20 @@ import org.opentcs.data.model.Vehicle;
 public interface EdgeEvaluator {
 
   double computeWeight(ModelEdge edge, Vehicle vehicle);
+
+  /**
+   * Returns a key identifying the characteristics of the given vehicle that the weights computed
+   * by this evaluator depend on.
+   * For vehicles with equal keys, this evaluator must compute the same weight for every edge.
+   * <p>
+   * This default implementation returns the vehicle's name, i.e. weights are considered specific
+   * to every vehicle.
+   * </p>
+   *
+   * @param vehicle The vehicle.
+   * @return The key.
+   */
+  default Object getVehicleKey(Vehicle vehicle) {
+    return vehicle.getName();
+  }
 }
@@ -7,7 +7,9 @@
  */
 package org.opentcs.strategies.basic.routing.jgrapht;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.opentcs.data.model.Vehicle;
 
@@ -39,6 +41,15 @@ public class EdgeEvaluatorComposite
     return result;
   }
 
+  @Override
+  public Object getVehicleKey(Vehicle vehicle) {
+    List<Object> result = new ArrayList<>();
+    for (EdgeEvaluator component : components) {
+      result.add(component.getVehicleKey(vehicle));
+    }
+    return result;
+  }
+
   /**
    * Returns the {@link EdgeEvaluator}s that make up this composite.
    *
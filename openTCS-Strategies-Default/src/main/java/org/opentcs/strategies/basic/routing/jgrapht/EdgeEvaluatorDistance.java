@@ -7,6 +7,7 @@
  */
 package org.opentcs.strategies.basic.routing.jgrapht;
 
+import java.util.Collections;
 import org.opentcs.data.model.Vehicle;
 
 /**
@@ -24,4 +25,10 @@ public class EdgeEvaluatorDistance
   public double computeWeight(ModelEdge edge, Vehicle vehicle) {
     return edge.getModelPath().getLength();
   }
+
+  @Override
+  public Object getVehicleKey(Vehicle vehicle) {
+    // Weights depend on the paths' lengths only.
+    return Collections.emptyList();
+  }
 }
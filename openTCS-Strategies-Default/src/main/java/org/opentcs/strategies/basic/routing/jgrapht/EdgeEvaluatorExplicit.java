@@ -7,6 +7,7 @@
  */
 package org.opentcs.strategies.basic.routing.jgrapht;
 
+import java.util.Collections;
 import org.opentcs.data.model.Vehicle;
 
 /**
@@ -24,4 +25,10 @@ public class EdgeEvaluatorExplicit
   public double computeWeight(ModelEdge edge, Vehicle vehicle) {
     return edge.getModelPath().getRoutingCost();
   }
+
+  @Override
+  public Object getVehicleKey(Vehicle vehicle) {
+    // Weights are the paths' explicit routing costs, regardless of the vehicle.
+    return Collections.emptyList();
+  }
 }
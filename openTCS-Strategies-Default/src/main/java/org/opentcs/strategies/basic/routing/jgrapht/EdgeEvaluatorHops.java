@@ -7,6 +7,7 @@
  */
 package org.opentcs.strategies.basic.routing.jgrapht;
 
+import java.util.Collections;
 import org.opentcs.data.model.Vehicle;
 
 /**
@@ -24,4 +25,10 @@ public class EdgeEvaluatorHops
   public double computeWeight(ModelEdge edge, Vehicle vehicle) {
     return 1;
   }
+
+  @Override
+  public Object getVehicleKey(Vehicle vehicle) {
+    // Every edge has the same weight for every vehicle.
+    return Collections.emptyList();
+  }
 }
@@ -7,8 +7,10 @@
  */
 package org.opentcs.strategies.basic.routing.jgrapht;
 
+import java.util.Arrays;
 import org.opentcs.data.model.Vehicle;
 import static org.opentcs.strategies.basic.routing.PointRouter.INFINITE_COSTS;
+import static org.opentcs.strategies.basic.routing.TravelTimes.INFINITE_TRAVEL_TIME;
 
 /**
  * Uses the estimated travel time (length/maximum velocity) for an edge as its weight.
@@ -23,6 +25,20 @@ public class EdgeEvaluatorTravelTime
 
   @Override
   public double computeWeight(ModelEdge edge, Vehicle vehicle) {
+    long travelTime = computeTravelTimeMillis(edge, vehicle);
+    return (travelTime == INFINITE_TRAVEL_TIME) ? INFINITE_COSTS : travelTime / 1000;
+  }
+
+  /**
+   * Returns the estimated time the given vehicle needs for travelling along the given edge.
+   *
+   * @param edge The edge.
+   * @param vehicle The vehicle.
+   * @return The estimated travel time in milliseconds, or
+   * {@link org.opentcs.strategies.basic.routing.TravelTimes#INFINITE_TRAVEL_TIME}, if the vehicle
+   * cannot travel the edge.
+   */
+  public long computeTravelTimeMillis(ModelEdge edge, Vehicle vehicle) {
     int maxVelocity;
     if (edge.isTravellingReverse()) {
       maxVelocity = Math.min(vehicle.getMaxReverseVelocity(),
@@ -31,6 +47,13 @@ public class EdgeEvaluatorTravelTime
     else {
       maxVelocity = Math.min(vehicle.getMaxVelocity(), edge.getModelPath().getMaxVelocity());
     }
-    return (maxVelocity == 0) ? INFINITE_COSTS : edge.getModelPath().getLength() / maxVelocity;
+    return (maxVelocity <= 0)
+        ? INFINITE_TRAVEL_TIME
+        : edge.getModelPath().getLength() * 1000 / maxVelocity;
+  }
+
+  @Override
+  public Object getVehicleKey(Vehicle vehicle) {
+    return Arrays.asList(vehicle.getMaxVelocity(), vehicle.getMaxReverseVelocity());
   }
 }
@@ -28,11 +28,13 @@ public class FloydWarshallPointRouterFactory
    *
    * @param kernel The kernel providing model data.
    * @param mapper Maps the plant model to a graph.
+   * @param routingTableStore Persists routing tables.
    */
   @Inject
   public FloydWarshallPointRouterFactory(@Nonnull LocalKernel kernel,
-                                         @Nonnull ModelGraphMapper mapper) {
-    super(kernel, mapper);
+                                         @Nonnull ModelGraphMapper mapper,
+                                         @Nonnull RoutingTableStore routingTableStore) {
+    super(kernel, mapper, routingTableStore);
   }
 
   @Override
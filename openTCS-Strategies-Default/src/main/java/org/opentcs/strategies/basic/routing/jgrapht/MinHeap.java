@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of nodes keyed by distance, without decrease-key.
+ * Outdated entries are skipped by the search instead.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class MinHeap {
+
+  private double[] keys = new double[64];
+  private int[] nodes = new int[64];
+  private int size;
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  double minKey() {
+    return keys[0];
+  }
+
+  void push(int node, double key) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      nodes = Arrays.copyOf(nodes, size * 2);
+    }
+    int index = size;
+    size++;
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+      if (keys[parent] <= key) {
+        break;
+      }
+      keys[index] = keys[parent];
+      nodes[index] = nodes[parent];
+      index = parent;
+    }
+    keys[index] = key;
+    nodes[index] = node;
+  }
+
+  int pop() {
+    int result = nodes[0];
+    size--;
+    double key = keys[size];
+    int node = nodes[size];
+    int index = 0;
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && keys[child + 1] < keys[child]) {
+        child++;
+      }
+      if (key <= keys[child]) {
+        break;
+      }
+      keys[index] = keys[child];
+      nodes[index] = nodes[child];
+      index = child;
+    }
+    keys[index] = key;
+    nodes[index] = node;
+    return result;
+  }
+}
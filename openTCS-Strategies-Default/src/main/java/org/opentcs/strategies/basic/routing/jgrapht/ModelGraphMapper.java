@@ -31,4 +31,20 @@ public interface ModelGraphMapper {
   WeightedGraph<String, ModelEdge> translateModel(Collection<Point> points,
                                                   Collection<Path> paths,
                                                   Vehicle vehicle);
+
+  /**
+   * Returns a key identifying the graph to be built for the given vehicle.
+   * For vehicles with equal keys, {@link #translateModel(Collection, Collection, Vehicle)} must
+   * return graphs with the same edges and edge weights.
+   * <p>
+   * This default implementation returns the vehicle's name, i.e. graphs are considered specific to
+   * every vehicle.
+   * </p>
+   *
+   * @param vehicle The vehicle.
+   * @return The key.
+   */
+  default Object getGraphKey(Vehicle vehicle) {
+    return vehicle.getName();
+  }
 }
@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import org.jgrapht.Graph;
+import static org.opentcs.strategies.basic.routing.PointRouter.INFINITE_COSTS;
+
+/**
+ * Answers whether a vertex of a graph can be reached from another one.
+ * <p>
+ * The graph's strongly connected components are computed once.
+ * For every component, the set of components reachable from it in the condensation of the graph
+ * (a directed acyclic graph) is kept in a bit set, so a reachability check is a single bit test.
+ * For graphs with very many components, the bit sets would require too much memory - in that case,
+ * the condensation is searched for every check instead, which is still cheaper than searching the
+ * graph itself.
+ * </p>
+ * <p>
+ * Edges with infinite weights (e.g. ones the vehicle cannot travel because its maximum velocity is
+ * zero) are not considered, as no route found by a shortest path algorithm may use them.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ReachabilityIndex {
+
+  /**
+   * The maximum number of components for which reachability bit sets are kept.
+   * (Requires up to 16 MiB.)
+   */
+  static final int MAX_INDEXED_COMPONENTS = 16384;
+  /**
+   * The vertices' indices, by name.
+   */
+  private final Map<String, Integer> indicesByVertex = new HashMap<>();
+  /**
+   * The component of each vertex.
+   */
+  private final int[] componentOfVertex;
+  /**
+   * The number of components.
+   */
+  private final int componentCount;
+  /**
+   * For each component, the start of its successors in {@link #componentArcs}.
+   */
+  private final int[] componentArcStarts;
+  /**
+   * The successor components of all components.
+   */
+  private final int[] componentArcs;
+  /**
+   * For each component, the set of components reachable from it, or <code>null</code>, if there
+   * are too many components.
+   */
+  private final BitSet[] reachableComponents;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param graph The graph to compute the reachability index for.
+   */
+  public ReachabilityIndex(@Nonnull Graph<String, ModelEdge> graph) {
+    requireNonNull(graph, "graph");
+
+    int vertexCount = 0;
+    for (String vertex : graph.vertexSet()) {
+      indicesByVertex.put(vertex, vertexCount);
+      vertexCount++;
+    }
+
+    // Adjacency of the graph in compressed form.
+    int[] arcStarts = new int[vertexCount + 1];
+    for (ModelEdge edge : graph.edgeSet()) {
+      if (isTraversable(graph, edge)) {
+        arcStarts[indicesByVertex.get(graph.getEdgeSource(edge)) + 1]++;
+      }
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      arcStarts[i + 1] += arcStarts[i];
+    }
+    int[] arcs = new int[arcStarts[vertexCount]];
+    int[] fill = Arrays.copyOf(arcStarts, vertexCount);
+    for (ModelEdge edge : graph.edgeSet()) {
+      if (isTraversable(graph, edge)) {
+        int source = indicesByVertex.get(graph.getEdgeSource(edge));
+        arcs[fill[source]++] = indicesByVertex.get(graph.getEdgeTarget(edge));
+      }
+    }
+
+    componentOfVertex = new int[vertexCount];
+    componentCount = computeComponents(vertexCount, arcStarts, arcs, componentOfVertex);
+
+    // Arcs between different components, sorted by source component.
+    componentArcStarts = new int[componentCount + 1];
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      for (int arc = arcStarts[vertex]; arc < arcStarts[vertex + 1]; arc++) {
+        if (componentOfVertex[vertex] != componentOfVertex[arcs[arc]]) {
+          componentArcStarts[componentOfVertex[vertex] + 1]++;
+        }
+      }
+    }
+    for (int i = 0; i < componentCount; i++) {
+      componentArcStarts[i + 1] += componentArcStarts[i];
+    }
+    componentArcs = new int[componentArcStarts[componentCount]];
+    fill = Arrays.copyOf(componentArcStarts, componentCount);
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      for (int arc = arcStarts[vertex]; arc < arcStarts[vertex + 1]; arc++) {
+        if (componentOfVertex[vertex] != componentOfVertex[arcs[arc]]) {
+          componentArcs[fill[componentOfVertex[vertex]]++] = componentOfVertex[arcs[arc]];
+        }
+      }
+    }
+
+    reachableComponents = componentCount <= MAX_INDEXED_COMPONENTS
+        ? computeReachableComponents()
+        : null;
+  }
+
+  /**
+   * Checks whether the given destination vertex can be reached from the given source vertex.
+   * Every vertex of the graph can be reached from itself.
+   *
+   * @param srcVertex The source vertex.
+   * @param destVertex The destination vertex.
+   * @return <code>true</code> if, and only if, both vertices are part of the graph and the
+   * destination vertex can be reached from the source vertex.
+   */
+  public boolean isReachable(String srcVertex, String destVertex) {
+    requireNonNull(srcVertex, "srcVertex");
+    requireNonNull(destVertex, "destVertex");
+
+    Integer srcIndex = indicesByVertex.get(srcVertex);
+    Integer destIndex = indicesByVertex.get(destVertex);
+    if (srcIndex == null || destIndex == null) {
+      return false;
+    }
+
+    int srcComponent = componentOfVertex[srcIndex];
+    int destComponent = componentOfVertex[destIndex];
+    if (srcComponent == destComponent) {
+      return true;
+    }
+    // Components are numbered in reverse topological order, so arcs of the condensation always
+    // lead to components with lower numbers.
+    if (destComponent > srcComponent) {
+      return false;
+    }
+    if (reachableComponents != null) {
+      return reachableComponents[srcComponent].get(destComponent);
+    }
+    return searchComponent(srcComponent, destComponent);
+  }
+
+  /**
+   * Returns the number of strongly connected components of the graph.
+   *
+   * @return The number of strongly connected components of the graph.
+   */
+  public int getComponentCount() {
+    return componentCount;
+  }
+
+  /**
+   * Checks whether the given edge can be part of a route, i.e. whether its weight is finite.
+   *
+   * @param graph The graph.
+   * @param edge The edge.
+   * @return <code>true</code> if, and only if, the edge's weight is finite.
+   */
+  private static boolean isTraversable(Graph<String, ModelEdge> graph, ModelEdge edge) {
+    return graph.getEdgeWeight(edge) < INFINITE_COSTS;
+  }
+
+  /**
+   * Computes the strongly connected components of a graph using an iterative version of Tarjan's
+   * algorithm.
+   * Components are numbered in the order they are completed, i.e. in reverse topological order.
+   *
+   * @param vertexCount The number of vertices.
+   * @param arcStarts For each vertex, the start of its successors in <code>arcs</code>.
+   * @param arcs The successors of all vertices.
+   * @param components Is filled with the component of each vertex.
+   * @return The number of components.
+   */
+  private static int computeComponents(int vertexCount,
+                                       int[] arcStarts,
+                                       int[] arcs,
+                                       int[] components) {
+    int[] discovery = new int[vertexCount];
+    int[] lowLink = new int[vertexCount];
+    int[] nextArc = new int[vertexCount];
+    boolean[] onStack = new boolean[vertexCount];
+    int[] sccStack = new int[vertexCount];
+    int[] callStack = new int[vertexCount];
+    Arrays.fill(discovery, -1);
+
+    int time = 0;
+    int componentCount = 0;
+    int sccStackSize = 0;
+
+    for (int root = 0; root < vertexCount; root++) {
+      if (discovery[root] >= 0) {
+        continue;
+      }
+      int callStackSize = 0;
+      callStack[callStackSize++] = root;
+      discovery[root] = lowLink[root] = time++;
+      nextArc[root] = arcStarts[root];
+      sccStack[sccStackSize++] = root;
+      onStack[root] = true;
+
+      while (callStackSize > 0) {
+        int vertex = callStack[callStackSize - 1];
+        if (nextArc[vertex] < arcStarts[vertex + 1]) {
+          int successor = arcs[nextArc[vertex]++];
+          if (discovery[successor] < 0) {
+            discovery[successor] = lowLink[successor] = time++;
+            nextArc[successor] = arcStarts[successor];
+            sccStack[sccStackSize++] = successor;
+            onStack[successor] = true;
+            callStack[callStackSize++] = successor;
+          }
+          else if (onStack[successor]) {
+            lowLink[vertex] = Math.min(lowLink[vertex], discovery[successor]);
+          }
+          continue;
+        }
+
+        // All successors visited - complete the vertex.
+        callStackSize--;
+        if (callStackSize > 0) {
+          int parent = callStack[callStackSize - 1];
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[vertex]);
+        }
+        if (lowLink[vertex] == discovery[vertex]) {
+          int member;
+          do {
+            member = sccStack[--sccStackSize];
+            onStack[member] = false;
+            components[member] = componentCount;
+          }
+          while (member != vertex);
+          componentCount++;
+        }
+      }
+    }
+    return componentCount;
+  }
+
+  private BitSet[] computeReachableComponents() {
+    BitSet[] result = new BitSet[componentCount];
+    // Successors always have lower numbers, so their sets are complete when they are needed.
+    for (int component = 0; component < componentCount; component++) {
+      BitSet reachable = new BitSet(component + 1);
+      reachable.set(component);
+      for (int arc = componentArcStarts[component];
+           arc < componentArcStarts[component + 1];
+           arc++) {
+        reachable.or(result[componentArcs[arc]]);
+      }
+      result[component] = reachable;
+    }
+    return result;
+  }
+
+  private boolean searchComponent(int srcComponent, int destComponent) {
+    BitSet visited = new BitSet(srcComponent + 1);
+    int[] stack = new int[srcComponent + 1];
+    int stackSize = 0;
+    stack[stackSize++] = srcComponent;
+    visited.set(srcComponent);
+    while (stackSize > 0) {
+      int component = stack[--stackSize];
+      for (int arc = componentArcStarts[component];
+           arc < componentArcStarts[component + 1];
+           arc++) {
+        int successor = componentArcs[arc];
+        if (successor == destComponent) {
+          return true;
+        }
+        // Components with lower numbers than the destination cannot lead to it.
+        if (successor > destComponent && !visited.get(successor)) {
+          visited.set(successor);
+          stack[stackSize++] = successor;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import org.jgrapht.Graph;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.PointRouter;
+import static org.opentcs.util.Assertions.checkArgument;
+
+/**
+ * Computes routes between points using a precomputed all-pairs routing table.
+ * <p>
+ * The routing table consists of a matrix of costs and a matrix of predecessor edges, i.e. for each
+ * pair of points, the costs of the shortest route between them and the last edge on that route.
+ * Both matrices are kept in primitive buffers, which may be backed by a memory-mapped file.
+ * As a single buffer can hold at most {@link Integer#MAX_VALUE} bytes, the matrices of large models
+ * may be split into chunks of consecutive rows.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class RoutingTablePointRouter
+    implements PointRouter {
+
+  /**
+   * Marks a pair of points for which there is no predecessor edge.
+   */
+  static final int NO_EDGE = -1;
+  /**
+   * The graph's vertices' indices in the matrices, by name.
+   */
+  private final Map<String, Integer> indicesByName = new HashMap<>();
+  /**
+   * The points, by index.
+   */
+  private final Point[] points;
+  /**
+   * The graph's edges, by index.
+   */
+  private final ModelEdge[] edges;
+  /**
+   * The index of each edge's source vertex.
+   */
+  private final int[] edgeSources;
+  /**
+   * The index of each edge's target vertex.
+   */
+  private final int[] edgeTargets;
+  /**
+   * The chunks of the costs matrix, each containing consecutive rows in row-major order.
+   */
+  private final LongBuffer[] costs;
+  /**
+   * The chunks of the predecessor edge matrix, each containing consecutive rows in row-major order.
+   */
+  private final IntBuffer[] predecessors;
+  /**
+   * The number of rows in each chunk of the matrices.
+   */
+  private final int rowsPerChunk;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param graph The graph the routing table was computed for.
+   * @param vertices The graph's vertices, in the order of the matrices' rows and columns.
+   * @param edges The graph's edges, in the order referenced by the predecessor matrix.
+   * @param points The points of the model.
+   * @param costs The costs matrix.
+   * @param predecessors The predecessor edge matrix.
+   */
+  public RoutingTablePointRouter(@Nonnull Graph<String, ModelEdge> graph,
+                                 @Nonnull List<String> vertices,
+                                 @Nonnull List<ModelEdge> edges,
+                                 @Nonnull Collection<Point> points,
+                                 @Nonnull LongBuffer costs,
+                                 @Nonnull IntBuffer predecessors) {
+    this(graph,
+         vertices,
+         edges,
+         points,
+         new LongBuffer[]{requireNonNull(costs, "costs")},
+         new IntBuffer[]{requireNonNull(predecessors, "predecessors")},
+         Math.max(1, vertices.size()));
+  }
+
+  /**
+   * Creates a new instance with matrices split into chunks of rows.
+   *
+   * @param graph The graph the routing table was computed for.
+   * @param vertices The graph's vertices, in the order of the matrices' rows and columns.
+   * @param edges The graph's edges, in the order referenced by the predecessor matrix.
+   * @param points The points of the model.
+   * @param costs The chunks of the costs matrix.
+   * @param predecessors The chunks of the predecessor edge matrix.
+   * @param rowsPerChunk The number of rows in each chunk (except for the last one, which may
+   * contain fewer rows).
+   */
+  public RoutingTablePointRouter(@Nonnull Graph<String, ModelEdge> graph,
+                                 @Nonnull List<String> vertices,
+                                 @Nonnull List<ModelEdge> edges,
+                                 @Nonnull Collection<Point> points,
+                                 @Nonnull LongBuffer[] costs,
+                                 @Nonnull IntBuffer[] predecessors,
+                                 int rowsPerChunk) {
+    requireNonNull(graph, "graph");
+    requireNonNull(vertices, "vertices");
+    requireNonNull(edges, "edges");
+    requireNonNull(points, "points");
+    this.costs = requireNonNull(costs, "costs");
+    this.predecessors = requireNonNull(predecessors, "predecessors");
+    checkArgument(rowsPerChunk > 0, "rowsPerChunk must be positive: %s", rowsPerChunk);
+    this.rowsPerChunk = rowsPerChunk;
+
+    Map<String, Point> pointsByName = new HashMap<>();
+    for (Point point : points) {
+      pointsByName.put(point.getName(), point);
+    }
+    this.points = new Point[vertices.size()];
+    for (int i = 0; i < vertices.size(); i++) {
+      indicesByName.put(vertices.get(i), i);
+      this.points[i] = pointsByName.get(vertices.get(i));
+    }
+
+    this.edges = edges.toArray(new ModelEdge[edges.size()]);
+    this.edgeSources = new int[edges.size()];
+    this.edgeTargets = new int[edges.size()];
+    for (int i = 0; i < edges.size(); i++) {
+      edgeSources[i] = indicesByName.get(graph.getEdgeSource(edges.get(i)));
+      edgeTargets[i] = indicesByName.get(graph.getEdgeTarget(edges.get(i)));
+    }
+  }
+
+  @Override
+  public List<Route.Step> getRouteSteps(Point srcPoint, Point destPoint) {
+    requireNonNull(srcPoint, "srcPoint");
+    requireNonNull(destPoint, "destPoint");
+
+    if (Objects.equals(srcPoint.getName(), destPoint.getName())) {
+      return new ArrayList<>();
+    }
+
+    Integer srcIndex = indicesByName.get(srcPoint.getName());
+    Integer destIndex = indicesByName.get(destPoint.getName());
+    if (srcIndex == null || destIndex == null || costs(srcIndex, destIndex) == INFINITE_COSTS) {
+      return null;
+    }
+
+    // Follow the predecessor edges back from the destination to the source.
+    LinkedList<Integer> routeEdges = new LinkedList<>();
+    int current = destIndex;
+    while (current != srcIndex) {
+      int edge = predecessor(srcIndex, current);
+      if (edge == NO_EDGE || routeEdges.size() >= points.length) {
+        return null;
+      }
+      routeEdges.addFirst(edge);
+      current = edgeSources[edge];
+    }
+
+    List<Route.Step> result = new ArrayList<>(routeEdges.size());
+    int routeIndex = 0;
+    for (int edge : routeEdges) {
+      Point sourcePoint = points[edgeSources[edge]];
+      ModelEdge modelEdge = edges[edge];
+      result.add(new Route.Step(modelEdge.getModelPath(),
+                                sourcePoint,
+                                points[edgeTargets[edge]],
+                                Objects.equals(modelEdge.getModelPath().getSourcePoint(),
+                                               sourcePoint.getReference())
+                                ? Vehicle.Orientation.FORWARD
+                                : Vehicle.Orientation.BACKWARD,
+                                routeIndex));
+      routeIndex++;
+    }
+    return result;
+  }
+
+  @Override
+  public long getCosts(TCSObjectReference<Point> srcPointRef,
+                       TCSObjectReference<Point> destPointRef) {
+    requireNonNull(srcPointRef, "srcPointRef");
+    requireNonNull(destPointRef, "destPointRef");
+
+    if (Objects.equals(srcPointRef.getName(), destPointRef.getName())) {
+      return 0;
+    }
+
+    Integer srcIndex = indicesByName.get(srcPointRef.getName());
+    Integer destIndex = indicesByName.get(destPointRef.getName());
+    if (srcIndex == null || destIndex == null) {
+      return INFINITE_COSTS;
+    }
+    return costs(srcIndex, destIndex);
+  }
+
+  @Override
+  public long[][] getCostMatrix(List<Point> srcPoints, List<Point> destPoints) {
+    requireNonNull(srcPoints, "srcPoints");
+    requireNonNull(destPoints, "destPoints");
+
+    long[][] result = new long[srcPoints.size()][destPoints.size()];
+    for (int i = 0; i < srcPoints.size(); i++) {
+      for (int j = 0; j < destPoints.size(); j++) {
+        result[i][j] = getCosts(srcPoints.get(i).getReference(), destPoints.get(j).getReference());
+      }
+    }
+    return result;
+  }
+
+  private long costs(int srcIndex, int destIndex) {
+    return costs[srcIndex / rowsPerChunk].get(indexInChunk(srcIndex, destIndex));
+  }
+
+  private int predecessor(int srcIndex, int destIndex) {
+    return predecessors[srcIndex / rowsPerChunk].get(indexInChunk(srcIndex, destIndex));
+  }
+
+  private int indexInChunk(int srcIndex, int destIndex) {
+    return (srcIndex % rowsPerChunk) * points.length + destIndex;
+  }
+}
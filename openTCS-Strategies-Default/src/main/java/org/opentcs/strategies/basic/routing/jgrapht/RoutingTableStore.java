@@ -0,0 +1,680 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.jgrapht.WeightedGraph;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.jgrapht.graph.DirectedWeightedMultigraph;
+import org.opentcs.customizations.ApplicationHome;
+import org.opentcs.data.model.Point;
+import org.opentcs.strategies.basic.routing.PointRouter;
+import static org.opentcs.strategies.basic.routing.PointRouter.INFINITE_COSTS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists computed routing tables to files and maps them back into memory when a routing table
+ * for the same graph is requested again, e.g. after a restart of the kernel.
+ * <p>
+ * Routing table files are identified by a hash of the graph's vertices, edges and edge weights.
+ * As the edge weights are the result of the configured edge evaluators and the vehicle's routing
+ * group, a routing table is reused only if neither the plant model nor any of these have changed.
+ * Live congestion penalties are not part of persisted routing tables, as every change of them
+ * would result in a new file.
+ * </p>
+ * <p>
+ * Routing tables are computed row by row, with a single-source search for each point, and every
+ * row is written to the file as soon as it has been computed.
+ * Neither the complete matrices nor the routes between all pairs of points are ever kept on the
+ * heap.
+ * The matrices are mapped into memory in chunks of rows, so their size is not limited by the
+ * maximum size of a single mapped buffer.
+ * </p>
+ * <p>
+ * Only the configured number of most recently used routing table files is kept in the directory.
+ * Files that are currently mapped by a point router are never deleted.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class RoutingTableStore {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(RoutingTableStore.class);
+  /**
+   * Marks a file as a routing table file.
+   */
+  private static final int FILE_MAGIC = 0x6F54_5254;
+  /**
+   * The version of the file format.
+   * Must be incremented with every incompatible change to the file format.
+   */
+  private static final int FORMAT_VERSION = 1;
+  /**
+   * The maximum number of vertices for which routing tables are persisted, so that a single row of
+   * the costs matrix fits into a mapped buffer.
+   */
+  static final int MAX_VERTEX_COUNT = Integer.MAX_VALUE / Long.BYTES;
+  /**
+   * The default maximum size of a single mapped chunk of a matrix, in bytes.
+   */
+  private static final int DEFAULT_MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+  /**
+   * The prefix of routing table file names.
+   */
+  private static final String FILE_PREFIX = "routingtable-";
+  /**
+   * The suffix of routing table file names.
+   */
+  private static final String FILE_SUFFIX = ".bin";
+  /**
+   * The directory containing routing table files.
+   */
+  private final File directory;
+  /**
+   * This class's configuration.
+   */
+  private final ShortestPathConfiguration configuration;
+  /**
+   * The maximum size of a single mapped chunk of a matrix, in bytes.
+   */
+  private final int maxChunkSize;
+  /**
+   * The buffers mapped from routing table files, by file.
+   * A file is in use as long as any of its buffers has not been garbage collected, yet.
+   */
+  private final Map<File, List<WeakReference<MappedByteBuffer>>> mappedBuffers = new HashMap<>();
+  /**
+   * The number of routing tables computed by this instance.
+   */
+  private final AtomicInteger computedTableCount = new AtomicInteger();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param homeDirectory The application's home directory.
+   * @param configuration This class's configuration.
+   */
+  @Inject
+  public RoutingTableStore(@Nonnull @ApplicationHome File homeDirectory,
+                           @Nonnull ShortestPathConfiguration configuration) {
+    this(homeDirectory, configuration, DEFAULT_MAX_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param homeDirectory The application's home directory.
+   * @param configuration This class's configuration.
+   * @param maxChunkSize The maximum size of a single mapped chunk of a matrix, in bytes.
+   */
+  RoutingTableStore(@Nonnull File homeDirectory,
+                    @Nonnull ShortestPathConfiguration configuration,
+                    int maxChunkSize) {
+    requireNonNull(homeDirectory, "homeDirectory");
+    this.directory = new File(new File(homeDirectory, "data"), "routingtables");
+    this.configuration = requireNonNull(configuration, "configuration");
+    this.maxChunkSize = maxChunkSize;
+  }
+
+  /**
+   * Indicates whether routing tables are to be persisted.
+   *
+   * @return <code>true</code> if, and only if, routing tables are to be persisted.
+   */
+  public boolean isEnabled() {
+    return configuration.persistRoutingTables();
+  }
+
+  /**
+   * Returns a point router for the given graph.
+   * If a persisted routing table for the graph exists, it is mapped into memory and used.
+   * Otherwise, a routing table is computed and persisted.
+   * If the routing table cannot be persisted, a point router using the given algorithm directly is
+   * returned.
+   *
+   * @param graph The graph.
+   * @param points The points of the model.
+   * @param algorithmFactory Provides the algorithm for the point router returned if the routing
+   * table cannot be persisted.
+   * @return A point router for the given graph.
+   */
+  @Nonnull
+  public PointRouter getPointRouter(
+      @Nonnull WeightedGraph<String, ModelEdge> graph,
+      @Nonnull Collection<Point> points,
+      @Nonnull Function<WeightedGraph<String, ModelEdge>,
+                        ShortestPathAlgorithm<String, ModelEdge>> algorithmFactory) {
+    requireNonNull(graph, "graph");
+    requireNonNull(points, "points");
+    requireNonNull(algorithmFactory, "algorithmFactory");
+
+    if (graph.vertexSet().size() > MAX_VERTEX_COUNT) {
+      LOG.warn("Model too large for persistent routing tables ({} points, maximum is {}), "
+          + "computing routes without a routing table.",
+               graph.vertexSet().size(),
+               MAX_VERTEX_COUNT);
+      return createFallbackRouter(graph, points, algorithmFactory);
+    }
+
+    WeightedGraph<String, ModelEdge> staticGraph = withoutLiveWeights(graph);
+    List<String> vertices = new ArrayList<>(staticGraph.vertexSet());
+    vertices.sort(Comparator.naturalOrder());
+    List<ModelEdge> edges = new ArrayList<>(staticGraph.edgeSet());
+    edges.sort(Comparator.comparing((ModelEdge edge) -> edge.getModelPath().getName())
+        .thenComparing(ModelEdge::isTravellingReverse));
+    byte[] key = computeKey(staticGraph, vertices, edges);
+    File file = new File(directory, FILE_PREFIX + toHex(key) + FILE_SUFFIX);
+
+    if (file.isFile()) {
+      try {
+        Optional<PointRouter> router = mapRoutingTable(file, key, graph, vertices, edges, points);
+        if (router.isPresent()) {
+          LOG.debug("Using persisted routing table {}.", file);
+          markUsed(file);
+          return router.get();
+        }
+        LOG.warn("Routing table {} does not match the model, ignoring it.", file);
+      }
+      catch (IOException exc) {
+        LOG.warn("Could not read routing table {}, ignoring it.", file, exc);
+      }
+    }
+
+    try {
+      writeRoutingTable(file, key, staticGraph, vertices, edges);
+      Optional<PointRouter> mappedRouter
+          = mapRoutingTable(file, key, graph, vertices, edges, points);
+      evictRoutingTables(file);
+      if (mappedRouter.isPresent()) {
+        return mappedRouter.get();
+      }
+      LOG.warn("Could not map routing table {}, computing routes without a routing table.", file);
+    }
+    catch (IOException exc) {
+      LOG.warn("Could not persist routing table to {}, computing routes without a routing table.",
+               file,
+               exc);
+    }
+    return createFallbackRouter(graph, points, algorithmFactory);
+  }
+
+  /**
+   * Returns the number of routing tables computed by this instance, i.e. the number of requested
+   * routing tables that could not be reused.
+   *
+   * @return The number of routing tables computed by this instance.
+   */
+  int getComputedTableCount() {
+    return computedTableCount.get();
+  }
+
+  private PointRouter createFallbackRouter(
+      WeightedGraph<String, ModelEdge> graph,
+      Collection<Point> points,
+      Function<WeightedGraph<String, ModelEdge>,
+               ShortestPathAlgorithm<String, ModelEdge>> algorithmFactory) {
+    return new ShortestPathPointRouter(algorithmFactory.apply(graph),
+                                       points,
+                                       new ReachabilityIndex(graph));
+  }
+
+  /**
+   * Computes a routing table and writes it to the given file.
+   * The matrices are computed row by row, and each row is written to the file before the next one
+   * is computed.
+   *
+   * @param file The file.
+   * @param key The routing table's key.
+   * @param graph The graph to compute the routing table for.
+   * @param vertices The graph's vertices, in the order of the matrices' rows and columns.
+   * @param edges The graph's edges, in the order referenced by the predecessor matrix.
+   * @throws IOException If the file could not be written.
+   */
+  private void writeRoutingTable(File file,
+                                 byte[] key,
+                                 WeightedGraph<String, ModelEdge> graph,
+                                 List<String> vertices,
+                                 List<ModelEdge> edges)
+      throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create directory " + directory);
+    }
+
+    long timeStampBefore = System.currentTimeMillis();
+
+    RowSearch rowSearch = new RowSearch(graph, vertices, edges);
+    File tmpFile = File.createTempFile("routingtable", ".tmp", directory);
+    try {
+      try (FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.WRITE)) {
+        byte[] header = createHeader(key, vertices, edges);
+        ByteBuffer prefix = ByteBuffer.allocate(3 * Integer.BYTES + header.length);
+        prefix.putInt(FILE_MAGIC).putInt(FORMAT_VERSION).putInt(header.length).put(header);
+        prefix.flip();
+        writeFully(channel, prefix, 0);
+
+        int vertexCount = vertices.size();
+        long costsOffset = prefix.capacity();
+        long predecessorsOffset = costsOffset + (long) vertexCount * vertexCount * Long.BYTES;
+        ByteBuffer costsRow = ByteBuffer.allocate(vertexCount * Long.BYTES);
+        ByteBuffer predecessorsRow = ByteBuffer.allocate(vertexCount * Integer.BYTES);
+        for (int i = 0; i < vertexCount; i++) {
+          rowSearch.search(i);
+          costsRow.clear();
+          predecessorsRow.clear();
+          for (int j = 0; j < vertexCount; j++) {
+            costsRow.putLong(rowSearch.getCosts(j));
+            predecessorsRow.putInt(rowSearch.getPredecessorEdge(j));
+          }
+          costsRow.flip();
+          predecessorsRow.flip();
+          writeFully(channel, costsRow, costsOffset + (long) i * costsRow.capacity());
+          writeFully(channel,
+                     predecessorsRow,
+                     predecessorsOffset + (long) i * predecessorsRow.capacity());
+        }
+      }
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      computedTableCount.incrementAndGet();
+      LOG.debug("Computed and persisted routing table for {} points to {} in {} milliseconds.",
+                vertices.size(),
+                file,
+                System.currentTimeMillis() - timeStampBefore);
+    }
+    finally {
+      Files.deleteIfExists(tmpFile.toPath());
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    long currentPosition = position;
+    while (buffer.hasRemaining()) {
+      currentPosition += channel.write(buffer, currentPosition);
+    }
+  }
+
+  /**
+   * Marks the given routing table file as recently used.
+   *
+   * @param file The file.
+   */
+  private void markUsed(File file) {
+    if (!file.setLastModified(System.currentTimeMillis())) {
+      LOG.debug("Could not update modification time of {}.", file);
+    }
+  }
+
+  /**
+   * Deletes the least recently used routing table files, keeping the configured number of files
+   * including the given one.
+   * Files that are still mapped are not deleted; they are considered again with the next eviction.
+   *
+   * @param currentFile The routing table file currently in use, which is never deleted.
+   */
+  private void evictRoutingTables(File currentFile) {
+    File[] files = directory.listFiles(
+        (dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+    if (files == null) {
+      return;
+    }
+    List<File> otherFiles = new ArrayList<>();
+    for (File file : files) {
+      if (!file.equals(currentFile)) {
+        otherFiles.add(file);
+      }
+    }
+    otherFiles.sort(Comparator.comparingLong(File::lastModified).reversed());
+    int keptCount = Math.max(1, configuration.maxPersistedRoutingTables()) - 1;
+    for (File file : otherFiles.subList(Math.min(keptCount, otherFiles.size()),
+                                        otherFiles.size())) {
+      if (isMapped(file)) {
+        LOG.debug("Not deleting routing table {}, which is still in use.", file);
+        continue;
+      }
+      try {
+        Files.deleteIfExists(file.toPath());
+        LOG.debug("Deleted least recently used routing table {}.", file);
+      }
+      catch (IOException exc) {
+        LOG.warn("Could not delete routing table {}.", file, exc);
+      }
+    }
+  }
+
+  /**
+   * Checks whether any buffers mapped from the given file are still in use.
+   * Buffers are unmapped only when they are garbage collected, and some platforms do not allow
+   * deleting files that are still mapped.
+   *
+   * @param file The file.
+   * @return <code>true</code> if, and only if, buffers mapped from the file are still in use.
+   */
+  private boolean isMapped(File file) {
+    synchronized (mappedBuffers) {
+      List<WeakReference<MappedByteBuffer>> buffers = mappedBuffers.get(file.getAbsoluteFile());
+      if (buffers == null) {
+        return false;
+      }
+      buffers.removeIf(buffer -> buffer.get() == null);
+      if (buffers.isEmpty()) {
+        mappedBuffers.remove(file.getAbsoluteFile());
+        return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Registers the given buffers as mapped from the given file.
+   *
+   * @param file The file.
+   * @param buffers The buffers.
+   */
+  private void registerMapped(File file, Collection<MappedByteBuffer> buffers) {
+    synchronized (mappedBuffers) {
+      List<WeakReference<MappedByteBuffer>> references
+          = mappedBuffers.computeIfAbsent(file.getAbsoluteFile(), f -> new ArrayList<>());
+      for (MappedByteBuffer buffer : buffers) {
+        references.add(new WeakReference<>(buffer));
+      }
+    }
+  }
+
+  /**
+   * Returns a graph with the given one's static edge weights, i.e. without live congestion
+   * penalties.
+   *
+   * @param graph The graph.
+   * @return The given graph, if its edge weights are static, or a copy with its static weights.
+   */
+  private static WeightedGraph<String, ModelEdge> withoutLiveWeights(
+      WeightedGraph<String, ModelEdge> graph) {
+    if (!(graph instanceof CongestionAwareGraph)) {
+      return graph;
+    }
+    CongestionAwareGraph congestionAwareGraph = (CongestionAwareGraph) graph;
+    WeightedGraph<String, ModelEdge> result = new DirectedWeightedMultigraph<>(ModelEdge.class);
+    for (String vertex : graph.vertexSet()) {
+      result.addVertex(vertex);
+    }
+    for (ModelEdge edge : graph.edgeSet()) {
+      result.addEdge(graph.getEdgeSource(edge), graph.getEdgeTarget(edge), edge);
+      result.setEdgeWeight(edge, congestionAwareGraph.getStaticEdgeWeight(edge));
+    }
+    return result;
+  }
+
+  private byte[] createHeader(byte[] key, List<String> vertices, List<ModelEdge> edges)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.write(key);
+      out.writeInt(vertices.size());
+      for (String vertex : vertices) {
+        out.writeUTF(vertex);
+      }
+      out.writeInt(edges.size());
+      for (ModelEdge edge : edges) {
+        out.writeUTF(edge.getModelPath().getName());
+        out.writeBoolean(edge.isTravellingReverse());
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private Optional<PointRouter> mapRoutingTable(File file,
+                                                byte[] key,
+                                                WeightedGraph<String, ModelEdge> graph,
+                                                List<String> vertices,
+                                                List<ModelEdge> edges,
+                                                Collection<Point> points)
+      throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+         FileChannel channel = raf.getChannel()) {
+      if (raf.readInt() != FILE_MAGIC || raf.readInt() != FORMAT_VERSION) {
+        return Optional.empty();
+      }
+      byte[] header = new byte[raf.readInt()];
+      raf.readFully(header);
+      if (!Arrays.equals(header, createHeader(key, vertices, edges))) {
+        return Optional.empty();
+      }
+
+      int vertexCount = vertices.size();
+      long matrixSize = (long) vertexCount * vertexCount;
+      long costsOffset = 3 * Integer.BYTES + header.length;
+      long predecessorsOffset = costsOffset + matrixSize * Long.BYTES;
+      if (channel.size() != predecessorsOffset + matrixSize * Integer.BYTES) {
+        return Optional.empty();
+      }
+
+      // Map the matrices in chunks of whole rows, each fitting into a single buffer.
+      int rowsPerChunk = Math.max(1, maxChunkSize / Math.max(1, vertexCount * Long.BYTES));
+      int chunkCount = Math.max(1, (vertexCount + rowsPerChunk - 1) / rowsPerChunk);
+      LongBuffer[] costs = new LongBuffer[chunkCount];
+      IntBuffer[] predecessors = new IntBuffer[chunkCount];
+      List<MappedByteBuffer> buffers = new ArrayList<>(2 * chunkCount);
+      for (int chunk = 0; chunk < chunkCount; chunk++) {
+        long firstRow = (long) chunk * rowsPerChunk;
+        long rowCount = Math.min(rowsPerChunk, vertexCount - firstRow);
+        // The mappings remain valid after the channel has been closed.
+        MappedByteBuffer costsChunk
+            = channel.map(FileChannel.MapMode.READ_ONLY,
+                          costsOffset + firstRow * vertexCount * Long.BYTES,
+                          rowCount * vertexCount * Long.BYTES);
+        MappedByteBuffer predecessorsChunk
+            = channel.map(FileChannel.MapMode.READ_ONLY,
+                          predecessorsOffset + firstRow * vertexCount * Integer.BYTES,
+                          rowCount * vertexCount * Integer.BYTES);
+        costs[chunk] = costsChunk.asLongBuffer();
+        predecessors[chunk] = predecessorsChunk.asIntBuffer();
+        buffers.add(costsChunk);
+        buffers.add(predecessorsChunk);
+      }
+      registerMapped(file, buffers);
+      return Optional.of(new RoutingTablePointRouter(graph,
+                                                     vertices,
+                                                     edges,
+                                                     points,
+                                                     costs,
+                                                     predecessors,
+                                                     rowsPerChunk));
+    }
+  }
+
+  private byte[] computeKey(WeightedGraph<String, ModelEdge> graph,
+                            List<String> vertices,
+                            List<ModelEdge> edges) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException exc) {
+      throw new IllegalStateException("SHA-256 not supported", exc);
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+    buffer.putInt(0, FORMAT_VERSION);
+    digest.update(buffer.array(), 0, Integer.BYTES);
+    digest.update(configuration.edgeEvaluators().toString().getBytes(StandardCharsets.UTF_8));
+    for (String vertex : vertices) {
+      digest.update(vertex.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+    for (ModelEdge edge : edges) {
+      digest.update(edge.getModelPath().getName().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(graph.getEdgeSource(edge).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(graph.getEdgeTarget(edge).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      buffer.putLong(0, Double.doubleToLongBits(graph.getEdgeWeight(edge)));
+      digest.update(buffer.array());
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Computes single rows of a routing table, i.e. the costs of the shortest routes from one vertex
+   * to all others along with the last edge of each route, using Dijkstra's algorithm.
+   */
+  private static class RowSearch {
+
+    /**
+     * The first index in the arc arrays of each vertex's outgoing arcs.
+     */
+    private final int[] firstArcs;
+    /**
+     * The target vertex of each arc.
+     */
+    private final int[] arcTargets;
+    /**
+     * The weight of each arc.
+     */
+    private final double[] arcWeights;
+    /**
+     * The index of each arc's edge in the list of edges.
+     */
+    private final int[] arcEdges;
+    /**
+     * The distances from the current source vertex.
+     */
+    private final double[] distances;
+    /**
+     * The last edge on the shortest route from the current source vertex.
+     */
+    private final int[] predecessorEdges;
+    /**
+     * Whether the distance of a vertex is final.
+     */
+    private final boolean[] settled;
+    /**
+     * The vertices to be processed.
+     */
+    private final MinHeap heap = new MinHeap();
+    /**
+     * The current source vertex.
+     */
+    private int source;
+
+    RowSearch(WeightedGraph<String, ModelEdge> graph,
+              List<String> vertices,
+              List<ModelEdge> edges) {
+      int vertexCount = vertices.size();
+      Map<String, Integer> vertexIndices = new HashMap<>();
+      for (int i = 0; i < vertexCount; i++) {
+        vertexIndices.put(vertices.get(i), i);
+      }
+
+      firstArcs = new int[vertexCount + 1];
+      for (ModelEdge edge : edges) {
+        firstArcs[vertexIndices.get(graph.getEdgeSource(edge)) + 1]++;
+      }
+      for (int i = 0; i < vertexCount; i++) {
+        firstArcs[i + 1] += firstArcs[i];
+      }
+      arcTargets = new int[edges.size()];
+      arcWeights = new double[edges.size()];
+      arcEdges = new int[edges.size()];
+      int[] nextArcs = Arrays.copyOf(firstArcs, vertexCount);
+      for (int i = 0; i < edges.size(); i++) {
+        ModelEdge edge = edges.get(i);
+        int arc = nextArcs[vertexIndices.get(graph.getEdgeSource(edge))]++;
+        arcTargets[arc] = vertexIndices.get(graph.getEdgeTarget(edge));
+        arcWeights[arc] = graph.getEdgeWeight(edge);
+        arcEdges[arc] = i;
+      }
+
+      distances = new double[vertexCount];
+      predecessorEdges = new int[vertexCount];
+      settled = new boolean[vertexCount];
+    }
+
+    void search(int sourceVertex) {
+      source = sourceVertex;
+      Arrays.fill(distances, Double.POSITIVE_INFINITY);
+      Arrays.fill(predecessorEdges, RoutingTablePointRouter.NO_EDGE);
+      Arrays.fill(settled, false);
+      heap.clear();
+
+      distances[sourceVertex] = 0;
+      heap.push(sourceVertex, 0);
+      while (!heap.isEmpty()) {
+        int vertex = heap.pop();
+        if (settled[vertex]) {
+          continue;
+        }
+        settled[vertex] = true;
+        for (int arc = firstArcs[vertex]; arc < firstArcs[vertex + 1]; arc++) {
+          int target = arcTargets[arc];
+          double distance = distances[vertex] + arcWeights[arc];
+          if (!settled[target] && distance < distances[target]) {
+            distances[target] = distance;
+            predecessorEdges[target] = arcEdges[arc];
+            heap.push(target, distance);
+          }
+        }
+      }
+    }
+
+    long getCosts(int target) {
+      if (target == source) {
+        return 0;
+      }
+      return predecessorEdges[target] == RoutingTablePointRouter.NO_EDGE
+          ? INFINITE_COSTS
+          : (long) distances[target];
+    }
+
+    int getPredecessorEdge(int target) {
+      return target == source ? RoutingTablePointRouter.NO_EDGE : predecessorEdges[target];
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder result = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      result.append(Character.forDigit((b >> 4) & 0xF, 16))
+          .append(Character.forDigit(b & 0xF, 16));
+    }
+    return result.toString();
+  }
+}
@@ -0,0 +1,450 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.PriorityQueue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.jgrapht.Graph;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.ReservationTable;
+import org.opentcs.strategies.basic.routing.TravelTimes;
+
+/**
+ * Plans routes around the reservations of other vehicles using safe interval path planning
+ * (SIPP).
+ * <p>
+ * For every point, the time after the departure is divided into safe intervals, in which the point
+ * is not reserved by any other vehicle.
+ * The search's states are pairs of points and safe intervals, and it finds the earliest arrival at
+ * the destination point.
+ * Routes cannot express waiting times, so the search does not plan any: Every point is left as
+ * soon as it is reached, and a path may only be entered if it is not reserved by any other vehicle
+ * while it is travelled and the vehicle reaches its target point within a safe interval.
+ * As only the earliest arrival within every safe interval is kept, a route that needs to arrive at
+ * a point later to pass a reservation further on may be missed.
+ * The estimated travel times from every point to the destination point, ignoring reservations,
+ * serve as the search's heuristic.
+ * </p>
+ * <p>
+ * The graph is copied into primitive arrays when an instance is created, so later changes to the
+ * graph are not taken into account.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class SafeIntervalPathPlanner {
+
+  /**
+   * The graph's vertices' indices, by name.
+   */
+  private final Map<String, Integer> indicesByVertex = new HashMap<>();
+  /**
+   * The points, by vertex index.
+   */
+  private final Point[] points;
+  /**
+   * For each vertex, the start of its outgoing arcs in the arc arrays.
+   */
+  private final int[] arcStarts;
+  /**
+   * The source vertex of each arc.
+   */
+  private final int[] arcSources;
+  /**
+   * The target vertex of each arc.
+   */
+  private final int[] arcTargets;
+  /**
+   * The weight of each arc.
+   */
+  private final double[] arcWeights;
+  /**
+   * The model edge of each arc.
+   */
+  private final ModelEdge[] arcEdges;
+  /**
+   * For each vertex, the start of its incoming arcs in the reverse arcs array.
+   */
+  private final int[] reverseArcStarts;
+  /**
+   * The arcs, ordered by their target vertices.
+   */
+  private final int[] reverseArcs;
+  /**
+   * Computes the vehicles' travel times for the arcs.
+   */
+  private final EdgeEvaluatorTravelTime edgeEvaluator = new EdgeEvaluatorTravelTime();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param graph The graph.
+   * @param points The points of the model.
+   */
+  public SafeIntervalPathPlanner(@Nonnull Graph<String, ModelEdge> graph,
+                                 @Nonnull Collection<Point> points) {
+    requireNonNull(graph, "graph");
+    requireNonNull(points, "points");
+
+    Map<String, Point> pointsByName = new HashMap<>();
+    for (Point point : points) {
+      pointsByName.put(point.getName(), point);
+    }
+    int vertexCount = graph.vertexSet().size();
+    this.points = new Point[vertexCount];
+    for (String vertex : graph.vertexSet()) {
+      int index = indicesByVertex.size();
+      indicesByVertex.put(vertex, index);
+      this.points[index] = pointsByName.get(vertex);
+    }
+
+    int arcCount = graph.edgeSet().size();
+    arcStarts = new int[vertexCount + 1];
+    reverseArcStarts = new int[vertexCount + 1];
+    for (ModelEdge edge : graph.edgeSet()) {
+      arcStarts[indicesByVertex.get(graph.getEdgeSource(edge)) + 1]++;
+      reverseArcStarts[indicesByVertex.get(graph.getEdgeTarget(edge)) + 1]++;
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      arcStarts[i + 1] += arcStarts[i];
+      reverseArcStarts[i + 1] += reverseArcStarts[i];
+    }
+    arcSources = new int[arcCount];
+    arcTargets = new int[arcCount];
+    arcWeights = new double[arcCount];
+    arcEdges = new ModelEdge[arcCount];
+    reverseArcs = new int[arcCount];
+    int[] fill = Arrays.copyOf(arcStarts, vertexCount);
+    int[] reverseFill = Arrays.copyOf(reverseArcStarts, vertexCount);
+    for (ModelEdge edge : graph.edgeSet()) {
+      int source = indicesByVertex.get(graph.getEdgeSource(edge));
+      int target = indicesByVertex.get(graph.getEdgeTarget(edge));
+      int arc = fill[source]++;
+      arcSources[arc] = source;
+      arcTargets[arc] = target;
+      arcWeights[arc] = graph.getEdgeWeight(edge);
+      arcEdges[arc] = edge;
+      reverseArcs[reverseFill[target]++] = arc;
+    }
+  }
+
+  /**
+   * Finds the route from one point to another on which the given vehicle arrives at the
+   * destination point the earliest, without waiting anywhere on the way and without passing any
+   * points or paths at times at which they are reserved by other vehicles.
+   *
+   * @param srcPoint The source point.
+   * @param destPoint The destination point.
+   * @param vehicle The vehicle.
+   * @param departureTime The time at which the vehicle departs from the source point.
+   * @param reservationTable The current reservations.
+   * @return The route, or <code>null</code>, if no such route exists. The route's costs are the sum
+   * of the weights of the graph's edges along it.
+   */
+  @Nullable
+  public synchronized Route findRoute(@Nonnull Point srcPoint,
+                                      @Nonnull Point destPoint,
+                                      @Nonnull Vehicle vehicle,
+                                      long departureTime,
+                                      @Nonnull ReservationTable reservationTable) {
+    requireNonNull(srcPoint, "srcPoint");
+    requireNonNull(destPoint, "destPoint");
+    requireNonNull(vehicle, "vehicle");
+    requireNonNull(reservationTable, "reservationTable");
+
+    Integer srcIndex = indicesByVertex.get(srcPoint.getName());
+    Integer destIndex = indicesByVertex.get(destPoint.getName());
+    if (srcIndex == null || destIndex == null) {
+      return null;
+    }
+
+    return new Search(vehicle, departureTime, reservationTable).run(srcIndex, destIndex);
+  }
+
+  private Route toRoute(List<Integer> arcs) {
+    List<Route.Step> steps = new ArrayList<>(arcs.size());
+    double costs = 0.0;
+    for (int i = 0; i < arcs.size(); i++) {
+      int arc = arcs.get(i);
+      Point sourcePoint = points[arcSources[arc]];
+      ModelEdge edge = arcEdges[arc];
+      steps.add(new Route.Step(edge.getModelPath(),
+                               sourcePoint,
+                               points[arcTargets[arc]],
+                               Objects.equals(edge.getModelPath().getSourcePoint(),
+                                              sourcePoint.getReference())
+                               ? Vehicle.Orientation.FORWARD
+                               : Vehicle.Orientation.BACKWARD,
+                               i));
+      costs += arcWeights[arc];
+    }
+    return new Route(steps, (long) costs);
+  }
+
+  /**
+   * A single search for a route.
+   */
+  private class Search {
+
+    /**
+     * The vehicle.
+     */
+    private final Vehicle vehicle;
+    /**
+     * The time at which the vehicle departs.
+     */
+    private final long departureTime;
+    /**
+     * The current reservations.
+     */
+    private final ReservationTable reservationTable;
+    /**
+     * The vehicle's travel time for each arc.
+     */
+    private final long[] durations = new long[arcTargets.length];
+    /**
+     * The estimated travel time from each vertex to the destination.
+     */
+    private final long[] heuristics = new long[points.length];
+    /**
+     * The occupied windows of resources already looked up, by resource name.
+     */
+    private final Map<String, long[]> windowsByResource = new HashMap<>();
+    /**
+     * The safe intervals of vertices already looked up.
+     */
+    private final long[][] safeIntervals = new long[points.length][];
+    /**
+     * The states reached so far, by vertex and safe interval.
+     */
+    private final Map<Long, State> states = new HashMap<>();
+
+    Search(Vehicle vehicle, long departureTime, ReservationTable reservationTable) {
+      this.vehicle = vehicle;
+      this.departureTime = departureTime;
+      this.reservationTable = reservationTable;
+    }
+
+    Route run(int srcVertex, int destVertex) {
+      for (int arc = 0; arc < durations.length; arc++) {
+        durations[arc] = edgeEvaluator.computeTravelTimeMillis(arcEdges[arc], vehicle);
+      }
+      computeHeuristics(destVertex);
+      if (heuristics[srcVertex] == TravelTimes.INFINITE_TRAVEL_TIME) {
+        return null;
+      }
+
+      // The vehicle is already at the source point, so ignore reservations of it at that time.
+      safeIntervals[srcVertex] = computeSafeIntervals(points[srcVertex].getName(), departureTime);
+      PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+      State start = new State(srcVertex, departureTime, null, -1);
+      Long startKey = key(srcVertex, 0);
+      states.put(startKey, start);
+      queue.add(new QueueEntry(startKey, start, departureTime + heuristics[srcVertex]));
+
+      while (!queue.isEmpty()) {
+        QueueEntry entry = queue.poll();
+        State state = entry.state;
+        if (states.get(entry.key) != state) {
+          // A better way to reach the state has been found in the meantime.
+          continue;
+        }
+        if (state.vertex == destVertex) {
+          return toRoute(trace(state));
+        }
+        expand(state, queue);
+      }
+      return null;
+    }
+
+    private void expand(State state, PriorityQueue<QueueEntry> queue) {
+      for (int arc = arcStarts[state.vertex]; arc < arcStarts[state.vertex + 1]; arc++) {
+        long duration = durations[arc];
+        int target = arcTargets[arc];
+        if (duration == TravelTimes.INFINITE_TRAVEL_TIME
+            || heuristics[target] == TravelTimes.INFINITE_TRAVEL_TIME) {
+          continue;
+        }
+        long[] pathWindows = getWindows(arcEdges[arc].getModelPath().getName());
+        if (ReservationTable.earliestFreeTime(pathWindows, state.arrival, duration)
+            != state.arrival) {
+          continue;
+        }
+        // Without waiting, the target is reached at a fixed time, within at most one safe interval.
+        long arrival = state.arrival + duration;
+        long[] targetIntervals = getSafeIntervals(target);
+        for (int interval = 0; interval < targetIntervals.length / 2; interval++) {
+          if (arrival < targetIntervals[2 * interval]) {
+            break;
+          }
+          if (arrival >= targetIntervals[2 * interval + 1]) {
+            continue;
+          }
+          Long key = key(target, interval);
+          State previous = states.get(key);
+          if (previous == null || arrival < previous.arrival) {
+            State next = new State(target, arrival, state, arc);
+            states.put(key, next);
+            queue.add(new QueueEntry(key, next, arrival + heuristics[target]));
+          }
+          break;
+        }
+      }
+    }
+
+    /**
+     * Computes the estimated travel times from every vertex to the destination, ignoring
+     * reservations.
+     *
+     * @param destVertex The destination vertex.
+     */
+    private void computeHeuristics(int destVertex) {
+      Arrays.fill(heuristics, TravelTimes.INFINITE_TRAVEL_TIME);
+      heuristics[destVertex] = 0;
+      PriorityQueue<long[]> queue = new PriorityQueue<>((e1, e2) -> Long.compare(e1[1], e2[1]));
+      queue.add(new long[]{destVertex, 0});
+      while (!queue.isEmpty()) {
+        long[] entry = queue.poll();
+        int vertex = (int) entry[0];
+        if (entry[1] > heuristics[vertex]) {
+          continue;
+        }
+        for (int i = reverseArcStarts[vertex]; i < reverseArcStarts[vertex + 1]; i++) {
+          int arc = reverseArcs[i];
+          if (durations[arc] == TravelTimes.INFINITE_TRAVEL_TIME) {
+            continue;
+          }
+          long distance = entry[1] + durations[arc];
+          if (distance < heuristics[arcSources[arc]]) {
+            heuristics[arcSources[arc]] = distance;
+            queue.add(new long[]{arcSources[arc], distance});
+          }
+        }
+      }
+    }
+
+    private long[] getWindows(String resourceName) {
+      return windowsByResource.computeIfAbsent(
+          resourceName,
+          name -> reservationTable.getOccupiedWindows(name, departureTime, vehicle.getName()));
+    }
+
+    private long[] getSafeIntervals(int vertex) {
+      if (safeIntervals[vertex] == null) {
+        safeIntervals[vertex] = computeSafeIntervals(points[vertex].getName(), Long.MIN_VALUE);
+      }
+      return safeIntervals[vertex];
+    }
+
+    /**
+     * Computes the safe intervals of a point after the departure time.
+     *
+     * @param pointName The point's name.
+     * @param ignoredTime Reservations containing this time are ignored.
+     * @return The safe intervals' start and (exclusive) end times, in ascending order.
+     */
+    private long[] computeSafeIntervals(String pointName, long ignoredTime) {
+      long[] windows = getWindows(pointName);
+      long[] result = new long[windows.length + 2];
+      int count = 0;
+      long time = departureTime;
+      for (int i = 0; i < windows.length; i += 2) {
+        if (windows[i] <= ignoredTime && ignoredTime < windows[i + 1]) {
+          continue;
+        }
+        if (windows[i] > time) {
+          result[count++] = time;
+          result[count++] = windows[i];
+        }
+        time = Math.max(time, windows[i + 1]);
+      }
+      if (time < Long.MAX_VALUE) {
+        result[count++] = time;
+        result[count++] = Long.MAX_VALUE;
+      }
+      return Arrays.copyOf(result, count);
+    }
+
+    private List<Integer> trace(State state) {
+      List<Integer> result = new ArrayList<>();
+      for (State current = state; current.predecessor != null; current = current.predecessor) {
+        result.add(0, current.arc);
+      }
+      return result;
+    }
+
+    private Long key(int vertex, int interval) {
+      return ((long) vertex << 32) | interval;
+    }
+  }
+
+  /**
+   * A vertex reached within one of its safe intervals.
+   */
+  private static class State {
+
+    /**
+     * The vertex.
+     */
+    private final int vertex;
+    /**
+     * The earliest known arrival time, which is also the time the vertex is left.
+     */
+    private final long arrival;
+    /**
+     * The state from which this one was reached.
+     */
+    private final State predecessor;
+    /**
+     * The arc via which this state was reached.
+     */
+    private final int arc;
+
+    State(int vertex, long arrival, State predecessor, int arc) {
+      this.vertex = vertex;
+      this.arrival = arrival;
+      this.predecessor = predecessor;
+      this.arc = arc;
+    }
+  }
+
+  /**
+   * An entry in the search's priority queue.
+   */
+  private static class QueueEntry
+      implements Comparable<QueueEntry> {
+
+    private final Long key;
+
+    private final State state;
+
+    private final long estimate;
+
+    QueueEntry(Long key, State state, long estimate) {
+      this.key = key;
+      this.state = state;
+      this.estimate = estimate;
+    }
+
+    @Override
+    public int compareTo(QueueEntry other) {
+      return Long.compare(estimate, other.estimate);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import org.jgrapht.Graph;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.PointRouter;
+import org.opentcs.strategies.basic.routing.ReservationTable;
+
+/**
+ * A point router that delegates to another one and plans routes around reservations of other
+ * vehicles using {@link SafeIntervalPathPlanner}.
+ * The arrays required for planning are created when they are first needed.
+ * If no route avoiding all reservations exists, the delegate's route is used.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class SafeIntervalPointRouter
+    implements PointRouter {
+
+  /**
+   * The point router to delegate to.
+   */
+  private final PointRouter delegate;
+  /**
+   * The graph to plan routes in.
+   */
+  private final Graph<String, ModelEdge> graph;
+  /**
+   * The points of the model.
+   */
+  private final Collection<Point> points;
+  /**
+   * Plans routes around reservations, created lazily.
+   */
+  private volatile SafeIntervalPathPlanner planner;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param delegate The point router to delegate to.
+   * @param graph The graph to plan routes in.
+   * @param points The points of the model.
+   */
+  public SafeIntervalPointRouter(@Nonnull PointRouter delegate,
+                                 @Nonnull Graph<String, ModelEdge> graph,
+                                 @Nonnull Collection<Point> points) {
+    this.delegate = requireNonNull(delegate, "delegate");
+    this.graph = requireNonNull(graph, "graph");
+    this.points = requireNonNull(points, "points");
+  }
+
+  @Override
+  public List<Route.Step> getRouteSteps(Point srcPoint, Point destPoint) {
+    return delegate.getRouteSteps(srcPoint, destPoint);
+  }
+
+  @Override
+  public long getCosts(TCSObjectReference<Point> srcPointRef,
+                       TCSObjectReference<Point> destPointRef) {
+    return delegate.getCosts(srcPointRef, destPointRef);
+  }
+
+  @Override
+  public long getCosts(Point srcPoint, Point destPoint) {
+    return delegate.getCosts(srcPoint, destPoint);
+  }
+
+  @Override
+  public boolean isReachable(Point srcPoint, Point destPoint) {
+    return delegate.isReachable(srcPoint, destPoint);
+  }
+
+  @Override
+  public long[][] getCostMatrix(List<Point> srcPoints, List<Point> destPoints) {
+    return delegate.getCostMatrix(srcPoints, destPoints);
+  }
+
+  @Override
+  public List<Route> getRoutes(Point srcPoint, Point destPoint, int maxRouteCount) {
+    return delegate.getRoutes(srcPoint, destPoint, maxRouteCount);
+  }
+
+  @Override
+  public Route getRoute(Point srcPoint,
+                        Point destPoint,
+                        Vehicle vehicle,
+                        long departureTime,
+                        ReservationTable reservationTable) {
+    if (!Objects.equals(srcPoint.getName(), destPoint.getName())) {
+      Route route = getPlanner().findRoute(srcPoint,
+                                           destPoint,
+                                           vehicle,
+                                           departureTime,
+                                           reservationTable);
+      if (route != null) {
+        return route;
+      }
+    }
+    return delegate.getRoute(srcPoint, destPoint, vehicle, departureTime, reservationTable);
+  }
+
+  private SafeIntervalPathPlanner getPlanner() {
+    SafeIntervalPathPlanner result = planner;
+    if (result == null) {
+      synchronized (this) {
+        result = planner;
+        if (result == null) {
+          result = new SafeIntervalPathPlanner(graph, points);
+          planner = result;
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -29,7 +29,9 @@ public interface ShortestPathConfiguration {
       description = {
         "The routing algorithm to be used. Valid values:",
         "'DIJKSTRA': Routes are computed using Dijkstra's algorithm.",
-        "'FLOYD_WARSHALL': Routes are computed using Floyd-Warshall algorithm."})
+        "'FLOYD_WARSHALL': Routes are computed using Floyd-Warshall algorithm.",
+        "'CONTRACTION_HIERARCHIES': Routes are computed using contraction hierarchies (recommended "
+        + "for very large plant models)."})
   Algorithm algorithm();
 
   @ConfigurationEntry(
@@ -40,18 +42,54 @@ public interface ShortestPathConfiguration {
         "'DISTANCE': A route's cost is the sum of the lengths of its paths.",
         "'TRAVELTIME': A route's cost is the vehicle's expected driving time to the destination.",
         "'TURNS': A route's cost is the number of turns/direction changes on it.",
-        "'EXPLICIT': A route's cost is the sum of the explicitly given costs of its paths."})
+        "'EXPLICIT': A route's cost is the sum of the explicitly given costs of its paths.",
+        "'CONGESTION': Adds penalties for points currently allocated or claimed by vehicles, "
+        + "which are read live with every route computation. Requires 'DIJKSTRA' without "
+        + "persisted routing tables."})
   List<EvaluatorType> edgeEvaluators();
 
+  @ConfigurationEntry(
+      type = "Double",
+      description = {
+        "The penalty added by 'CONGESTION' for every vehicle that has allocated a point, e.g. "
+        + "because it is currently occupying it."})
+  double congestionOccupiedPenalty();
+
+  @ConfigurationEntry(
+      type = "Double",
+      description = {
+        "The penalty added by 'CONGESTION' for every vehicle that has claimed a point, i.e. that "
+        + "intends to travel to it."})
+  double congestionClaimedPenalty();
+
+  @ConfigurationEntry(
+      type = "Boolean",
+      description = {
+        "Whether to persist computed routing tables in the kernel's data directory and reuse them "
+        + "after a restart, as long as the plant model and route evaluation have not changed.",
+        "Routing tables contain the costs and routes between all pairs of points, so this is "
+        + "mostly useful with 'FLOYD_WARSHALL' and plant models with up to a few thousand points."})
+  boolean persistRoutingTables();
+
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "The maximum number of persisted routing tables to keep in the kernel's data directory.",
+        "When a new routing table is persisted, the least recently used ones exceeding this number "
+        + "are deleted."})
+  int maxPersistedRoutingTables();
+
   enum Algorithm {
     DIJKSTRA,
-    FLOYD_WARSHALL
+    FLOYD_WARSHALL,
+    CONTRACTION_HIERARCHIES
   }
   
   enum EvaluatorType {
     DISTANCE,
     TRAVELTIME,
     HOPS,
-    EXPLICIT
+    EXPLICIT,
+    CONGESTION
   }
 }
@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import static java.util.Objects.requireNonNull;
+import javax.annotation.Nullable;
 import org.jgrapht.GraphPath;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
 import org.opentcs.data.TCSObjectReference;
@@ -43,11 +44,31 @@ public class ShortestPathPointRouter
   private final ShortestPathAlgorithm<String, ModelEdge> algo;
 
   private final Map<String, Point> points = new HashMap<>();
+  /**
+   * Answers reachability checks without computing routes, if available.
+   */
+  @Nullable
+  private final ReachabilityIndex reachabilityIndex;
 
   public ShortestPathPointRouter(ShortestPathAlgorithm<String, ModelEdge> algo,
                                  Collection<Point> points) {
+    this(algo, points, null);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param algo The shortest path algorithm to use.
+   * @param points The points of the model.
+   * @param reachabilityIndex The reachability index for the algorithm's graph, or
+   * <code>null</code>, if reachability is to be checked by computing routes.
+   */
+  public ShortestPathPointRouter(ShortestPathAlgorithm<String, ModelEdge> algo,
+                                 Collection<Point> points,
+                                 @Nullable ReachabilityIndex reachabilityIndex) {
     this.algo = requireNonNull(algo, "algo");
     requireNonNull(points, "points");
+    this.reachabilityIndex = reachabilityIndex;
 
     for (Point point : points) {
       this.points.put(point.getName(), point);
@@ -99,6 +120,51 @@ public class ShortestPathPointRouter
     return (long) graphPath.getWeight();
   }
 
+  @Override
+  public boolean isReachable(Point srcPoint, Point destPoint) {
+    requireNonNull(srcPoint, "srcPoint");
+    requireNonNull(destPoint, "destPoint");
+
+    if (reachabilityIndex == null) {
+      return PointRouter.super.isReachable(srcPoint, destPoint);
+    }
+    return Objects.equals(srcPoint.getName(), destPoint.getName())
+        || reachabilityIndex.isReachable(srcPoint.getName(), destPoint.getName());
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Computes all paths from a source point in one go, which the shortest path algorithm may do
+   * more efficiently than computing each path separately.
+   * </p>
+   */
+  @Override
+  public long[][] getCostMatrix(List<Point> srcPoints, List<Point> destPoints) {
+    requireNonNull(srcPoints, "srcPoints");
+    requireNonNull(destPoints, "destPoints");
+
+    long[][] result = new long[srcPoints.size()][destPoints.size()];
+    if (destPoints.isEmpty()) {
+      return result;
+    }
+    for (int i = 0; i < srcPoints.size(); i++) {
+      String srcName = srcPoints.get(i).getName();
+      ShortestPathAlgorithm.SingleSourcePaths<String, ModelEdge> paths = algo.getPaths(srcName);
+      for (int j = 0; j < destPoints.size(); j++) {
+        String destName = destPoints.get(j).getName();
+        if (Objects.equals(srcName, destName)) {
+          result[i][j] = 0;
+        }
+        else {
+          double weight = paths.getWeight(destName);
+          result[i][j] = Double.isInfinite(weight) ? INFINITE_COSTS : (long) weight;
+        }
+      }
+    }
+    return result;
+  }
+
   private List<Route.Step> translateToSteps(GraphPath<String, ModelEdge> graphPath) {
     List<ModelEdge> edges = graphPath.getEdgeList();
     List<Route.Step> result = new ArrayList<>(edges.size());
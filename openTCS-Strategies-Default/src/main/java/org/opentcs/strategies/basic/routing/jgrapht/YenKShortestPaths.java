@@ -0,0 +1,399 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.jgrapht.Graph;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.PointRouter;
+import static org.opentcs.strategies.basic.routing.PointRouter.INFINITE_COSTS;
+import static org.opentcs.util.Assertions.checkArgument;
+
+/**
+ * Computes the k shortest loopless routes between two points using Yen's algorithm.
+ * <p>
+ * The graph is copied into primitive arrays when an instance is created, so later changes to the
+ * graph or its edge weights are not taken into account.
+ * For a {@link CongestionAwareGraph}, only the static parts of the edge weights are copied, and the
+ * live congestion penalties are added whenever routes are computed.
+ * Edges with weights of {@link PointRouter#INFINITE_COSTS} or more cannot be travelled and are
+ * never part of a route.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class YenKShortestPaths {
+
+  /**
+   * The graph's vertices' indices, by name.
+   */
+  private final Map<String, Integer> indicesByVertex = new HashMap<>();
+  /**
+   * The points, by vertex index.
+   */
+  private final Point[] points;
+  /**
+   * For each vertex, the start of its outgoing arcs in the arc arrays.
+   */
+  private final int[] arcStarts;
+  /**
+   * The source vertex of each arc.
+   */
+  private final int[] arcSources;
+  /**
+   * The target vertex of each arc.
+   */
+  private final int[] arcTargets;
+  /**
+   * The (static) weight of each arc.
+   */
+  private final double[] arcWeights;
+  /**
+   * Provides live congestion penalties to be added to the arcs' weights, if any.
+   */
+  @Nullable
+  private final CongestionOverlay overlay;
+  /**
+   * The model edge of each arc.
+   */
+  private final ModelEdge[] arcEdges;
+  /**
+   * The tentative distances of the current search.
+   */
+  private final double[] distances;
+  /**
+   * The arc via which each vertex was reached in the current search.
+   */
+  private final int[] predecessorArcs;
+  /**
+   * Marks vertices with valid distances in the current search.
+   */
+  private final int[] searchStamps;
+  /**
+   * Marks vertices that may not be used in the current search.
+   */
+  private final int[] bannedVertexStamps;
+  /**
+   * Marks arcs that may not be used in the current search.
+   */
+  private final int[] bannedArcStamps;
+  /**
+   * The current search's stamp.
+   */
+  private int stamp;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param graph The graph.
+   * @param points The points of the model.
+   */
+  public YenKShortestPaths(@Nonnull Graph<String, ModelEdge> graph,
+                           @Nonnull Collection<Point> points) {
+    requireNonNull(graph, "graph");
+    requireNonNull(points, "points");
+
+    Map<String, Point> pointsByName = new HashMap<>();
+    for (Point point : points) {
+      pointsByName.put(point.getName(), point);
+    }
+    int vertexCount = graph.vertexSet().size();
+    this.points = new Point[vertexCount];
+    for (String vertex : graph.vertexSet()) {
+      int index = indicesByVertex.size();
+      indicesByVertex.put(vertex, index);
+      this.points[index] = pointsByName.get(vertex);
+    }
+
+    int arcCount = graph.edgeSet().size();
+    arcStarts = new int[vertexCount + 1];
+    for (ModelEdge edge : graph.edgeSet()) {
+      arcStarts[indicesByVertex.get(graph.getEdgeSource(edge)) + 1]++;
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      arcStarts[i + 1] += arcStarts[i];
+    }
+    arcSources = new int[arcCount];
+    arcTargets = new int[arcCount];
+    arcWeights = new double[arcCount];
+    arcEdges = new ModelEdge[arcCount];
+    overlay = graph instanceof CongestionAwareGraph
+        ? ((CongestionAwareGraph) graph).getOverlay()
+        : null;
+    int[] fill = Arrays.copyOf(arcStarts, vertexCount);
+    for (ModelEdge edge : graph.edgeSet()) {
+      int source = indicesByVertex.get(graph.getEdgeSource(edge));
+      int arc = fill[source]++;
+      arcSources[arc] = source;
+      arcTargets[arc] = indicesByVertex.get(graph.getEdgeTarget(edge));
+      arcWeights[arc] = overlay == null
+          ? graph.getEdgeWeight(edge)
+          : ((CongestionAwareGraph) graph).getStaticEdgeWeight(edge);
+      arcEdges[arc] = edge;
+    }
+
+    distances = new double[vertexCount];
+    predecessorArcs = new int[vertexCount];
+    searchStamps = new int[vertexCount];
+    bannedVertexStamps = new int[vertexCount];
+    bannedArcStamps = new int[arcCount];
+  }
+
+  /**
+   * Returns up to the given number of the shortest loopless routes from one point to another, in
+   * ascending order of their costs.
+   *
+   * @param srcPoint The source point.
+   * @param destPoint The destination point.
+   * @param maxRouteCount The maximum number of routes to be returned.
+   * @return The routes. If source and destination are identical, the result contains a single route
+   * with a single step without a path. If no route exists, the result is empty.
+   */
+  @Nonnull
+  public synchronized List<Route> getRoutes(@Nonnull Point srcPoint,
+                                            @Nonnull Point destPoint,
+                                            int maxRouteCount) {
+    requireNonNull(srcPoint, "srcPoint");
+    requireNonNull(destPoint, "destPoint");
+    checkArgument(maxRouteCount > 0, "maxRouteCount must be positive: %s", maxRouteCount);
+
+    List<Route> result = new ArrayList<>();
+    if (Objects.equals(srcPoint.getName(), destPoint.getName())) {
+      result.add(new Route(Arrays.asList(new Route.Step(null,
+                                                        null,
+                                                        srcPoint,
+                                                        Vehicle.Orientation.UNDEFINED,
+                                                        0)),
+                           0));
+      return result;
+    }
+
+    Integer srcIndex = indicesByVertex.get(srcPoint.getName());
+    Integer destIndex = indicesByVertex.get(destPoint.getName());
+    if (srcIndex == null || destIndex == null) {
+      return result;
+    }
+
+    nextStamp();
+    Candidate shortest = search(srcIndex, destIndex, new int[0], 0.0);
+    if (shortest == null) {
+      return result;
+    }
+
+    List<Candidate> found = new ArrayList<>();
+    found.add(shortest);
+    PriorityQueue<Candidate> candidates = new PriorityQueue<>(
+        (c1, c2) -> Double.compare(c1.weight, c2.weight));
+    Set<List<Integer>> knownRoutes = new HashSet<>();
+    knownRoutes.add(shortest.arcList());
+
+    while (found.size() < maxRouteCount) {
+      Candidate previous = found.get(found.size() - 1);
+      double rootWeight = 0.0;
+      for (int spurIndex = 0; spurIndex < previous.arcs.length; spurIndex++) {
+        int spurVertex = arcSources[previous.arcs[spurIndex]];
+        nextStamp();
+        // Do not deviate the same way as any route found so far that shares the root.
+        for (Candidate route : found) {
+          if (route.arcs.length > spurIndex
+              && sharesRoot(route.arcs, previous.arcs, spurIndex)) {
+            bannedArcStamps[route.arcs[spurIndex]] = stamp;
+          }
+        }
+        // Keep the route loopless by not returning to the root's vertices.
+        for (int i = 0; i < spurIndex; i++) {
+          bannedVertexStamps[arcSources[previous.arcs[i]]] = stamp;
+        }
+
+        Candidate candidate = search(spurVertex,
+                                     destIndex,
+                                     Arrays.copyOf(previous.arcs, spurIndex),
+                                     rootWeight);
+        if (candidate != null && knownRoutes.add(candidate.arcList())) {
+          candidates.add(candidate);
+        }
+        rootWeight += arcWeight(previous.arcs[spurIndex]);
+      }
+
+      if (candidates.isEmpty()) {
+        break;
+      }
+      found.add(candidates.poll());
+    }
+
+    for (Candidate candidate : found) {
+      result.add(toRoute(candidate));
+    }
+    return result;
+  }
+
+  private void nextStamp() {
+    if (stamp == Integer.MAX_VALUE) {
+      Arrays.fill(searchStamps, 0);
+      Arrays.fill(bannedVertexStamps, 0);
+      Arrays.fill(bannedArcStamps, 0);
+      stamp = 0;
+    }
+    stamp++;
+  }
+
+  /**
+   * Searches the shortest path from the given vertex to the destination, avoiding banned vertices
+   * and arcs, and appends it to the given root.
+   *
+   * @param startVertex The vertex to start the search at.
+   * @param destVertex The destination vertex.
+   * @param rootArcs The arcs leading to the start vertex.
+   * @param rootWeight The weight of the root arcs.
+   * @return The complete route, or <code>null</code>, if the destination cannot be reached.
+   */
+  private Candidate search(int startVertex, int destVertex, int[] rootArcs, double rootWeight) {
+    PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+    distances[startVertex] = 0.0;
+    predecessorArcs[startVertex] = -1;
+    searchStamps[startVertex] = stamp;
+    queue.add(new QueueEntry(startVertex, 0.0));
+
+    while (!queue.isEmpty()) {
+      QueueEntry entry = queue.poll();
+      if (entry.distance > distances[entry.vertex]) {
+        continue;
+      }
+      if (entry.vertex == destVertex) {
+        return trace(startVertex, destVertex, rootArcs, rootWeight);
+      }
+      for (int arc = arcStarts[entry.vertex]; arc < arcStarts[entry.vertex + 1]; arc++) {
+        int target = arcTargets[arc];
+        if (bannedArcStamps[arc] == stamp || bannedVertexStamps[target] == stamp) {
+          continue;
+        }
+        double weight = arcWeight(arc);
+        if (weight >= INFINITE_COSTS) {
+          continue;
+        }
+        double distance = entry.distance + weight;
+        if (searchStamps[target] != stamp || distance < distances[target]) {
+          searchStamps[target] = stamp;
+          distances[target] = distance;
+          predecessorArcs[target] = arc;
+          queue.add(new QueueEntry(target, distance));
+        }
+      }
+    }
+    return null;
+  }
+
+  private double arcWeight(int arc) {
+    return overlay == null ? arcWeights[arc] : arcWeights[arc] + overlay.getPenalty(arcEdges[arc]);
+  }
+
+  private Candidate trace(int startVertex, int destVertex, int[] rootArcs, double rootWeight) {
+    int spurLength = 0;
+    for (int vertex = destVertex; vertex != startVertex;) {
+      vertex = arcSources[predecessorArcs[vertex]];
+      spurLength++;
+    }
+    int[] arcs = Arrays.copyOf(rootArcs, rootArcs.length + spurLength);
+    int index = arcs.length;
+    for (int vertex = destVertex; vertex != startVertex;) {
+      arcs[--index] = predecessorArcs[vertex];
+      vertex = arcSources[predecessorArcs[vertex]];
+    }
+    return new Candidate(arcs, rootWeight + distances[destVertex]);
+  }
+
+  private static boolean sharesRoot(int[] arcs1, int[] arcs2, int length) {
+    for (int i = 0; i < length; i++) {
+      if (arcs1[i] != arcs2[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Route toRoute(Candidate candidate) {
+    List<Route.Step> steps = new ArrayList<>(candidate.arcs.length);
+    for (int i = 0; i < candidate.arcs.length; i++) {
+      int arc = candidate.arcs[i];
+      Point sourcePoint = points[arcSources[arc]];
+      ModelEdge edge = arcEdges[arc];
+      steps.add(new Route.Step(edge.getModelPath(),
+                               sourcePoint,
+                               points[arcTargets[arc]],
+                               Objects.equals(edge.getModelPath().getSourcePoint(),
+                                              sourcePoint.getReference())
+                               ? Vehicle.Orientation.FORWARD
+                               : Vehicle.Orientation.BACKWARD,
+                               i));
+    }
+    return new Route(steps, (long) candidate.weight);
+  }
+
+  /**
+   * A route found by the algorithm.
+   */
+  private static class Candidate {
+
+    /**
+     * The arcs of the route.
+     */
+    private final int[] arcs;
+    /**
+     * The total weight of the route.
+     */
+    private final double weight;
+
+    Candidate(int[] arcs, double weight) {
+      this.arcs = arcs;
+      this.weight = weight;
+    }
+
+    List<Integer> arcList() {
+      List<Integer> result = new ArrayList<>(arcs.length);
+      for (int arc : arcs) {
+        result.add(arc);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * An entry in the search's priority queue.
+   */
+  private static class QueueEntry
+      implements Comparable<QueueEntry> {
+
+    private final int vertex;
+
+    private final double distance;
+
+    QueueEntry(int vertex, double distance) {
+      this.vertex = vertex;
+      this.distance = distance;
+    }
+
+    @Override
+    public int compareTo(QueueEntry other) {
+      return Double.compare(distance, other.distance);
+    }
+  }
+}
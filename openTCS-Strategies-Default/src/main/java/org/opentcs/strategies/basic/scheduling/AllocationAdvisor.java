@@ -10,6 +10,8 @@ package org.opentcs.strategies.basic.scheduling;
 import java.util.List;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import org.opentcs.components.kernel.Scheduler;
@@ -20,6 +22,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A module implementation that forwards method calls to all submodules.
+ * Calls to submodules not supporting concurrent calls are serialized, so this module itself
+ * supports concurrent calls.
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -34,6 +38,10 @@ public class AllocationAdvisor
    * The submodules.
    */
   private final Set<Scheduler.Module> modules;
+  /**
+   * Serializes calls to submodules not supporting concurrent calls.
+   */
+  private final Object serialCallLock = new Object();
   /**
    * This instance's initialized flag.
    */
@@ -89,7 +97,7 @@ public class AllocationAdvisor
 
     for (Scheduler.Module module : modules) {
       LOG.debug("Module {}: Claiming resources {} for client{}.", module, resources, client);
-      module.claim(client, resources);
+      call(module, m -> m.claim(client, resources));
     }
   }
 
@@ -98,7 +106,7 @@ public class AllocationAdvisor
     requireNonNull(client, "client");
 
     for (Scheduler.Module module : modules) {
-      module.unclaim(client);
+      call(module, m -> m.unclaim(client));
     }
   }
 
@@ -111,15 +119,70 @@ public class AllocationAdvisor
     requireNonNull(remainingClaim, "remainingClaim");
 
     for (Scheduler.Module module : modules) {
-      module.setAllocationState(client, alloc, remainingClaim);
+      call(module, m -> m.setAllocationState(client, alloc, remainingClaim));
+    }
+  }
+
+  @Override
+  public boolean requiresAllocationState() {
+    for (Scheduler.Module module : modules) {
+      if (module.requiresAllocationState()) {
+        return true;
+      }
     }
+    return false;
+  }
+
+  @Override
+  public void claimProgressed(@Nonnull Scheduler.Client client,
+                              @Nonnull List<Set<TCSResource<?>>> passedClaim) {
+    requireNonNull(client, "client");
+    requireNonNull(passedClaim, "passedClaim");
+
+    for (Scheduler.Module module : modules) {
+      call(module, m -> m.claimProgressed(client, passedClaim));
+    }
+  }
+
+  /**
+   * Informs the submodules about a client having progressed along its claim.
+   * Submodules requiring the complete allocation state are informed about it instead of the
+   * passed claim, so that none of them applies the progress twice.
+   *
+   * @param client The client.
+   * @param alloc The client's currently allocated resources.
+   * @param remainingClaim The client's remaining claim.
+   * @param passedClaim The resource sets passed by the client since its last progress.
+   */
+  public void claimProgressed(@Nonnull Scheduler.Client client,
+                              @Nonnull Set<TCSResource<?>> alloc,
+                              @Nonnull List<Set<TCSResource<?>>> remainingClaim,
+                              @Nonnull List<Set<TCSResource<?>>> passedClaim) {
+    requireNonNull(client, "client");
+    requireNonNull(alloc, "alloc");
+    requireNonNull(remainingClaim, "remainingClaim");
+    requireNonNull(passedClaim, "passedClaim");
+
+    for (Scheduler.Module module : modules) {
+      if (module.requiresAllocationState()) {
+        call(module, m -> m.setAllocationState(client, alloc, remainingClaim));
+      }
+      else if (!passedClaim.isEmpty()) {
+        call(module, m -> m.claimProgressed(client, passedClaim));
+      }
+    }
+  }
+
+  @Override
+  public boolean supportsConcurrentCalls() {
+    return true;
   }
 
   @Override
   public boolean mayAllocate(Scheduler.Client client, Set<TCSResource<?>> resources) {
     boolean result = true;
     for (Scheduler.Module module : modules) {
-      result = result && module.mayAllocate(client, resources);
+      result = result && check(module, m -> m.mayAllocate(client, resources));
     }
     return result;
   }
@@ -135,7 +198,7 @@ public class AllocationAdvisor
                 module,
                 resources,
                 client);
-      module.prepareAllocation(client, resources);
+      call(module, m -> m.prepareAllocation(client, resources));
     }
   }
 
@@ -144,7 +207,7 @@ public class AllocationAdvisor
                                        Set<TCSResource<?>> resources) {
     boolean result = true;
     for (Scheduler.Module module : modules) {
-      result = result && module.hasPreparedAllocation(client, resources);
+      result = result && check(module, m -> m.hasPreparedAllocation(client, resources));
     }
     return result;
   }
@@ -158,7 +221,26 @@ public class AllocationAdvisor
                 module,
                 resources,
                 client);
-      module.allocationReleased(client, resources);
+      call(module, m -> m.allocationReleased(client, resources));
+    }
+  }
+
+  private void call(Scheduler.Module module, Consumer<Scheduler.Module> call) {
+    if (module.supportsConcurrentCalls()) {
+      call.accept(module);
+      return;
+    }
+    synchronized (serialCallLock) {
+      call.accept(module);
+    }
+  }
+
+  private boolean check(Scheduler.Module module, Predicate<Scheduler.Module> check) {
+    if (module.supportsConcurrentCalls()) {
+      return check.test(module);
+    }
+    synchronized (serialCallLock) {
+      return check.test(module);
     }
   }
 }
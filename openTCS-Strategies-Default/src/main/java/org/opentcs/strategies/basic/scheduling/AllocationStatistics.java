@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.opentcs.access.queries.QuerySchedulerContention;
+
+/**
+ * Counts the allocation requests processed by the default scheduler and the time clients waited
+ * for deferred allocations.
+ * Instances of this class are safe for use by multiple threads.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class AllocationStatistics {
+
+  /**
+   * The number of allocation requests received from clients.
+   */
+  private final LongAdder requests = new LongAdder();
+  /**
+   * The number of times a deferred allocation was checked again.
+   */
+  private final LongAdder retries = new LongAdder();
+  /**
+   * The number of times an allocation was deferred.
+   */
+  private final LongAdder deferrals = new LongAdder();
+  /**
+   * The number of allocations granted after they had been deferred.
+   */
+  private final LongAdder deferredGrants = new LongAdder();
+  /**
+   * The accumulated time clients waited for allocations that had been deferred (in ms).
+   */
+  private final LongAdder waitingTime = new LongAdder();
+  /**
+   * The longest time a client waited for an allocation that had been deferred (in ms).
+   */
+  private final LongAccumulator maxWaitingTime = new LongAccumulator(Math::max, 0);
+  /**
+   * The histogram of the times clients waited for allocations that had been deferred.
+   */
+  private final LongAdder[] waitingTimeHistogram
+      = new LongAdder[QuerySchedulerContention.getWaitTimeBucketCount()];
+  /**
+   * The number of detected deadlocks.
+   */
+  private final LongAdder deadlocks = new LongAdder();
+  /**
+   * The number of allocations currently deferred.
+   */
+  private final AtomicLong deferredCount = new AtomicLong();
+
+  /**
+   * Creates a new instance.
+   */
+  public AllocationStatistics() {
+    for (int i = 0; i < waitingTimeHistogram.length; i++) {
+      waitingTimeHistogram[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Returns the number of allocation requests received from clients.
+   *
+   * @return The number of allocation requests.
+   */
+  public long getRequestCount() {
+    return requests.sum();
+  }
+
+  /**
+   * Returns the number of times a deferred allocation was checked again.
+   *
+   * @return The number of retries.
+   */
+  public long getRetryCount() {
+    return retries.sum();
+  }
+
+  /**
+   * Returns the number of times an allocation was deferred.
+   * An allocation that is retried without success is counted again.
+   *
+   * @return The number of deferrals.
+   */
+  public long getDeferralCount() {
+    return deferrals.sum();
+  }
+
+  /**
+   * Returns the number of allocations granted after they had been deferred.
+   *
+   * @return The number of allocations granted after they had been deferred.
+   */
+  public long getDeferredGrantCount() {
+    return deferredGrants.sum();
+  }
+
+  /**
+   * Returns the accumulated time clients waited for allocations that had been deferred.
+   *
+   * @return The accumulated waiting time (in ms).
+   */
+  public long getWaitingTime() {
+    return waitingTime.sum();
+  }
+
+  /**
+   * Returns the longest time a client waited for an allocation that had been deferred.
+   *
+   * @return The longest waiting time (in ms).
+   */
+  public long getMaxWaitingTime() {
+    return maxWaitingTime.get();
+  }
+
+  /**
+   * Returns the histogram of the times clients waited for allocations that had been deferred, with
+   * the buckets given by {@link QuerySchedulerContention#getWaitTimeBucketBounds()}.
+   *
+   * @return The histogram of waiting times.
+   */
+  public long[] getWaitingTimeHistogram() {
+    long[] result = new long[waitingTimeHistogram.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = waitingTimeHistogram[i].sum();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of detected deadlocks.
+   *
+   * @return The number of detected deadlocks.
+   */
+  public long getDeadlockCount() {
+    return deadlocks.sum();
+  }
+
+  /**
+   * Returns the number of allocations currently deferred.
+   *
+   * @return The number of allocations currently deferred.
+   */
+  public long getDeferredCount() {
+    return deferredCount.get();
+  }
+
+  /**
+   * Resets all counters except for the number of allocations currently deferred.
+   */
+  public void reset() {
+    requests.reset();
+    retries.reset();
+    deferrals.reset();
+    deferredGrants.reset();
+    waitingTime.reset();
+    maxWaitingTime.reset();
+    for (LongAdder bucket : waitingTimeHistogram) {
+      bucket.reset();
+    }
+    deadlocks.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "AllocationStatistics{"
+        + "requests=" + getRequestCount()
+        + ", retries=" + getRetryCount()
+        + ", deferrals=" + getDeferralCount()
+        + ", deferredGrants=" + getDeferredGrantCount()
+        + ", waitingTime=" + getWaitingTime()
+        + ", maxWaitingTime=" + getMaxWaitingTime()
+        + ", deadlocks=" + getDeadlockCount()
+        + ", deferredCount=" + getDeferredCount()
+        + '}';
+  }
+
+  void recordRequest() {
+    requests.increment();
+  }
+
+  void recordRetry() {
+    retries.increment();
+  }
+
+  void recordDeferral() {
+    deferrals.increment();
+  }
+
+  void recordDeadlock() {
+    deadlocks.increment();
+  }
+
+  void changeDeferredCount(long delta) {
+    deferredCount.addAndGet(delta);
+  }
+
+  void recordDeferredGrant(long waitingMillis) {
+    deferredGrants.increment();
+    waitingTime.add(waitingMillis);
+    maxWaitingTime.accumulate(waitingMillis);
+    waitingTimeHistogram[QuerySchedulerContention.getWaitTimeBucket(waitingMillis)].increment();
+  }
+}
@@ -74,6 +74,15 @@ abstract class AllocatorCommand
     return client;
   }
 
+  /**
+   * Returns the point of time at which the command was created.
+   *
+   * @return The point of time at which the command was created.
+   */
+  public long getCreationTime() {
+    return creationTime;
+  }
+
   /**
    * Indicates the receiving task should be terminated.
    */
@@ -120,19 +129,68 @@ abstract class AllocatorCommand
     }
   }
 
+  /**
+   * Indicates the receiving task should forget an allocation that has been withdrawn.
+   */
+  public static class WithdrawAllocation
+      extends AllocatorCommand {
+
+    /**
+     * The allocation withdrawn.
+     */
+    private final Allocate allocation;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param allocation The allocation withdrawn.
+     */
+    public WithdrawAllocation(Allocate allocation) {
+      super(2, allocation.getClient());
+      this.allocation = requireNonNull(allocation, "allocation");
+    }
+
+    /**
+     * Returns the allocation withdrawn.
+     *
+     * @return The allocation withdrawn.
+     */
+    public Allocate getAllocation() {
+      return allocation;
+    }
+  }
+
   /**
    * Indicates the receiving task should retry to grant deferred allocations.
    */
   public static class RetryAllocates
       extends AllocatorCommand {
 
+    /**
+     * The resources that have been released.
+     */
+    private final Set<TCSResource<?>> releasedResources;
+
     /**
      * Creates a new instance.
      *
      * @param client The scheduler client this command is associated with.
+     * @param releasedResources The resources that have been released, i.e. that are now
+     * completely free.
      */
-    public RetryAllocates(Client client) {
+    public RetryAllocates(Client client, Set<TCSResource<?>> releasedResources) {
       super(3, client);
+      this.releasedResources = requireNonNull(releasedResources, "releasedResources");
+    }
+
+    /**
+     * Returns the resources that have been released.
+     * Only allocations waiting for any of these resources need to be retried.
+     *
+     * @return The resources that have been released.
+     */
+    public Set<TCSResource<?>> getReleasedResources() {
+      return releasedResources;
     }
   }
 
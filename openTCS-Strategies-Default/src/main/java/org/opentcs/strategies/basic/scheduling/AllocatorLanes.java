@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Queue;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.opentcs.components.kernel.Scheduler.Client;
+import org.opentcs.data.model.TCSResource;
+
+/**
+ * Distributes allocator commands among the allocator tasks of the regions of a plant model, each
+ * of them running in its own thread.
+ * <p>
+ * A client's allocations are passed on to the lanes one at a time, in the order they were
+ * requested, so they are granted in this order, too, even if they are processed by different
+ * lanes.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class AllocatorLanes {
+
+  /**
+   * The reservation pools, determining which lane is responsible for which resources.
+   */
+  private final ReservationPools reservationPools;
+  /**
+   * The allocator tasks, by lane index.
+   */
+  private final List<AllocatorTask> lanes = new ArrayList<>();
+  /**
+   * The allocations requested by each client and not yet granted, in the order they were
+   * requested.
+   * Only the first one of every client has been passed on to a lane.
+   */
+  private final Map<Client, Queue<AllocatorCommand.Allocate>> allocationsByClient
+      = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param reservationPools The reservation pools, determining which lane is responsible for which
+   * resources.
+   */
+  AllocatorLanes(@Nonnull ReservationPools reservationPools) {
+    this.reservationPools = requireNonNull(reservationPools, "reservationPools");
+  }
+
+  /**
+   * Adds the given allocator task as the next lane.
+   *
+   * @param allocatorTask The allocator task.
+   */
+  public void add(@Nonnull AllocatorTask allocatorTask) {
+    lanes.add(requireNonNull(allocatorTask, "allocatorTask"));
+  }
+
+  /**
+   * Starts the threads of all lanes.
+   */
+  public void start() {
+    for (int i = 0; i < lanes.size(); i++) {
+      new Thread(lanes.get(i), "DefaultScheduler-allocatorTask-" + i).start();
+    }
+  }
+
+  /**
+   * Terminates all lanes.
+   */
+  public void terminate() {
+    lanes.forEach(lane -> lane.terminate());
+  }
+
+  /**
+   * Returns the number of commands waiting to be processed by all lanes.
+   *
+   * @return The number of commands waiting to be processed.
+   */
+  public int getQueueDepth() {
+    int result = 0;
+    for (AllocatorTask lane : lanes) {
+      result += lane.getQueueDepth();
+    }
+    return result;
+  }
+
+  /**
+   * Enqueues the given command with the lane responsible for the given resources.
+   *
+   * @param resources The resources the command refers to.
+   * @param command The command.
+   */
+  public void enqueue(@Nonnull Set<TCSResource<?>> resources, @Nonnull AllocatorCommand command) {
+    lanes.get(reservationPools.laneFor(resources)).enqueue(command);
+  }
+
+  /**
+   * Enqueues the given allocation with the lane responsible for its resources, as soon as all
+   * allocations requested by the same client before have been granted.
+   *
+   * @param command The allocation.
+   */
+  public void enqueue(@Nonnull AllocatorCommand.Allocate command) {
+    requireNonNull(command, "command");
+
+    synchronized (allocationsByClient) {
+      Queue<AllocatorCommand.Allocate> allocations
+          = allocationsByClient.computeIfAbsent(command.getClient(), client -> new LinkedList<>());
+      allocations.add(command);
+      if (allocations.size() > 1) {
+        return;
+      }
+    }
+    enqueue(command.getResources(), command);
+  }
+
+  /**
+   * Marks the given client's first requested allocation as granted and enqueues its next one.
+   *
+   * @param client The client.
+   * @param resources The resources granted.
+   */
+  public void allocationGranted(@Nonnull Client client, @Nonnull Set<TCSResource<?>> resources) {
+    requireNonNull(client, "client");
+    requireNonNull(resources, "resources");
+
+    AllocatorCommand.Allocate next;
+    synchronized (allocationsByClient) {
+      Queue<AllocatorCommand.Allocate> allocations = allocationsByClient.get(client);
+      if (allocations == null || !allocations.peek().getResources().equals(resources)) {
+        return;
+      }
+      allocations.poll();
+      next = allocations.peek();
+      if (next == null) {
+        allocationsByClient.remove(client);
+        return;
+      }
+    }
+    enqueue(next.getResources(), next);
+  }
+
+  /**
+   * Withdraws all allocations requested by the given client and not yet granted.
+   * The allocation already passed on to a lane is forgotten by that lane, the others are simply
+   * dropped.
+   *
+   * @param client The client.
+   */
+  public void withdraw(@Nonnull Client client) {
+    requireNonNull(client, "client");
+
+    AllocatorCommand.Allocate passedOn;
+    synchronized (allocationsByClient) {
+      Queue<AllocatorCommand.Allocate> allocations = allocationsByClient.remove(client);
+      if (allocations == null) {
+        return;
+      }
+      passedOn = allocations.peek();
+    }
+    enqueue(passedOn.getResources(), new AllocatorCommand.WithdrawAllocation(passedOn));
+  }
+
+  /**
+   * Enqueues the given command with all lanes.
+   *
+   * @param command The command.
+   */
+  public void broadcast(@Nonnull AllocatorCommand command) {
+    lanes.forEach(lane -> lane.enqueue(command));
+  }
+}
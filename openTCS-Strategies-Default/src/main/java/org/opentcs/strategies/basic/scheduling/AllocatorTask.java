@@ -7,7 +7,10 @@
  */
 package org.opentcs.strategies.basic.scheduling;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Queue;
 import java.util.Set;
@@ -38,21 +41,59 @@ class AllocatorTask
    */
   private final LocalKernel kernel;
   /**
-   * The reservation pool.
+   * The reservation pools.
    */
-  private final ReservationPool reservationPool;
+  private final ReservationPools reservationPools;
   /**
    * Takes care of (sub)modules.
    */
   private final Scheduler.Module allocationAdvisor;
+  /**
+   * The allocations deferred by all lanes and the resources they are waiting for.
+   */
+  private final WaitForGraph waitForGraph;
+  /**
+   * All lanes, including this one.
+   */
+  private final AllocatorLanes lanes;
   /**
    * Commands to be processed.
    */
   private final BlockingQueue<AllocatorCommand> commands = new PriorityBlockingQueue<>();
   /**
-   * Allocations deferred because they couldn't be granted, yet.
+   * Allocations deferred by this lane because some of the requested resources are allocated by
+   * other clients, mapped by each of these resources.
+   */
+  private final Map<TCSResource<?>, Set<AllocatorCommand.Allocate>> allocationsByBlocker
+      = new HashMap<>();
+  /**
+   * Allocations deferred by this lane because some of the requested resources are allocated by
+   * other clients, mapped to all resources they have been waiting for.
+   */
+  private final Map<AllocatorCommand.Allocate, Set<TCSResource<?>>> contendedResources
+      = new HashMap<>();
+  /**
+   * The number of allocations deferred by this lane because some of the requested resources are
+   * allocated by other clients.
+   */
+  private int waitingCount;
+  /**
+   * Allocations deferred because some module restricted them.
+   * As it is unknown which resources they are waiting for, they are retried with every release.
+   */
+  private final Queue<AllocatorCommand.Allocate> restrictedAllocations = new LinkedList<>();
+  /**
+   * Allocations that have been deferred at least once and not been granted, yet.
    */
-  private final Queue<AllocatorCommand.Allocate> deferredAllocations = new LinkedList<>();
+  private final Set<AllocatorCommand.Allocate> previouslyDeferred = new HashSet<>();
+  /**
+   * Collects statistics about processed allocations.
+   */
+  private final AllocationStatistics statistics;
+  /**
+   * The number of deferred allocations last reported to the statistics by this lane.
+   */
+  private int reportedDeferredCount;
   /**
    * This tasks termination flag.
    */
@@ -62,11 +103,17 @@ class AllocatorTask
    * Creates a new instance.
    */
   public AllocatorTask(@Nonnull LocalKernel kernel,
-                       @Nonnull ReservationPool reservationPool,
-                       @Nonnull Scheduler.Module allocationAdvisor) {
+                       @Nonnull ReservationPools reservationPools,
+                       @Nonnull Scheduler.Module allocationAdvisor,
+                       @Nonnull WaitForGraph waitForGraph,
+                       @Nonnull AllocatorLanes lanes,
+                       @Nonnull AllocationStatistics statistics) {
     this.kernel = requireNonNull(kernel, "kernel");
-    this.reservationPool = requireNonNull(reservationPool, "reservationPool");
+    this.reservationPools = requireNonNull(reservationPools, "reservationPools");
     this.allocationAdvisor = requireNonNull(allocationAdvisor, "allocationAdvisor");
+    this.waitForGraph = requireNonNull(waitForGraph, "waitForGraph");
+    this.lanes = requireNonNull(lanes, "lanes");
+    this.statistics = requireNonNull(statistics, "statistics");
   }
 
   @Override
@@ -90,7 +137,7 @@ class AllocatorTask
       processAllocate((AllocatorCommand.Allocate) command);
     }
     else if (command instanceof AllocatorCommand.RetryAllocates) {
-      retryWaitingAllocations();
+      retryWaitingAllocations((AllocatorCommand.RetryAllocates) command);
     }
     else if (command instanceof AllocatorCommand.CheckAllocationsPrepared) {
       checkAllocationsPrepared((AllocatorCommand.CheckAllocationsPrepared) command);
@@ -98,6 +145,9 @@ class AllocatorTask
     else if (command instanceof AllocatorCommand.AllocationsReleased) {
       allocationsReleased((AllocatorCommand.AllocationsReleased) command);
     }
+    else if (command instanceof AllocatorCommand.WithdrawAllocation) {
+      withdrawAllocation(((AllocatorCommand.WithdrawAllocation) command).getAllocation());
+    }
     else {
       LOG.warn("Unhandled AllocatorCommand implementation {}, ignored.", command.getClass());
     }
@@ -111,13 +161,34 @@ class AllocatorTask
     enqueue(new AllocatorCommand.PoisonPill());
   }
 
+  /**
+   * Returns the number of commands waiting to be processed.
+   *
+   * @return The number of commands waiting to be processed.
+   */
+  public int getQueueDepth() {
+    return commands.size();
+  }
+
   private void processAllocate(AllocatorCommand.Allocate command) {
+    if (previouslyDeferred.contains(command)) {
+      statistics.recordRetry();
+    }
+    else {
+      statistics.recordRequest();
+    }
+
     if (!tryAllocate(command)) {
       LOG.debug("{}: Resources unavailable, deferring allocation...", command.getClient().getId());
-      deferredAllocations.add(command);
+      previouslyDeferred.add(command);
+      statistics.recordDeferral();
+      updateDeferredCount();
       return;
     }
 
+    if (previouslyDeferred.remove(command)) {
+      statistics.recordDeferredGrant(System.currentTimeMillis() - command.getCreationTime());
+    }
     checkAllocationsPrepared(command.getClient(), command.getResources());
   }
 
@@ -126,7 +197,10 @@ class AllocatorTask
   }
 
   private void checkAllocationsPrepared(Client client, Set<TCSResource<?>> resources) {
-    if (!allocationAdvisor.hasPreparedAllocation(client, resources)) {
+    boolean prepared = reservationPools.inRegionsOf(
+        resources,
+        () -> allocationAdvisor.hasPreparedAllocation(client, resources));
+    if (!prepared) {
       LOG.debug("{}: Preparation of resources not yet done.",
                 client.getId());
       // XXX remember the resources a client is waiting for preparation done?
@@ -140,66 +214,165 @@ class AllocatorTask
       LOG.warn("{}: Client didn't want allocated resources ({}), unallocating them...",
                client.getId(),
                resources);
-      undoAllocate(client, resources);
-      enqueue(new AllocatorCommand.RetryAllocates(client));
+      lanes.broadcast(new AllocatorCommand.RetryAllocates(client, undoAllocate(client, resources)));
     }
+    // Process the client's next allocation only now, so it is never granted before this one.
+    lanes.allocationGranted(client, resources);
   }
 
   /**
    * Allocates the given set of resources, if possible.
+   * If the resources cannot be allocated, the allocation is deferred until the resources blocking
+   * it are released.
+   * <p>
+   * The locks of all regions involved are held while checking and allocating the resources, so
+   * the allocation is atomic even if it spans multiple regions.
+   * They also serialize the calls to the modules concerning resources of the same region.
+   * </p>
    *
    * @param command Describes the requested allocation.
    * @return <code>true</code> if, and only if, the given resources were allocated.
    */
   private boolean tryAllocate(AllocatorCommand.Allocate command) {
     Set<TCSResource<?>> resourcesExpanded = expandResources(command.getResources());
-    synchronized (reservationPool) {
+    Set<TCSResource<?>> resourcesLocked = new HashSet<>(resourcesExpanded);
+    resourcesLocked.addAll(command.getResources());
+    return reservationPools.inRegionsOf(resourcesLocked, () -> {
       LOG.debug("{}: Checking if all resources are available...", command.getClient().getId());
-      if (!reservationPool.resourcesAvailableForUser(resourcesExpanded, command.getClient())) {
+      Set<TCSResource<?>> unavailableResources
+          = reservationPools.unavailableResources(resourcesExpanded, command.getClient());
+      if (!unavailableResources.isEmpty()) {
         LOG.debug("{}: Resources unavailable.", command.getClient().getId());
+        deferUntilReleased(command, unavailableResources);
         return false;
       }
 
       LOG.debug("{}: Checking if resources may be allocated...", command.getClient().getId());
       if (!allocationAdvisor.mayAllocate(command.getClient(), command.getResources())) {
         LOG.debug("{}: Resource allocation restricted by some modules.", command.getClient());
+        restrictedAllocations.add(command);
         return false;
       }
 
-      LOG.debug("{}: Some resources need to be prepared for allocation.", command.getClient().getId());
+      LOG.debug("{}: Some resources need to be prepared for allocation.",
+                command.getClient().getId());
       allocationAdvisor.prepareAllocation(command.getClient(), command.getResources());
 
       LOG.debug("{}: All resources available, allocating...", command.getClient().getId());
       // Allocate resources.
       for (TCSResource<?> curRes : command.getResources()) {
-        reservationPool.getReservationEntry(curRes).allocate(command.getClient());
+        reservationPools.getReservationEntry(curRes).allocate(command.getClient());
+      }
+      Set<TCSResource<?>> contended = contendedResources.remove(command);
+      if (contended != null) {
+        reservationPools.recordWait(contended,
+                                    System.currentTimeMillis() - command.getCreationTime());
       }
 
       return true;
-    }
+    });
   }
 
   private void allocationsReleased(AllocatorCommand.AllocationsReleased command) {
-    allocationAdvisor.allocationReleased(command.getClient(), command.getResources());
+    reservationPools.inRegionsOf(command.getResources(), () -> {
+      allocationAdvisor.allocationReleased(command.getClient(), command.getResources());
+      return null;
+    });
+  }
+
+  /**
+   * Forgets the given allocation, whether it is still waiting to be processed or has been
+   * deferred.
+   *
+   * @param allocation The allocation.
+   */
+  private void withdrawAllocation(AllocatorCommand.Allocate allocation) {
+    LOG.debug("{}: Withdrawing allocation of {}",
+              allocation.getClient().getId(),
+              allocation.getResources());
+    commands.remove(allocation);
+    restrictedAllocations.remove(allocation);
+    previouslyDeferred.remove(allocation);
+    Set<TCSResource<?>> contended = contendedResources.remove(allocation);
+    if (contended != null) {
+      for (TCSResource<?> blocker : contended) {
+        Set<AllocatorCommand.Allocate> waitingAllocations = allocationsByBlocker.get(blocker);
+        if (waitingAllocations != null) {
+          waitingAllocations.remove(allocation);
+          if (waitingAllocations.isEmpty()) {
+            allocationsByBlocker.remove(blocker);
+          }
+        }
+      }
+    }
+    if (waitForGraph.removeWaiting(allocation)) {
+      waitingCount--;
+    }
+    updateDeferredCount();
   }
 
   /**
    * Unallocates the given set of resources.
    *
-   * @param command Describes the allocated resources.
+   * @param client The client the resources were allocated for.
+   * @param resources The resources.
+   * @return The resources that are completely free after unallocating them.
+   */
+  private Set<TCSResource<?>> undoAllocate(Client client, Set<TCSResource<?>> resources) {
+    return reservationPools.inRegionsOf(resources, () -> {
+      reservationPools.free(client, resources);
+      return resources.stream()
+          .filter(resource -> reservationPools.getReservationEntry(resource).isFree())
+          .collect(Collectors.toSet());
+    });
+  }
+
+  /**
+   * Remembers the given allocation as waiting for the given resources to be released.
+   *
+   * @param command The allocation.
+   * @param blockers The resources the allocation is waiting for.
    */
-  private void undoAllocate(Client client, Set<TCSResource<?>> resources) {
-    synchronized (reservationPool) {
-      reservationPool.free(client, resources);
+  private void deferUntilReleased(AllocatorCommand.Allocate command,
+                                  Set<TCSResource<?>> blockers) {
+    waitForGraph.addWaiting(command, blockers);
+    contendedResources.computeIfAbsent(command, allocation -> new HashSet<>()).addAll(blockers);
+    waitingCount++;
+    for (TCSResource<?> blocker : blockers) {
+      allocationsByBlocker.computeIfAbsent(blocker, resource -> new HashSet<>()).add(command);
     }
   }
 
   /**
-   * Moves all waiting allocations back into the incoming queue so they can be rechecked.
+   * Moves waiting allocations back into the incoming queue so they can be rechecked.
+   * Allocations waiting for resources are moved only once all of these resources have been
+   * released. Allocations restricted by modules are always moved.
+   *
+   * @param command The command indicating which resources have been released.
    */
-  private void retryWaitingAllocations() {
-    commands.addAll(deferredAllocations);
-    deferredAllocations.clear();
+  private void retryWaitingAllocations(AllocatorCommand.RetryAllocates command) {
+    for (TCSResource<?> releasedResource : command.getReleasedResources()) {
+      Set<AllocatorCommand.Allocate> waitingAllocations
+          = allocationsByBlocker.remove(releasedResource);
+      if (waitingAllocations == null) {
+        continue;
+      }
+      for (AllocatorCommand.Allocate waitingAllocation : waitingAllocations) {
+        if (waitForGraph.resourceReleased(waitingAllocation, releasedResource)) {
+          waitingCount--;
+          commands.add(waitingAllocation);
+        }
+      }
+    }
+    commands.addAll(restrictedAllocations);
+    restrictedAllocations.clear();
+    updateDeferredCount();
+  }
+
+  private void updateDeferredCount() {
+    int deferredCount = waitingCount + restrictedAllocations.size();
+    statistics.changeDeferredCount(deferredCount - reportedDeferredCount);
+    reportedDeferredCount = deferredCount;
   }
 
   /**
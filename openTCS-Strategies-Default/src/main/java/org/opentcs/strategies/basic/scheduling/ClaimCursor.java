@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.Collections;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.opentcs.data.model.TCSResource;
+
+/**
+ * A client's claim and its current position in it.
+ * Instances of this class are safe for use by multiple threads.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class ClaimCursor {
+
+  /**
+   * The client's total claim.
+   */
+  private final List<Set<TCSResource<?>>> claim;
+  /**
+   * The index of the first element of the remaining claim.
+   */
+  private int index;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param claim The client's total claim.
+   */
+  ClaimCursor(@Nonnull List<Set<TCSResource<?>>> claim) {
+    this.claim = requireNonNull(claim, "claim");
+  }
+
+  /**
+   * Moves this cursor to the given index.
+   * Moving the cursor backwards is ignored.
+   *
+   * @param newIndex The new index of the first element of the remaining claim.
+   * @return The elements of the claim passed, i.e. between the previous and the new index.
+   */
+  @Nonnull
+  public synchronized List<Set<TCSResource<?>>> advanceTo(int newIndex) {
+    if (newIndex <= index) {
+      return Collections.emptyList();
+    }
+    List<Set<TCSResource<?>>> passed = claim.subList(index, newIndex);
+    index = newIndex;
+    return passed;
+  }
+
+  /**
+   * Returns the remaining claim.
+   *
+   * @return The remaining claim.
+   */
+  @Nonnull
+  public synchronized List<Set<TCSResource<?>>> getRemainingClaim() {
+    return claim.subList(index, claim.size());
+  }
+}
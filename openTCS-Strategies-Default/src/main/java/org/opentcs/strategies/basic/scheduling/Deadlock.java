@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.model.TCSResource;
+
+/**
+ * Describes a cycle of scheduler clients, each of them waiting for resources allocated by the
+ * next one in the cycle (and the last one waiting for the first one).
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class Deadlock {
+
+  /**
+   * The clients in the cycle.
+   */
+  private final List<Scheduler.Client> clients;
+  /**
+   * The resources the clients in the cycle are waiting for.
+   */
+  private final Set<TCSResource<?>> resources;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param clients The clients in the cycle, in the order in which they are waiting for each
+   * other.
+   * @param resources The resources the clients in the cycle are waiting for.
+   */
+  public Deadlock(@Nonnull List<Scheduler.Client> clients,
+                  @Nonnull Set<TCSResource<?>> resources) {
+    this.clients = Collections.unmodifiableList(new ArrayList<>(requireNonNull(clients,
+                                                                               "clients")));
+    this.resources = Collections.unmodifiableSet(requireNonNull(resources, "resources"));
+  }
+
+  /**
+   * Returns the clients in the cycle, in the order in which they are waiting for each other.
+   *
+   * @return The clients in the cycle.
+   */
+  @Nonnull
+  public List<Scheduler.Client> getClients() {
+    return clients;
+  }
+
+  /**
+   * Returns the resources the clients in the cycle are waiting for.
+   *
+   * @return The resources the clients in the cycle are waiting for.
+   */
+  @Nonnull
+  public Set<TCSResource<?>> getResources() {
+    return resources;
+  }
+
+  @Override
+  public String toString() {
+    return "Deadlock{"
+        + "clients=" + clients.stream().map(client -> client.getId()).collect(Collectors.toList())
+        + ", resources=" + resources
+        + '}';
+  }
+}
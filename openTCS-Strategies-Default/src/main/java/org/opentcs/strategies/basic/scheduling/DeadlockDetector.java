@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.components.kernel.Scheduler.Client;
+import org.opentcs.data.model.TCSResource;
+import org.opentcs.data.notification.UserNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Looks for deadlocks, i.e. cycles of clients waiting for resources allocated by each other, among
+ * the allocations deferred for at least a given time.
+ * <p>
+ * This is meant to be run periodically. The locks of all regions are only acquired if there are
+ * such allocations, and short waits, which usually end by themselves, are not examined at all.
+ * Every deadlock is reported only once, even if it persists for multiple runs.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class DeadlockDetector
+    implements Runnable {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(DeadlockDetector.class);
+  /**
+   * The kernel.
+   */
+  private final LocalKernel kernel;
+  /**
+   * The reservation pools.
+   */
+  private final ReservationPools reservationPools;
+  /**
+   * The allocations deferred by all lanes and the resources they are waiting for.
+   */
+  private final WaitForGraph waitForGraph;
+  /**
+   * Collects statistics about processed allocations.
+   */
+  private final AllocationStatistics statistics;
+  /**
+   * Resolves detected deadlocks.
+   */
+  private final DeadlockResolver deadlockResolver;
+  /**
+   * The time (in ms) an allocation must have been waiting before it is examined.
+   */
+  private final long minWaitTime;
+  /**
+   * The clients involved in each of the deadlocks found by the previous run.
+   */
+  private Set<Set<Client>> knownDeadlocks = new HashSet<>();
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The kernel.
+   * @param reservationPools The reservation pools.
+   * @param waitForGraph The allocations deferred by all lanes.
+   * @param statistics Collects statistics about processed allocations.
+   * @param deadlockResolver Resolves detected deadlocks.
+   * @param minWaitTime The time (in ms) an allocation must have been waiting before it is
+   * examined.
+   */
+  DeadlockDetector(@Nonnull LocalKernel kernel,
+                   @Nonnull ReservationPools reservationPools,
+                   @Nonnull WaitForGraph waitForGraph,
+                   @Nonnull AllocationStatistics statistics,
+                   @Nonnull DeadlockResolver deadlockResolver,
+                   long minWaitTime) {
+    this.kernel = requireNonNull(kernel, "kernel");
+    this.reservationPools = requireNonNull(reservationPools, "reservationPools");
+    this.waitForGraph = requireNonNull(waitForGraph, "waitForGraph");
+    this.statistics = requireNonNull(statistics, "statistics");
+    this.deadlockResolver = requireNonNull(deadlockResolver, "deadlockResolver");
+    this.minWaitTime = minWaitTime;
+  }
+
+  @Override
+  public void run() {
+    try {
+      Set<Set<Client>> currentDeadlocks = new HashSet<>();
+      for (Deadlock deadlock : findDeadlocks()) {
+        Set<Client> clients = new HashSet<>(deadlock.getClients());
+        if (currentDeadlocks.add(clients) && !knownDeadlocks.contains(clients)) {
+          deadlockDetected(deadlock);
+        }
+      }
+      knownDeadlocks = currentDeadlocks;
+    }
+    catch (RuntimeException exc) {
+      LOG.warn("Exception detecting deadlocks, ignored.", exc);
+    }
+  }
+
+  /**
+   * Looks for cycles in the wait-for graph that include clients waiting for long enough.
+   *
+   * @return The deadlocks found, possibly multiple times for the same cycle.
+   */
+  private List<Deadlock> findDeadlocks() {
+    long deferredBefore = System.currentTimeMillis() - minWaitTime;
+    if (waitForGraph.getWaitedForResources(deferredBefore).isEmpty()) {
+      return new ArrayList<>();
+    }
+    return reservationPools.inAllRegions(() -> {
+      Map<Client, Set<TCSResource<?>>> waitedFor = waitForGraph.getWaitedForResources();
+      List<Deadlock> result = new ArrayList<>();
+      for (Client client : waitForGraph.getWaitedForResources(deferredBefore).keySet()) {
+        Deadlock deadlock = findDeadlock(client, waitedFor);
+        if (deadlock != null) {
+          result.add(deadlock);
+        }
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Looks for a cycle in the wait-for graph that includes the given client.
+   *
+   * @param start The client.
+   * @param waitedFor The resources waited for, mapped by the clients waiting for them.
+   * @return The deadlock, or <code>null</code>, if the given client is not part of a cycle.
+   */
+  private Deadlock findDeadlock(Client start, Map<Client, Set<TCSResource<?>>> waitedFor) {
+    Map<Client, Client> predecessors = new HashMap<>();
+    Deque<Client> stack = new ArrayDeque<>();
+    stack.push(start);
+    while (!stack.isEmpty()) {
+      Client current = stack.pop();
+      for (Client owner : waitedForResources(current, waitedFor).keySet()) {
+        if (owner == start) {
+          return toDeadlock(start, current, predecessors, waitedFor);
+        }
+        if (!predecessors.containsKey(owner)) {
+          predecessors.put(owner, current);
+          stack.push(owner);
+        }
+      }
+    }
+    return null;
+  }
+
+  private Deadlock toDeadlock(Client start,
+                              Client last,
+                              Map<Client, Client> predecessors,
+                              Map<Client, Set<TCSResource<?>>> waitedFor) {
+    List<Client> clients = new ArrayList<>();
+    for (Client client = last; client != start; client = predecessors.get(client)) {
+      clients.add(client);
+    }
+    clients.add(start);
+    Collections.reverse(clients);
+
+    Set<TCSResource<?>> resources = new HashSet<>();
+    for (int i = 0; i < clients.size(); i++) {
+      Client next = clients.get((i + 1) % clients.size());
+      resources.addAll(waitedForResources(clients.get(i), waitedFor).get(next));
+    }
+    return new Deadlock(clients, resources);
+  }
+
+  /**
+   * Returns the resources the given client is waiting for, mapped by the clients allocating them.
+   *
+   * @param client The client.
+   * @param waitedFor The resources waited for, mapped by the clients waiting for them.
+   * @return The resources the given client is waiting for, mapped by the clients allocating them.
+   */
+  private Map<Client, Set<TCSResource<?>>> waitedForResources(
+      Client client,
+      Map<Client, Set<TCSResource<?>>> waitedFor) {
+    Map<Client, Set<TCSResource<?>>> result = new HashMap<>();
+    for (TCSResource<?> blocker : waitedFor.getOrDefault(client, Collections.emptySet())) {
+      Client owner = reservationPools.getReservationEntry(blocker).getClient();
+      if (owner != null && owner != client) {
+        result.computeIfAbsent(owner, c -> new HashSet<>()).add(blocker);
+      }
+    }
+    return result;
+  }
+
+  private void deadlockDetected(Deadlock deadlock) {
+    LOG.warn("Deadlock detected: {}", deadlock);
+    statistics.recordDeadlock();
+    kernel.publishUserNotification(
+        new UserNotification(
+            "Deadlock detected between "
+            + deadlock.getClients().stream()
+                .map(client -> client.getId())
+                .collect(Collectors.joining(", "))
+            + ", waiting for "
+            + deadlock.getResources().stream()
+                .map(resource -> resource.getName())
+                .collect(Collectors.joining(", ")),
+            UserNotification.Level.IMPORTANT));
+    try {
+      deadlockResolver.deadlockDetected(deadlock);
+    }
+    catch (RuntimeException exc) {
+      LOG.warn("Exception resolving {}, ignored.", deadlock, exc);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Resolves deadlocks detected by the {@link DefaultScheduler}.
+ * <p>
+ * Implementations are called from the scheduler's deadlock detection thread once for every
+ * detected deadlock, even if it persists. They should not block, and they must not expect the
+ * deadlock to be resolved when they return.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public interface DeadlockResolver {
+
+  /**
+   * Called when a deadlock has been detected.
+   *
+   * @param deadlock The deadlock.
+   */
+  void deadlockDetected(@Nonnull Deadlock deadlock);
+}
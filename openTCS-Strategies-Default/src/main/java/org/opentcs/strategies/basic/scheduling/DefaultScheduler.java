@@ -8,6 +8,8 @@
 package org.opentcs.strategies.basic.scheduling;
 
 import static com.google.common.base.Preconditions.checkPositionIndex;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -15,12 +17,20 @@ import java.util.List;
 import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import org.opentcs.access.LocalKernel;
+import org.opentcs.access.queries.QuerySchedulerContention;
+import org.opentcs.access.queries.QuerySchedulerContention.ResourceContention;
 import org.opentcs.components.kernel.ResourceAllocationException;
 import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Group;
 import org.opentcs.data.model.TCSResource;
 import org.opentcs.strategies.basic.scheduling.AllocatorCommand.Allocate;
 import org.opentcs.strategies.basic.scheduling.AllocatorCommand.AllocationsReleased;
@@ -32,6 +42,16 @@ import org.slf4j.LoggerFactory;
 /**
  * Implements a basic simple scheduler strategy for resources used by vehicles, preventing
  * collisions.
+ * <p>
+ * The resources of the plant model may be partitioned into regions, each with its own
+ * reservation pool and allocator thread, so that allocations in independent regions of a plant
+ * are processed concurrently. Allocations spanning multiple regions are processed by an
+ * additional coordinating thread.
+ * Modules are called while holding the locks of the regions concerned only, so modules supporting
+ * concurrent calls may be called concurrently for resources of different regions. Only if a module requires complete allocation
+ * states, claims are processed while holding the locks of all regions.
+ * Deadlocks are looked for periodically among allocations that have been deferred for a while.
+ * </p>
  *
  * @author Iryna Felko (Fraunhofer IML)
  * @author Stefan Walter (Fraunhofer IML)
@@ -43,6 +63,10 @@ public class DefaultScheduler
    * This class's Logger.
    */
   private static final Logger LOG = LoggerFactory.getLogger(DefaultScheduler.class);
+  /**
+   * The number of most contended resources to be logged periodically.
+   */
+  private static final int CONTENTION_REPORT_RESOURCES = 10;
   /**
    * A Kernel instance for expanding resource sets.
    */
@@ -50,19 +74,43 @@ public class DefaultScheduler
   /**
    * Takes care of modules.
    */
-  private final Module allocationAdvisor;
+  private final AllocationAdvisor allocationAdvisor;
+  /**
+   * All claims and the clients' positions in them.
+   */
+  private final Map<Client, ClaimCursor> claimsByClient = new ConcurrentHashMap<>();
+  /**
+   * This scheduler's configuration.
+   */
+  private final DefaultSchedulerConfiguration configuration;
+  /**
+   * Collects statistics about processed allocations.
+   */
+  private final AllocationStatistics allocationStatistics = new AllocationStatistics();
+  /**
+   * Resolves detected deadlocks.
+   */
+  private final DeadlockResolver deadlockResolver;
   /**
-   * All claims.
+   * The reservation pools of the plant model's regions.
    */
-  private final Map<Client, List<Set<TCSResource<?>>>> claimsByClient = new HashMap<>();
+  private ReservationPools reservationPools = new ReservationPools(new HashMap<>(), 1);
   /**
-   * The reservation pool.
+   * The allocations deferred by all lanes and the resources they are waiting for.
    */
-  private final ReservationPool reservationPool = new ReservationPool();
+  private WaitForGraph waitForGraph = new WaitForGraph();
   /**
-   * Processes allocation requests.
+   * Process allocation requests, one for each region.
    */
-  private AllocatorTask allocatorTask;
+  private AllocatorLanes allocatorLanes;
+  /**
+   * Periodically logs statistics about clients waiting for resources.
+   */
+  private ScheduledExecutorService contentionReporter;
+  /**
+   * Periodically looks for deadlocks between clients waiting for resources.
+   */
+  private ScheduledExecutorService deadlockDetector;
   /**
    * Indicates whether this component is enabled.
    */
@@ -73,11 +121,18 @@ public class DefaultScheduler
    *
    * @param kernel A kernel instance for expanding resource sets.
    * @param allocationAdvisor Takes care of modules.
+   * @param deadlockResolver Resolves detected deadlocks.
+   * @param configuration This scheduler's configuration.
    */
   @Inject
-  public DefaultScheduler(LocalKernel kernel, AllocationAdvisor allocationAdvisor) {
+  public DefaultScheduler(LocalKernel kernel,
+                          AllocationAdvisor allocationAdvisor,
+                          DeadlockResolver deadlockResolver,
+                          DefaultSchedulerConfiguration configuration) {
     this.localKernel = requireNonNull(kernel, "kernel");
     this.allocationAdvisor = requireNonNull(allocationAdvisor, "allocationAdvisor");
+    this.deadlockResolver = requireNonNull(deadlockResolver, "deadlockResolver");
+    this.configuration = requireNonNull(configuration, "configuration");
   }
 
   @Override
@@ -86,10 +141,42 @@ public class DefaultScheduler
       return;
     }
 
-    reservationPool.clear();
+    reservationPools = createReservationPools();
     allocationAdvisor.initialize();
-    allocatorTask = new AllocatorTask(localKernel, reservationPool, allocationAdvisor);
-    new Thread(allocatorTask, "DefaultScheduler-allocatorTask").start();
+    allocationStatistics.reset();
+    waitForGraph = new WaitForGraph();
+    allocatorLanes = new AllocatorLanes(reservationPools);
+    for (int i = 0; i < reservationPools.getLaneCount(); i++) {
+      allocatorLanes.add(new AllocatorTask(localKernel,
+                                           reservationPools,
+                                           allocationAdvisor,
+                                           waitForGraph,
+                                           allocatorLanes,
+                                           allocationStatistics));
+    }
+    allocatorLanes.start();
+    if (configuration.deadlockDetectionInterval() > 0) {
+      deadlockDetector = Executors.newSingleThreadScheduledExecutor(
+          runnable -> new Thread(runnable, "DefaultScheduler-deadlockDetector"));
+      deadlockDetector.scheduleAtFixedRate(
+          new DeadlockDetector(localKernel,
+                               reservationPools,
+                               waitForGraph,
+                               allocationStatistics,
+                               deadlockResolver,
+                               configuration.deadlockDetectionInterval()),
+          configuration.deadlockDetectionInterval(),
+          configuration.deadlockDetectionInterval(),
+          TimeUnit.MILLISECONDS);
+    }
+    if (configuration.contentionReportInterval() > 0) {
+      contentionReporter = Executors.newSingleThreadScheduledExecutor(
+          runnable -> new Thread(runnable, "DefaultScheduler-contentionReporter"));
+      contentionReporter.scheduleAtFixedRate(this::reportContention,
+                                             configuration.contentionReportInterval(),
+                                             configuration.contentionReportInterval(),
+                                             TimeUnit.MILLISECONDS);
+    }
     initialized = true;
   }
 
@@ -104,8 +191,17 @@ public class DefaultScheduler
       return;
     }
 
-    allocatorTask.terminate();
+    if (contentionReporter != null) {
+      contentionReporter.shutdownNow();
+      contentionReporter = null;
+    }
+    if (deadlockDetector != null) {
+      deadlockDetector.shutdownNow();
+      deadlockDetector = null;
+    }
+    allocatorLanes.terminate();
     allocationAdvisor.terminate();
+    LOG.info("Allocation statistics: {}", allocationStatistics);
     initialized = false;
   }
 
@@ -114,14 +210,24 @@ public class DefaultScheduler
     requireNonNull(client, "client");
     requireNonNull(resources, "resources");
 
-    synchronized (reservationPool) {
-      claimsByClient.put(client, resources);
+    if (!allocationAdvisor.requiresAllocationState()) {
+      reservationPools.inRegionsOf(resourcesOf(resources), () -> {
+        claimsByClient.put(client, new ClaimCursor(resources));
+        allocationAdvisor.claim(client, resources);
+        return null;
+      });
+      return;
+    }
+
+    reservationPools.inAllRegions(() -> {
+      claimsByClient.put(client, new ClaimCursor(resources));
 
       allocationAdvisor.claim(client, resources);
       allocationAdvisor.setAllocationState(client,
-                                           reservationPool.allocatedResources(client),
+                                           reservationPools.allocatedResources(client),
                                            resources);
-    }
+      return null;
+    });
   }
 
   @Override
@@ -132,29 +238,57 @@ public class DefaultScheduler
     if (index == 0) {
       return;
     }
-    // XXX Verify that the index is only incremented, never decremented?
 
-    synchronized (reservationPool) {
-      List<Set<TCSResource<?>>> claims = claimsByClient.get(client);
-      List<Set<TCSResource<?>>> remainingClaims = claims.subList(index, claims.size());
-      allocationAdvisor.setAllocationState(client,
-                                           reservationPool.allocatedResources(client),
-                                           remainingClaims);
+    if (!allocationAdvisor.requiresAllocationState()) {
+      // Only pass on what has changed, without looking at the client's allocations.
+      List<Set<TCSResource<?>>> passedClaim = claimsByClient.get(client).advanceTo(index);
+      if (!passedClaim.isEmpty()) {
+        reservationPools.inRegionsOf(resourcesOf(passedClaim), () -> {
+          allocationAdvisor.claimProgressed(client, passedClaim);
+          return null;
+        });
+      }
+      return;
     }
+
+    reservationPools.inAllRegions(() -> {
+      ClaimCursor claim = claimsByClient.get(client);
+      List<Set<TCSResource<?>>> passedClaim = claim.advanceTo(index);
+      allocationAdvisor.claimProgressed(client,
+                                        reservationPools.allocatedResources(client),
+                                        claim.getRemainingClaim(),
+                                        passedClaim);
+      return null;
+    });
   }
 
   @Override
   public void unclaim(Client client) {
     requireNonNull(client, "client");
 
-    synchronized (reservationPool) {
+    // Allocations requested for the claim are of no use any more.
+    allocatorLanes.withdraw(client);
+
+    if (!allocationAdvisor.requiresAllocationState()) {
+      ClaimCursor claim = claimsByClient.remove(client);
+      Set<TCSResource<?>> remainingResources
+          = claim == null ? new HashSet<>() : resourcesOf(claim.getRemainingClaim());
+      reservationPools.inRegionsOf(remainingResources, () -> {
+        allocationAdvisor.unclaim(client);
+        return null;
+      });
+      return;
+    }
+
+    reservationPools.inAllRegions(() -> {
       claimsByClient.remove(client);
 
       allocationAdvisor.setAllocationState(client,
-                                           reservationPool.allocatedResources(client),
+                                           reservationPools.allocatedResources(client),
                                            new LinkedList<>());
       allocationAdvisor.unclaim(client);
-    }
+      return null;
+    });
   }
 
   @Override
@@ -162,7 +296,7 @@ public class DefaultScheduler
     requireNonNull(client, "client");
     requireNonNull(resources, "resources");
 
-    allocatorTask.enqueue(new Allocate(client, resources));
+    allocatorLanes.enqueue(new Allocate(client, resources));
   }
 
   @Override
@@ -171,11 +305,11 @@ public class DefaultScheduler
     requireNonNull(client, "client");
     requireNonNull(resources, "resources");
 
-    synchronized (reservationPool) {
+    reservationPools.inRegionsOf(resources, () -> {
       // Check if all resources are available.
       final Set<TCSResource<?>> availableResources = new HashSet<>();
       for (TCSResource<?> curResource : resources) {
-        ReservationEntry entry = reservationPool.getReservationEntry(curResource);
+        ReservationEntry entry = reservationPools.getReservationEntry(curResource);
         if (!entry.isFree() && !entry.isAllocatedBy(client)) {
           LOG.warn("{}: Resource {} unavailable, reserved by {}",
                    client.getId(),
@@ -190,9 +324,13 @@ public class DefaultScheduler
       // Allocate all requested resources that are available.
       LOG.debug("{}: Allocating immediately: {}", client.getId(), availableResources);
       for (TCSResource<?> curResource : availableResources) {
-        reservationPool.getReservationEntry(curResource).allocate(client);
+        reservationPools.getReservationEntry(curResource).allocate(client);
       }
-    }
+      if (!availableResources.isEmpty()) {
+        allocationAdvisor.prepareAllocation(client, availableResources);
+      }
+      return null;
+    });
   }
 
   @Override
@@ -200,35 +338,69 @@ public class DefaultScheduler
     requireNonNull(client, "client");
     requireNonNull(resources, "resources");
 
-    synchronized (reservationPool) {
+    reservationPools.inRegionsOf(resources, () -> {
       LOG.debug("{}: Releasing resources: {}", client.getId(), resources);
-      reservationPool.free(client, resources);
+      reservationPools.free(client, resources);
 
       // Check which resources are now completely free
       Set<TCSResource<?>> completelyFreeResources = resources.stream()
-          .filter(resource -> reservationPool.getReservationEntry(resource).isFree())
+          .filter(resource -> reservationPools.getReservationEntry(resource).isFree())
           .collect(Collectors.toCollection(HashSet::new));
-      allocatorTask.enqueue(new AllocationsReleased(client, completelyFreeResources));
-    }
-    allocatorTask.enqueue(new RetryAllocates(client));
+      allocatorLanes.enqueue(completelyFreeResources,
+                             new AllocationsReleased(client, completelyFreeResources));
+      allocatorLanes.broadcast(new RetryAllocates(client, completelyFreeResources));
+      return null;
+    });
   }
 
   @Override
   public void freeAll(Client client) {
     requireNonNull(client, "client");
 
-    synchronized (reservationPool) {
-      LOG.debug("{}: Releasing all resources", client.getId());
-      reservationPool.freeAll(client);
-    }
-    allocatorTask.enqueue(new RetryAllocates(client));
+    LOG.debug("{}: Releasing all resources", client.getId());
+    allocatorLanes.withdraw(client);
+    // Inform the modules right away, region by region, so the release is never reported after a
+    // subsequent immediate allocation.
+    Set<TCSResource<?>> freedResources = reservationPools.freeAll(
+        client,
+        resources -> allocationAdvisor.allocationReleased(client, resources));
+    allocatorLanes.broadcast(new RetryAllocates(client, freedResources));
+  }
+
+  @Override
+  public void clearPendingAllocations(Client client) {
+    requireNonNull(client, "client");
+
+    LOG.debug("{}: Withdrawing pending allocations", client.getId());
+    allocatorLanes.withdraw(client);
   }
 
   @Override
   public Map<String, Set<TCSResource<?>>> getAllocations() {
-    synchronized (reservationPool) {
-      return reservationPool.getAllocations();
-    }
+    return reservationPools.inAllRegions(() -> reservationPools.getAllocations());
+  }
+
+  @Override
+  public QuerySchedulerContention getContention() {
+    Map<TCSResource<?>, List<String>> waitersByResource = waitForGraph.getWaitersByResource();
+    List<ResourceContention> contentions
+        = reservationPools.inAllRegions(() -> reservationPools.getContentions(waitersByResource));
+    return new QuerySchedulerContention(
+        allocatorLanes == null ? 0 : allocatorLanes.getQueueDepth(),
+        allocationStatistics.getDeferredCount(),
+        allocationStatistics.getRetryCount(),
+        allocationStatistics.getWaitingTimeHistogram(),
+        contentions);
+  }
+
+  /**
+   * Returns statistics about the allocations processed since this scheduler was initialized.
+   *
+   * @return Statistics about the processed allocations.
+   */
+  @Nonnull
+  public AllocationStatistics getAllocationStatistics() {
+    return allocationStatistics;
   }
 
   @Override
@@ -239,6 +411,74 @@ public class DefaultScheduler
     requireNonNull(client, "client");
     requireNonNull(resources, "resources");
 
-    allocatorTask.enqueue(new CheckAllocationsPrepared(client, resources));
+    allocatorLanes.enqueue(resources, new CheckAllocationsPrepared(client, resources));
+  }
+
+  /**
+   * Logs the current allocation statistics and the resources clients waited for longest.
+   */
+  private void reportContention() {
+    try {
+      QuerySchedulerContention contention = getContention();
+      LOG.info("Allocation statistics: {}, queued commands: {}",
+               allocationStatistics,
+               contention.getQueuedCommands());
+      contention.getResourceContentions().stream()
+          .sorted(Comparator.comparingLong(ResourceContention::getTotalWaitTime).reversed())
+          .limit(CONTENTION_REPORT_RESOURCES)
+          .forEach(resource -> LOG.info("Contended resource: {}", resource));
+    }
+    catch (RuntimeException exc) {
+      LOG.warn("Exception reporting contention, ignored.", exc);
+    }
+  }
+
+  /**
+   * Returns all resources contained in the given claim.
+   *
+   * @param claim The claim.
+   * @return All resources contained in the claim.
+   */
+  private static Set<TCSResource<?>> resourcesOf(List<Set<TCSResource<?>>> claim) {
+    Set<TCSResource<?>> result = new HashSet<>();
+    for (Set<TCSResource<?>> resources : claim) {
+      result.addAll(resources);
+    }
+    return result;
+  }
+
+  /**
+   * Creates the reservation pools for the regions configured.
+   * Every configured group of the plant model forms a region with its members, all other
+   * resources belong to the default region.
+   *
+   * @return The reservation pools.
+   */
+  private ReservationPools createReservationPools() {
+    Map<String, Integer> regionsByResourceName = new HashMap<>();
+    List<Group> groups = new ArrayList<>();
+    for (String groupName : configuration.regionGroups()) {
+      if (groupName.trim().isEmpty()) {
+        continue;
+      }
+      Group group = localKernel.getTCSObject(Group.class, groupName.trim());
+      if (group == null) {
+        LOG.warn("Group '{}' configured as a region does not exist, ignored.", groupName);
+        continue;
+      }
+      groups.add(group);
+    }
+    for (int i = 0; i < groups.size(); i++) {
+      for (TCSObjectReference<?> member : groups.get(i).getMembers()) {
+        Integer previous = regionsByResourceName.putIfAbsent(member.getName(), i + 1);
+        if (previous != null) {
+          LOG.warn("{} is a member of multiple regions, keeping it in region {}.",
+                   member.getName(),
+                   previous);
+        }
+      }
+    }
+    LOG.info("Scheduling resources in {} region(s).", groups.size() + 1);
+    return new ReservationPools(regionsByResourceName, groups.size() + 1);
   }
 }
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.List;
+import org.opentcs.util.configuration.ConfigurationEntry;
+import org.opentcs.util.configuration.ConfigurationPrefix;
+
+/**
+ * Provides methods to configure the {@link DefaultScheduler}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+@ConfigurationPrefix(DefaultSchedulerConfiguration.PREFIX)
+public interface DefaultSchedulerConfiguration {
+
+  /**
+   * This configuration's prefix.
+   */
+  String PREFIX = "defaultscheduler";
+
+  @ConfigurationEntry(
+      type = "String",
+      description = {
+        "How to resolve detected deadlocks. Valid values:",
+        "'NONE': Deadlocks are only reported, leaving their resolution to the operator.",
+        "'WITHDRAW_ORDER': The transport order with the latest deadline among the ones processed "
+        + "by the vehicles involved is withdrawn."})
+  DeadlockResolution deadlockResolution();
+
+  @ConfigurationEntry(
+      type = "List of strings",
+      description = {
+        "The names of the plant model's groups to be used as scheduling regions.",
+        "Allocations within each region are processed by a separate thread, so the groups should "
+        + "contain resources of plant areas that vehicles rarely move between.",
+        "Resources not contained in any of these groups are assigned to one additional region.",
+        "Scheduler modules supporting concurrent calls may be called concurrently for resources of "
+        + "different regions."})
+  List<String> regionGroups();
+
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "The interval (in ms) in which statistics about clients waiting for resources are logged.",
+        "A value of 0 disables logging of these statistics."})
+  long contentionReportInterval();
+
+  @ConfigurationEntry(
+      type = "Integer",
+      description = {
+        "The interval (in ms) in which deadlocks are looked for among the allocations that have "
+        + "been deferred for at least this long.",
+        "A value of 0 disables deadlock detection."})
+  long deadlockDetectionInterval();
+
+  /**
+   * The available ways to resolve deadlocks.
+   */
+  enum DeadlockResolution {
+    /**
+     * Deadlocks are only reported.
+     */
+    NONE,
+    /**
+     * The transport order with the latest deadline is withdrawn.
+     */
+    WITHDRAW_ORDER
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.Comparator;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.TransportOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves deadlocks by withdrawing the transport order with the lowest priority (i.e. the latest
+ * deadline) among the orders processed by the vehicles involved.
+ * <p>
+ * The order is withdrawn immediately, so the resources allocated for the vehicle's movements
+ * ahead of its current position are released. Resources occupied by the vehicle itself are kept,
+ * so deadlocks between vehicles blocking each other's way physically cannot be resolved this way.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class OrderWithdrawingDeadlockResolver
+    implements DeadlockResolver {
+
+  /**
+   * This class's Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(OrderWithdrawingDeadlockResolver.class);
+  /**
+   * The kernel.
+   */
+  private final LocalKernel kernel;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param kernel The kernel.
+   */
+  @Inject
+  public OrderWithdrawingDeadlockResolver(@Nonnull LocalKernel kernel) {
+    this.kernel = requireNonNull(kernel, "kernel");
+  }
+
+  @Override
+  public void deadlockDetected(@Nonnull Deadlock deadlock) {
+    requireNonNull(deadlock, "deadlock");
+
+    // Clients of the scheduler that are vehicle controllers are named after their vehicles.
+    TransportOrder victim = deadlock.getClients().stream()
+        .map(client -> kernel.getTCSObject(Vehicle.class, client.getId()))
+        .filter(Objects::nonNull)
+        .filter(vehicle -> vehicle.getTransportOrder() != null)
+        .map(vehicle -> kernel.getTCSObject(TransportOrder.class, vehicle.getTransportOrder()))
+        .filter(Objects::nonNull)
+        .max(Comparator.comparingLong(TransportOrder::getDeadline))
+        .orElse(null);
+
+    if (victim == null) {
+      LOG.warn("No transport order to withdraw for resolving {}", deadlock);
+      return;
+    }
+
+    LOG.info("Withdrawing transport order {} to resolve {}", victim.getName(), deadlock);
+    kernel.withdrawTransportOrderByVehicle(victim.getProcessingVehicle(), true, false);
+  }
+}
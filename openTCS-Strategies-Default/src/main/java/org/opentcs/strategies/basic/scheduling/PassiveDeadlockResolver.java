@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A deadlock resolver that does nothing, leaving the resolution of deadlocks to the operator.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class PassiveDeadlockResolver
+    implements DeadlockResolver {
+
+  /**
+   * Creates a new instance.
+   */
+  public PassiveDeadlockResolver() {
+  }
+
+  @Override
+  public void deadlockDetected(@Nonnull Deadlock deadlock) {
+  }
+}
@@ -7,48 +7,41 @@
  */
 package org.opentcs.strategies.basic.scheduling;
 
-import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 import org.opentcs.components.kernel.Scheduler.Client;
 import org.opentcs.data.model.TCSResource;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Contains reservation information for a resource - a reference to the
  * <code>ResourceUser</code> currently holding the resource and a counter
  * for how many times the <code>ResouceUser</code> has allocated the resource.
+ * <p>
+ * The information itself is kept by the reservation pool; an entry is merely a view on the
+ * pool's data for a single resource.
+ * </p>
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
 class ReservationEntry {
 
   /**
-   * This class's Logger.
+   * The pool keeping the reservation information.
    */
-  private static final Logger LOG = LoggerFactory.getLogger(ReservationEntry.class);
+  private final ReservationPool pool;
   /**
-   * Instance of resource that vehicle may claim for exclusive usage.
+   * The resource's index in the pool.
    */
-  private final TCSResource<?> resource;
-  /**
-   * The client for which the resource is currently reserved.
-   */
-  private Client client;
-  /**
-   * The reservation counter.
-   * With every allocation the counter will be incremented, with every call to <code>free()</code>
-   * it will be decremented.
-   */
-  private int counter;
+  private final int index;
 
   /**
    * Creates a new instance.
    *
-   * @param reqResource The resource.
+   * @param pool The pool keeping the reservation information.
+   * @param index The resource's index in the pool.
    */
-  public ReservationEntry(final TCSResource<?> reqResource) {
-    this.resource = requireNonNull(reqResource, "reqResource");
+  ReservationEntry(ReservationPool pool, int index) {
+    this.pool = requireNonNull(pool, "pool");
+    this.index = index;
   }
 
   /**
@@ -57,7 +50,7 @@ class ReservationEntry {
    * @return The resource.
    */
   public TCSResource<?> getResource() {
-    return resource;
+    return pool.getResource(index);
   }
 
   /**
@@ -67,7 +60,7 @@ class ReservationEntry {
    * isn't currently allocated.
    */
   public Client getClient() {
-    return client;
+    return pool.getClient(index);
   }
 
   /**
@@ -78,21 +71,7 @@ class ReservationEntry {
    * @param client The allocating client.
    */
   void allocate(Client client) {
-    if (this.client == null) {
-      LOG.debug("Allocating resource {} for client {}", resource, client.getId());
-      this.client = client;
-    }
-    else if (this.client != client) {
-      // The resource is already allocated by someone else - may not happen.
-      throw new IllegalStateException("'" + client + "' tried to allocate resource allocated by "
-          + this.client);
-    }
-    else {
-      LOG.debug("Incrementing allocation counter for resource {}; client: {}",
-                resource,
-                client.getId());
-    }
-    counter++;
+    pool.allocate(index, client);
   }
 
   /**
@@ -101,11 +80,7 @@ class ReservationEntry {
    * is set to <code>null</code>.
    */
   void free() {
-    checkState(counter > 0, "counter is already less than 1");
-    counter--;
-    if (counter == 0) {
-      client = null;
-    }
+    pool.free(index);
   }
 
   /**
@@ -113,8 +88,7 @@ class ReservationEntry {
    * to <code>null</code>.
    */
   void freeCompletely() {
-    counter = 0;
-    client = null;
+    pool.freeCompletely(index);
   }
 
   /**
@@ -124,7 +98,7 @@ class ReservationEntry {
    * allocated by anyone.
    */
   boolean isFree() {
-    return (client == null) && (counter == 0);
+    return (pool.getClient(index) == null) && (pool.getCounter(index) == 0);
   }
 
   /**
@@ -135,15 +109,15 @@ class ReservationEntry {
    * client.
    */
   boolean isAllocatedBy(Client client) {
-    return this.client == client;
+    return pool.getClient(index) == client;
   }
 
   @Override
   public String toString() {
     return "ReservationEntry{"
-        + "resource=" + resource
-        + ", client=" + client
-        + ", counter=" + counter
+        + "resource=" + getResource()
+        + ", client=" + getClient()
+        + ", counter=" + pool.getCounter(index)
         + '}';
   }
 }
@@ -7,18 +7,36 @@
  */
 package org.opentcs.strategies.basic.scheduling;
 
+import static com.google.common.base.Preconditions.checkState;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Set;
-import java.util.stream.Collectors;
+import org.opentcs.access.queries.QuerySchedulerContention;
+import org.opentcs.access.queries.QuerySchedulerContention.ResourceContention;
 import org.opentcs.components.kernel.Scheduler;
 import org.opentcs.data.model.TCSResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Keeps track of the resources allocated by scheduler clients.
+ * <p>
+ * Every resource is given a dense integer index when it is seen for the first time. The holders
+ * and allocation counters of all resources are kept in arrays addressed by these indices, and the
+ * resources allocated by every client are kept in a bit set. This way, availability checks are
+ * bit set operations and querying or freeing a client's resources only touches the resources the
+ * client actually holds.
+ * </p>
+ * <p>
+ * For every resource, the pool also counts how often and how long clients had to wait for it.
+ * These counters are updated without allocating any objects.
+ * </p>
  *
  * @author Stefan Walter (Fraunhofer IML)
  */
@@ -29,9 +47,63 @@ class ReservationPool {
    */
   private static final Logger LOG = LoggerFactory.getLogger(ReservationPool.class);
   /**
-   * <code>ReservationEntry</code> instances for each <code>TCSResource</code>.
+   * The initial capacity of the arrays.
    */
-  private final Map<TCSResource<?>, ReservationEntry> reservations = new HashMap<>();
+  private static final int INITIAL_CAPACITY = 64;
+  /**
+   * The number of buckets of the waiting time histograms.
+   */
+  private static final int WAIT_TIME_BUCKETS = QuerySchedulerContention.getWaitTimeBucketCount();
+  /**
+   * The indices of all resources seen so far.
+   */
+  private final Map<TCSResource<?>, Integer> indices = new HashMap<>();
+  /**
+   * The resources allocated by each client.
+   */
+  private final Map<Scheduler.Client, BitSet> allocationsByClient = new HashMap<>();
+  /**
+   * The resources currently allocated by any client.
+   */
+  private final BitSet allocated = new BitSet();
+  /**
+   * The resources, by index.
+   */
+  private TCSResource<?>[] resources = new TCSResource<?>[INITIAL_CAPACITY];
+  /**
+   * The reservation entries, by index.
+   */
+  private ReservationEntry[] entries = new ReservationEntry[INITIAL_CAPACITY];
+  /**
+   * The clients currently allocating the resources, by index.
+   */
+  private Scheduler.Client[] holders = new Scheduler.Client[INITIAL_CAPACITY];
+  /**
+   * The reservation counters of the resources, by index.
+   */
+  private int[] counters = new int[INITIAL_CAPACITY];
+  /**
+   * The number of deferred allocations granted after waiting for the resources, by index.
+   */
+  private long[] waitCounts = new long[INITIAL_CAPACITY];
+  /**
+   * The accumulated times clients waited for the resources (in ms), by index.
+   */
+  private long[] waitTimes = new long[INITIAL_CAPACITY];
+  /**
+   * The longest times clients waited for the resources (in ms), by index.
+   */
+  private long[] maxWaitTimes = new long[INITIAL_CAPACITY];
+  /**
+   * The histograms of the times clients waited for the resources.
+   * The histogram of the resource with index <code>i</code> starts at element
+   * <code>i * WAIT_TIME_BUCKETS</code>.
+   */
+  private long[] waitTimeHistograms = new long[INITIAL_CAPACITY * WAIT_TIME_BUCKETS];
+  /**
+   * The number of resources seen so far.
+   */
+  private int resourceCount;
 
   /**
    * Creates a new instance.
@@ -48,12 +120,8 @@ class ReservationPool {
   public ReservationEntry getReservationEntry(TCSResource<?> resource) {
     requireNonNull(resource, "resource");
 
-    ReservationEntry entry = reservations.get(resource);
-    if (entry == null) {
-      entry = new ReservationEntry(resource);
-      reservations.put(resource, entry);
-    }
-    return entry;
+    int index = indexOf(resource);
+    return entries[index];
   }
 
   /**
@@ -65,10 +133,7 @@ class ReservationPool {
   public Set<TCSResource<?>> allocatedResources(Scheduler.Client client) {
     requireNonNull(client, "client");
 
-    return reservations.entrySet().stream()
-        .filter(entry -> entry.getValue().isAllocatedBy(client))
-        .map(entry -> entry.getKey())
-        .collect(Collectors.toSet());
+    return toResources(allocationsByClient.get(client));
   }
 
   /**
@@ -83,40 +148,23 @@ class ReservationPool {
     requireNonNull(resources, "resources");
     requireNonNull(client, "client");
 
-    for (TCSResource<?> curResource : resources) {
-      // Check if the resource is available.
-      ReservationEntry entry = getReservationEntry(curResource);
-      if (!entry.isFree() && !entry.isAllocatedBy(client)) {
-        LOG.debug("{}: Resource unavailable: {}", client.getId(), entry.getResource());
-        return false;
-      }
-    }
-    return true;
+    return unavailableIndices(resources, client).isEmpty();
   }
 
   /**
-   * Returns a set of resources that is a subset of the given set of resources and is reserved/could
-   * be released by the given client.
+   * Returns the resources in the given set of resources that are not available for the given
+   * client, i.e. that are allocated by other clients.
    *
-   * @param resources The set of resources to be filtered for resources that could be released.
-   * @param client The client that should be able to release the returned resources.
-   * @return A set of resources that is a subset of the given set of resources and is reserved/could
-   * be released by the given client.
+   * @param resources The set of resources to be checked.
+   * @param client The client for which to check.
+   * @return The resources in the given set that are not available for the given client.
    */
-  private Set<TCSResource<?>> getFreeableResources(Set<TCSResource<?>> resources,
-                                                   Scheduler.Client client) {
-    // Make sure we're freeing only resources that are allocated by us.
-    final Set<TCSResource<?>> freeableResources = new HashSet<>();
-    for (TCSResource<?> curRes : resources) {
-      ReservationEntry entry = getReservationEntry(curRes);
-      if (!entry.isAllocatedBy(client)) {
-        LOG.warn("{}: Freed resource not reserved: {}, entry: {}", client.getId(), curRes, entry);
-      }
-      else {
-        freeableResources.add(curRes);
-      }
-    }
-    return freeableResources;
+  public Set<TCSResource<?>> unavailableResources(Set<TCSResource<?>> resources,
+                                                  Scheduler.Client client) {
+    requireNonNull(resources, "resources");
+    requireNonNull(client, "client");
+
+    return toResources(unavailableIndices(resources, client));
   }
 
   public void free(Scheduler.Client client, Set<TCSResource<?>> resources) {
@@ -124,39 +172,269 @@ class ReservationPool {
     requireNonNull(resources, "resources");
 
     LOG.debug("{}: Releasing resources: {}", client.getId(), resources);
-    Set<TCSResource<?>> freeableResources = getFreeableResources(resources,
-                                                                 client);
-    for (TCSResource<?> curResource : freeableResources) {
-      getReservationEntry(curResource).free();
+    // Make sure we're freeing only resources that are allocated by us.
+    for (TCSResource<?> curResource : resources) {
+      int index = indexOf(curResource);
+      if (holders[index] != client) {
+        LOG.warn("{}: Freed resource not reserved: {}, entry: {}",
+                 client.getId(),
+                 curResource,
+                 entries[index]);
+      }
+      else {
+        free(index);
+      }
     }
   }
 
   public void freeAll(Scheduler.Client client) {
     requireNonNull(client, "client");
 
-    reservations.values().stream()
-        .filter(reservationEntry -> reservationEntry.isAllocatedBy(client))
-        .forEach(reservationEntry -> reservationEntry.freeCompletely());
+    BitSet clientAllocations = allocationsByClient.remove(client);
+    if (clientAllocations == null) {
+      return;
+    }
+    for (int i = clientAllocations.nextSetBit(0); i >= 0; i = clientAllocations.nextSetBit(i + 1)) {
+      holders[i] = null;
+      counters[i] = 0;
+    }
+    allocated.andNot(clientAllocations);
   }
 
   public Map<String, Set<TCSResource<?>>> getAllocations() {
     final Map<String, Set<TCSResource<?>>> result = new HashMap<>();
-    for (Map.Entry<TCSResource<?>, ReservationEntry> curEntry : reservations.entrySet()) {
-      final TCSResource<?> curResource = curEntry.getKey();
-      final Scheduler.Client curUser = curEntry.getValue().getClient();
-      if (curUser != null) {
-        Set<TCSResource<?>> userResources = result.get(curUser.getId());
-        if (userResources == null) {
-          userResources = new HashSet<>();
-        }
-        userResources.add(curResource);
-        result.put(curUser.getId(), userResources);
-      }
+    for (Map.Entry<Scheduler.Client, BitSet> curEntry : allocationsByClient.entrySet()) {
+      result.put(curEntry.getKey().getId(), toResources(curEntry.getValue()));
     }
     return result;
   }
 
   public void clear() {
-    reservations.clear();
+    indices.clear();
+    allocationsByClient.clear();
+    allocated.clear();
+    Arrays.fill(resources, 0, resourceCount, null);
+    Arrays.fill(entries, 0, resourceCount, null);
+    Arrays.fill(holders, 0, resourceCount, null);
+    Arrays.fill(counters, 0, resourceCount, 0);
+    Arrays.fill(waitCounts, 0, resourceCount, 0);
+    Arrays.fill(waitTimes, 0, resourceCount, 0);
+    Arrays.fill(maxWaitTimes, 0, resourceCount, 0);
+    Arrays.fill(waitTimeHistograms, 0, resourceCount * WAIT_TIME_BUCKETS, 0);
+    resourceCount = 0;
+  }
+
+  /**
+   * Records that a client waited for the given resource before its allocation was granted.
+   *
+   * @param resource The resource.
+   * @param waitTime The time the client waited (in ms).
+   */
+  public void recordWait(TCSResource<?> resource, long waitTime) {
+    requireNonNull(resource, "resource");
+
+    int index = indexOf(resource);
+    waitCounts[index]++;
+    waitTimes[index] += waitTime;
+    maxWaitTimes[index] = Math.max(maxWaitTimes[index], waitTime);
+    waitTimeHistograms[index * WAIT_TIME_BUCKETS
+        + QuerySchedulerContention.getWaitTimeBucket(waitTime)]++;
+  }
+
+  /**
+   * Adds the statistics of all resources in this pool that clients waited for or are currently
+   * waiting for to the given list.
+   *
+   * @param waitersByResource The IDs of the clients currently waiting, mapped by the resources
+   * they are waiting for.
+   * @param result The list to add the statistics to.
+   */
+  public void collectContentions(Map<TCSResource<?>, List<String>> waitersByResource,
+                                 List<ResourceContention> result) {
+    requireNonNull(waitersByResource, "waitersByResource");
+    requireNonNull(result, "result");
+
+    for (int i = 0; i < resourceCount; i++) {
+      List<String> waiters = waitersByResource.get(resources[i]);
+      if (waitCounts[i] == 0 && waiters == null) {
+        continue;
+      }
+      result.add(new ResourceContention(
+          resources[i].getName(),
+          holders[i] == null ? null : holders[i].getId(),
+          waiters == null ? new ArrayList<>() : waiters,
+          waitCounts[i],
+          waitTimes[i],
+          maxWaitTimes[i],
+          Arrays.copyOfRange(waitTimeHistograms,
+                             i * WAIT_TIME_BUCKETS,
+                             (i + 1) * WAIT_TIME_BUCKETS)));
+    }
+  }
+
+  /**
+   * Returns the resource with the given index.
+   *
+   * @param index The resource's index.
+   * @return The resource with the given index.
+   */
+  TCSResource<?> getResource(int index) {
+    return resources[index];
+  }
+
+  /**
+   * Returns the client currently allocating the resource with the given index.
+   *
+   * @param index The resource's index.
+   * @return The client currently allocating the resource, or <code>null</code>, if the resource
+   * isn't currently allocated.
+   */
+  Scheduler.Client getClient(int index) {
+    return holders[index];
+  }
+
+  /**
+   * Returns the reservation counter of the resource with the given index.
+   *
+   * @param index The resource's index.
+   * @return The reservation counter of the resource.
+   */
+  int getCounter(int index) {
+    return counters[index];
+  }
+
+  /**
+   * Reserves the resource with the given index for the given client.
+   * Increments the reservation counter for the resource if the client has already allocated the
+   * resource before.
+   *
+   * @param index The resource's index.
+   * @param client The allocating client.
+   */
+  void allocate(int index, Scheduler.Client client) {
+    if (holders[index] == null) {
+      LOG.debug("Allocating resource {} for client {}", resources[index], client.getId());
+      holders[index] = client;
+      allocated.set(index);
+      allocationsByClient.computeIfAbsent(client, c -> new BitSet()).set(index);
+    }
+    else if (holders[index] != client) {
+      // The resource is already allocated by someone else - may not happen.
+      throw new IllegalStateException("'" + client + "' tried to allocate resource allocated by "
+          + holders[index]);
+    }
+    else {
+      LOG.debug("Incrementing allocation counter for resource {}; client: {}",
+                resources[index],
+                client.getId());
+    }
+    counters[index]++;
+  }
+
+  /**
+   * Deallocates the resource with the given index once, i.e. decrements the allocation counter.
+   * If the counter is decremented to zero, the resource is freed.
+   *
+   * @param index The resource's index.
+   */
+  void free(int index) {
+    checkState(counters[index] > 0, "counter is already less than 1");
+    counters[index]--;
+    if (counters[index] == 0) {
+      release(index);
+    }
+  }
+
+  /**
+   * Deallocates the resource with the given index completely, i.e. sets the allocation counter to
+   * zero and frees the resource.
+   *
+   * @param index The resource's index.
+   */
+  void freeCompletely(int index) {
+    counters[index] = 0;
+    release(index);
+  }
+
+  private void release(int index) {
+    Scheduler.Client client = holders[index];
+    if (client == null) {
+      return;
+    }
+    holders[index] = null;
+    allocated.clear(index);
+    BitSet clientAllocations = allocationsByClient.get(client);
+    clientAllocations.clear(index);
+    if (clientAllocations.isEmpty()) {
+      allocationsByClient.remove(client);
+    }
+  }
+
+  /**
+   * Returns the indices of the resources in the given set that are allocated by clients other
+   * than the given one.
+   *
+   * @param resources The resources.
+   * @param client The client.
+   * @return The indices of the resources not available for the given client.
+   */
+  private BitSet unavailableIndices(Set<TCSResource<?>> resources, Scheduler.Client client) {
+    BitSet result = new BitSet(resourceCount);
+    for (TCSResource<?> curResource : resources) {
+      result.set(indexOf(curResource));
+    }
+    result.and(allocated);
+    BitSet clientAllocations = allocationsByClient.get(client);
+    if (clientAllocations != null) {
+      result.andNot(clientAllocations);
+    }
+    if (LOG.isDebugEnabled()) {
+      for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+        LOG.debug("{}: Resource unavailable: {}", client.getId(), this.resources[i]);
+      }
+    }
+    return result;
+  }
+
+  private Set<TCSResource<?>> toResources(BitSet indexSet) {
+    Set<TCSResource<?>> result = new HashSet<>();
+    if (indexSet == null) {
+      return result;
+    }
+    for (int i = indexSet.nextSetBit(0); i >= 0; i = indexSet.nextSetBit(i + 1)) {
+      result.add(resources[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the index of the given resource, assigning a new one if the resource has not been seen
+   * before.
+   *
+   * @param resource The resource.
+   * @return The resource's index.
+   */
+  private int indexOf(TCSResource<?> resource) {
+    Integer index = indices.get(resource);
+    if (index != null) {
+      return index;
+    }
+
+    if (resourceCount == resources.length) {
+      int capacity = resources.length * 2;
+      resources = Arrays.copyOf(resources, capacity);
+      entries = Arrays.copyOf(entries, capacity);
+      holders = Arrays.copyOf(holders, capacity);
+      counters = Arrays.copyOf(counters, capacity);
+      waitCounts = Arrays.copyOf(waitCounts, capacity);
+      waitTimes = Arrays.copyOf(waitTimes, capacity);
+      maxWaitTimes = Arrays.copyOf(maxWaitTimes, capacity);
+      waitTimeHistograms = Arrays.copyOf(waitTimeHistograms, capacity * WAIT_TIME_BUCKETS);
+    }
+    int newIndex = resourceCount++;
+    resources[newIndex] = resource;
+    entries[newIndex] = new ReservationEntry(this, newIndex);
+    indices.put(resource, newIndex);
+    return newIndex;
   }
 }
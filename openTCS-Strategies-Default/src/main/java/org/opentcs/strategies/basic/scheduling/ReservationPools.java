@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import org.opentcs.access.queries.QuerySchedulerContention.ResourceContention;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.model.TCSResource;
+
+/**
+ * Partitions the resources of a plant model into regions, keeping a separate reservation pool for
+ * every region.
+ * <p>
+ * Every region's pool is guarded by its own lock, so allocations in different regions do not
+ * contend with each other. Operations touching multiple regions acquire the regions' locks in
+ * ascending order of the regions' indices, which prevents deadlocks between them.
+ * Apart from the methods for acquiring locks, all methods of this class expect the locks of the
+ * regions concerned to be held by the calling thread.
+ * </p>
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class ReservationPools {
+
+  /**
+   * The index of the region containing all resources not explicitly assigned to a region.
+   */
+  static final int DEFAULT_REGION = 0;
+  /**
+   * The regions' indices, mapped by the names of the resources assigned to them.
+   */
+  private final Map<String, Integer> regionsByResourceName;
+  /**
+   * The reservation pools, by region index.
+   */
+  private final ReservationPool[] pools;
+  /**
+   * The indices of all regions.
+   */
+  private final int[] allRegions;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param regionsByResourceName The regions' indices, mapped by the names of the resources
+   * assigned to them. Resources not contained are assigned to {@link #DEFAULT_REGION}.
+   * @param regionCount The number of regions, including the default region.
+   */
+  ReservationPools(@Nonnull Map<String, Integer> regionsByResourceName, int regionCount) {
+    this.regionsByResourceName = new HashMap<>(requireNonNull(regionsByResourceName,
+                                                              "regionsByResourceName"));
+    this.pools = new ReservationPool[regionCount];
+    this.allRegions = new int[regionCount];
+    for (int i = 0; i < regionCount; i++) {
+      pools[i] = new ReservationPool();
+      allRegions[i] = i;
+    }
+  }
+
+  /**
+   * Returns the number of regions.
+   *
+   * @return The number of regions.
+   */
+  public int getRegionCount() {
+    return pools.length;
+  }
+
+  /**
+   * Returns the number of allocator lanes required: one per region, plus one coordinating lane
+   * for allocations spanning multiple regions if there is more than one region.
+   *
+   * @return The number of allocator lanes.
+   */
+  public int getLaneCount() {
+    return pools.length == 1 ? 1 : pools.length + 1;
+  }
+
+  /**
+   * Returns the index of the allocator lane responsible for allocating the given resources.
+   *
+   * @param resources The resources.
+   * @return The index of the region containing all of the given resources, or the index of the
+   * coordinating lane if they span multiple regions.
+   */
+  public int laneFor(@Nonnull Set<TCSResource<?>> resources) {
+    BitSet regions = regionsOf(resources);
+    if (regions.cardinality() <= 1) {
+      return Math.max(regions.nextSetBit(0), DEFAULT_REGION);
+    }
+    return pools.length;
+  }
+
+  /**
+   * Executes the given action while holding the locks of all regions containing any of the given
+   * resources.
+   * If the given set of resources is empty, the lock of the default region is held, so the action
+   * is still serialized with other actions concerning that region.
+   *
+   * @param <T> The action's result type.
+   * @param resources The resources.
+   * @param action The action.
+   * @return The action's result.
+   */
+  public <T> T inRegionsOf(@Nonnull Set<TCSResource<?>> resources, @Nonnull Supplier<T> action) {
+    BitSet regions = regionsOf(resources);
+    if (regions.isEmpty()) {
+      regions.set(DEFAULT_REGION);
+    }
+    return inRegions(regions.stream().toArray(), 0, action);
+  }
+
+  /**
+   * Executes the given action while holding the locks of all regions.
+   * This should be avoided on frequently used paths, as it blocks all allocator lanes.
+   *
+   * @param <T> The action's result type.
+   * @param action The action.
+   * @return The action's result.
+   */
+  public <T> T inAllRegions(@Nonnull Supplier<T> action) {
+    return inRegions(allRegions, 0, action);
+  }
+
+  public ReservationEntry getReservationEntry(TCSResource<?> resource) {
+    return poolOf(resource).getReservationEntry(resource);
+  }
+
+  public Set<TCSResource<?>> unavailableResources(Set<TCSResource<?>> resources,
+                                                  Scheduler.Client client) {
+    Set<TCSResource<?>> result = new HashSet<>();
+    for (Map.Entry<ReservationPool, Set<TCSResource<?>>> entry
+             : resourcesByPool(resources).entrySet()) {
+      result.addAll(entry.getKey().unavailableResources(entry.getValue(), client));
+    }
+    return result;
+  }
+
+  public void free(Scheduler.Client client, Set<TCSResource<?>> resources) {
+    for (Map.Entry<ReservationPool, Set<TCSResource<?>>> entry
+             : resourcesByPool(resources).entrySet()) {
+      entry.getKey().free(client, entry.getValue());
+    }
+  }
+
+  public Set<TCSResource<?>> allocatedResources(Scheduler.Client client) {
+    Set<TCSResource<?>> result = new HashSet<>();
+    for (ReservationPool pool : pools) {
+      result.addAll(pool.allocatedResources(client));
+    }
+    return result;
+  }
+
+  /**
+   * Frees all resources allocated by the given client, acquiring the lock of one region at a time.
+   *
+   * @param client The client.
+   * @param released Called with the resources freed in a region while still holding the region's
+   * lock, unless no resources were freed in it.
+   * @return All resources freed.
+   */
+  public Set<TCSResource<?>> freeAll(@Nonnull Scheduler.Client client,
+                                     @Nonnull Consumer<Set<TCSResource<?>>> released) {
+    Set<TCSResource<?>> result = new HashSet<>();
+    for (ReservationPool pool : pools) {
+      synchronized (pool) {
+        Set<TCSResource<?>> freed = pool.allocatedResources(client);
+        pool.freeAll(client);
+        if (!freed.isEmpty()) {
+          released.accept(freed);
+        }
+        result.addAll(freed);
+      }
+    }
+    return result;
+  }
+
+  public Map<String, Set<TCSResource<?>>> getAllocations() {
+    Map<String, Set<TCSResource<?>>> result = new HashMap<>();
+    for (ReservationPool pool : pools) {
+      for (Map.Entry<String, Set<TCSResource<?>>> entry : pool.getAllocations().entrySet()) {
+        result.computeIfAbsent(entry.getKey(), clientId -> new HashSet<>())
+            .addAll(entry.getValue());
+      }
+    }
+    return result;
+  }
+
+  public void recordWait(Set<TCSResource<?>> resources, long waitTime) {
+    for (TCSResource<?> resource : resources) {
+      poolOf(resource).recordWait(resource, waitTime);
+    }
+  }
+
+  public List<ResourceContention> getContentions(
+      Map<TCSResource<?>, List<String>> waitersByResource) {
+    List<ResourceContention> result = new ArrayList<>();
+    for (ReservationPool pool : pools) {
+      pool.collectContentions(waitersByResource, result);
+    }
+    return result;
+  }
+
+  private <T> T inRegions(int[] regions, int index, Supplier<T> action) {
+    if (index == regions.length) {
+      return action.get();
+    }
+    synchronized (pools[regions[index]]) {
+      return inRegions(regions, index + 1, action);
+    }
+  }
+
+  private BitSet regionsOf(Set<TCSResource<?>> resources) {
+    BitSet result = new BitSet(pools.length);
+    for (TCSResource<?> resource : resources) {
+      result.set(regionOf(resource));
+    }
+    return result;
+  }
+
+  private int regionOf(TCSResource<?> resource) {
+    return regionsByResourceName.getOrDefault(resource.getName(), DEFAULT_REGION);
+  }
+
+  private ReservationPool poolOf(TCSResource<?> resource) {
+    return pools[regionOf(resource)];
+  }
+
+  private Map<ReservationPool, Set<TCSResource<?>>> resourcesByPool(
+      Set<TCSResource<?>> resources) {
+    if (pools.length == 1) {
+      Map<ReservationPool, Set<TCSResource<?>>> result = new HashMap<>();
+      result.put(pools[DEFAULT_REGION], resources);
+      return result;
+    }
+    Map<ReservationPool, Set<TCSResource<?>>> result = new HashMap<>();
+    for (TCSResource<?> resource : resources) {
+      result.computeIfAbsent(poolOf(resource), pool -> new HashSet<>()).add(resource);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opentcs.components.kernel.Scheduler.Client;
+import org.opentcs.data.model.TCSResource;
+
+/**
+ * Keeps track of the allocations deferred by all allocator lanes and the resources they are
+ * waiting for.
+ * Together with the current holders of these resources, this is the wait-for graph between
+ * clients.
+ * Instances of this class are safe for use by multiple threads.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+class WaitForGraph {
+
+  /**
+   * Deferred allocations, mapped to the resources they are waiting for.
+   */
+  private final Map<AllocatorCommand.Allocate, Set<TCSResource<?>>> blockersByAllocation
+      = new HashMap<>();
+  /**
+   * Deferred allocations, mapped by the clients requesting them.
+   */
+  private final Map<Client, Set<AllocatorCommand.Allocate>> allocationsByClient = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   */
+  WaitForGraph() {
+  }
+
+  /**
+   * Remembers the given allocation as waiting for the given resources.
+   *
+   * @param allocation The allocation.
+   * @param blockers The resources the allocation is waiting for.
+   */
+  public synchronized void addWaiting(AllocatorCommand.Allocate allocation,
+                                      Set<TCSResource<?>> blockers) {
+    blockersByAllocation.put(allocation, new HashSet<>(blockers));
+    allocationsByClient.computeIfAbsent(allocation.getClient(), client -> new HashSet<>())
+        .add(allocation);
+  }
+
+  /**
+   * Forgets the given allocation.
+   *
+   * @param allocation The allocation.
+   * @return <code>true</code> if, and only if, the allocation was waiting for resources.
+   */
+  public synchronized boolean removeWaiting(AllocatorCommand.Allocate allocation) {
+    if (blockersByAllocation.remove(allocation) == null) {
+      return false;
+    }
+    removeFromClient(allocation);
+    return true;
+  }
+
+  /**
+   * Notes that the given resource, which the given allocation was waiting for, has been released.
+   * If the allocation is not waiting for any other resources, it is forgotten.
+   *
+   * @param allocation The allocation.
+   * @param resource The released resource.
+   * @return <code>true</code> if, and only if, the allocation is not waiting for any other
+   * resources.
+   */
+  public synchronized boolean resourceReleased(AllocatorCommand.Allocate allocation,
+                                               TCSResource<?> resource) {
+    Set<TCSResource<?>> blockers = blockersByAllocation.get(allocation);
+    if (blockers == null) {
+      return false;
+    }
+    blockers.remove(resource);
+    if (!blockers.isEmpty()) {
+      return false;
+    }
+
+    blockersByAllocation.remove(allocation);
+    removeFromClient(allocation);
+    return true;
+  }
+
+  /**
+   * Returns the resources waited for by all clients with deferred allocations.
+   *
+   * @return The resources waited for, mapped by the clients waiting for them.
+   */
+  public synchronized Map<Client, Set<TCSResource<?>>> getWaitedForResources() {
+    return getWaitedForResources(Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns the resources waited for by all clients with allocations deferred that were created at
+   * or before the given time.
+   *
+   * @param createdBefore The latest creation time (in ms) of allocations to be considered.
+   * @return The resources waited for, mapped by the clients waiting for them.
+   */
+  public synchronized Map<Client, Set<TCSResource<?>>> getWaitedForResources(long createdBefore) {
+    Map<Client, Set<TCSResource<?>>> result = new HashMap<>();
+    for (Map.Entry<Client, Set<AllocatorCommand.Allocate>> entry
+             : allocationsByClient.entrySet()) {
+      Set<TCSResource<?>> resources = new HashSet<>();
+      for (AllocatorCommand.Allocate allocation : entry.getValue()) {
+        if (allocation.getCreationTime() <= createdBefore) {
+          resources.addAll(blockersByAllocation.get(allocation));
+        }
+      }
+      if (!resources.isEmpty()) {
+        result.put(entry.getKey(), resources);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the IDs of the clients waiting for resources, mapped by these resources.
+   *
+   * @return The IDs of the clients waiting, mapped by the resources they are waiting for.
+   */
+  public synchronized Map<TCSResource<?>, List<String>> getWaitersByResource() {
+    Map<TCSResource<?>, List<String>> result = new HashMap<>();
+    for (Map.Entry<Client, Set<TCSResource<?>>> entry : getWaitedForResources().entrySet()) {
+      for (TCSResource<?> resource : entry.getValue()) {
+        result.computeIfAbsent(resource, r -> new ArrayList<>()).add(entry.getKey().getId());
+      }
+    }
+    return result;
+  }
+
+  private void removeFromClient(AllocatorCommand.Allocate allocation) {
+    Set<AllocatorCommand.Allocate> clientAllocations
+        = allocationsByClient.get(allocation.getClient());
+    clientAllocations.remove(allocation);
+    if (clientAllocations.isEmpty()) {
+      allocationsByClient.remove(allocation.getClient());
+    }
+  }
+}
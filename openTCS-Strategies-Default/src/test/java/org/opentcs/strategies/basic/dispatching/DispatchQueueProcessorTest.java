@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import org.junit.*;
+import static org.junit.Assert.assertThat;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * Unit tests for {@link DispatchQueueProcessor}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class DispatchQueueProcessorTest {
+
+  /**
+   * The elements processed, in the order they were processed.
+   */
+  private List<Object> processedElements;
+  /**
+   * The class to test.
+   */
+  private DispatchQueueProcessor queueProcessor;
+
+  @Before
+  public void setUp() {
+    processedElements = new ArrayList<>();
+    queueProcessor = new DispatchQueueProcessor() {
+      @Override
+      protected void processQueueElement(Object element) {
+        synchronized (processedElements) {
+          processedElements.add(element);
+          processedElements.notifyAll();
+        }
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    queueProcessor.terminate();
+  }
+
+  @Test
+  public void mergeElementsForSameObjectWhilePending() throws InterruptedException {
+    Vehicle vehicle1 = new Vehicle("vehicle1");
+    Vehicle vehicle2 = new Vehicle("vehicle2");
+    Vehicle vehicle1Updated = vehicle1.withEnergyLevel(50);
+
+    queueProcessor.addToQueue(vehicle1);
+    queueProcessor.addToQueue(vehicle2);
+    queueProcessor.addToQueue(vehicle1Updated);
+    processElements(2);
+
+    assertThat(processedElements.size(), is(2));
+    assertThat(processedElements.get(0), is(sameInstance(vehicle1Updated)));
+    assertThat(processedElements.get(1), is(sameInstance(vehicle2)));
+    assertThat(queueProcessor.getMergedCount(), is(1L));
+  }
+
+  @Test
+  public void processWithdrawalsFirst() throws InterruptedException {
+    Vehicle vehicle = new Vehicle("vehicle1");
+    TransportOrder order = new TransportOrder("order1", new ArrayList<>());
+    WithdrawalByVehicle vehicleWithdrawal = new WithdrawalByVehicle(vehicle, false, false, false);
+    WithdrawalByOrder orderWithdrawal = new WithdrawalByOrder(order, false, false);
+
+    queueProcessor.addToQueue(vehicle);
+    queueProcessor.addToQueue(vehicleWithdrawal);
+    queueProcessor.addToQueue(order);
+    queueProcessor.addToQueue(orderWithdrawal);
+    processElements(4);
+
+    assertThat(processedElements,
+               is(equalTo(Arrays.asList(vehicleWithdrawal, orderWithdrawal, vehicle, order))));
+    assertThat(queueProcessor.getMergedCount(), is(0L));
+  }
+
+  @Test
+  public void removeElementForSameObject() throws InterruptedException {
+    Vehicle vehicle1 = new Vehicle("vehicle1");
+    Vehicle vehicle2 = new Vehicle("vehicle2");
+
+    queueProcessor.addToQueue(vehicle1);
+    queueProcessor.addToQueue(vehicle2);
+    queueProcessor.removeFromQueue(vehicle1.withEnergyLevel(50));
+    processElements(1);
+
+    assertThat(processedElements, is(equalTo(Arrays.asList(vehicle2))));
+  }
+
+  private void processElements(int expectedCount)
+      throws InterruptedException {
+    new Thread(queueProcessor, "DispatchQueueProcessorTest-processor").start();
+    long deadline = System.currentTimeMillis() + 5000;
+    synchronized (processedElements) {
+      while (processedElements.size() < expectedCount && System.currentTimeMillis() < deadline) {
+        processedElements.wait(100);
+      }
+    }
+    queueProcessor.terminate();
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching;
+
+import java.util.Arrays;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import org.junit.*;
+import static org.junit.Assert.assertThat;
+import org.opentcs.data.model.Triple;
+
+/**
+ * Unit tests for {@link SpatialIndex}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class SpatialIndexTest {
+
+  /**
+   * The class to test.
+   */
+  private SpatialIndex<String> index;
+
+  @Before
+  public void setUp() {
+    index = new SpatialIndex<>(1000);
+  }
+
+  @Test
+  public void findNearestElementsSortedByDistance() {
+    index.put("far", new Triple(9000, 9000, 0));
+    index.put("near", new Triple(1200, 1100, 0));
+    index.put("nearest", new Triple(900, 1000, 0));
+    index.put("middle", new Triple(3000, 2500, 0));
+
+    assertThat(index.findNearest(new Triple(1000, 1000, 0), 3, element -> true),
+               is(equalTo(Arrays.asList("nearest", "near", "middle"))));
+  }
+
+  @Test
+  public void preferNearerElementInFartherCell() {
+    // "diagonal" is in a neighbouring cell, but farther away than "straight" two cells away.
+    index.put("diagonal", new Triple(1999, 1999, 0));
+    index.put("straight", new Triple(1100, 2100, 0));
+
+    assertThat(index.findNearest(new Triple(1100, 900, 0), 1, element -> true),
+               is(equalTo(Arrays.asList("straight"))));
+  }
+
+  @Test
+  public void findElementsFarAwayFromQueriedPosition() {
+    index.put("element1", new Triple(-50000, -50000, 0));
+    index.put("element2", new Triple(-51000, -50000, 0));
+
+    assertThat(index.findNearest(new Triple(50000, 50000, 0), 5, element -> true),
+               is(equalTo(Arrays.asList("element1", "element2"))));
+  }
+
+  @Test
+  public void ignoreFilteredElements() {
+    index.put("accepted", new Triple(5000, 5000, 0));
+    index.put("rejected", new Triple(100, 100, 0));
+
+    assertThat(index.findNearest(new Triple(0, 0, 0), 1, element -> !element.equals("rejected")),
+               is(equalTo(Arrays.asList("accepted"))));
+  }
+
+  @Test
+  public void moveAndRemoveElements() {
+    index.put("element", new Triple(100, 100, 0));
+    index.put("element", new Triple(8000, 8000, 0));
+    index.put("other", new Triple(5000, 5000, 0));
+
+    assertThat(index.findNearest(new Triple(0, 0, 0), 2, element -> true),
+               is(equalTo(Arrays.asList("other", "element"))));
+    assertThat(index.size(), is(2));
+
+    index.remove("other");
+    index.remove("element");
+    assertThat(index.findNearest(new Triple(0, 0, 0), 2, element -> true), is(empty()));
+  }
+}
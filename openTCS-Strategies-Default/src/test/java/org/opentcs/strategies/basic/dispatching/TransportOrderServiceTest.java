@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import org.junit.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.order.OrderSequence;
+import org.opentcs.data.order.TransportOrder;
+
+/**
+ * Unit tests for {@link TransportOrderService}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class TransportOrderServiceTest {
+
+  /**
+   * The transport orders known to the kernel, by name.
+   */
+  private Map<String, TransportOrder> orders;
+  /**
+   * The order sequences known to the kernel, by name.
+   */
+  private Map<String, OrderSequence> sequences;
+  /**
+   * The kernel.
+   */
+  private LocalKernel kernel;
+  /**
+   * The class to test.
+   */
+  private TransportOrderService transportOrderService;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    orders = new HashMap<>();
+    sequences = new HashMap<>();
+    kernel = mock(LocalKernel.class);
+    doAnswer(invocation -> orders.get(
+        ((TCSObjectReference<?>) invocation.getArguments()[1]).getName()))
+        .when(kernel).getTCSObject(eq(TransportOrder.class), any(TCSObjectReference.class));
+    doAnswer(invocation -> sequences.get(
+        ((TCSObjectReference<?>) invocation.getArguments()[1]).getName()))
+        .when(kernel).getTCSObject(eq(OrderSequence.class), any(TCSObjectReference.class));
+    doAnswer(invocation -> {
+      TCSObjectReference<TransportOrder> ref
+          = (TCSObjectReference<TransportOrder>) invocation.getArguments()[0];
+      TransportOrder.State state = (TransportOrder.State) invocation.getArguments()[1];
+      orders.put(ref.getName(), orders.get(ref.getName()).withState(state));
+      return null;
+    }).when(kernel).setTransportOrderState(any(), any());
+    doAnswer(invocation -> {
+      TCSObjectReference<OrderSequence> ref
+          = (TCSObjectReference<OrderSequence>) invocation.getArguments()[0];
+      int index = (Integer) invocation.getArguments()[1];
+      sequences.put(ref.getName(), sequences.get(ref.getName()).withFinishedIndex(index));
+      return null;
+    }).when(kernel).setOrderSequenceFinishedIndex(any(), anyInt());
+    transportOrderService = new TransportOrderService(kernel);
+  }
+
+  @Test
+  public void unblockDependentsOfFinishedOrder() {
+    TransportOrder dependency = addOrder(new TransportOrder("dependency", new ArrayList<>()));
+    TransportOrder dependent = addOrder(new TransportOrder("dependent", new ArrayList<>())
+        .withDependencies(refs(dependency)));
+    addOrder(new TransportOrder("unrelated", new ArrayList<>())
+        .withDependencies(refs(addOrder(new TransportOrder("other", new ArrayList<>())))));
+
+    activate("dependent");
+    activate("unrelated");
+    assertThat(transportOrderService.findNewDispatchableOrders(), is(empty()));
+
+    transportOrderService.updateTransportOrderState(dependency.getReference(),
+                                                    TransportOrder.State.FINISHED);
+
+    assertThat(names(transportOrderService.findNewDispatchableOrders()),
+               is(equalTo(new HashSet<>(Arrays.asList(dependent.getName())))));
+    assertThat(orders.get("dependent").getState(), is(TransportOrder.State.DISPATCHABLE));
+    assertThat(orders.get("unrelated").getState(), is(TransportOrder.State.ACTIVE));
+    verify(kernel, never()).getTCSObjects(TransportOrder.class);
+  }
+
+  @Test
+  public void keepDependentBlockedByOtherUnfinishedDependency() {
+    TransportOrder dependency1 = addOrder(new TransportOrder("dependency1", new ArrayList<>()));
+    TransportOrder dependency2 = addOrder(new TransportOrder("dependency2", new ArrayList<>()));
+    addOrder(new TransportOrder("dependent", new ArrayList<>())
+        .withDependencies(refs(dependency1, dependency2)));
+
+    activate("dependent");
+    transportOrderService.updateTransportOrderState(dependency1.getReference(),
+                                                    TransportOrder.State.FINISHED);
+    assertThat(transportOrderService.findNewDispatchableOrders(), is(empty()));
+
+    transportOrderService.updateTransportOrderState(dependency2.getReference(),
+                                                    TransportOrder.State.FINISHED);
+    assertThat(names(transportOrderService.findNewDispatchableOrders()),
+               is(equalTo(new HashSet<>(Arrays.asList("dependent")))));
+  }
+
+  @Test
+  public void keepDependentOfFailedOrderBlocked() {
+    TransportOrder dependency = addOrder(new TransportOrder("dependency", new ArrayList<>()));
+    addOrder(new TransportOrder("dependent", new ArrayList<>())
+        .withDependencies(refs(dependency)));
+    TransportOrder other = addOrder(new TransportOrder("other", new ArrayList<>()));
+
+    activate("dependent");
+    transportOrderService.updateTransportOrderState(dependency.getReference(),
+                                                    TransportOrder.State.FAILED);
+    assertThat(transportOrderService.findNewDispatchableOrders(), is(empty()));
+
+    // Once the failed dependency is gone, the dependent is unblocked with the next final state.
+    orders.remove("dependency");
+    transportOrderService.updateTransportOrderState(other.getReference(),
+                                                    TransportOrder.State.FINISHED);
+    assertThat(names(transportOrderService.findNewDispatchableOrders()),
+               is(equalTo(new HashSet<>(Arrays.asList("dependent")))));
+  }
+
+  @Test
+  public void keepDependentOfUnroutableOrderBlocked() {
+    TransportOrder dependency = addOrder(new TransportOrder("dependency", new ArrayList<>()));
+    addOrder(new TransportOrder("dependent", new ArrayList<>())
+        .withDependencies(refs(dependency)));
+    TransportOrder other = addOrder(new TransportOrder("other", new ArrayList<>()));
+
+    activate("dependent");
+    transportOrderService.updateTransportOrderState(dependency.getReference(),
+                                                    TransportOrder.State.UNROUTABLE);
+    assertThat(transportOrderService.findNewDispatchableOrders(), is(empty()));
+
+    // The dependent is now indexed as blocked by a final dependency, not by an active one.
+    orders.remove("dependency");
+    transportOrderService.updateTransportOrderState(other.getReference(),
+                                                    TransportOrder.State.UNROUTABLE);
+    assertThat(names(transportOrderService.findNewDispatchableOrders()),
+               is(equalTo(new HashSet<>(Arrays.asList("dependent")))));
+  }
+
+  @Test
+  public void unblockNextOrderInSequence() {
+    OrderSequence seq = new OrderSequence("sequence");
+    TransportOrder first = addOrder(new TransportOrder("first", new ArrayList<>())
+        .withWrappingSequence(seq.getReference()));
+    addOrder(new TransportOrder("second", new ArrayList<>())
+        .withWrappingSequence(seq.getReference()));
+    sequences.put(seq.getName(), seq.withOrder(first.getReference())
+                  .withOrder(orders.get("second").getReference()));
+
+    activate("second");
+    assertThat(transportOrderService.findNewDispatchableOrders(), is(empty()));
+
+    transportOrderService.updateTransportOrderState(first.getReference(),
+                                                    TransportOrder.State.FINISHED);
+    assertThat(names(transportOrderService.findNewDispatchableOrders()),
+               is(equalTo(new HashSet<>(Arrays.asList("second")))));
+  }
+
+  private TransportOrder addOrder(TransportOrder order) {
+    orders.put(order.getName(), order);
+    return order;
+  }
+
+  private void activate(String orderName) {
+    transportOrderService.updateTransportOrderState(orders.get(orderName).getReference(),
+                                                    TransportOrder.State.ACTIVE);
+  }
+
+  private static Set<TCSObjectReference<TransportOrder>> refs(TransportOrder... orders) {
+    return Arrays.stream(orders).map(TransportOrder::getReference).collect(Collectors.toSet());
+  }
+
+  private static Set<String> names(Set<TransportOrder> orders) {
+    return orders.stream().map(TransportOrder::getName).collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching.assignment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.components.kernel.Router;
+import org.opentcs.data.TCSObject;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.strategies.basic.dispatching.CompositeTransportOrderSelectionVeto;
+import org.opentcs.strategies.basic.dispatching.OrderReservationPool;
+import org.opentcs.strategies.basic.dispatching.ProcessabilityChecker;
+import org.opentcs.strategies.basic.dispatching.VehicleOrderSelection;
+
+/**
+ * Unit tests for {@link BatchAssignmentStrategy}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class BatchAssignmentStrategyTest {
+
+  private LocalKernel kernel;
+
+  private Router router;
+
+  private ProcessabilityChecker processabilityChecker;
+
+  private BatchAssignmentStrategy strategy;
+
+  private Point vehiclePosition;
+
+  @Before
+  public void setUp() {
+    kernel = mock(LocalKernel.class);
+    router = mock(Router.class);
+    processabilityChecker = mock(ProcessabilityChecker.class);
+    strategy = new BatchAssignmentStrategy(
+        kernel,
+        router,
+        processabilityChecker,
+        new OrderReservationPool(),
+        (order1, order2) -> order1.getName().compareTo(order2.getName()),
+        new CompositeTransportOrderSelectionVeto(new HashSet<>()));
+
+    vehiclePosition = addObject(Point.class, new Point("Point-0"));
+    when(router.getCostMatrix(any(Vehicle.class), anyList(), anyList()))
+        .thenAnswer(invocation -> new long[1][invocation.<List<?>>getArgument(2).size()]);
+    when(router.getRoute(any(Vehicle.class), any(Point.class), any(TransportOrder.class)))
+        .thenReturn(Optional.of(Collections.emptyList()));
+  }
+
+  @Test
+  public void assignProcessableOrderPrecedingUnprocessableOnes() {
+    Point destination = addObject(Point.class, new Point("Point-1"));
+    Vehicle vehicle = addObject(Vehicle.class, createIdleVehicle("Vehicle-1"));
+    TransportOrder unprocessable = addObject(TransportOrder.class,
+                                             createOrder("Order-1", destination, "MOVE"));
+    TransportOrder processable = addObject(TransportOrder.class,
+                                           createOrder("Order-2", destination, "MOVE"));
+    when(processabilityChecker.checkProcessability(vehicle, unprocessable)).thenReturn(false);
+    when(processabilityChecker.checkProcessability(vehicle, processable)).thenReturn(true);
+
+    List<VehicleOrderSelection> selections
+        = strategy.selectAssignments(Arrays.asList(vehicle.getReference()),
+                                     Arrays.asList(unprocessable.getReference(),
+                                                   processable.getReference()));
+
+    assertEquals(1, selections.size());
+    assertEquals(vehicle, selections.get(0).getVehicle());
+    assertEquals(processable, selections.get(0).getTransportOrder());
+  }
+
+  @Test
+  public void ignoreVehiclesAndOrdersNotCollected() {
+    Point destination = addObject(Point.class, new Point("Point-1"));
+    Vehicle vehicle = addObject(Vehicle.class, createIdleVehicle("Vehicle-1"));
+    TransportOrder order = addObject(TransportOrder.class,
+                                     createOrder("Order-1", destination, "MOVE"));
+    when(processabilityChecker.checkProcessability(vehicle, order)).thenReturn(true);
+
+    assertTrue(strategy.selectAssignments(Collections.emptyList(),
+                                          Arrays.asList(order.getReference()))
+        .isEmpty());
+    assertTrue(strategy.selectAssignments(Arrays.asList(vehicle.getReference()),
+                                          Collections.emptyList())
+        .isEmpty());
+    verify(router, never()).getRoute(any(Vehicle.class),
+                                     any(Point.class),
+                                     any(TransportOrder.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void considerOnlyHaltingPositionsAllowingTheOperation() {
+    LocationType locationType = addObject(LocationType.class,
+                                          new LocationType("LocationType-1")
+                                              .withAllowedOperations(Arrays.asList("LOAD")));
+    Location location = new Location("Location-1", locationType.getReference());
+    Point loadPoint = addObject(Point.class, new Point("Point-1"));
+    Point unloadPoint = addObject(Point.class, new Point("Point-2"));
+    Point unrestrictedPoint = addObject(Point.class, new Point("Point-3"));
+    Point reportPoint = addObject(Point.class,
+                                  new Point("Point-4").withType(Point.Type.REPORT_POSITION));
+    location = addObject(Location.class, location.withAttachedLinks(new HashSet<>(Arrays.asList(
+        new Location.Link(location.getReference(), loadPoint.getReference())
+            .withAllowedOperations(Collections.singleton("LOAD")),
+        new Location.Link(location.getReference(), unloadPoint.getReference())
+            .withAllowedOperations(Collections.singleton("UNLOAD")),
+        new Location.Link(location.getReference(), unrestrictedPoint.getReference()),
+        new Location.Link(location.getReference(), reportPoint.getReference())))));
+    Vehicle vehicle = addObject(Vehicle.class, createIdleVehicle("Vehicle-1"));
+    TransportOrder order = addObject(TransportOrder.class,
+                                     createOrder("Order-1", location, "LOAD"));
+    when(processabilityChecker.checkProcessability(vehicle, order)).thenReturn(true);
+
+    strategy.selectAssignments(Arrays.asList(vehicle.getReference()),
+                               Arrays.asList(order.getReference()));
+
+    ArgumentCaptor<List<Point>> destinations = ArgumentCaptor.forClass(List.class);
+    verify(router).getCostMatrix(eq(vehicle), anyList(), destinations.capture());
+    assertEquals(new HashSet<>(Arrays.asList(loadPoint, unrestrictedPoint)),
+                 new HashSet<>(destinations.getValue()));
+  }
+
+  private Vehicle createIdleVehicle(String name) {
+    return new Vehicle(name)
+        .withState(Vehicle.State.IDLE)
+        .withProcState(Vehicle.ProcState.IDLE)
+        .withCurrentPosition(vehiclePosition.getReference());
+  }
+
+  private TransportOrder createOrder(String name, TCSObject<?> destination, String operation) {
+    DriveOrder driveOrder = new DriveOrder(
+        new DriveOrder.Destination(destination.getReference()).withOperation(operation));
+    return new TransportOrder(name, Collections.singletonList(driveOrder))
+        .withState(TransportOrder.State.DISPATCHABLE);
+  }
+
+  private <T extends TCSObject<T>> T addObject(Class<T> clazz, T object) {
+    when(kernel.getTCSObject(clazz, object.getReference())).thenReturn(object);
+    when(kernel.getTCSObject(clazz, object.getName())).thenReturn(object);
+    return object;
+  }
+}
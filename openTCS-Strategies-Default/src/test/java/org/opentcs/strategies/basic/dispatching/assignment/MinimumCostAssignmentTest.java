@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.dispatching.assignment;
+
+import org.junit.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.opentcs.strategies.basic.dispatching.assignment.MinimumCostAssignment.UNASSIGNABLE;
+
+/**
+ * Unit tests for {@link MinimumCostAssignment}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class MinimumCostAssignmentTest {
+
+  @Test
+  public void preferTotalCostsOverCheapestSinglePair() {
+    // Greedily assigning row 0 to its cheapest column 0 would force row 1 to column 1 (total 11).
+    long[][] costs = {
+      {1, 2},
+      {2, 10}
+    };
+
+    assertArrayEquals(new int[]{1, 0}, MinimumCostAssignment.solve(costs));
+  }
+
+  @Test
+  public void solveSquareMatrix() {
+    long[][] costs = {
+      {4, 1, 3},
+      {2, 0, 5},
+      {3, 2, 2}
+    };
+
+    assertArrayEquals(new int[]{1, 0, 2}, MinimumCostAssignment.solve(costs));
+  }
+
+  @Test
+  public void leaveRowsUnassignedIfThereAreMoreRowsThanColumns() {
+    long[][] costs = {
+      {5},
+      {3},
+      {4}
+    };
+
+    assertArrayEquals(new int[]{-1, 0, -1}, MinimumCostAssignment.solve(costs));
+  }
+
+  @Test
+  public void assignCheapestColumnsIfThereAreMoreColumnsThanRows() {
+    long[][] costs = {
+      {7, 3, 9, 1},
+      {2, 8, 6, 4}
+    };
+
+    assertArrayEquals(new int[]{3, 0}, MinimumCostAssignment.solve(costs));
+  }
+
+  @Test
+  public void neverAssignUnassignablePairs() {
+    long[][] costs = {
+      {1, UNASSIGNABLE},
+      {2, UNASSIGNABLE}
+    };
+
+    assertArrayEquals(new int[]{0, -1}, MinimumCostAssignment.solve(costs));
+  }
+
+  @Test
+  public void maximizeNumberOfAssignmentsBeforeMinimizingCosts() {
+    // Assigning row 0 to its cheap column 0 would leave row 1 without any assignable column.
+    long[][] costs = {
+      {1, 100},
+      {1, UNASSIGNABLE}
+    };
+
+    assertArrayEquals(new int[]{1, 0}, MinimumCostAssignment.solve(costs));
+  }
+
+  @Test
+  public void handleEmptyMatrix() {
+    assertArrayEquals(new int[0], MinimumCostAssignment.solve(new long[0][0]));
+  }
+}
@@ -17,6 +17,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import org.junit.*;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.opentcs.access.LocalKernel;
@@ -45,6 +46,7 @@ public class DefaultParkingPositionSupplierTest {
   public void setUp() {
     kernel = mock(LocalKernel.class);
     router = mock(Router.class);
+    when(router.getCostMatrix(any(), any(), any())).thenCallRealMethod();
     vehicle2 = new Vehicle("vehicle2");
     points = new Point[10];
     supplier = new DefaultParkingPositionSupplier(kernel, router);
@@ -17,6 +17,7 @@ import static org.hamcrest.Matchers.empty;
 import org.junit.*;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.opentcs.access.LocalKernel;
@@ -52,6 +53,7 @@ public class DefaultRechargePositionSupplierTest {
   public void setUp() {
     kernel = mock(LocalKernel.class);
     router = mock(Router.class);
+    when(router.getCostMatrix(any(), any(), any())).thenCallRealMethod();
     rechargePosSupplier = new DefaultRechargePositionSupplier(kernel, router);
   }
 
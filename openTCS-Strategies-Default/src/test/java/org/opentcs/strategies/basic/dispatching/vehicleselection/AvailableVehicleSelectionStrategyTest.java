@@ -21,7 +21,11 @@ import static org.hamcrest.Matchers.nullValue;
 import org.junit.*;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.opentcs.access.LocalKernel;
 import org.opentcs.components.kernel.Router;
@@ -33,8 +37,11 @@ import org.opentcs.data.order.DriveOrder;
 import org.opentcs.data.order.Route;
 import org.opentcs.data.order.Route.Step;
 import org.opentcs.data.order.TransportOrder;
+import org.opentcs.strategies.basic.dispatching.DefaultDispatcherConfiguration;
 import org.opentcs.strategies.basic.dispatching.ProcessabilityChecker;
 import org.opentcs.strategies.basic.dispatching.VehicleOrderSelection;
+import org.opentcs.strategies.basic.dispatching.VehiclePositionIndex;
+import org.opentcs.util.eventsystem.SynchronousEventHub;
 
 /**
  *
@@ -46,6 +53,7 @@ public class AvailableVehicleSelectionStrategyTest {
   private Router router;
   private ProcessabilityChecker processabilityChecker;
   private Comparator<VehicleCandidate> candidateComparator;
+  private DefaultDispatcherConfiguration configuration;
   private AvailableVehicleSelectionStrategy strategy;
   private TransportOrder transportOrder;
   private Vehicle vehicle1;
@@ -62,14 +70,11 @@ public class AvailableVehicleSelectionStrategyTest {
     kernel = mock(LocalKernel.class);
     router = mock(Router.class);
     processabilityChecker = mock(ProcessabilityChecker.class);
+    configuration = mock(DefaultDispatcherConfiguration.class);
     transportOrder = createPlainTransportOrder("transportOrder");
     positionVehicle1 = new Point("positionVehicle1");
     vehicle1 = new Vehicle("vehicle1").withCurrentPosition(positionVehicle1.getReference());
-    strategy = new AvailableVehicleSelectionStrategy(
-        kernel,
-        router,
-        processabilityChecker,
-        candidateComparator);
+    strategy = createStrategy();
     strategy.initialize();
   }
 
@@ -161,6 +166,123 @@ public class AvailableVehicleSelectionStrategyTest {
     assertThat(result.getVehicle(), is(equalTo(vehicle2)));
   }
 
+  @Test
+  public void returnsCheapestVehicleOrderEvaluatingCandidatesInParallel() {
+    when(configuration.vehicleSelectionParallelism()).thenReturn(4);
+    strategy.terminate();
+    strategy = createStrategy();
+    strategy.initialize();
+
+    List<Vehicle> vehicles = new LinkedList<>();
+    for (int i = 0; i < 8; i++) {
+      Point position = new Point("position" + i);
+      Vehicle vehicle = new Vehicle("vehicle" + i).withCurrentPosition(position.getReference());
+      vehicles.add(vehicle);
+      when(processabilityChecker.availableForTransportOrder(vehicle, transportOrder))
+          .thenReturn(true);
+      when(processabilityChecker.checkProcessability(vehicle, transportOrder)).thenReturn(true);
+      when(kernel.getTCSObject(Point.class, position.getReference())).thenReturn(position);
+      when(router.getRoute(vehicle, position, transportOrder))
+          .thenReturn(Optional.of(createSingleDriveOrderWithCosts("destination" + i,
+                                                                   Math.abs(5 - i) + 1)));
+    }
+    when(kernel.getTCSObjects(Vehicle.class)).thenReturn(new HashSet<>(vehicles));
+
+    VehicleOrderSelection result = strategy.selectVehicle(transportOrder);
+    Assert.assertNotNull(result);
+    assertThat(result.getVehicle(), is(equalTo(vehicles.get(5))));
+  }
+
+  @Test
+  public void skipsVehiclesThatCannotBeCheaperThanBestCandidate() {
+    when(configuration.vehicleSelectionParallelism()).thenReturn(1);
+    when(configuration.pruneVehicleCandidates()).thenReturn(true);
+    candidateComparator = new ClosestVehicleComparator();
+    strategy.terminate();
+    strategy = createStrategy();
+    strategy.initialize();
+    Point destination = new Point("destination");
+    TransportOrder order = new TransportOrder(
+        "order",
+        new LinkedList<>(Arrays.asList(
+            new DriveOrder(new DriveOrder.Destination(destination.getReference())))));
+    when(kernel.getTCSObject(Point.class, destination.getName())).thenReturn(destination);
+
+    Point positionVehicle2 = new Point("pointVehicle2");
+    Vehicle vehicle2 = new Vehicle("vehicle2").withCurrentPosition(positionVehicle2.getReference());
+    when(kernel.getTCSObjects(Vehicle.class))
+        .thenReturn(new HashSet<>(Arrays.asList(vehicle1, vehicle2)));
+    when(processabilityChecker.availableForTransportOrder(vehicle1, order)).thenReturn(true);
+    when(processabilityChecker.availableForTransportOrder(vehicle2, order)).thenReturn(true);
+    when(processabilityChecker.checkProcessability(vehicle1, order)).thenReturn(true);
+    when(processabilityChecker.checkProcessability(vehicle2, order)).thenReturn(true);
+    when(kernel.getTCSObject(Point.class, positionVehicle1.getReference()))
+        .thenReturn(positionVehicle1);
+    when(kernel.getTCSObject(Point.class, positionVehicle2.getReference()))
+        .thenReturn(positionVehicle2);
+    // Vehicle 2 is closer to the first destination, and its complete route is cheaper than even
+    // the way to the first destination for vehicle 1.
+    when(router.getCostMatrix(eq(vehicle1), any(), any())).thenReturn(new long[][]{{30}});
+    when(router.getCostMatrix(eq(vehicle2), any(), any())).thenReturn(new long[][]{{5}});
+    when(router.getRoute(vehicle2, positionVehicle2, order))
+        .thenReturn(Optional.of(createSingleDriveOrderWithCosts("destination2", 20)));
+
+    VehicleOrderSelection result = strategy.selectVehicle(order);
+    Assert.assertNotNull(result);
+    assertThat(result.getVehicle(), is(equalTo(vehicle2)));
+    verify(router, never()).getRoute(vehicle1, positionVehicle1, order);
+  }
+
+  @Test
+  public void ignoresPruningIfCandidatesAreNotComparedByCostsFirst() {
+    when(configuration.vehicleSelectionParallelism()).thenReturn(1);
+    when(configuration.pruneVehicleCandidates()).thenReturn(true);
+    // Prefer vehicles by their names, regardless of their routing costs.
+    candidateComparator = Comparator.comparing(candidate -> candidate.getVehicle().getName());
+    strategy.terminate();
+    strategy = createStrategy();
+    strategy.initialize();
+    Point destination = new Point("destination");
+    TransportOrder order = new TransportOrder(
+        "order",
+        new LinkedList<>(Arrays.asList(
+            new DriveOrder(new DriveOrder.Destination(destination.getReference())))));
+    when(kernel.getTCSObject(Point.class, destination.getName())).thenReturn(destination);
+
+    Point positionVehicle2 = new Point("pointVehicle2");
+    Vehicle vehicle2 = new Vehicle("vehicle2").withCurrentPosition(positionVehicle2.getReference());
+    when(kernel.getTCSObjects(Vehicle.class))
+        .thenReturn(new HashSet<>(Arrays.asList(vehicle1, vehicle2)));
+    when(processabilityChecker.availableForTransportOrder(vehicle1, order)).thenReturn(true);
+    when(processabilityChecker.availableForTransportOrder(vehicle2, order)).thenReturn(true);
+    when(processabilityChecker.checkProcessability(vehicle1, order)).thenReturn(true);
+    when(processabilityChecker.checkProcessability(vehicle2, order)).thenReturn(true);
+    when(kernel.getTCSObject(Point.class, positionVehicle1.getReference()))
+        .thenReturn(positionVehicle1);
+    when(kernel.getTCSObject(Point.class, positionVehicle2.getReference()))
+        .thenReturn(positionVehicle2);
+    when(router.getCostMatrix(eq(vehicle1), any(), any())).thenReturn(new long[][]{{30}});
+    when(router.getCostMatrix(eq(vehicle2), any(), any())).thenReturn(new long[][]{{5}});
+    when(router.getRoute(vehicle1, positionVehicle1, order))
+        .thenReturn(Optional.of(createSingleDriveOrderWithCosts("destination1", 40)));
+    when(router.getRoute(vehicle2, positionVehicle2, order))
+        .thenReturn(Optional.of(createSingleDriveOrderWithCosts("destination2", 20)));
+
+    VehicleOrderSelection result = strategy.selectVehicle(order);
+    Assert.assertNotNull(result);
+    assertThat(result.getVehicle(), is(equalTo(vehicle1)));
+  }
+
+  private AvailableVehicleSelectionStrategy createStrategy() {
+    return new AvailableVehicleSelectionStrategy(kernel,
+                                                 router,
+                                                 processabilityChecker,
+                                                 candidateComparator,
+                                                 configuration,
+                                                 new VehiclePositionIndex(kernel,
+                                                                          new SynchronousEventHub<>()));
+  }
+
   private TransportOrder createPlainTransportOrder(String transportOrderName) {
     Location destLocation
         = new Location("Some location", new LocationType("Some location type").getReference());
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class AlternativeRouteCacheTest {
+
+  private Point pointA;
+  private Point pointB;
+  private Point pointC;
+
+  private Path pathAB;
+  private Path pathBC;
+
+  private AlternativeRouteCache cache;
+
+  @Before
+  public void setUp() {
+    pointA = new Point("A");
+    pointB = new Point("B");
+    pointC = new Point("C");
+    pathAB = new Path("A --- B", pointA.getReference(), pointB.getReference());
+    pathBC = new Path("B --- C", pointB.getReference(), pointC.getReference());
+
+    cache = new AlternativeRouteCache(2);
+    cache.updatePaths(Arrays.asList(pathAB, pathBC));
+  }
+
+  @Test
+  public void returnCachedRoutes() {
+    AlternativeRouteCache.Key key = new AlternativeRouteCache.Key(0, "A", "B");
+    List<Route> routes = Arrays.asList(route(pathAB, pointA, pointB));
+    cache.put(key, 3, routes);
+
+    assertEquals(routes, cache.get(key, 3));
+    assertEquals(routes, cache.get(key, 5));
+    assertNull(cache.get(new AlternativeRouteCache.Key(1, "A", "B"), 1));
+  }
+
+  @Test
+  public void requireRecomputationForMoreRoutesThanRequestedBefore() {
+    AlternativeRouteCache.Key key = new AlternativeRouteCache.Key(0, "A", "B");
+    cache.put(key, 1, Arrays.asList(route(pathAB, pointA, pointB)));
+
+    assertNotNull(cache.get(key, 1));
+    assertNull(cache.get(key, 2));
+  }
+
+  @Test
+  public void evictLeastRecentlyUsedEntries() {
+    AlternativeRouteCache.Key key1 = new AlternativeRouteCache.Key(0, "A", "B");
+    AlternativeRouteCache.Key key2 = new AlternativeRouteCache.Key(0, "B", "C");
+    AlternativeRouteCache.Key key3 = new AlternativeRouteCache.Key(0, "A", "C");
+    cache.put(key1, 1, Arrays.asList(route(pathAB, pointA, pointB)));
+    cache.put(key2, 1, Arrays.asList(route(pathBC, pointB, pointC)));
+    cache.get(key1, 1);
+    cache.put(key3, 1, Arrays.asList(route(pathAB, pointA, pointB)));
+
+    assertEquals(2, cache.size());
+    assertNotNull(cache.get(key1, 1));
+    assertNull(cache.get(key2, 1));
+  }
+
+  @Test
+  public void invalidateOnlyEntriesUsingLockedPaths() {
+    AlternativeRouteCache.Key key1 = new AlternativeRouteCache.Key(0, "A", "B");
+    AlternativeRouteCache.Key key2 = new AlternativeRouteCache.Key(0, "B", "C");
+    cache.put(key1, 1, Arrays.asList(route(pathAB, pointA, pointB)));
+    cache.put(key2, 3, Arrays.asList(route(pathBC, pointB, pointC)));
+
+    int invalidated = cache.updatePaths(Arrays.asList(pathAB, pathBC.withLocked(true)));
+
+    assertEquals(1, invalidated);
+    assertNotNull(cache.get(key1, 1));
+    assertNull(cache.get(key2, 1));
+  }
+
+  @Test
+  public void invalidateAllEntriesWhenPathsAreUnlocked() {
+    cache.updatePaths(Arrays.asList(pathAB, pathBC.withLocked(true)));
+    AlternativeRouteCache.Key key = new AlternativeRouteCache.Key(0, "A", "B");
+    cache.put(key, 1, Arrays.asList(route(pathAB, pointA, pointB)));
+
+    int invalidated = cache.updatePaths(Arrays.asList(pathAB, pathBC));
+
+    assertEquals(1, invalidated);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void cacheNothingIfDisabled() {
+    cache = new AlternativeRouteCache(0);
+    AlternativeRouteCache.Key key = new AlternativeRouteCache.Key(0, "A", "B");
+    cache.put(key, 1, Arrays.asList(route(pathAB, pointA, pointB)));
+
+    assertNull(cache.get(key, 1));
+  }
+
+  private Route route(Path path, Point source, Point dest) {
+    return new Route(Arrays.asList(new Route.Step(path,
+                                                  source,
+                                                  dest,
+                                                  Vehicle.Orientation.FORWARD,
+                                                  0)),
+                     1);
+  }
+}
@@ -7,13 +7,21 @@
  */
 package org.opentcs.strategies.basic.routing;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import org.junit.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -22,7 +30,17 @@ import org.mockito.invocation.InvocationOnMock;
 import org.opentcs.access.LocalKernel;
 import org.opentcs.components.kernel.Router;
 import org.opentcs.data.TCSObject;
+import org.opentcs.data.TCSObjectEvent;
+import org.opentcs.data.TCSObjectReference;
+import org.opentcs.data.model.Location;
+import org.opentcs.data.model.LocationType;
+import org.opentcs.data.model.Point;
 import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.Route;
+import org.opentcs.data.order.TransportOrder;
+import org.opentcs.util.eventsystem.SynchronousEventHub;
+import org.opentcs.util.eventsystem.TCSEvent;
 
 /**
  * Test cases for the {@link DefaultRouter}.
@@ -36,6 +54,21 @@ public class DefaultRouterTest {
    */
   private final Set<Vehicle> vehicles = new HashSet<>();
 
+  /**
+   * The points which are returned when asking the kernel for points.
+   */
+  private final Set<Point> points = new HashSet<>();
+
+  /**
+   * The locations which are returned when asking the kernel for locations.
+   */
+  private final Set<Location> locations = new HashSet<>();
+
+  /**
+   * The location types which are returned when asking the kernel for location types.
+   */
+  private final Set<LocationType> locationTypes = new HashSet<>();
+
   /**
    * The class to test.
    */
@@ -56,17 +89,27 @@ public class DefaultRouterTest {
    */
   private DefaultRouterConfiguration configuration;
 
+  /**
+   * The event hub the router registers with.
+   */
+  private SynchronousEventHub<TCSEvent> eventHub;
+
   @Before
   public void setUp() {
     kernel = mock(LocalKernel.class);
     builder = mock(PointRouterFactory.class);
     when(kernel.getTCSObjects(Vehicle.class)).thenReturn(vehicles);
+    when(kernel.getTCSObjects(Point.class)).thenReturn(points);
+    when(kernel.getTCSObjects(Location.class)).thenReturn(locations);
+    when(kernel.getTCSObjects(LocationType.class)).thenReturn(locationTypes);
     when(kernel.getTCSObject(eq(Vehicle.class), anyString()))
         .then(o -> vehicles.stream()
         .filter(t -> filterByName(o, t))
         .findFirst().orElse(null));
     configuration = mock(DefaultRouterConfiguration.class);
     when(configuration.routeToCurrentPosition()).thenReturn(false);
+    when(configuration.alternativeRouteCacheSize()).thenReturn(100);
+    eventHub = new SynchronousEventHub<>();
     router = spy(createRouter());
   }
 
@@ -110,6 +153,310 @@ public class DefaultRouterTest {
     verify(builder, times(15)).createPointRouter(any());
   }
 
+  @Test
+  public void shouldSharePointRoutersBetweenGroupsWithEqualKeys() {
+    when(builder.getPointRouterKey(any())).thenReturn("same-characteristics");
+    for (int x = 0; x < 15; x++) {
+      vehicles.add(createVehicle("Vehicle-0" + x, x));
+    }
+    router.initialize();
+
+    verify(builder, times(1)).createPointRouter(any());
+  }
+
+  @Test
+  public void shouldFindCheapestRouteAcrossAllDestinationPoints() {
+    Point source = createPoint("Source");
+    Point pointA1 = createPoint("A1");
+    Point pointA2 = createPoint("A2");
+    Point pointB1 = createPoint("B1");
+    Point pointB2 = createPoint("B2");
+    Location locationA = createLocation("A", pointA1, pointA2);
+    Location locationB = createLocation("B", pointB1, pointB2);
+
+    // Going to A1 first is cheaper, but the whole route via A2 is cheaper than any route via A1.
+    TablePointRouter pointRouter = new TablePointRouter();
+    pointRouter.setCosts(source, pointA1, 1);
+    pointRouter.setCosts(source, pointA2, 5);
+    pointRouter.setCosts(pointA1, pointB1, 20);
+    pointRouter.setCosts(pointA1, pointB2, 10);
+    pointRouter.setCosts(pointA2, pointB1, 1);
+    pointRouter.setCosts(pointA2, pointB2, 8);
+    when(builder.createPointRouter(any())).thenReturn(pointRouter);
+    Vehicle vehicle = createVehicle("Vehicle-000", -1);
+    router.initialize();
+
+    TransportOrder order = new TransportOrder(
+        "Order",
+        Arrays.asList(new DriveOrder(new DriveOrder.Destination(locationA.getReference())),
+                      new DriveOrder(new DriveOrder.Destination(locationB.getReference()))));
+    Optional<List<DriveOrder>> result = router.getRoute(vehicle, source, order);
+
+    Assert.assertTrue(result.isPresent());
+    Assert.assertEquals(2, result.get().size());
+    Assert.assertEquals(pointA2, result.get().get(0).getRoute().getFinalDestinationPoint());
+    Assert.assertEquals(5, result.get().get(0).getRoute().getCosts());
+    Assert.assertEquals(pointB1, result.get().get(1).getRoute().getFinalDestinationPoint());
+    Assert.assertEquals(1, result.get().get(1).getRoute().getCosts());
+    // Route steps should only be computed for the hops of the cheapest route.
+    Assert.assertEquals(2, pointRouter.routeStepsRequests);
+  }
+
+  @Test
+  public void shouldReturnEmptyRouteIfDestinationNotReachable() {
+    Point source = createPoint("Source");
+    Point pointA1 = createPoint("A1");
+    Point pointB1 = createPoint("B1");
+    Location locationA = createLocation("A", pointA1);
+    Location locationB = createLocation("B", pointB1);
+
+    TablePointRouter pointRouter = new TablePointRouter();
+    pointRouter.setCosts(source, pointA1, 1);
+    when(builder.createPointRouter(any())).thenReturn(pointRouter);
+    Vehicle vehicle = createVehicle("Vehicle-000", -1);
+    router.initialize();
+
+    TransportOrder order = new TransportOrder(
+        "Order",
+        Arrays.asList(new DriveOrder(new DriveOrder.Destination(locationA.getReference())),
+                      new DriveOrder(new DriveOrder.Destination(locationB.getReference()))));
+
+    Assert.assertFalse(router.getRoute(vehicle, source, order).isPresent());
+  }
+
+  @Test
+  public void shouldReturnVehiclesOfRoutableGroupsOnly() {
+    Point pointA1 = createPoint("A1");
+    Point pointA2 = createPoint("A2");
+    Point pointB1 = createPoint("B1");
+    Point pointC1 = createPoint("C1");
+    Location locationA = createLocation("A", pointA1, pointA2);
+    Location locationB = createLocation("B", pointB1);
+    Location locationC = createLocation("C", pointC1);
+
+    // Group 1 can reach C only via A2 and B1, group 2 cannot reach C from B1.
+    TablePointRouter pointRouter1 = new TablePointRouter();
+    pointRouter1.setCosts(pointA2, pointB1, 1);
+    pointRouter1.setCosts(pointB1, pointC1, 1);
+    TablePointRouter pointRouter2 = new TablePointRouter();
+    pointRouter2.setCosts(pointA1, pointB1, 1);
+    pointRouter2.setCosts(pointA2, pointC1, 1);
+    Vehicle vehicle1 = createVehicle("Vehicle-001", 1);
+    createVehicle("Vehicle-002", 2);
+    when(builder.createPointRouter(any())).then(o -> {
+      Vehicle vehicle = (Vehicle) o.getArguments()[0];
+      return vehicle.getName().equals(vehicle1.getName()) ? pointRouter1 : pointRouter2;
+    });
+    router.initialize();
+
+    TransportOrder order = new TransportOrder(
+        "Order",
+        Arrays.asList(new DriveOrder(new DriveOrder.Destination(locationA.getReference())),
+                      new DriveOrder(new DriveOrder.Destination(locationB.getReference())),
+                      new DriveOrder(new DriveOrder.Destination(locationC.getReference()))));
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(vehicle1)), router.checkRoutability(order));
+  }
+
+  @Test
+  public void shouldTrackRoutableVehiclesWithoutQueryingKernel() {
+    Point pointA1 = createPoint("A1");
+    Point pointB1 = createPoint("B1");
+    Location locationA = createLocation("A", pointA1);
+    Location locationB = createLocation("B", pointB1);
+
+    TablePointRouter pointRouter1 = new TablePointRouter();
+    pointRouter1.setCosts(pointA1, pointB1, 1);
+    TablePointRouter pointRouter2 = new TablePointRouter();
+    Vehicle vehicle1 = createVehicle("Vehicle-001", 1);
+    Vehicle vehicle2 = createVehicle("Vehicle-002", 2);
+    when(builder.createPointRouter(any())).then(o -> {
+      Vehicle vehicle = (Vehicle) o.getArguments()[0];
+      return vehicle.getName().equals(vehicle1.getName()) ? pointRouter1 : pointRouter2;
+    });
+    when(builder.getPointRouterKey(any())).then(o -> {
+      Vehicle vehicle = (Vehicle) o.getArguments()[0];
+      return vehicle.getProperty(Router.PROPKEY_ROUTING_GROUP);
+    });
+    router.initialize();
+
+    TransportOrder order = new TransportOrder(
+        "Order",
+        Arrays.asList(new DriveOrder(new DriveOrder.Destination(locationA.getReference())),
+                      new DriveOrder(new DriveOrder.Destination(locationB.getReference()))));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(vehicle1)), router.checkRoutability(order));
+
+    Vehicle changedVehicle2 = vehicle2.withProperty(Router.PROPKEY_ROUTING_GROUP, "1");
+    eventHub.processEvent(new TCSObjectEvent(changedVehicle2,
+                                             vehicle2,
+                                             TCSObjectEvent.Type.OBJECT_MODIFIED));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(vehicle1, vehicle2)),
+                        router.checkRoutability(order));
+
+    eventHub.processEvent(new TCSObjectEvent(null,
+                                             vehicle1,
+                                             TCSObjectEvent.Type.OBJECT_REMOVED));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(vehicle2)), router.checkRoutability(order));
+
+    // The vehicles were requested from the kernel only when the routing tables were built.
+    verify(kernel, times(1)).getTCSObjects(Vehicle.class);
+  }
+
+  @Test
+  public void shouldUseChangedRoutingGroupOfVehicle() {
+    Point source = createPoint("Source");
+    Point dest = createPoint("Dest");
+    TablePointRouter pointRouter1 = new TablePointRouter();
+    pointRouter1.setCosts(source, dest, 1);
+    TablePointRouter pointRouter2 = new TablePointRouter();
+    pointRouter2.setCosts(source, dest, 2);
+    when(builder.createPointRouter(any())).then(o -> {
+      Vehicle vehicle = (Vehicle) o.getArguments()[0];
+      return vehicle.getName().equals("Vehicle-001") ? pointRouter1 : pointRouter2;
+    });
+    Vehicle vehicle = createVehicle("Vehicle-001", 1);
+    createVehicle("Vehicle-002", 2);
+    router.initialize();
+
+    Assert.assertEquals(1, router.getCosts(vehicle, source, dest));
+
+    Vehicle changedVehicle = vehicle.withProperty(Router.PROPKEY_ROUTING_GROUP, "2");
+    eventHub.processEvent(new TCSObjectEvent(changedVehicle,
+                                             vehicle,
+                                             TCSObjectEvent.Type.OBJECT_MODIFIED));
+
+    Assert.assertEquals(2, router.getCosts(changedVehicle, source, dest));
+  }
+
+  @Test
+  public void shouldCacheAlternativeRoutesWithoutLiveCosts() {
+    Point source = createPoint("Source");
+    Point dest = createPoint("Dest");
+    Vehicle vehicle = createVehicle("Vehicle-001", 1);
+    PointRouter groupRouter = mock(PointRouter.class);
+    PointRouter vehicleRouter = mock(PointRouter.class);
+    when(groupRouter.forVehicle(vehicle)).thenReturn(vehicleRouter);
+    when(vehicleRouter.getRoutes(source, dest, 2)).thenReturn(new ArrayList<>());
+    when(builder.createPointRouter(any())).thenReturn(groupRouter);
+    router.initialize();
+
+    router.getAlternativeRoutes(vehicle, source, dest, 2);
+    router.getAlternativeRoutes(vehicle, source, dest, 2);
+
+    verify(vehicleRouter, times(1)).getRoutes(source, dest, 2);
+    verify(groupRouter, never()).getRoutes(any(), any(), anyInt());
+  }
+
+  @Test
+  public void shouldNotCacheAlternativeRoutesWithLiveCosts() {
+    Point source = createPoint("Source");
+    Point dest = createPoint("Dest");
+    Vehicle vehicle = createVehicle("Vehicle-001", 1);
+    PointRouter groupRouter = mock(PointRouter.class);
+    PointRouter vehicleRouter = mock(PointRouter.class);
+    when(groupRouter.forVehicle(vehicle)).thenReturn(vehicleRouter);
+    when(vehicleRouter.hasLiveCosts()).thenReturn(true);
+    when(vehicleRouter.getRoutes(source, dest, 2)).thenReturn(new ArrayList<>());
+    when(builder.createPointRouter(any())).thenReturn(groupRouter);
+    router.initialize();
+
+    router.getAlternativeRoutes(vehicle, source, dest, 2);
+    router.getAlternativeRoutes(vehicle, source, dest, 2);
+
+    // The routes were computed on behalf of the vehicle and not taken from the cache.
+    verify(vehicleRouter, times(2)).getRoutes(source, dest, 2);
+    verify(groupRouter, never()).getRoutes(any(), any(), anyInt());
+  }
+
+  @Test
+  public void shouldComputeCostsBetweenLocationsViaCheapestLinkedPoints() {
+    Point pointA1 = createPoint("A1");
+    Point pointA2 = createPoint("A2");
+    Point pointB1 = createPoint("B1");
+    Location locationA = createLocation("A", pointA1, pointA2);
+    Location locationB = createLocation("B", pointB1);
+    TablePointRouter pointRouter = new TablePointRouter();
+    pointRouter.setCosts(pointA1, pointB1, 7);
+    pointRouter.setCosts(pointA2, pointB1, 3);
+    when(builder.createPointRouter(any())).thenReturn(pointRouter);
+    Vehicle vehicle = createVehicle("Vehicle-000", -1);
+    router.initialize();
+
+    Assert.assertEquals(3, router.getCosts(vehicle,
+                                           locationA.getReference(),
+                                           locationB.getReference()));
+    Assert.assertEquals(Long.MAX_VALUE, router.getCosts(vehicle,
+                                                        locationB.getReference(),
+                                                        locationA.getReference()));
+  }
+
+  @Test
+  public void shouldOnlyRouteToLinksAllowingOperation() {
+    Point source = createPoint("Source");
+    Point pointA1 = createPoint("A1");
+    Point pointA2 = createPoint("A2");
+    LocationType type = new LocationType("A-type");
+    Location location = new Location("A", type.getReference());
+    location = location.withAttachedLinks(new HashSet<>(Arrays.asList(
+        new Location.Link(location.getReference(), pointA1.getReference())
+            .withAllowedOperations(new HashSet<>(Arrays.asList("Load"))),
+        new Location.Link(location.getReference(), pointA2.getReference())
+            .withAllowedOperations(new HashSet<>(Arrays.asList("Unload"))))));
+    locationTypes.add(type);
+    locations.add(location);
+    TablePointRouter pointRouter = new TablePointRouter();
+    pointRouter.setCosts(source, pointA1, 5);
+    pointRouter.setCosts(source, pointA2, 1);
+    when(builder.createPointRouter(any())).thenReturn(pointRouter);
+    Vehicle vehicle = createVehicle("Vehicle-000", -1);
+    router.initialize();
+
+    TransportOrder order = new TransportOrder(
+        "Order",
+        Arrays.asList(new DriveOrder(new DriveOrder.Destination(location.getReference())
+            .withOperation("Load"))));
+    Optional<List<DriveOrder>> result = router.getRoute(vehicle, source, order);
+
+    Assert.assertTrue(result.isPresent());
+    Assert.assertEquals(pointA1, result.get().get(0).getRoute().getFinalDestinationPoint());
+  }
+
+  /**
+   * Creates a halting point and registers it with the mocked kernel.
+   *
+   * @param name The name of the point.
+   * @return The point.
+   */
+  private Point createPoint(String name) {
+    Point point = new Point(name);
+    when(kernel.getTCSObject(Point.class, point.getReference())).thenReturn(point);
+    when(kernel.getTCSObject(Point.class, name)).thenReturn(point);
+    points.add(point);
+    return point;
+  }
+
+  /**
+   * Creates a location linked to the given points and registers it with the mocked kernel.
+   *
+   * @param name The name of the location.
+   * @param points The points the location is to be linked to.
+   * @return The location.
+   */
+  private Location createLocation(String name, Point... linkedPoints) {
+    LocationType type = new LocationType(name + "-type");
+    Location location = new Location(name, type.getReference());
+    Set<Location.Link> links = new HashSet<>();
+    for (Point point : linkedPoints) {
+      links.add(new Location.Link(location.getReference(), point.getReference()));
+    }
+    location = location.withAttachedLinks(links);
+    when(kernel.getTCSObject(LocationType.class, type.getReference())).thenReturn(type);
+    when(kernel.getTCSObject(Location.class, name)).thenReturn(location);
+    locationTypes.add(type);
+    locations.add(location);
+    return location;
+  }
+
   /**
    * Creates a vehicle with a unique id, the given name and the given routing group.
    * If the routing group is negative no property will be added.
@@ -137,10 +484,12 @@ public class DefaultRouterTest {
    */
   private Router createRouter() {
     when(builder.createPointRouter(any())).thenReturn(mock(PointRouter.class));
+    when(builder.getPointRouterKey(any())).then(o -> o.getArguments()[0]);
 
     return new DefaultRouter(kernel,
                              builder,
-                             configuration);
+                             configuration,
+                             eventHub);
   }
 
   /**
@@ -170,4 +519,40 @@ public class DefaultRouterTest {
   private boolean filterByName(String name, TCSObject<?> object) {
     return name.equals(object.getName());
   }
+
+  /**
+   * A point router returning costs from a table.
+   * Pairs of different points not in the table are considered unroutable.
+   */
+  private static class TablePointRouter
+      implements PointRouter {
+
+    private final Map<String, Long> costs = new HashMap<>();
+
+    private int routeStepsRequests;
+
+    public void setCosts(Point srcPoint, Point destPoint, long hopCosts) {
+      costs.put(srcPoint.getName() + "->" + destPoint.getName(), hopCosts);
+    }
+
+    @Override
+    public List<Route.Step> getRouteSteps(Point srcPoint, Point destPoint) {
+      routeStepsRequests++;
+      List<Route.Step> result = new ArrayList<>();
+      if (!srcPoint.equals(destPoint)) {
+        result.add(new Route.Step(null, srcPoint, destPoint, Vehicle.Orientation.FORWARD, 0));
+      }
+      return result;
+    }
+
+    @Override
+    public long getCosts(TCSObjectReference<Point> srcPointRef,
+                         TCSObjectReference<Point> destPointRef) {
+      if (srcPointRef.getName().equals(destPointRef.getName())) {
+        return 0;
+      }
+      return costs.getOrDefault(srcPointRef.getName() + "->" + destPointRef.getName(),
+                                INFINITE_COSTS);
+    }
+  }
 }
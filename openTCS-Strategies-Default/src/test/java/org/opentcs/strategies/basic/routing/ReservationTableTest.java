@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.DriveOrder;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.ReservationTable.Reservation;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ReservationTableTest {
+
+  private ReservationTable table;
+
+  @Before
+  public void setUp() {
+    table = new ReservationTable();
+  }
+
+  @Test
+  public void mergeOverlappingWindowsInOrder() {
+    table.reserve("Vehicle-1", Arrays.asList(new Reservation("A", 300, 400),
+                                             new Reservation("A", 100, 200)));
+    table.reserve("Vehicle-2", Arrays.asList(new Reservation("A", 150, 250)));
+
+    assertArrayEquals(new long[]{100, 250, 300, 400}, table.getOccupiedWindows("A", 0, null));
+    assertArrayEquals(new long[]{300, 400}, table.getOccupiedWindows("A", 250, null));
+    assertArrayEquals(new long[]{150, 250}, table.getOccupiedWindows("A", 0, "Vehicle-1"));
+    assertArrayEquals(new long[0], table.getOccupiedWindows("B", 0, null));
+  }
+
+  @Test
+  public void replaceReservationsOfVehicle() {
+    table.reserve("Vehicle-1", Arrays.asList(new Reservation("A", 100, 200)));
+    table.reserve("Vehicle-1", Arrays.asList(new Reservation("B", 100, 200)));
+
+    assertArrayEquals(new long[0], table.getOccupiedWindows("A", 0, null));
+    assertArrayEquals(new long[]{100, 200}, table.getOccupiedWindows("B", 0, null));
+
+    table.release("Vehicle-1");
+    assertArrayEquals(new long[0], table.getOccupiedWindows("B", 0, null));
+    assertEquals(0, table.getVehicleCount());
+  }
+
+  @Test
+  public void releaseExpiredReservations() {
+    table.reserve("Vehicle-1", Arrays.asList(new Reservation("A", 100, 200)));
+    table.reserve("Vehicle-2", Arrays.asList(new Reservation("A", 100, 300)));
+
+    table.releaseBefore(200);
+
+    assertArrayEquals(new long[]{100, 300}, table.getOccupiedWindows("A", 0, null));
+    assertEquals(1, table.getVehicleCount());
+  }
+
+  @Test
+  public void findEarliestFreeTime() {
+    long[] windows = new long[]{100, 200, 250, 400};
+
+    assertEquals(0, ReservationTable.earliestFreeTime(windows, 0, 100));
+    assertEquals(50, ReservationTable.earliestFreeTime(windows, 50, 50));
+    assertEquals(200, ReservationTable.earliestFreeTime(windows, 60, 50));
+    assertEquals(400, ReservationTable.earliestFreeTime(windows, 60, 51));
+    assertEquals(500, ReservationTable.earliestFreeTime(windows, 500, 1000));
+  }
+
+  @Test
+  public void predictReservationsAlongRoute() {
+    Point pointA = new Point("A");
+    Point pointB = new Point("B");
+    Point pointC = new Point("C");
+    Path pathAB = new Path("A --- B", pointA.getReference(), pointB.getReference())
+        .withLength(2000);
+    Path pathBC = new Path("B --- C", pointB.getReference(), pointC.getReference())
+        .withLength(1000);
+    Route route = new Route(
+        Arrays.asList(new Route.Step(pathAB, pointA, pointB, Vehicle.Orientation.FORWARD, 0),
+                      new Route.Step(pathBC, pointB, pointC, Vehicle.Orientation.FORWARD, 1)),
+        3000);
+    DriveOrder driveOrder = new DriveOrder(new DriveOrder.Destination(pointC.getReference()))
+        .withRoute(route);
+    Vehicle vehicle = new Vehicle("Vehicle-1");
+
+    List<Reservation> reservations
+        = TravelTimes.predictReservations(Arrays.asList(driveOrder), vehicle, 10000, 0);
+
+    assertEquals(5, reservations.size());
+    assertReservation(reservations.get(0), "A", 10000, 10001);
+    assertReservation(reservations.get(1), "A --- B", 10000, 12001);
+    assertReservation(reservations.get(2), "B", 12000, 12001);
+    assertReservation(reservations.get(3), "B --- C", 12000, 13001);
+    assertReservation(reservations.get(4), "C", 13000, Long.MAX_VALUE);
+    assertEquals(3000, TravelTimes.travelTimeMillis(route, vehicle));
+  }
+
+  private void assertReservation(Reservation reservation, String name, long start, long end) {
+    assertEquals(name, reservation.getResourceName());
+    assertEquals(start, reservation.getStart());
+    assertEquals(end, reservation.getEnd());
+  }
+}
@@ -0,0 +1,296 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.junit.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.TCSResource;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.PointRouter;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class CongestionOverlayTest {
+
+  private Point pointA;
+  private Point pointB;
+  private Point pointC;
+  private Point pointD;
+
+  private ModelEdge edgeAB;
+  private ModelEdge edgeBD;
+  private ModelEdge edgeAC;
+  private ModelEdge edgeCD;
+
+  private CongestionOverlay overlay;
+
+  private CongestionAwareGraph graph;
+
+  private Scheduler.Client client1;
+
+  private Scheduler.Client client2;
+
+  @Before
+  public void setUp() {
+    pointA = new Point("A");
+    pointB = new Point("B");
+    pointC = new Point("C");
+    pointD = new Point("D");
+
+    edgeAB = createEdge(pointA, pointB);
+    edgeBD = createEdge(pointB, pointD);
+    edgeAC = createEdge(pointA, pointC);
+    edgeCD = createEdge(pointC, pointD);
+
+    overlay = new CongestionOverlay(1000, 100);
+    overlay.initialize();
+
+    // Two parallel aisles from A to D, the one via B being slightly shorter.
+    graph = new CongestionAwareGraph(overlay);
+    for (Point point : Arrays.asList(pointA, pointB, pointC, pointD)) {
+      graph.addVertex(point.getName());
+    }
+    addEdge(edgeAB, pointA, pointB, 10);
+    addEdge(edgeBD, pointB, pointD, 10);
+    addEdge(edgeAC, pointA, pointC, 11);
+    addEdge(edgeCD, pointC, pointD, 11);
+
+    client1 = mock(Scheduler.Client.class);
+    when(client1.getId()).thenReturn("Vehicle-1");
+    client2 = mock(Scheduler.Client.class);
+    when(client2.getId()).thenReturn("Vehicle-2");
+  }
+
+  @Test
+  public void penalizeAllocatedAndClaimedPoints() {
+    overlay.setAllocationState(client1,
+                               resources(pointB),
+                               Arrays.asList(resources(pointB), resources(pointD)));
+    overlay.setAllocationState(client2, resources(pointB), new LinkedList<>());
+
+    assertEquals(2 * 1000 + 100, overlay.getPenalty(pointB.getName()), 0.0);
+    assertEquals(100, overlay.getPenalty(pointD.getName()), 0.0);
+    assertEquals(0, overlay.getPenalty(pointC.getName()), 0.0);
+    assertEquals(2 * 1000 + 100, overlay.getPenalty(edgeAB), 0.0);
+    assertEquals(0, overlay.getPenalty(new ModelEdge(edgeAB.getModelPath(), true)), 0.0);
+  }
+
+  @Test
+  public void replaceClientLoadOnUpdate() {
+    overlay.setAllocationState(client1,
+                               resources(pointB),
+                               Arrays.asList(resources(pointB), resources(pointD)));
+    overlay.setAllocationState(client1, resources(pointD), Arrays.asList(resources(pointD)));
+
+    assertEquals(0, overlay.getPenalty(pointB.getName()), 0.0);
+    assertEquals(1000 + 100, overlay.getPenalty(pointD.getName()), 0.0);
+
+    overlay.unclaim(client1);
+    assertEquals(1000, overlay.getPenalty(pointD.getName()), 0.0);
+
+    overlay.allocationReleased(client1, resources(pointD));
+    assertEquals(0, overlay.getPenalty(pointD.getName()), 0.0);
+  }
+
+  @Test
+  public void releaseClaimsIncrementally() {
+    overlay.claim(client1, Arrays.asList(resources(pointB), resources(pointD), resources(pointB)));
+    assertEquals(2 * 100, overlay.getPenalty(pointB.getName()), 0.0);
+    assertEquals(100, overlay.getPenalty(pointD.getName()), 0.0);
+
+    overlay.claimProgressed(client1, Arrays.asList(resources(pointB)));
+    assertEquals(100, overlay.getPenalty(pointB.getName()), 0.0);
+    assertEquals(100, overlay.getPenalty(pointD.getName()), 0.0);
+
+    overlay.claimProgressed(client1, Arrays.asList(resources(pointD), resources(pointB)));
+    assertEquals(0, overlay.getPenalty(pointB.getName()), 0.0);
+    assertEquals(0, overlay.getPenalty(pointD.getName()), 0.0);
+    assertFalse(overlay.requiresAllocationState());
+  }
+
+  @Test
+  public void trackAllocationsAndReleases() {
+    overlay.prepareAllocation(client1, resources(pointB));
+    overlay.prepareAllocation(client1, resources(pointD));
+    assertEquals(1000, overlay.getPenalty(pointB.getName()), 0.0);
+
+    overlay.allocationReleased(client1, resources(pointB));
+    assertEquals(0, overlay.getPenalty(pointB.getName()), 0.0);
+    assertEquals(1000, overlay.getPenalty(pointD.getName()), 0.0);
+  }
+
+  @Test
+  public void forgetLoadsOnTermination() {
+    overlay.prepareAllocation(client1, resources(pointB));
+    overlay.terminate();
+    overlay.initialize();
+
+    assertEquals(0, overlay.getPenalty(pointB.getName()), 0.0);
+  }
+
+  @Test
+  public void routeAroundCongestedAisleWithoutRebuildingGraph() {
+    DijkstraShortestPath<String, ModelEdge> algo = new DijkstraShortestPath<>(graph);
+
+    GraphPath<String, ModelEdge> path = algo.getPath(pointA.getName(), pointD.getName());
+    assertEquals(Arrays.asList(edgeAB, edgeBD), path.getEdgeList());
+    assertEquals(20, path.getWeight(), 0.0);
+
+    overlay.setAllocationState(client1, resources(pointB), new LinkedList<>());
+
+    path = algo.getPath(pointA.getName(), pointD.getName());
+    assertEquals(Arrays.asList(edgeAC, edgeCD), path.getEdgeList());
+    assertEquals(22, path.getWeight(), 0.0);
+    assertEquals(10, graph.getStaticEdgeWeight(edgeAB), 0.0);
+  }
+
+  @Test
+  public void ignoreOwnLoadWhenComputingOnBehalfOfClient() {
+    overlay.setAllocationState(client1, resources(pointB), Arrays.asList(resources(pointD)));
+    overlay.setAllocationState(client2, resources(pointD), new LinkedList<>());
+
+    assertEquals(0,
+                 overlay.computeExcluding(client1.getId(),
+                                          () -> overlay.getPenalty(pointB.getName())),
+                 0.0);
+    assertEquals(1000,
+                 overlay.computeExcluding(client1.getId(),
+                                          () -> overlay.getPenalty(pointD.getName())),
+                 0.0);
+    assertEquals(100,
+                 overlay.computeExcluding(client2.getId(),
+                                          () -> overlay.getPenalty(pointD.getName())),
+                 0.0);
+    assertEquals(1000, overlay.getPenalty(pointB.getName()), 0.0);
+  }
+
+  @Test
+  public void routeAlongOwnAllocationsWhenRoutingForVehicle() {
+    PointRouter router = new CongestionAwarePointRouter(
+        new ShortestPathPointRouter(new DijkstraShortestPath<>(graph),
+                                    Arrays.asList(pointA, pointB, pointC, pointD)),
+        overlay);
+    overlay.setAllocationState(client1,
+                               resources(pointA),
+                               Arrays.asList(resources(pointB), resources(pointD)));
+
+    assertEquals(122, router.getCosts(pointA, pointD));
+    List<Route.Step> steps = router.forVehicle(new Vehicle(client1.getId()))
+        .getRouteSteps(pointA, pointD);
+    assertEquals(pointB, steps.get(0).getDestinationPoint());
+    assertEquals(20, router.forVehicle(new Vehicle(client1.getId())).getCosts(pointA, pointD));
+    assertEquals(122, router.forVehicle(new Vehicle(client2.getId())).getCosts(pointA, pointD));
+  }
+
+  @Test
+  public void computeAlternativeRoutesWithLivePenaltiesForVehicle() {
+    List<Point> points = Arrays.asList(pointA, pointB, pointC, pointD);
+    PointRouter router = new CongestionAwarePointRouter(
+        new AlternativeRoutesPointRouter(
+            new ShortestPathPointRouter(new DijkstraShortestPath<>(graph), points),
+            graph,
+            points),
+        overlay);
+    // Compute alternative routes once before any penalties are set.
+    router.getRoutes(pointA, pointD, 2);
+    overlay.setAllocationState(client1,
+                               resources(pointA),
+                               Arrays.asList(resources(pointB), resources(pointD)));
+
+    List<Route> routes = router.getRoutes(pointA, pointD, 2);
+    assertEquals(2, routes.size());
+    assertEquals(pointC, routes.get(0).getSteps().get(0).getDestinationPoint());
+    assertEquals(122, routes.get(0).getCosts());
+
+    routes = router.forVehicle(new Vehicle(client1.getId())).getRoutes(pointA, pointD, 2);
+    assertEquals(2, routes.size());
+    assertEquals(pointB, routes.get(0).getSteps().get(0).getDestinationPoint());
+    assertEquals(20, routes.get(0).getCosts());
+    assertTrue(router.hasLiveCosts());
+  }
+
+  @Test
+  public void createLiveRouterWithDijkstra() {
+    PointRouter router = new DijkstraPointRouterFactory(mockKernel(),
+                                                        createCongestionAwareMapper(),
+                                                        mockRoutingTableStore(false))
+        .createPointRouter(new Vehicle(client1.getId()));
+
+    assertTrue(router instanceof CongestionAwarePointRouter);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void rejectAlgorithmComputingCostsInAdvance() {
+    new FloydWarshallPointRouterFactory(mockKernel(),
+                                        createCongestionAwareMapper(),
+                                        mockRoutingTableStore(false))
+        .createPointRouter(new Vehicle(client1.getId()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void rejectPersistedRoutingTables() {
+    new DijkstraPointRouterFactory(mockKernel(),
+                                   createCongestionAwareMapper(),
+                                   mockRoutingTableStore(true))
+        .createPointRouter(new Vehicle(client1.getId()));
+  }
+
+  private LocalKernel mockKernel() {
+    LocalKernel kernel = mock(LocalKernel.class);
+    when(kernel.getTCSObjects(Point.class))
+        .thenReturn(new HashSet<>(Arrays.asList(pointA, pointB, pointC, pointD)));
+    when(kernel.getTCSObjects(Path.class))
+        .thenReturn(new HashSet<>(Arrays.asList(edgeAB.getModelPath(),
+                                                edgeBD.getModelPath(),
+                                                edgeAC.getModelPath(),
+                                                edgeCD.getModelPath())));
+    return kernel;
+  }
+
+  private CongestionAwareModelGraphMapper createCongestionAwareMapper() {
+    return new CongestionAwareModelGraphMapper(new EdgeEvaluatorDistance(), overlay);
+  }
+
+  private RoutingTableStore mockRoutingTableStore(boolean enabled) {
+    RoutingTableStore store = mock(RoutingTableStore.class);
+    when(store.isEnabled()).thenReturn(enabled);
+    return store;
+  }
+
+  private ModelEdge createEdge(Point source, Point dest) {
+    return new ModelEdge(new Path(source.getName() + " --- " + dest.getName(),
+                                  source.getReference(),
+                                  dest.getReference()),
+                         false);
+  }
+
+  private void addEdge(ModelEdge edge, Point source, Point dest, double weight) {
+    graph.addEdge(source.getName(), dest.getName(), edge);
+    graph.setEdgeWeight(edge, weight);
+  }
+
+  private Set<TCSResource<?>> resources(TCSResource<?>... resources) {
+    return new HashSet<>(Arrays.asList(resources));
+  }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jgrapht.GraphPath;
+import org.jgrapht.WeightedGraph;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DirectedWeightedMultigraph;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ContractionHierarchyShortestPathTest {
+
+  private static final int GRID_SIZE = 8;
+
+  private final Random random = new Random(4711);
+
+  private final List<Point> points = new ArrayList<>();
+
+  private WeightedGraph<String, ModelEdge> graph;
+
+  @Before
+  public void setUp() {
+    graph = new DirectedWeightedMultigraph<>(ModelEdge.class);
+
+    for (int y = 0; y < GRID_SIZE; y++) {
+      for (int x = 0; x < GRID_SIZE; x++) {
+        Point point = new Point(pointName(x, y));
+        points.add(point);
+        graph.addVertex(point.getName());
+      }
+    }
+    for (int y = 0; y < GRID_SIZE; y++) {
+      for (int x = 0; x < GRID_SIZE; x++) {
+        if (x + 1 < GRID_SIZE) {
+          addPath(x, y, x + 1, y);
+        }
+        if (y + 1 < GRID_SIZE) {
+          addPath(x, y, x, y + 1);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void computeSameWeightsAsDijkstra() {
+    ContractionHierarchyShortestPath algorithm
+        = new ContractionHierarchyShortestPath(ContractionHierarchyTopology.fromGraph(graph),
+                                               graph);
+    assertSameResultsAsDijkstra(algorithm);
+  }
+
+  @Test
+  public void computeSameWeightsAsDijkstraAfterCustomization() {
+    ContractionHierarchyShortestPath algorithm
+        = new ContractionHierarchyShortestPath(ContractionHierarchyTopology.fromGraph(graph),
+                                               graph);
+    for (ModelEdge edge : graph.edgeSet()) {
+      graph.setEdgeWeight(edge, 1 + random.nextInt(20));
+    }
+    algorithm.customize();
+
+    assertSameResultsAsDijkstra(algorithm);
+  }
+
+  @Test
+  public void returnEmptyPathIfDestinationIsSource() {
+    ContractionHierarchyShortestPath algorithm
+        = new ContractionHierarchyShortestPath(ContractionHierarchyTopology.fromGraph(graph),
+                                               graph);
+    GraphPath<String, ModelEdge> path = algorithm.getPath(pointName(2, 2), pointName(2, 2));
+
+    assertNotNull(path);
+    assertTrue(path.getEdgeList().isEmpty());
+    assertEquals(0.0, path.getWeight(), 0.0);
+  }
+
+  @Test
+  public void returnNullIfNoPathExists() {
+    graph.addVertex("isolated");
+    ContractionHierarchyShortestPath algorithm
+        = new ContractionHierarchyShortestPath(ContractionHierarchyTopology.fromGraph(graph),
+                                               graph);
+
+    assertNull(algorithm.getPath(pointName(0, 0), "isolated"));
+    assertEquals(Double.POSITIVE_INFINITY,
+                 algorithm.getPathWeight(pointName(0, 0), "isolated"),
+                 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectGraphNotCoveredByTopology() {
+    ContractionHierarchyTopology topology = ContractionHierarchyTopology.fromGraph(graph);
+    graph.addVertex("additional");
+    addEdge(pointName(0, 0), "additional", "additional path", 1);
+
+    assertFalse(topology.covers(graph));
+    new ContractionHierarchyShortestPath(topology, graph);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectEdgeBetweenVerticesUnknownToTopology() {
+    ContractionHierarchyTopology topology = ContractionHierarchyTopology.fromGraph(graph);
+    graph.addVertex("additional-1");
+    graph.addVertex("additional-2");
+    addEdge("additional-1", "additional-2", "additional path", 1);
+
+    assertFalse(topology.covers(graph));
+    new ContractionHierarchyShortestPath(topology, graph);
+  }
+
+  @Test
+  public void rankAllVerticesDistinctly() {
+    graph.addVertex("isolated");
+    ContractionHierarchyTopology topology = ContractionHierarchyTopology.fromGraph(graph);
+
+    assertEquals(graph.vertexSet().size(), topology.getNodeCount());
+    for (String vertex : graph.vertexSet()) {
+      int rank = topology.getRank(vertex);
+      assertTrue(rank >= 0 && rank < topology.getNodeCount());
+      assertEquals(vertex, topology.getName(rank));
+    }
+  }
+
+  private void assertSameResultsAsDijkstra(ContractionHierarchyShortestPath algorithm) {
+    DijkstraShortestPath<String, ModelEdge> dijkstra = new DijkstraShortestPath<>(graph);
+
+    for (Point source : points) {
+      for (Point destination : points) {
+        GraphPath<String, ModelEdge> expected
+            = dijkstra.getPath(source.getName(), destination.getName());
+        GraphPath<String, ModelEdge> actual
+            = algorithm.getPath(source.getName(), destination.getName());
+
+        if (expected == null) {
+          assertNull(actual);
+          continue;
+        }
+        assertNotNull(actual);
+        assertEquals(expected.getWeight(), actual.getWeight(), 0.0);
+
+        // The path's edges must actually connect source and destination.
+        String current = source.getName();
+        double weight = 0.0;
+        for (ModelEdge edge : actual.getEdgeList()) {
+          assertEquals(current, graph.getEdgeSource(edge));
+          current = graph.getEdgeTarget(edge);
+          weight += graph.getEdgeWeight(edge);
+        }
+        assertEquals(destination.getName(), current);
+        assertEquals(expected.getWeight(), weight, 0.0);
+      }
+    }
+  }
+
+  /**
+   * Adds edges for a path between the given grid coordinates.
+   * Most paths can be travelled in both directions with different weights, some are one-way.
+   */
+  private void addPath(int srcX, int srcY, int destX, int destY) {
+    String srcName = pointName(srcX, srcY);
+    String destName = pointName(destX, destY);
+    String pathName = srcName + " --- " + destName;
+    switch (random.nextInt(4)) {
+      case 0:
+        addEdge(srcName, destName, pathName, 1 + random.nextInt(10));
+        break;
+      case 1:
+        addEdge(destName, srcName, pathName, 1 + random.nextInt(10));
+        break;
+      default:
+        addEdge(srcName, destName, pathName, 1 + random.nextInt(10));
+        addEdge(destName, srcName, pathName, 1 + random.nextInt(10));
+    }
+  }
+
+  private void addEdge(String srcName, String destName, String pathName, double weight) {
+    Path path = new Path(pathName,
+                         new Point(srcName).getReference(),
+                         new Point(destName).getReference());
+    ModelEdge edge = new ModelEdge(path, false);
+    graph.addEdge(srcName, destName, edge);
+    graph.setEdgeWeight(edge, weight);
+  }
+
+  private static String pointName(int x, int y) {
+    return "Point-" + x + "-" + y;
+  }
+}
@@ -50,6 +50,7 @@ public class EdgeEvaluatorTravelTimeTest {
 
     // Length is 10 meters, maximum velocity is 0.5 m/s. -> The weight should be 20 (seconds).
     assertEquals(20.0, edgeEvaluator.computeWeight(reverseEdge, vehicle), 0.0);
+    assertEquals(20000, edgeEvaluator.computeTravelTimeMillis(reverseEdge, vehicle));
   }
 
   @Test
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.Random;
+import org.jgrapht.Graph;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DirectedWeightedMultigraph;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ReachabilityIndexTest {
+
+  private Graph<String, ModelEdge> graph;
+
+  @Before
+  public void setUp() {
+    graph = new DirectedWeightedMultigraph<>(ModelEdge.class);
+  }
+
+  @Test
+  public void reachOnlyDownstreamComponents() {
+    // A <-> B -> C <-> D -> E, F isolated
+    addEdge("A", "B");
+    addEdge("B", "A");
+    addEdge("B", "C");
+    addEdge("C", "D");
+    addEdge("D", "C");
+    addEdge("D", "E");
+    graph.addVertex("F");
+
+    ReachabilityIndex index = new ReachabilityIndex(graph);
+
+    assertEquals(4, index.getComponentCount());
+    assertTrue(index.isReachable("B", "A"));
+    assertTrue(index.isReachable("A", "E"));
+    assertTrue(index.isReachable("D", "C"));
+    assertTrue(index.isReachable("F", "F"));
+    assertFalse(index.isReachable("C", "A"));
+    assertFalse(index.isReachable("E", "D"));
+    assertFalse(index.isReachable("A", "F"));
+    assertFalse(index.isReachable("A", "X"));
+  }
+
+  @Test
+  public void agreeWithShortestPathAlgorithm() {
+    Random random = new Random(42);
+    int vertexCount = 60;
+    for (int i = 0; i < vertexCount; i++) {
+      graph.addVertex("V" + i);
+    }
+    for (int i = 0; i < 90; i++) {
+      addEdge("V" + random.nextInt(vertexCount), "V" + random.nextInt(vertexCount));
+    }
+
+    ReachabilityIndex index = new ReachabilityIndex(graph);
+    DijkstraShortestPath<String, ModelEdge> algo = new DijkstraShortestPath<>(graph);
+
+    for (int src = 0; src < vertexCount; src++) {
+      for (int dest = 0; dest < vertexCount; dest++) {
+        boolean expected = src == dest || algo.getPath("V" + src, "V" + dest) != null;
+        assertEquals("V" + src + " -> V" + dest,
+                     expected,
+                     index.isReachable("V" + src, "V" + dest));
+      }
+    }
+  }
+
+  private void addEdge(String source, String target) {
+    graph.addVertex(source);
+    graph.addVertex(target);
+    Path path = new Path(source + " --- " + target + " " + graph.edgeSet().size(),
+                         new Point(source).getReference(),
+                         new Point(target).getReference());
+    graph.addEdge(source, target, new ModelEdge(path, false));
+  }
+}
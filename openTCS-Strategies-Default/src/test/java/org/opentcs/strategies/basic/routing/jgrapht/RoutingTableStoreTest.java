@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jgrapht.WeightedGraph;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DirectedWeightedMultigraph;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.order.Route.Step;
+import org.opentcs.strategies.basic.routing.PointRouter;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class RoutingTableStoreTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final AtomicInteger algorithmRequests = new AtomicInteger();
+
+  private Point pointA;
+  private Point pointB;
+  private Point pointC;
+  private Point pointD;
+
+  private ModelEdge edgeAB;
+  private ModelEdge edgeBC;
+  private ModelEdge edgeCB;
+  private ModelEdge edgeAC;
+
+  private WeightedGraph<String, ModelEdge> graph;
+
+  private File homeDirectory;
+
+  private ShortestPathConfiguration configuration;
+
+  @Before
+  public void setUp()
+      throws IOException {
+    pointA = new Point("A");
+    pointB = new Point("B");
+    pointC = new Point("C");
+    pointD = new Point("D");
+
+    Path pathAB = new Path("A --- B", pointA.getReference(), pointB.getReference());
+    Path pathBC = new Path("B --- C", pointB.getReference(), pointC.getReference());
+    Path pathAC = new Path("A --- C", pointA.getReference(), pointC.getReference());
+
+    edgeAB = new ModelEdge(pathAB, false);
+    edgeBC = new ModelEdge(pathBC, false);
+    edgeCB = new ModelEdge(pathBC, true);
+    edgeAC = new ModelEdge(pathAC, false);
+
+    graph = new DirectedWeightedMultigraph<>(ModelEdge.class);
+    for (Point point : points()) {
+      graph.addVertex(point.getName());
+    }
+    graph.addEdge(pointA.getName(), pointB.getName(), edgeAB);
+    graph.setEdgeWeight(edgeAB, 10);
+    graph.addEdge(pointB.getName(), pointC.getName(), edgeBC);
+    graph.setEdgeWeight(edgeBC, 20);
+    graph.addEdge(pointC.getName(), pointB.getName(), edgeCB);
+    graph.setEdgeWeight(edgeCB, 20);
+    graph.addEdge(pointA.getName(), pointC.getName(), edgeAC);
+    graph.setEdgeWeight(edgeAC, 100);
+
+    homeDirectory = tempFolder.newFolder();
+    configuration = mock(ShortestPathConfiguration.class);
+    when(configuration.persistRoutingTables()).thenReturn(true);
+    when(configuration.maxPersistedRoutingTables()).thenReturn(2);
+    when(configuration.edgeEvaluators())
+        .thenReturn(Arrays.asList(ShortestPathConfiguration.EvaluatorType.DISTANCE));
+  }
+
+  @Test
+  public void computeSameCostsAsAlgorithm() {
+    RoutingTableStore store = createStore();
+    PointRouter router = store.getPointRouter(graph, points(), this::createAlgorithm);
+
+    assertEquals(1, store.getComputedTableCount());
+    assertEquals(0, algorithmRequests.get());
+    assertEquals(30, router.getCosts(pointA.getReference(), pointC.getReference()));
+    assertEquals(20, router.getCosts(pointC.getReference(), pointB.getReference()));
+    assertEquals(0, router.getCosts(pointD.getReference(), pointD.getReference()));
+    assertEquals(PointRouter.INFINITE_COSTS,
+                 router.getCosts(pointB.getReference(), pointA.getReference()));
+    assertEquals(PointRouter.INFINITE_COSTS,
+                 router.getCosts(pointA.getReference(), pointD.getReference()));
+  }
+
+  @Test
+  public void computeRouteStepsFromPredecessors() {
+    PointRouter router = createStore().getPointRouter(graph, points(), this::createAlgorithm);
+
+    List<Step> steps = router.getRouteSteps(pointA, pointC);
+    assertNotNull(steps);
+    assertEquals(2, steps.size());
+    assertEquals(edgeAB.getModelPath(), steps.get(0).getPath());
+    assertEquals(pointB, steps.get(0).getDestinationPoint());
+    assertEquals(edgeBC.getModelPath(), steps.get(1).getPath());
+    assertEquals(pointC, steps.get(1).getDestinationPoint());
+
+    assertNull(router.getRouteSteps(pointA, pointD));
+    assertTrue(router.getRouteSteps(pointA, pointA).isEmpty());
+  }
+
+  @Test
+  public void reusePersistedRoutingTable() {
+    createStore().getPointRouter(graph, points(), this::createAlgorithm);
+    RoutingTableStore store = createStore();
+    PointRouter router = store.getPointRouter(graph, points(), this::createAlgorithm);
+
+    assertEquals(0, store.getComputedTableCount());
+    assertEquals(30, router.getCosts(pointA.getReference(), pointC.getReference()));
+    assertEquals(2, router.getRouteSteps(pointA, pointC).size());
+  }
+
+  @Test
+  public void recomputeRoutingTableIfWeightsChanged() {
+    createStore().getPointRouter(graph, points(), this::createAlgorithm);
+    graph.setEdgeWeight(edgeAC, 5);
+    RoutingTableStore store = createStore();
+    PointRouter router = store.getPointRouter(graph, points(), this::createAlgorithm);
+
+    assertEquals(1, store.getComputedTableCount());
+    assertEquals(5, router.getCosts(pointA.getReference(), pointC.getReference()));
+  }
+
+  @Test
+  public void recomputeRoutingTableIfEvaluatorsChanged() {
+    createStore().getPointRouter(graph, points(), this::createAlgorithm);
+    when(configuration.edgeEvaluators())
+        .thenReturn(Arrays.asList(ShortestPathConfiguration.EvaluatorType.HOPS));
+    RoutingTableStore store = createStore();
+    store.getPointRouter(graph, points(), this::createAlgorithm);
+
+    assertEquals(1, store.getComputedTableCount());
+  }
+
+  @Test
+  public void keepOnlyMostRecentlyUsedRoutingTables() {
+    for (int weight = 1; weight <= 4; weight++) {
+      graph.setEdgeWeight(edgeAC, weight);
+      createStore().getPointRouter(graph, points(), this::createAlgorithm);
+    }
+
+    assertEquals(2, routingTableFiles().length);
+
+    // The most recent routing table is still there and reused.
+    RoutingTableStore store = createStore();
+    store.getPointRouter(graph, points(), this::createAlgorithm);
+    assertEquals(0, store.getComputedTableCount());
+  }
+
+  @Test
+  public void keepRoutingTablesStillMapped() {
+    RoutingTableStore store = createStore();
+    PointRouter firstRouter = store.getPointRouter(graph, points(), this::createAlgorithm);
+    File firstFile = routingTableFiles()[0];
+    for (int weight = 1; weight <= 3; weight++) {
+      graph.setEdgeWeight(edgeAC, weight);
+      store.getPointRouter(graph, points(), this::createAlgorithm);
+    }
+
+    // The first routing table is still in use, so it is kept although it is the least recent one.
+    assertTrue(firstFile.isFile());
+    assertEquals(30, firstRouter.getCosts(pointA.getReference(), pointC.getReference()));
+  }
+
+  @Test
+  public void mapLargeRoutingTablesInChunks() {
+    // Two rows of costs per chunk.
+    RoutingTableStore store = new RoutingTableStore(homeDirectory, configuration, 64);
+    store.getPointRouter(graph, points(), this::createAlgorithm);
+    PointRouter router = new RoutingTableStore(homeDirectory, configuration, 64)
+        .getPointRouter(graph, points(), this::createAlgorithm);
+
+    assertEquals(30, router.getCosts(pointA.getReference(), pointC.getReference()));
+    assertEquals(20, router.getCosts(pointC.getReference(), pointB.getReference()));
+    assertEquals(PointRouter.INFINITE_COSTS,
+                 router.getCosts(pointD.getReference(), pointA.getReference()));
+    assertEquals(2, router.getRouteSteps(pointA, pointC).size());
+    assertEquals(1, router.getRouteSteps(pointC, pointB).size());
+  }
+
+  @Test
+  public void excludeCongestionPenaltiesFromPersistedRoutingTable() {
+    CongestionOverlay overlay = new CongestionOverlay(1000, 100);
+    overlay.initialize();
+    Scheduler.Client client = mock(Scheduler.Client.class);
+    when(client.getId()).thenReturn("Vehicle-1");
+    CongestionAwareGraph congestionAwareGraph = new CongestionAwareGraph(overlay);
+    for (String vertex : graph.vertexSet()) {
+      congestionAwareGraph.addVertex(vertex);
+    }
+    for (ModelEdge edge : graph.edgeSet()) {
+      congestionAwareGraph.addEdge(graph.getEdgeSource(edge), graph.getEdgeTarget(edge), edge);
+      congestionAwareGraph.setEdgeWeight(edge, graph.getEdgeWeight(edge));
+    }
+
+    createStore().getPointRouter(congestionAwareGraph, points(), this::createAlgorithm);
+    overlay.setAllocationState(client,
+                               new HashSet<>(Arrays.asList(pointB)),
+                               new LinkedList<>());
+    RoutingTableStore store = createStore();
+    PointRouter router
+        = store.getPointRouter(congestionAwareGraph, points(), this::createAlgorithm);
+
+    assertEquals(0, store.getComputedTableCount());
+    assertEquals(1, routingTableFiles().length);
+    assertEquals(30, router.getCosts(pointA.getReference(), pointC.getReference()));
+  }
+
+  private RoutingTableStore createStore() {
+    return new RoutingTableStore(homeDirectory, configuration);
+  }
+
+  private DijkstraShortestPath<String, ModelEdge> createAlgorithm(
+      WeightedGraph<String, ModelEdge> graph) {
+    algorithmRequests.incrementAndGet();
+    return new DijkstraShortestPath<>(graph);
+  }
+
+  private File[] routingTableFiles() {
+    return new File(new File(homeDirectory, "data"), "routingtables")
+        .listFiles((dir, name) -> name.endsWith(".bin"));
+  }
+
+  private List<Point> points() {
+    return Arrays.asList(pointA, pointB, pointC, pointD);
+  }
+}
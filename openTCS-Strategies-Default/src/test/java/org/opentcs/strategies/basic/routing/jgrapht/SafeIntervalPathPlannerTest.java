@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jgrapht.graph.DirectedWeightedMultigraph;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.ReservationTable;
+import org.opentcs.strategies.basic.routing.ReservationTable.Reservation;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class SafeIntervalPathPlannerTest {
+
+  private Point pointA;
+  private Point pointB;
+  private Point pointC;
+  private Point pointD;
+
+  private Path pathBD;
+
+  private Vehicle vehicle;
+
+  private DirectedWeightedMultigraph<String, ModelEdge> graph;
+
+  private ReservationTable reservationTable;
+
+  private SafeIntervalPathPlanner planner;
+
+  @Before
+  public void setUp() {
+    pointA = new Point("A");
+    pointB = new Point("B");
+    pointC = new Point("C");
+    pointD = new Point("D");
+
+    // Two aisles from A to D, the one via B being shorter.
+    // With the default velocities, travelling 1000 mm takes 1000 ms.
+    graph = new DirectedWeightedMultigraph<>(ModelEdge.class);
+    for (Point point : Arrays.asList(pointA, pointB, pointC, pointD)) {
+      graph.addVertex(point.getName());
+    }
+    addEdge(pointA, pointB, 1000);
+    pathBD = addEdge(pointB, pointD, 1000);
+    addEdge(pointA, pointC, 1000);
+    addEdge(pointC, pointD, 2000);
+
+    vehicle = new Vehicle("Vehicle-1");
+    reservationTable = new ReservationTable();
+    planner = new SafeIntervalPathPlanner(graph, Arrays.asList(pointA, pointB, pointC, pointD));
+  }
+
+  @Test
+  public void takeShortestRouteWithoutReservations() {
+    Route route = planner.findRoute(pointA, pointD, vehicle, 0, reservationTable);
+
+    assertEquals(Arrays.asList("A", "B", "D"), pointNames(route));
+    assertEquals(2000, route.getCosts());
+  }
+
+  @Test
+  public void avoidPointReservedByOtherVehicle() {
+    reservationTable.reserve("Vehicle-2", Arrays.asList(new Reservation("B", 0, 5000)));
+
+    Route route = planner.findRoute(pointA, pointD, vehicle, 0, reservationTable);
+
+    assertEquals(Arrays.asList("A", "C", "D"), pointNames(route));
+  }
+
+  @Test
+  public void takeDetourInsteadOfWaitingForPoint() {
+    reservationTable.reserve("Vehicle-2", Arrays.asList(new Reservation("B", 0, 1200)));
+
+    Route route = planner.findRoute(pointA, pointD, vehicle, 0, reservationTable);
+
+    assertEquals(Arrays.asList("A", "C", "D"), pointNames(route));
+  }
+
+  @Test
+  public void passPointAfterReservationEnds() {
+    reservationTable.reserve("Vehicle-2", Arrays.asList(new Reservation("B", 0, 900)));
+
+    Route route = planner.findRoute(pointA, pointD, vehicle, 0, reservationTable);
+
+    assertEquals(Arrays.asList("A", "B", "D"), pointNames(route));
+  }
+
+  @Test
+  public void avoidPathReservedWhenReached() {
+    reservationTable.reserve("Vehicle-2",
+                             Arrays.asList(new Reservation(pathBD.getName(), 1500, 2500)));
+
+    Route route = planner.findRoute(pointA, pointD, vehicle, 0, reservationTable);
+
+    assertEquals(Arrays.asList("A", "C", "D"), pointNames(route));
+  }
+
+  @Test
+  public void avoidPathReservedByOtherVehicle() {
+    reservationTable.reserve("Vehicle-2",
+                             Arrays.asList(new Reservation(pathBD.getName(), 0, 5000)));
+
+    Route route = planner.findRoute(pointA, pointD, vehicle, 0, reservationTable);
+
+    assertEquals(Arrays.asList("A", "C", "D"), pointNames(route));
+  }
+
+  @Test
+  public void ignoreOwnReservations() {
+    reservationTable.reserve(vehicle.getName(), Arrays.asList(new Reservation("B", 0, 5000)));
+
+    Route route = planner.findRoute(pointA, pointD, vehicle, 0, reservationTable);
+
+    assertEquals(Arrays.asList("A", "B", "D"), pointNames(route));
+  }
+
+  @Test
+  public void ignoreReservationsBeforeDeparture() {
+    reservationTable.reserve("Vehicle-2", Arrays.asList(new Reservation("B", 0, 5000)));
+
+    Route route = planner.findRoute(pointA, pointD, vehicle, 5000, reservationTable);
+
+    assertEquals(Arrays.asList("A", "B", "D"), pointNames(route));
+  }
+
+  @Test
+  public void returnNullIfDestinationIsBlockedIndefinitely() {
+    reservationTable.reserve("Vehicle-2",
+                             Arrays.asList(new Reservation("D", 0, Long.MAX_VALUE)));
+
+    assertNull(planner.findRoute(pointA, pointD, vehicle, 0, reservationTable));
+  }
+
+  private Path addEdge(Point source, Point dest, long length) {
+    Path path = new Path(source.getName() + " --- " + dest.getName(),
+                         source.getReference(),
+                         dest.getReference())
+        .withLength(length);
+    ModelEdge edge = new ModelEdge(path, false);
+    graph.addEdge(source.getName(), dest.getName(), edge);
+    graph.setEdgeWeight(edge, length);
+    return path;
+  }
+
+  private List<String> pointNames(Route route) {
+    List<String> result = new ArrayList<>();
+    result.add(route.getSteps().get(0).getSourcePoint().getName());
+    for (Route.Step step : route.getSteps()) {
+      result.add(step.getDestinationPoint().getName());
+    }
+    return result;
+  }
+}
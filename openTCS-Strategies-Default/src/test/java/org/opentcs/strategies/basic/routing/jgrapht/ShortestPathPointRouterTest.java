@@ -20,6 +20,7 @@ import org.junit.*;
 import static org.junit.Assert.*;
 import org.opentcs.data.model.Path;
 import org.opentcs.data.model.Point;
+import org.opentcs.data.model.Vehicle;
 import org.opentcs.data.order.Route.Step;
 import org.opentcs.strategies.basic.routing.PointRouter;
 
@@ -98,4 +99,34 @@ public class ShortestPathPointRouterTest {
     assertThat(steps, is(not(empty())));
   }
 
+  @Test
+  public void returnCostMatrixForAllPairsOfPoints() {
+    long[][] costs = pointRouter.getCostMatrix(Arrays.asList(pointA, pointB),
+                                               Arrays.asList(pointA, pointB, pointC));
+
+    assertEquals(2, costs.length);
+    assertArrayEquals(new long[]{0, PointRouter.INFINITE_COSTS, 1234}, costs[0]);
+    assertArrayEquals(new long[]{PointRouter.INFINITE_COSTS, 0, PointRouter.INFINITE_COSTS},
+                      costs[1]);
+  }
+
+  @Test
+  public void considerPointsUnreachableForVehicleWithoutVelocity() {
+    Path path = pathAC.withLength(1000).withMaxVelocity(1000).withMaxReverseVelocity(0);
+    Vehicle vehicle = new Vehicle("Vehicle").withMaxVelocity(0).withMaxReverseVelocity(0);
+    WeightedGraph<String, ModelEdge> graph
+        = new DefaultModelGraphMapper(new EdgeEvaluatorTravelTime())
+            .translateModel(Arrays.asList(pointA, pointB, pointC), Arrays.asList(path), vehicle);
+    ShortestPathPointRouter router
+        = new ShortestPathPointRouter(new DijkstraShortestPath<>(graph),
+                                      Arrays.asList(pointA, pointB, pointC),
+                                      new ReachabilityIndex(graph));
+
+    assertEquals(PointRouter.INFINITE_COSTS,
+                 router.getCosts(pointA.getReference(), pointC.getReference()));
+    assertFalse(router.isReachable(pointA, pointC));
+    assertTrue(router.isReachable(pointA, pointA));
+    assertTrue(router.getRoutes(pointA, pointC, 1).isEmpty());
+  }
+
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.routing.jgrapht;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.jgrapht.graph.DirectedWeightedMultigraph;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.opentcs.data.model.Path;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.order.Route;
+import org.opentcs.strategies.basic.routing.PointRouter;
+
+/**
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class YenKShortestPathsTest {
+
+  private Point pointA;
+  private Point pointB;
+  private Point pointC;
+  private Point pointD;
+  private Point pointE;
+
+  private DirectedWeightedMultigraph<String, ModelEdge> graph;
+
+  private YenKShortestPaths kShortestPaths;
+
+  @Before
+  public void setUp() {
+    pointA = new Point("A");
+    pointB = new Point("B");
+    pointC = new Point("C");
+    pointD = new Point("D");
+    pointE = new Point("E");
+
+    graph = new DirectedWeightedMultigraph<>(ModelEdge.class);
+    for (Point point : Arrays.asList(pointA, pointB, pointC, pointD, pointE)) {
+      graph.addVertex(point.getName());
+    }
+    addEdge(pointA, pointB, 1);
+    addEdge(pointB, pointD, 1);
+    addEdge(pointB, pointC, 1);
+    addEdge(pointC, pointB, 2);
+    addEdge(pointA, pointC, 3);
+    addEdge(pointC, pointD, 2);
+    addEdge(pointA, pointD, 7);
+
+    kShortestPaths = new YenKShortestPaths(graph,
+                                           Arrays.asList(pointA, pointB, pointC, pointD, pointE));
+  }
+
+  @Test
+  public void returnRoutesInAscendingOrderOfCosts() {
+    List<Route> routes = kShortestPaths.getRoutes(pointA, pointD, 10);
+
+    assertEquals(5, routes.size());
+    assertEquals(Arrays.asList("A", "B", "D"), pointNames(routes.get(0)));
+    assertEquals(2, routes.get(0).getCosts());
+    assertEquals(Arrays.asList("A", "B", "C", "D"), pointNames(routes.get(1)));
+    assertEquals(4, routes.get(1).getCosts());
+    assertEquals(Arrays.asList("A", "C", "D"), pointNames(routes.get(2)));
+    assertEquals(5, routes.get(2).getCosts());
+    assertEquals(Arrays.asList("A", "C", "B", "D"), pointNames(routes.get(3)));
+    assertEquals(6, routes.get(3).getCosts());
+    assertEquals(Arrays.asList("A", "D"), pointNames(routes.get(4)));
+    assertEquals(7, routes.get(4).getCosts());
+  }
+
+  @Test
+  public void returnLooplessRoutesOnly() {
+    for (Route route : kShortestPaths.getRoutes(pointA, pointD, 10)) {
+      List<String> names = pointNames(route);
+      Set<String> uniqueNames = new HashSet<>(names);
+      assertEquals(names.size(), uniqueNames.size());
+    }
+  }
+
+  @Test
+  public void limitNumberOfRoutes() {
+    List<Route> routes = kShortestPaths.getRoutes(pointA, pointD, 2);
+
+    assertEquals(2, routes.size());
+    assertEquals(Arrays.asList("A", "B", "D"), pointNames(routes.get(0)));
+    assertEquals(Arrays.asList("A", "B", "C", "D"), pointNames(routes.get(1)));
+  }
+
+  @Test
+  public void returnSingleRouteForIdenticalPoints() {
+    List<Route> routes = kShortestPaths.getRoutes(pointB, pointB, 3);
+
+    assertEquals(1, routes.size());
+    assertEquals(1, routes.get(0).getSteps().size());
+    assertEquals(0, routes.get(0).getCosts());
+  }
+
+  @Test
+  public void returnNoRoutesForUnreachableDestination() {
+    assertTrue(kShortestPaths.getRoutes(pointA, pointE, 3).isEmpty());
+    assertTrue(kShortestPaths.getRoutes(pointD, pointA, 3).isEmpty());
+  }
+
+  @Test
+  public void ignoreEdgesWithInfiniteWeights() {
+    addEdge(pointB, pointE, 1);
+    addEdge(pointE, pointD, PointRouter.INFINITE_COSTS);
+    addEdge(pointA, pointE, PointRouter.INFINITE_COSTS);
+    kShortestPaths = new YenKShortestPaths(graph,
+                                           Arrays.asList(pointA, pointB, pointC, pointD, pointE));
+
+    List<Route> routesToD = kShortestPaths.getRoutes(pointA, pointD, 10);
+    assertEquals(5, routesToD.size());
+    for (Route route : routesToD) {
+      assertFalse(pointNames(route).contains("E"));
+    }
+
+    List<Route> routesToE = kShortestPaths.getRoutes(pointA, pointE, 10);
+    assertEquals(2, routesToE.size());
+    assertEquals(Arrays.asList("A", "B", "E"), pointNames(routesToE.get(0)));
+    assertEquals(Arrays.asList("A", "C", "B", "E"), pointNames(routesToE.get(1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectNonPositiveRouteCount() {
+    kShortestPaths.getRoutes(pointA, pointD, 0);
+  }
+
+  private void addEdge(Point source, Point dest, double weight) {
+    ModelEdge edge = new ModelEdge(new Path(source.getName() + " --- " + dest.getName(),
+                                            source.getReference(),
+                                            dest.getReference()),
+                                   false);
+    graph.addEdge(source.getName(), dest.getName(), edge);
+    graph.setEdgeWeight(edge, weight);
+  }
+
+  private List<String> pointNames(Route route) {
+    List<String> result = new ArrayList<>();
+    result.add(route.getSteps().get(0).getSourcePoint().getName());
+    for (Route.Step step : route.getSteps()) {
+      result.add(step.getDestinationPoint().getName());
+    }
+    return result;
+  }
+}
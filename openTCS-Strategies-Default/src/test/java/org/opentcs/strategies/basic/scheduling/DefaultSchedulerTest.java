@@ -0,0 +1,513 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.opentcs.access.LocalKernel;
+import org.opentcs.access.queries.QuerySchedulerContention;
+import org.opentcs.access.queries.QuerySchedulerContention.ResourceContention;
+import org.opentcs.components.kernel.ResourceAllocationException;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.model.Group;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.TCSResource;
+import org.opentcs.data.model.TCSResourceReference;
+import org.opentcs.strategies.basic.routing.jgrapht.CongestionOverlay;
+
+/**
+ * Unit tests for {@link DefaultScheduler}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class DefaultSchedulerTest {
+
+  /**
+   * The time to wait for an allocation to be granted (in ms).
+   */
+  private static final long TIMEOUT = 5000;
+
+  private final Map<String, Point> points = new HashMap<>();
+
+  private final BlockingQueue<String> grants = new LinkedBlockingQueue<>();
+
+  private final BlockingQueue<Deadlock> deadlocks = new LinkedBlockingQueue<>();
+
+  private final Set<Scheduler.Module> modules = new HashSet<>();
+
+  private LocalKernel kernel;
+
+  private DefaultSchedulerConfiguration configuration;
+
+  private DefaultScheduler scheduler;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    for (String name : Arrays.asList("P1", "P2", "P3", "P4")) {
+      points.put(name, new Point(name));
+    }
+    kernel = mock(LocalKernel.class);
+    when(kernel.expandResources(any())).thenAnswer(invocation -> {
+      Set<TCSResourceReference<?>> refs = invocation.getArgument(0);
+      return refs.stream()
+          .map(ref -> (TCSResource<?>) points.get(ref.getName()))
+          .collect(Collectors.toSet());
+    });
+    configuration = mock(DefaultSchedulerConfiguration.class);
+    when(configuration.regionGroups()).thenReturn(Arrays.asList());
+    when(configuration.deadlockDetectionInterval()).thenReturn(50L);
+    scheduler = new DefaultScheduler(kernel,
+                                     new AllocationAdvisor(modules),
+                                     deadlock -> deadlocks.add(deadlock),
+                                     configuration);
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.terminate();
+  }
+
+  @Test
+  public void retryDeferredAllocationOnlyWhenBlockersReleased()
+      throws InterruptedException {
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+    Scheduler.Client clientC = new RecordingClient("C");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientC, resources("P3"));
+    assertThat(nextGrant(), is("C"));
+    scheduler.allocate(clientB, resources("P1", "P2"));
+
+    // Releasing an unrelated resource must not cause a retry.
+    scheduler.free(clientC, resources("P3"));
+    scheduler.allocate(clientC, resources("P4"));
+    assertThat(nextGrant(), is("C"));
+    assertThat(scheduler.getAllocationStatistics().getRetryCount(), is(0L));
+    assertThat(scheduler.getAllocationStatistics().getDeferredCount(), is(1L));
+
+    scheduler.free(clientA, resources("P1"));
+    assertThat(nextGrant(), is("B"));
+    assertThat(scheduler.getAllocationStatistics().getRetryCount(), is(1L));
+    assertThat(scheduler.getAllocationStatistics().getDeferredGrantCount(), is(1L));
+    assertThat(scheduler.getAllocationStatistics().getDeferredCount(), is(0L));
+  }
+
+  @Test
+  public void retryDeferredAllocationWhenAllBlockersReleased()
+      throws InterruptedException {
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+
+    scheduler.allocate(clientA, resources("P1", "P2"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientB, resources("P1", "P2"));
+
+    scheduler.free(clientA, resources("P1"));
+    scheduler.allocate(clientA, resources("P3"));
+    assertThat(nextGrant(), is("A"));
+    assertThat(scheduler.getAllocationStatistics().getRetryCount(), is(0L));
+
+    scheduler.freeAll(clientA);
+    assertThat(nextGrant(), is("B"));
+    assertThat(grants.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+  }
+
+  @Test
+  public void detectDeadlockBetweenClientsWaitingForEachOther()
+      throws InterruptedException {
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+    Scheduler.Client clientC = new RecordingClient("C");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientB, resources("P2"));
+    assertThat(nextGrant(), is("B"));
+    scheduler.allocate(clientC, resources("P3"));
+    assertThat(nextGrant(), is("C"));
+
+    // C waiting for A is not a cycle.
+    scheduler.allocate(clientC, resources("P1"));
+    scheduler.allocate(clientA, resources("P2"));
+    assertThat(deadlocks.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+
+    scheduler.allocate(clientB, resources("P1"));
+    Deadlock deadlock = deadlocks.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertThat(deadlock.getClients(), containsInAnyOrder(clientA, clientB));
+    assertThat(deadlock.getResources(), containsInAnyOrder(points.get("P1"), points.get("P2")));
+    assertThat(scheduler.getAllocationStatistics().getDeadlockCount(), is(1L));
+  }
+
+  @Test
+  public void reportWaitersAndWaitingTimesOfContendedResources()
+      throws InterruptedException {
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientB, resources("P1", "P2"));
+    assertThat(grants.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+
+    QuerySchedulerContention contention = scheduler.getContention();
+    assertThat(contention.getDeferredAllocations(), is(1L));
+    assertThat(contention.getResourceContentions().size(), is(1));
+    ResourceContention resource = contention.getResourceContentions().get(0);
+    assertThat(resource.getResourceName(), is("P1"));
+    assertThat(resource.getHolder(), is("A"));
+    assertThat(resource.getWaiters(), containsInAnyOrder("B"));
+    assertThat(resource.getWaitCount(), is(0L));
+
+    scheduler.free(clientA, resources("P1"));
+    assertThat(nextGrant(), is("B"));
+    resource = scheduler.getContention().getResourceContentions().get(0);
+    assertThat(resource.getHolder(), is("B"));
+    assertThat(resource.getWaiters().isEmpty(), is(true));
+    assertThat(resource.getWaitCount(), is(1L));
+    assertThat(Arrays.stream(resource.getWaitTimeHistogram()).sum(), is(1L));
+  }
+
+  @Test
+  public void allocateAcrossRegionsWhenBlockersReleased()
+      throws InterruptedException {
+    initializeWithRegions(Arrays.asList("P1", "P2"), Arrays.asList("P3", "P4"));
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+    Scheduler.Client clientC = new RecordingClient("C");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientB, resources("P3"));
+    assertThat(nextGrant(), is("B"));
+    scheduler.allocate(clientC, resources("P2", "P3"));
+    assertThat(grants.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+
+    scheduler.free(clientB, resources("P3"));
+    assertThat(nextGrant(), is("C"));
+    assertThat(scheduler.getAllocations().get("A"), containsInAnyOrder(points.get("P1")));
+    assertThat(scheduler.getAllocations().get("C"),
+               containsInAnyOrder(points.get("P2"), points.get("P3")));
+    assertThat(scheduler.getAllocationStatistics().getDeferredCount(), is(0L));
+  }
+
+  @Test
+  public void grantAllocationsOfClientInRequestOrder()
+      throws InterruptedException {
+    initializeWithRegions(Arrays.asList("P1", "P2"), Arrays.asList("P3", "P4"));
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientB, resources("P1"));
+    // The resources are free, but must not be granted before the deferred allocation.
+    scheduler.allocate(clientB, resources("P3"));
+    assertThat(grants.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+    assertThat(scheduler.getAllocations().get("B"), is(nullValue()));
+
+    scheduler.free(clientA, resources("P1"));
+    assertThat(nextGrant(), is("B"));
+    assertThat(nextGrant(), is("B"));
+    assertThat(scheduler.getAllocations().get("B"),
+               containsInAnyOrder(points.get("P1"), points.get("P3")));
+  }
+
+  @Test
+  public void grantNewAllocationAfterWithdrawingBlockedOne()
+      throws InterruptedException {
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientB, resources("P1"));
+    scheduler.allocate(clientB, resources("P2"));
+
+    // The allocations of a withdrawn vehicle must not delay the ones it requests afterwards.
+    scheduler.clearPendingAllocations(clientB);
+    scheduler.allocate(clientB, resources("P3"));
+    assertThat(nextGrant(), is("B"));
+    assertThat(scheduler.getAllocations().get("B"), containsInAnyOrder(points.get("P3")));
+    assertThat(scheduler.getAllocationStatistics().getDeferredCount(), is(0L));
+    assertThat(scheduler.getContention().getResourceContentions().stream()
+        .anyMatch(contention -> !contention.getWaiters().isEmpty()),
+               is(false));
+
+    // The withdrawn allocation must not be granted when its blocker is released.
+    scheduler.free(clientA, resources("P1"));
+    assertThat(grants.poll(200, TimeUnit.MILLISECONDS), is(nullValue()));
+  }
+
+  @Test
+  public void reportPersistingDeadlockOnlyOnce()
+      throws InterruptedException {
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientB, resources("P2"));
+    assertThat(nextGrant(), is("B"));
+
+    scheduler.allocate(clientA, resources("P2"));
+    scheduler.allocate(clientB, resources("P1"));
+    Deadlock deadlock = deadlocks.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertThat(deadlock.getClients(), containsInAnyOrder(clientA, clientB));
+    // Further runs of the detection must not report the same deadlock again.
+    assertThat(deadlocks.poll(200, TimeUnit.MILLISECONDS), is(nullValue()));
+    assertThat(scheduler.getAllocationStatistics().getDeadlockCount(), is(1L));
+  }
+
+  @Test
+  public void detectDeadlockAcrossRegions()
+      throws InterruptedException {
+    initializeWithRegions(Arrays.asList("P1", "P2"), Arrays.asList("P3", "P4"));
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    scheduler.allocate(clientB, resources("P3"));
+    assertThat(nextGrant(), is("B"));
+
+    scheduler.allocate(clientA, resources("P3"));
+    scheduler.allocate(clientB, resources("P1"));
+    Deadlock deadlock = deadlocks.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertThat(deadlock.getClients(), containsInAnyOrder(clientA, clientB));
+    assertThat(deadlock.getResources(), containsInAnyOrder(points.get("P1"), points.get("P3")));
+  }
+
+  @Test
+  public void reportOnlyPassedClaimToModulesNotRequiringAllocationState() {
+    Scheduler.Module module = mock(Scheduler.Module.class);
+    when(module.requiresAllocationState()).thenReturn(false);
+    modules.add(module);
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+
+    scheduler.claim(clientA, Arrays.asList(resources("P1"), resources("P2"), resources("P3")));
+    scheduler.updateProgressIndex(clientA, 2);
+    scheduler.updateProgressIndex(clientA, 2);
+
+    verify(module).claimProgressed(clientA, Arrays.asList(resources("P1"), resources("P2")));
+    // The complete state is never computed if no module requires it.
+    verify(module, never()).setAllocationState(any(), any(), any());
+  }
+
+  @Test
+  public void serializeCallsToModulesNotSupportingConcurrentCalls()
+      throws InterruptedException {
+    ConcurrencyRecordingModule module = new ConcurrencyRecordingModule();
+    modules.add(module);
+    initializeWithRegions(Arrays.asList("P1", "P2"), Arrays.asList("P3", "P4"));
+    Scheduler.Client clientA = new RecordingClient("A");
+    Scheduler.Client clientB = new RecordingClient("B");
+
+    for (int i = 0; i < 5; i++) {
+      scheduler.allocate(clientA, resources("P1"));
+      scheduler.allocate(clientB, resources("P3"));
+      nextGrant();
+      nextGrant();
+      scheduler.free(clientA, resources("P1"));
+      scheduler.free(clientB, resources("P3"));
+    }
+
+    assertThat(module.maxConcurrentCalls.get(), is(1));
+  }
+
+  @Test
+  public void reportImmediateAllocationToModules()
+      throws ResourceAllocationException {
+    CongestionOverlay overlay = new CongestionOverlay(10.0, 1.0);
+    modules.add(overlay);
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+
+    scheduler.allocateNow(clientA, resources("P1"));
+
+    assertThat(overlay.getPenalty("P1"), is(10.0));
+  }
+
+  @Test
+  public void reportReleaseOfAllResourcesToModules()
+      throws InterruptedException, ResourceAllocationException {
+    CongestionOverlay overlay = new CongestionOverlay(10.0, 1.0);
+    modules.add(overlay);
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+
+    scheduler.allocate(clientA, resources("P1"));
+    assertThat(nextGrant(), is("A"));
+    assertThat(overlay.getPenalty("P1"), is(10.0));
+
+    // Resetting a vehicle's position frees all of its resources and allocates the new one.
+    scheduler.freeAll(clientA);
+    scheduler.allocateNow(clientA, resources("P2"));
+    assertThat(overlay.getPenalty("P1"), is(0.0));
+    assertThat(overlay.getPenalty("P2"), is(10.0));
+  }
+
+  @Test
+  public void applyProgressOnceWithModulesRequiringAllocationState() {
+    CongestionOverlay overlay = new CongestionOverlay(10.0, 1.0);
+    modules.add(overlay);
+    Scheduler.Module module = mock(Scheduler.Module.class);
+    when(module.requiresAllocationState()).thenReturn(true);
+    modules.add(module);
+    scheduler.initialize();
+    Scheduler.Client clientA = new RecordingClient("A");
+
+    scheduler.claim(clientA, Arrays.asList(resources("P1"), resources("P2"), resources("P1")));
+    assertThat(overlay.getPenalty("P1"), is(2.0));
+
+    // P1 is passed once, but still part of the remaining claim.
+    scheduler.updateProgressIndex(clientA, 1);
+    assertThat(overlay.getPenalty("P1"), is(1.0));
+    assertThat(overlay.getPenalty("P2"), is(1.0));
+    verify(module).setAllocationState(clientA,
+                                      new HashSet<>(),
+                                      Arrays.asList(resources("P2"), resources("P1")));
+    verify(module, never()).claimProgressed(any(), any());
+  }
+
+  @SafeVarargs
+  private final void initializeWithRegions(List<String>... memberNames) {
+    List<String> groupNames = new ArrayList<>();
+    for (int i = 0; i < memberNames.length; i++) {
+      Group group = new Group("G" + i);
+      for (String memberName : memberNames[i]) {
+        group.addMember(points.get(memberName).getReference());
+      }
+      when(kernel.getTCSObject(Group.class, group.getName())).thenReturn(group);
+      groupNames.add(group.getName());
+    }
+    when(configuration.regionGroups()).thenReturn(groupNames);
+    scheduler.initialize();
+  }
+
+  private Set<TCSResource<?>> resources(String... names) {
+    return Arrays.stream(names)
+        .map(name -> (TCSResource<?>) points.get(name))
+        .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  private String nextGrant()
+      throws InterruptedException {
+    return grants.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * A module that records how many threads call it at the same time.
+   */
+  private static class ConcurrencyRecordingModule
+      implements Scheduler.Module {
+
+    private final AtomicInteger concurrentCalls = new AtomicInteger();
+
+    private final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public boolean isInitialized() {
+      return true;
+    }
+
+    @Override
+    public void terminate() {
+    }
+
+    @Override
+    public void claim(Scheduler.Client client, List<Set<TCSResource<?>>> claim) {
+    }
+
+    @Override
+    public void unclaim(Scheduler.Client client) {
+    }
+
+    @Override
+    public void setAllocationState(Scheduler.Client client,
+                                   Set<TCSResource<?>> alloc,
+                                   List<Set<TCSResource<?>>> remainingClaim) {
+    }
+
+    @Override
+    public boolean mayAllocate(Scheduler.Client client, Set<TCSResource<?>> resources) {
+      maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(20);
+      }
+      catch (InterruptedException exc) {
+        Thread.currentThread().interrupt();
+      }
+      concurrentCalls.decrementAndGet();
+      return true;
+    }
+  }
+
+  /**
+   * A client that records granted allocations.
+   */
+  private class RecordingClient
+      implements Scheduler.Client {
+
+    private final String id;
+
+    RecordingClient(String id) {
+      this.id = id;
+    }
+
+    @Override
+    public String getId() {
+      return id;
+    }
+
+    @Override
+    public boolean allocationSuccessful(Set<TCSResource<?>> resources) {
+      grants.add(id);
+      return true;
+    }
+
+    @Override
+    public void allocationFailed(Set<TCSResource<?>> resources) {
+    }
+  }
+}
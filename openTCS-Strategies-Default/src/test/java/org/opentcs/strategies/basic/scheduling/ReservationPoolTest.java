@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) The openTCS Authors.
+ *
+ * This program is free software and subject to the MIT license. (For details,
+ * see the licensing information (LICENSE.txt) you should have received with
+ * this copy of the software.)
+ */
+package org.opentcs.strategies.basic.scheduling;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.opentcs.components.kernel.Scheduler;
+import org.opentcs.data.model.Point;
+import org.opentcs.data.model.TCSResource;
+
+/**
+ * Unit tests for {@link ReservationPool}.
+ *
+ * @author Stefan Walter (Fraunhofer IML)
+ */
+public class ReservationPoolTest {
+
+  private final Point point1 = new Point("P1");
+
+  private final Point point2 = new Point("P2");
+
+  private final Point point3 = new Point("P3");
+
+  private Scheduler.Client clientA;
+
+  private Scheduler.Client clientB;
+
+  private ReservationPool pool;
+
+  @Before
+  public void setUp() {
+    clientA = mock(Scheduler.Client.class);
+    when(clientA.getId()).thenReturn("A");
+    clientB = mock(Scheduler.Client.class);
+    when(clientB.getId()).thenReturn("B");
+    pool = new ReservationPool();
+  }
+
+  @Test
+  public void trackAllocatedResourcesPerClient() {
+    pool.getReservationEntry(point1).allocate(clientA);
+    pool.getReservationEntry(point2).allocate(clientA);
+    pool.getReservationEntry(point3).allocate(clientB);
+
+    assertThat(pool.allocatedResources(clientA), containsInAnyOrder(point1, point2));
+    assertThat(pool.allocatedResources(clientB), containsInAnyOrder(point3));
+    assertThat(pool.getAllocations().get("A"), containsInAnyOrder(point1, point2));
+  }
+
+  @Test
+  public void reportResourcesAllocatedByOtherClientsAsUnavailable() {
+    pool.getReservationEntry(point1).allocate(clientA);
+    pool.getReservationEntry(point2).allocate(clientB);
+
+    assertThat(pool.unavailableResources(resources(point1, point2, point3), clientA),
+               containsInAnyOrder(point2));
+    assertThat(pool.resourcesAvailableForUser(resources(point1, point3), clientA), is(true));
+    assertThat(pool.resourcesAvailableForUser(resources(point1, point3), clientB), is(false));
+  }
+
+  @Test
+  public void releaseResourceOnlyWhenCounterReachesZero() {
+    pool.getReservationEntry(point1).allocate(clientA);
+    pool.getReservationEntry(point1).allocate(clientA);
+
+    pool.free(clientA, resources(point1));
+    assertThat(pool.getReservationEntry(point1).isFree(), is(false));
+    assertThat(pool.resourcesAvailableForUser(resources(point1), clientB), is(false));
+
+    pool.free(clientA, resources(point1));
+    assertThat(pool.getReservationEntry(point1).isFree(), is(true));
+    assertThat(pool.allocatedResources(clientA), is(empty()));
+    assertThat(pool.resourcesAvailableForUser(resources(point1), clientB), is(true));
+  }
+
+  @Test
+  public void freeAllReleasesOnlyResourcesOfGivenClient() {
+    pool.getReservationEntry(point1).allocate(clientA);
+    pool.getReservationEntry(point1).allocate(clientA);
+    pool.getReservationEntry(point2).allocate(clientB);
+
+    pool.freeAll(clientA);
+
+    assertThat(pool.allocatedResources(clientA), is(empty()));
+    assertThat(pool.getReservationEntry(point1).isFree(), is(true));
+    assertThat(pool.allocatedResources(clientB), containsInAnyOrder(point2));
+    assertThat(pool.getAllocations().containsKey("A"), is(false));
+  }
+
+  @Test
+  public void growBeyondInitialCapacity() {
+    Set<TCSResource<?>> points = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      Point point = new Point("Point-" + i);
+      points.add(point);
+      pool.getReservationEntry(point).allocate(clientA);
+    }
+
+    assertThat(pool.allocatedResources(clientA), is(points));
+    assertThat(pool.unavailableResources(points, clientB), is(points));
+  }
+
+  private Set<TCSResource<?>> resources(TCSResource<?>... resources) {
+    return new HashSet<>(Arrays.asList(resources));
+  }
+}